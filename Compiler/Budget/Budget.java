@@ -0,0 +1,222 @@
+package Compiler.Budget;
+
+import java.io.PrintStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+
+import Compiler.Lexical.Tag;
+import Compiler.Lexical.TokenSource;
+
+/*
+ * Limites de uma compilação de fonte não confiável e a contabilidade de
+ * memória dela. O Lexer confere o tamanho de cada lexema (guardado inteiro no
+ * bloco de leitura, que cresce junto com ele), a quantidade de identificadores
+ * novos na SymbolTable e o tempo a cada bloco lido; os analisadores sintáticos
+ * conferem o total de tokens, a profundidade de aninhamento e o tempo a cada
+ * 1024 tokens. A profundidade é contada nos tokens que abrem e fecham
+ * construções aninhadas, o que limita a recursão do SyntaticAnalyzer e dá
+ * o mesmo erro, no mesmo token, no TableSyntaticAnalyzer.
+ *
+ * Um Budget vale para uma única compilação, feita por uma única thread; sem
+ * Budget (o padrão) nada é conferido. Liga-se com --budget nos drivers de
+ * teste ou com -Dcompiler.budget=true. Cada limite vem de
+ * -Dcompiler.budget.<nome> ou da opção --max-... correspondente; 0 desliga o
+ * limite.
+ */
+public class Budget {
+
+    public static boolean enabled = Boolean.getBoolean("compiler.budget");
+
+    private static boolean printReport = false;
+
+    // Limites dos Budgets criados por create() e pelo construtor sem argumentos
+    private static int defaultTokenLength = Integer.getInteger("compiler.budget.tokenLength", 1 << 20); // bytes por lexema
+    private static int defaultDepth = Integer.getInteger("compiler.budget.depth", 256);
+    private static int defaultIdentifiers = Integer.getInteger("compiler.budget.identifiers", 100_000);
+    private static long defaultTokens = Long.getLong("compiler.budget.tokens", 10_000_000);
+    private static long defaultMillis = Long.getLong("compiler.budget.time", 10_000);
+
+    private final int maxTokenLength;
+    private final int maxDepth;
+    private final int maxIdentifiers;
+    private final long maxTokens;
+    private final long maxMillis;
+
+    private final long startNanos = System.nanoTime();
+    private final long deadline;
+    private final long startAllocated = allocated();
+
+    private long tokens = 0;
+    private int depth = 0;
+    private int peakDepth = 0;
+    private int identifiers = 0;
+    private long bytes = 0;
+    private int longestToken = 0;
+    private int peakBuffer = 0;     // maior bloco de leitura do Lexer
+    private int lines = 0;          // linhas no LineIndex do Lexer
+    private boolean finished = false;
+    private long elapsed;
+    private long allocatedBytes;    // -1 se a JVM não mede a alocação por thread
+
+    public Budget() {
+        this(defaultTokenLength, defaultDepth, defaultIdentifiers, defaultTokens, defaultMillis);
+    }
+
+    public Budget(int maxTokenLength, int maxDepth, int maxIdentifiers, long maxTokens, long maxMillis) {
+        this.maxTokenLength = maxTokenLength;
+        this.maxDepth = maxDepth;
+        this.maxIdentifiers = maxIdentifiers;
+        this.maxTokens = maxTokens;
+        this.maxMillis = maxMillis;
+        this.deadline = maxMillis > 0 ? startNanos + maxMillis * 1_000_000 : Long.MAX_VALUE;
+    }
+
+    /* Um Budget novo para uma compilação se o modo estiver ligado; null caso contrário */
+    public static Budget create() {
+        return enabled ? new Budget() : null;
+    }
+
+    /* Remove das opções de linha de comando --budget, --budget-report e os
+       limites --max-token-length=N, --max-depth=N, --max-identifiers=N,
+       --max-tokens=N e --time-limit=<ms>, ligando o modo se alguma estiver presente */
+    public static String[] configure(String[] args) {
+        ArrayList<String> rest = new ArrayList<>();
+        for (String arg : args) {
+            if (arg.equals("--budget")) {
+                enabled = true;
+            } else if (arg.equals("--budget-report")) {
+                printReport = true;
+                enabled = true;
+            } else if (arg.startsWith("--max-token-length=")) {
+                defaultTokenLength = Integer.parseInt(arg.substring("--max-token-length=".length()));
+                enabled = true;
+            } else if (arg.startsWith("--max-depth=")) {
+                defaultDepth = Integer.parseInt(arg.substring("--max-depth=".length()));
+                enabled = true;
+            } else if (arg.startsWith("--max-identifiers=")) {
+                defaultIdentifiers = Integer.parseInt(arg.substring("--max-identifiers=".length()));
+                enabled = true;
+            } else if (arg.startsWith("--max-tokens=")) {
+                defaultTokens = Long.parseLong(arg.substring("--max-tokens=".length()));
+                enabled = true;
+            } else if (arg.startsWith("--time-limit=")) {
+                defaultMillis = Long.parseLong(arg.substring("--time-limit=".length()));
+                enabled = true;
+            } else {
+                rest.add(arg);
+            }
+        }
+        return rest.toArray(new String[0]);
+    }
+
+    /* Se configure() recebeu --budget-report */
+    public static boolean reportRequested() {
+        return printReport;
+    }
+
+    /* Bloco de n bytes lido pelo Lexer num buffer de capacity bytes, com lines linhas vistas até agora */
+    public void read(int n, int capacity, int lines, TokenSource source, long position) {
+        bytes += n;
+        if (capacity > peakBuffer) peakBuffer = capacity;
+        this.lines = lines;
+        checkTime(source, position);
+    }
+
+    /* Lexema de length bytes, terminado ou ainda em andamento, começando em position */
+    public void lexeme(int length, TokenSource source, long position) {
+        if (length <= longestToken) return;
+        longestToken = length;
+        if (maxTokenLength > 0 && length > maxTokenLength) {
+            throw new BudgetExceededException("token longer than " + maxTokenLength + " bytes", source.line(position));
+        }
+    }
+
+    /* Tamanho do bloco que o Lexer vai alocar quando quer wanted bytes guardando keep
+       bytes de um lexema em andamento. Não cresce mais que um byte além do limite de
+       token, o bastante para a próxima leitura acusar o excesso sem dobrar o bloco */
+    public int lexemeBuffer(int wanted, int keep) {
+        if (maxTokenLength <= 0) return wanted;
+        return Math.max(keep + 1, Math.min(wanted, maxTokenLength + 1));
+    }
+
+    /* Identificador novo na SymbolTable */
+    public void identifier(TokenSource source, long position) {
+        if (++identifiers > maxIdentifiers && maxIdentifiers > 0) {
+            throw new BudgetExceededException("more than " + maxIdentifiers + " identifiers", source.line(position));
+        }
+    }
+
+    /* Token lido por um analisador sintático */
+    public void token(int tag, TokenSource source, long position) {
+        if (++tokens > maxTokens && maxTokens > 0) {
+            throw new BudgetExceededException("more than " + maxTokens + " tokens", source.line(position));
+        }
+        switch (tag) {
+            case '(': case '[': case Tag.BEG: case Tag.IF: case Tag.WHILE: case Tag.REPEAT:
+                if (++depth > peakDepth) {
+                    peakDepth = depth;
+                    if (maxDepth > 0 && depth > maxDepth) {
+                        throw new BudgetExceededException("nesting deeper than " + maxDepth + " levels", source.line(position));
+                    }
+                }
+                break;
+            case ')': case ']': case Tag.END: case Tag.UNTIL:
+                // Um fechamento sem abertura é erro sintático, que o analisador acusa
+                if (depth > 0) depth--;
+                break;
+        }
+        if ((tokens & 1023) == 0) checkTime(source, position);
+    }
+
+    private void checkTime(TokenSource source, long position) {
+        if (System.nanoTime() > deadline) {
+            throw new BudgetExceededException("compilation took longer than " + maxMillis + " ms", source.line(position));
+        }
+    }
+
+    /* Congela o tempo e a memória alocada; chamado pela thread que compilou, ao terminar */
+    public void finish() {
+        if (finished) return;
+        finished = true;
+        elapsed = System.nanoTime() - startNanos;
+        long now = allocated();
+        allocatedBytes = now < 0 || startAllocated < 0 ? -1 : now - startAllocated;
+    }
+
+    /* Bytes alocados até agora pela thread corrente; -1 se a JVM não mede */
+    private static long allocated() {
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        if (threads instanceof com.sun.management.ThreadMXBean) {
+            return ((com.sun.management.ThreadMXBean) threads).getCurrentThreadAllocatedBytes();
+        }
+        return -1;
+    }
+
+    public void report(PrintStream out) {
+        finish();
+        out.println();
+        out.println("Compilation budget");
+        out.println("\tBytes read: " + bytes);
+        out.println("\tLexer buffer peak: " + peakBuffer + " bytes");
+        out.println("\tLongest token: " + longestToken + " bytes" + limit(maxTokenLength));
+        out.println("\tLine index: " + lines + " lines, " + lines * 8L + " bytes");
+        out.println("\tIdentifiers: " + identifiers + limit(maxIdentifiers));
+        out.println("\tTokens: " + tokens + limit(maxTokens));
+        out.println("\tNesting depth peak: " + peakDepth + limit(maxDepth));
+        out.printf("\tTime: %.3f ms%s%n", elapsed / 1e6, limit(maxMillis));
+        out.println("\tAllocated by the compiling thread: " + (allocatedBytes < 0 ? "unknown" : allocatedBytes + " bytes"));
+    }
+
+    /* O relatório numa linha, para listar várias compilações */
+    public String summary() {
+        finish();
+        return String.format("%d bytes read, %d bytes buffer peak, %d identifiers, %d tokens, depth %d, %.3f ms, %s allocated",
+                bytes, peakBuffer, identifiers, tokens, peakDepth, elapsed / 1e6,
+                allocatedBytes < 0 ? "unknown" : allocatedBytes + " bytes");
+    }
+
+    private static String limit(long max) {
+        return max > 0 ? " (limit " + max + ")" : " (no limit)";
+    }
+}
@@ -0,0 +1,8 @@
+package Compiler.Budget;
+
+/* Uma compilação passou de um dos limites do seu Budget */
+public class BudgetExceededException extends RuntimeException {
+    public BudgetExceededException(String reason, int line) {
+        super("Compilation budget exceeded on line " + line + ": " + reason);
+    }
+}
@@ -0,0 +1,348 @@
+package Compiler.Bytecode;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+
+import Compiler.Lexical.Tag;
+import Compiler.Semantic.SemanticResultType;
+import Compiler.Tree.*;
+
+/*
+ * Traduz a árvore de um programa sem erros semânticos para bytecode da Vm,
+ * usando os tipos resolvidos pela análise semântica. Com superinstructions
+ * ligado, os padrões mais comuns viram uma única instrução:
+ *   x = x + c / x = x - c              IINC
+ *   x = a op b, x = a op c             IOP_SSS, IOP_SSK, DOP_SSS
+ *   while/if/repeat com a rel b / c    JF_SS, JF_SK
+ * Toda instrução de desvio é emitida com a pilha vazia, o que o BytecodeVerifier exige,
+ * exceto o curto-circuito de && e ||: os dois lados são avaliados (IAND e IOR
+ * não desviam) a não ser que o direito leia um arranjo e possa falhar.
+ * Uma chamada empilha os argumentos e emite CALL; o corpo de cada
+ * procedimento vem depois do HALT do programa e termina em RET.
+ * O acesso a um elemento de arranjo empilha o índice (e depois o valor, na
+ * escrita); a leitura de um elemento entra na tabela de linhas com a linha
+ * do identificador, para o erro de índice apontar para ela.
+ */
+public class BytecodeCompiler {
+
+    private final boolean superinstructions;
+    private int[] code = new int[256];
+    private int size = 0;
+    private final ArrayList<Long> longs = new ArrayList<>();
+    private final HashMap<Long, Integer> longIndex = new HashMap<>();
+    private final ArrayList<Double> doubles = new ArrayList<>();
+    private final HashMap<Long, Integer> doubleIndex = new HashMap<>(); // pela representação em bits
+    private final ArrayList<byte[]> strings = new ArrayList<>();
+    private final ArrayList<Integer> linePcs = new ArrayList<>();
+    private final ArrayList<Integer> lines = new ArrayList<>();
+
+    public BytecodeCompiler(boolean superinstructions) {
+        this.superinstructions = superinstructions;
+    }
+
+    public static BytecodeProgram compile(Program program, boolean superinstructions) {
+        return new BytecodeCompiler(superinstructions).lower(program);
+    }
+
+    private BytecodeProgram lower(Program program) {
+        byte[] slotTypes = new byte[program.variables.size()];
+        int[] lengths = new int[program.variables.size()];
+        for (Variable variable : program.variables) {
+            slotTypes[variable.slot] = slotType(variable.getType());
+            lengths[variable.slot] = variable.getLength();
+        }
+        statement(program.body);
+        emit(Opcode.HALT);
+        int count = program.procedures.size();
+        int[] entries = new int[count];
+        int[] parameters = new int[count];
+        int[][] frames = new int[count][];
+        for (Procedure procedure : program.procedures) {
+            int p = procedure.index;
+            entries[p] = size;
+            parameters[p] = procedure.parameters.size();
+            frames[p] = new int[procedure.parameters.size() + procedure.locals.size()];
+            for (int i = 0; i < frames[p].length; i++) {
+                frames[p][i] = (i < parameters[p] ? procedure.parameters.get(i) : procedure.locals.get(i - parameters[p])).slot;
+            }
+            statement(procedure.body);
+            emit(Opcode.RET);
+        }
+
+        long[] longTable = new long[longs.size()];
+        for (int i = 0; i < longTable.length; i++) longTable[i] = longs.get(i);
+        double[] doubleTable = new double[doubles.size()];
+        for (int i = 0; i < doubleTable.length; i++) doubleTable[i] = doubles.get(i);
+        return new BytecodeProgram(program.name, slotTypes, lengths, longTable, doubleTable, strings.toArray(new byte[0][]),
+                java.util.Arrays.copyOf(code, size), toArray(linePcs), toArray(lines), entries, parameters, frames);
+    }
+
+    static byte slotType(SemanticResultType type) {
+        if (type == SemanticResultType.TYPE_FLOAT) return BytecodeProgram.FLOAT;
+        if (type == SemanticResultType.TYPE_CHAR) return BytecodeProgram.CHAR;
+        return BytecodeProgram.INT;
+    }
+
+    private void statement(Stmt stmt) {
+        if (stmt instanceof Block) {
+            for (Stmt s : ((Block) stmt).statements) statement(s);
+            return;
+        }
+        line(stmt.line);
+        if (stmt instanceof Assign) {
+            assign((Assign) stmt);
+        } else if (stmt instanceof If) {
+            If ifStmt = (If) stmt;
+            int toElse = branchIfFalse(ifStmt.condition);
+            statement(ifStmt.then);
+            if (ifStmt.otherwise == null) {
+                patch(toElse, size);
+            } else {
+                emit(Opcode.JMP, 0);
+                int toEnd = size - 1;
+                patch(toElse, size);
+                statement(ifStmt.otherwise);
+                patch(toEnd, size);
+            }
+        } else if (stmt instanceof While) {
+            While whileStmt = (While) stmt;
+            int top = size;
+            int toEnd = branchIfFalse(whileStmt.condition);
+            statement(whileStmt.body);
+            emit(Opcode.JMP, top);
+            patch(toEnd, size);
+        } else if (stmt instanceof Repeat) {
+            Repeat repeat = (Repeat) stmt;
+            int top = size;
+            statement(repeat.body);
+            line(repeat.condition.line);
+            patch(branchIfFalse(repeat.condition), top);
+        } else if (stmt instanceof Call) {
+            Call call = (Call) stmt;
+            for (Expr argument : call.arguments) expression(argument);
+            emit(Opcode.CALL, call.procedure);
+        } else if (stmt instanceof Read) {
+            Read read = (Read) stmt;
+            byte type = slotType(read.target.getType());
+            if (read.index != null) {
+                expression(read.index);
+                line(stmt.line);
+                emit(type == BytecodeProgram.FLOAT ? Opcode.READ_FA : type == BytecodeProgram.CHAR ? Opcode.READ_CA : Opcode.READ_IA, read.target.slot);
+            } else {
+                emit(type == BytecodeProgram.FLOAT ? Opcode.READ_F : type == BytecodeProgram.CHAR ? Opcode.READ_C : Opcode.READ_I, read.target.slot);
+            }
+        } else if (stmt instanceof Write) {
+            Expr value = ((Write) stmt).value;
+            expression(value);
+            emit(value.isFloat() ? Opcode.WRITE_F : value.type == SemanticResultType.TYPE_CHAR ? Opcode.WRITE_C : Opcode.WRITE_I);
+        } else if (stmt instanceof WriteString) {
+            strings.add(((WriteString) stmt).bytes);
+            emit(Opcode.WRITE_S, strings.size() - 1);
+        }
+    }
+
+    private void assign(Assign assign) {
+        int target = assign.target.slot;
+        Expr value = assign.value;
+        if (assign.index != null) {
+            expression(assign.index);
+            expression(value);
+            line(assign.line);
+            byte type = slotType(assign.target.getType());
+            emit(type == BytecodeProgram.FLOAT ? Opcode.DASTORE : type == BytecodeProgram.CHAR ? Opcode.CASTORE : Opcode.IASTORE, target);
+            return;
+        }
+        if (superinstructions && value instanceof Binary) {
+            Binary binary = (Binary) value;
+            Integer a = slot(binary.left);
+            Integer b = slot(binary.right);
+            Long c = intConstant(binary.right);
+            if (assign.target.getType() != SemanticResultType.TYPE_FLOAT) {
+                boolean arithmetic = binary.op == '+' || binary.op == '-' || binary.op == '*';
+                if (arithmetic && a != null && a == target && c != null && binary.op != '*') {
+                    emit(Opcode.IINC, target, constant(binary.op == '+' ? c : -c));
+                    return;
+                }
+                if (arithmetic && a != null && b != null) {
+                    emit(Opcode.IOP_SSS, binary.op, target, a, b);
+                    return;
+                }
+                if (arithmetic && a != null && c != null) {
+                    emit(Opcode.IOP_SSK, binary.op, target, a, constant(c));
+                    return;
+                }
+            } else if (a != null && b != null && binary.op != Tag.AND && binary.op != Tag.OR) {
+                emit(Opcode.DOP_SSS, binary.op, target, a, b);
+                return;
+            }
+        }
+        expression(value);
+        emit(assign.target.getType() == SemanticResultType.TYPE_FLOAT ? Opcode.DSTORE : Opcode.ISTORE, target);
+    }
+
+    /* Avalia a condição e emite o desvio tomado quando ela é falsa; retorna a posição do endereço a corrigir */
+    private int branchIfFalse(Expr condition) {
+        if (superinstructions && condition instanceof Binary && !((Binary) condition).left.isFloat()) {
+            Binary binary = (Binary) condition;
+            int rel = relation(binary.op);
+            Integer a = slot(binary.left);
+            Integer b = slot(binary.right);
+            Long c = intConstant(binary.right);
+            if (rel >= 0 && a != null && b != null) {
+                emit(Opcode.JF_SS, rel, a, b, 0);
+                return size - 1;
+            }
+            if (rel >= 0 && a != null && c != null) {
+                emit(Opcode.JF_SK, rel, a, constant(c), 0);
+                return size - 1;
+            }
+        }
+        expression(condition);
+        if (condition.isFloat()) emit(Opcode.DTEST);
+        emit(Opcode.JF, 0);
+        return size - 1;
+    }
+
+    private void expression(Expr expr) {
+        if (expr instanceof IntLiteral || expr instanceof CharLiteral) {
+            emit(Opcode.ICONST, constant(intConstant(expr)));
+        } else if (expr instanceof FloatLiteral) {
+            emit(Opcode.DCONST, constant(((FloatLiteral) expr).value));
+        } else if (expr instanceof VarRef) {
+            emit(expr.isFloat() ? Opcode.DLOAD : Opcode.ILOAD, ((VarRef) expr).variable.slot);
+        } else if (expr instanceof Index) {
+            Index index = (Index) expr;
+            expression(index.index);
+            int statementLine = lines.get(lines.size() - 1);
+            byte type = slotType(index.array.getType());
+            line(index.line);
+            emit(type == BytecodeProgram.FLOAT ? Opcode.DALOAD : type == BytecodeProgram.CHAR ? Opcode.CALOAD : Opcode.IALOAD, index.array.slot);
+            line(statementLine);
+        } else if (expr instanceof Conversion) {
+            Long c = intConstant(((Conversion) expr).operand);
+            if (c != null) {
+                emit(Opcode.DCONST, constant((double) c));
+                return;
+            }
+            expression(((Conversion) expr).operand);
+            emit(Opcode.I2D);
+        } else if (expr instanceof Unary) {
+            Unary unary = (Unary) expr;
+            expression(unary.operand);
+            if (unary.op == '!') emit(expr.isFloat() ? Opcode.DNOT : Opcode.INOT);
+            else emit(expr.isFloat() ? Opcode.DNEG : Opcode.INEG);
+        } else {
+            Binary binary = (Binary) expr;
+            expression(binary.left);
+            int skip = -1;
+            if ((binary.op == Tag.AND || binary.op == Tag.OR) && mayFail(binary.right)) {
+                if (expr.isFloat()) emit(binary.op == Tag.AND ? Opcode.DANDJ : Opcode.DORJ, 0);
+                else emit(binary.op == Tag.AND ? Opcode.IANDJ : Opcode.IORJ, 0);
+                skip = size - 1;
+            }
+            expression(binary.right);
+            int rel = relation(binary.op);
+            if (rel >= 0) {
+                emit(binary.left.isFloat() ? Opcode.DCMP : Opcode.ICMP, rel);
+            } else if (expr.isFloat()) {
+                switch (binary.op) {
+                    case '+': emit(Opcode.DADD); break;
+                    case '-': emit(Opcode.DSUB); break;
+                    case '*': emit(Opcode.DMUL); break;
+                    case '/': emit(Opcode.DDIV); break;
+                    case Tag.AND: emit(Opcode.DAND); break;
+                    default: emit(Opcode.DOR); break;
+                }
+            } else {
+                switch (binary.op) {
+                    case '+': emit(Opcode.IADD); break;
+                    case '-': emit(Opcode.ISUB); break;
+                    case '*': emit(Opcode.IMUL); break;
+                    case Tag.AND: emit(Opcode.IAND); break;
+                    default: emit(Opcode.IOR); break;
+                }
+            }
+            if (skip >= 0) patch(skip, size);
+        }
+    }
+
+    // A expressão lê um elemento de arranjo, o que pode terminar o programa
+    private static boolean mayFail(Expr expr) {
+        if (expr instanceof Index) return true;
+        if (expr instanceof Unary) return mayFail(((Unary) expr).operand);
+        if (expr instanceof Conversion) return mayFail(((Conversion) expr).operand);
+        if (expr instanceof Binary) return mayFail(((Binary) expr).left) || mayFail(((Binary) expr).right);
+        return false;
+    }
+
+    // Slot da variável quando a expressão é só uma leitura de variável
+    private static Integer slot(Expr expr) {
+        return expr instanceof VarRef ? ((VarRef) expr).variable.slot : null;
+    }
+
+    private static Long intConstant(Expr expr) {
+        if (expr instanceof IntLiteral) return ((IntLiteral) expr).value;
+        if (expr instanceof CharLiteral) return (long) ((CharLiteral) expr).value;
+        return null;
+    }
+
+    static int relation(int op) {
+        switch (op) {
+            case '<': return Opcode.LT;
+            case '>': return Opcode.GT;
+            case Tag.LE: return Opcode.LE;
+            case Tag.GE: return Opcode.GE;
+            case Tag.EQ: return Opcode.EQ;
+            case Tag.NE: return Opcode.NE;
+            default: return -1;
+        }
+    }
+
+    private int constant(long value) {
+        Integer index = longIndex.get(value);
+        if (index == null) {
+            index = longs.size();
+            longs.add(value);
+            longIndex.put(value, index);
+        }
+        return index;
+    }
+
+    private int constant(double value) {
+        long bits = Double.doubleToRawLongBits(value);
+        Integer index = doubleIndex.get(bits);
+        if (index == null) {
+            index = doubles.size();
+            doubles.add(value);
+            doubleIndex.put(bits, index);
+        }
+        return index;
+    }
+
+    private void line(int line) {
+        if (lines.isEmpty() || lines.get(lines.size() - 1) != line) {
+            if (!linePcs.isEmpty() && linePcs.get(linePcs.size() - 1) == size) {
+                lines.set(lines.size() - 1, line);
+            } else {
+                linePcs.add(size);
+                lines.add(line);
+            }
+        }
+    }
+
+    private void emit(int... words) {
+        if (size + words.length > code.length) code = java.util.Arrays.copyOf(code, Math.max(code.length * 2, size + words.length));
+        for (int word : words) code[size++] = word;
+    }
+
+    private void patch(int position, int target) {
+        code[position] = target;
+    }
+
+    private static int[] toArray(List<Integer> list) {
+        int[] array = new int[list.size()];
+        for (int i = 0; i < array.length; i++) array[i] = list.get(i);
+        return array;
+    }
+}
@@ -0,0 +1,91 @@
+package Compiler.Bytecode;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+
+import Compiler.Tree.Variable;
+
+/* Lê um arquivo gravado pelo BytecodeWriter; o programa só é devolvido depois de verificado */
+public class BytecodeLoader {
+
+    // Limite para não alocar vetores enormes a partir de um arquivo corrompido
+    private static final int MAX_COUNT = 1 << 26;
+
+    /* O arquivo é lido inteiro para a memória: assim available() diz quantos
+       bytes ainda faltam e cada contagem é conferida contra o que o arquivo
+       ainda pode conter antes de alocar o vetor */
+
+    public static BytecodeProgram load(String fileName) throws IOException {
+        BytecodeProgram program;
+        byte[] file = Files.readAllBytes(Paths.get(fileName));
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(file))) {
+            if (in.readInt() != BytecodeWriter.MAGIC) throw new IOException("File " + fileName + " is not a bytecode file");
+            int version = in.readInt();
+            if (version < 1 || version > BytecodeWriter.VERSION) throw new IOException("Unsupported bytecode version " + version);
+            String name = new String(bytes(in), StandardCharsets.UTF_8);
+            byte[] slotTypes = bytes(in);
+            int[] lengths = new int[version < 3 ? slotTypes.length : count(in, 4)];
+            if (lengths.length != slotTypes.length) throw new IOException("Bytecode array table does not match the slots");
+            for (int i = 0; i < lengths.length && version >= 3; i++) lengths[i] = in.readInt();
+            long[] longs = new long[count(in, 8)];
+            for (int i = 0; i < longs.length; i++) longs[i] = in.readLong();
+            double[] doubles = new double[count(in, 8)];
+            for (int i = 0; i < doubles.length; i++) doubles[i] = Double.longBitsToDouble(in.readLong());
+            byte[][] strings = new byte[count(in, 4)][];
+            for (int i = 0; i < strings.length; i++) strings[i] = bytes(in);
+            int lineCount = count(in, 8);
+            int[] linePcs = new int[lineCount];
+            int[] lines = new int[lineCount];
+            for (int i = 0; i < lineCount; i++) {
+                linePcs[i] = in.readInt();
+                lines[i] = in.readInt();
+                if (i > 0 && linePcs[i] <= linePcs[i - 1]) throw new IOException("Bytecode line table is not sorted");
+            }
+            int[] code = new int[count(in, 4)];
+            for (int i = 0; i < code.length; i++) code[i] = in.readInt();
+            int procedures = version == 1 ? 0 : count(in, 12);
+            int[] entries = new int[procedures];
+            int[] parameters = new int[procedures];
+            int[][] frames = new int[procedures][];
+            for (int p = 0; p < procedures; p++) {
+                entries[p] = in.readInt();
+                parameters[p] = in.readInt();
+                // Cada quadro é conferido contra o que sobrou depois dos anteriores
+                frames[p] = new int[count(in, 4)];
+                for (int i = 0; i < frames[p].length; i++) frames[p][i] = in.readInt();
+            }
+            if (in.read() != -1) throw new IOException("Trailing data after bytecode in " + fileName);
+            program = new BytecodeProgram(name, slotTypes, lengths, longs, doubles, strings, code, linePcs, lines, entries, parameters, frames);
+        } catch (EOFException e) {
+            throw new IOException("Bytecode file " + fileName + " is truncated");
+        }
+        for (byte type : program.slotTypes) {
+            if (type != BytecodeProgram.INT && type != BytecodeProgram.FLOAT && type != BytecodeProgram.CHAR)
+                throw new InvalidBytecodeException("unknown slot type " + type);
+        }
+        for (int length : program.lengths) {
+            if (length < 0 || length > Variable.MAX_LENGTH) throw new InvalidBytecodeException("bad array length " + length);
+        }
+        BytecodeVerifier.verify(program);
+        return program;
+    }
+
+    /* Contagem de elementos que ocupam pelo menos size bytes cada no arquivo */
+    private static int count(DataInputStream in, int size) throws IOException {
+        int count = in.readInt();
+        if (count < 0 || count > MAX_COUNT) throw new IOException("Bad count " + count + " in bytecode file");
+        if ((long) count * size > in.available()) throw new IOException("Count " + count + " exceeds the rest of the bytecode file");
+        return count;
+    }
+
+    private static byte[] bytes(DataInputStream in) throws IOException {
+        byte[] data = new byte[count(in, 1)];
+        in.readFully(data);
+        return data;
+    }
+}
@@ -0,0 +1,112 @@
+package Compiler.Bytecode;
+
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/*
+ * Programa compilado: código, tabelas de constantes, tipos das variáveis,
+ * tabela de linhas e procedimentos. O código do programa vem primeiro e
+ * termina em HALT; depois vem o corpo de cada procedimento, na ordem dos
+ * índices, terminando em RET.
+ */
+public class BytecodeProgram {
+
+    public static final byte INT = 0, FLOAT = 1, CHAR = 2;
+
+    public final String name;
+    public final byte[] slotTypes;  // num arranjo, o tipo dos elementos
+    public final int[] lengths;     // tamanho do arranjo em cada slot; 0 numa variável simples
+    public final long[] longs;
+    public final double[] doubles;
+    public final byte[][] strings;
+    public final int[] code;
+    final int[] linePcs;   // a partir de linePcs[i] o código vem da linha lines[i]
+    final int[] lines;
+    public final int[] entries;     // pc do corpo de cada procedimento
+    public final int[] parameters;  // quantos dos slots de frames[p] são parâmetros
+    public final int[][] frames;    // slots de cada procedimento: parâmetros e depois locais
+
+    // Calculados pelo BytecodeVerifier
+    int maxLongStack = -1;
+    int maxDoubleStack = -1;
+
+    public BytecodeProgram(String name, byte[] slotTypes, int[] lengths, long[] longs, double[] doubles, byte[][] strings,
+                           int[] code, int[] linePcs, int[] lines, int[] entries, int[] parameters, int[][] frames) {
+        this.name = name;
+        this.slotTypes = slotTypes;
+        this.lengths = lengths;
+        this.longs = longs;
+        this.doubles = doubles;
+        this.strings = strings;
+        this.code = code;
+        this.linePcs = linePcs;
+        this.lines = lines;
+        this.entries = entries;
+        this.parameters = parameters;
+        this.frames = frames;
+    }
+
+    public boolean isVerified() {
+        return maxLongStack >= 0;
+    }
+
+    /* Linha do código fonte da instrução em pc */
+    public int line(int pc) {
+        int i = Arrays.binarySearch(linePcs, pc);
+        if (i < 0) i = -i - 2;
+        return i < 0 ? 0 : lines[i];
+    }
+
+    public void disassemble(PrintStream out) {
+        out.println("program " + name + ": " + slotTypes.length + " slots, " + code.length + " words, " + entries.length + " procedures");
+        int lastLine = -1;
+        int procedure = 0;
+        for (int pc = 0; pc < code.length; pc += 1 + Opcode.OPERANDS[code[pc]]) {
+            int op = code[pc];
+            if (procedure < entries.length && entries[procedure] == pc) {
+                out.println("procedure p" + procedure + ": " + parameters[procedure] + " parameters, slots " + Arrays.toString(frames[procedure]));
+                procedure++;
+            }
+            int line = line(pc);
+            StringBuilder text = new StringBuilder();
+            text.append(String.format("%5d  %-8s", pc, Opcode.name(op)));
+            switch (op) {
+                case Opcode.ICONST: text.append(longs[code[pc + 1]]); break;
+                case Opcode.DCONST: text.append(doubles[code[pc + 1]]); break;
+                case Opcode.WRITE_S: text.append('{').append(new String(strings[code[pc + 1]], StandardCharsets.UTF_8)).append('}'); break;
+                case Opcode.ICMP:
+                case Opcode.DCMP: text.append(Opcode.relation(code[pc + 1])); break;
+                case Opcode.CALL: text.append('p').append(code[pc + 1]).append(" -> ").append(entries[code[pc + 1]]); break;
+                case Opcode.IINC: text.append('s').append(code[pc + 1]).append(", ").append(longs[code[pc + 2]]); break;
+                case Opcode.IOP_SSS:
+                case Opcode.DOP_SSS:
+                    text.append('s').append(code[pc + 2]).append(" = s").append(code[pc + 3]).append(' ')
+                        .append((char) code[pc + 1]).append(" s").append(code[pc + 4]);
+                    break;
+                case Opcode.IOP_SSK:
+                    text.append('s').append(code[pc + 2]).append(" = s").append(code[pc + 3]).append(' ')
+                        .append((char) code[pc + 1]).append(' ').append(longs[code[pc + 4]]);
+                    break;
+                case Opcode.JF_SS:
+                    text.append("!(s").append(code[pc + 2]).append(' ').append(Opcode.relation(code[pc + 1]))
+                        .append(" s").append(code[pc + 3]).append(") -> ").append(code[pc + 4]);
+                    break;
+                case Opcode.JF_SK:
+                    text.append("!(s").append(code[pc + 2]).append(' ').append(Opcode.relation(code[pc + 1]))
+                        .append(' ').append(longs[code[pc + 3]]).append(") -> ").append(code[pc + 4]);
+                    break;
+                default:
+                    for (int i = 1; i <= Opcode.OPERANDS[op]; i++) {
+                        if (i > 1) text.append(", ");
+                        text.append(op == Opcode.JMP || op == Opcode.JF || op >= Opcode.IANDJ ? "-> " : "s").append(code[pc + i]);
+                    }
+            }
+            if (line != lastLine) {
+                text.append("    ; line ").append(line);
+                lastLine = line;
+            }
+            out.println(text);
+        }
+    }
+}
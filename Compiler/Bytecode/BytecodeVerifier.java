@@ -0,0 +1,258 @@
+package Compiler.Bytecode;
+
+import java.util.Arrays;
+
+/*
+ * Verificação em duas passadas lineares, sem análise de fluxo:
+ * a primeira marca o início de cada instrução e os destinos de desvio, a
+ * segunda simula as pilhas de long e de double. Como o BytecodeCompiler só
+ * emite desvios com as pilhas vazias, basta exigir pilhas vazias em todo
+ * desvio e em todo destino para que a simulação linear valha para qualquer
+ * caminho. Depois de verificado, a Vm pode confiar nos slots, constantes,
+ * destinos e profundidades de pilha.
+ * A exceção são os desvios de curto-circuito (IANDJ ... DORJ): só para a
+ * frente, e o destino precisa ter as mesmas profundidades de pilha com que
+ * eles desviam.
+ *
+ * O código é dividido em regiões: o programa, até a entrada do primeiro
+ * procedimento, e o corpo de cada procedimento, até a entrada do seguinte.
+ * Nenhum desvio sai da sua região, o programa não tem RET, os procedimentos
+ * não têm HALT e cada região termina num HALT, RET ou JMP. Assim um RET só
+ * executa dentro de uma chamada. A entrada de um procedimento também exige
+ * pilhas vazias, e CALL desempilha um argumento do tipo de cada parâmetro e
+ * deixa as pilhas vazias.
+ *
+ * Um slot de arranjo só aparece nas instruções de elemento, com o tipo dos
+ * elementos, e nunca como parâmetro. O índice é conferido pela Vm.
+ */
+public final class BytecodeVerifier {
+
+    private BytecodeVerifier() {
+    }
+
+    public static void verify(BytecodeProgram program) {
+        int[] code = program.code;
+        int n = code.length;
+        boolean[] starts = new boolean[n];
+        boolean[] targets = new boolean[n];
+        int[] targetLongs = new int[n];     // profundidades nos destinos de curto-circuito; -1 fora deles
+        int[] targetDoubles = new int[n];
+        Arrays.fill(targetLongs, -1);
+
+        int[] entries = program.entries;
+        procedures(program);
+
+        int pc = 0;
+        while (pc < n) {
+            int op = code[pc];
+            if (op < 0 || op >= Opcode.COUNT) throw new InvalidBytecodeException(pc, "unknown opcode " + op);
+            if (pc + Opcode.OPERANDS[op] >= n) throw new InvalidBytecodeException(pc, "truncated " + Opcode.name(op));
+            starts[pc] = true;
+            pc += 1 + Opcode.OPERANDS[op];
+        }
+        for (int p = 0; p < entries.length; p++) {
+            if (entries[p] >= n || !starts[entries[p]]) throw new InvalidBytecodeException(entries[p], "bad entry of procedure " + p);
+            targets[entries[p]] = true;
+        }
+        int region = 0, last = -1;
+        for (pc = 0; pc < n; pc += 1 + Opcode.OPERANDS[code[pc]]) {
+            if (region < entries.length && pc == entries[region]) {
+                end(last, region, pc);
+                region++;
+            }
+            int op = code[pc];
+            last = op;
+            if (op == Opcode.JMP || op == Opcode.JF || op == Opcode.JF_SS || op == Opcode.JF_SK) {
+                int target = code[pc + Opcode.OPERANDS[op]];
+                if (target < 0 || target >= n || !starts[target] || region(entries, target) != region)
+                    throw new InvalidBytecodeException(pc, "bad jump target " + target);
+                targets[target] = true;
+            }
+            if (op >= Opcode.IANDJ && op <= Opcode.DORJ) {
+                int target = code[pc + 1];
+                if (target <= pc || target >= n || !starts[target] || region(entries, target) != region)
+                    throw new InvalidBytecodeException(pc, "bad jump target " + target);
+            }
+            if (op == Opcode.HALT && region > 0) throw new InvalidBytecodeException(pc, "halt inside a procedure");
+            if (op == Opcode.RET && region == 0) throw new InvalidBytecodeException(pc, "ret outside a procedure");
+        }
+        end(last, region, n);
+
+        int longs = 0, doubles = 0, maxLongs = 0, maxDoubles = 0;
+        for (pc = 0; pc < n; pc += 1 + Opcode.OPERANDS[code[pc]]) {
+            if (targets[pc] && (longs != 0 || doubles != 0)) throw new InvalidBytecodeException(pc, "jump target with non-empty stack");
+            if (targetLongs[pc] >= 0 && (longs != targetLongs[pc] || doubles != targetDoubles[pc]))
+                throw new InvalidBytecodeException(pc, "stack depths differ at a jump target");
+            int op = code[pc];
+            switch (op) {
+                case Opcode.HALT:
+                case Opcode.JMP:
+                case Opcode.RET:
+                    empty(pc, longs, doubles);
+                    break;
+                case Opcode.CALL: {
+                    int p = code[pc + 1];
+                    if (p < 0 || p >= entries.length) throw new InvalidBytecodeException(pc, "procedure " + p + " out of range");
+                    for (int i = 0; i < program.parameters[p]; i++) {
+                        if (program.lengths[program.frames[p][i]] != 0) throw new InvalidBytecodeException(pc, "array parameter of procedure " + p);
+                        if (program.slotTypes[program.frames[p][i]] == BytecodeProgram.FLOAT) doubles = pop(doubles, 1, pc);
+                        else longs = pop(longs, 1, pc);
+                    }
+                    empty(pc, longs, doubles);
+                    break;
+                }
+                case Opcode.ICONST: constant(program.longs.length, code[pc + 1], pc); longs++; break;
+                case Opcode.DCONST: constant(program.doubles.length, code[pc + 1], pc); doubles++; break;
+                case Opcode.ILOAD: intSlot(program, code[pc + 1], pc); longs++; break;
+                case Opcode.DLOAD: floatSlot(program, code[pc + 1], pc); doubles++; break;
+                case Opcode.ISTORE: intSlot(program, code[pc + 1], pc); longs = pop(longs, 1, pc); break;
+                case Opcode.DSTORE: floatSlot(program, code[pc + 1], pc); doubles = pop(doubles, 1, pc); break;
+                case Opcode.IADD: case Opcode.ISUB: case Opcode.IMUL: case Opcode.IAND: case Opcode.IOR:
+                    longs = pop(longs, 2, pc) + 1;
+                    break;
+                case Opcode.INEG: case Opcode.INOT:
+                    pop(longs, 1, pc);
+                    break;
+                case Opcode.DADD: case Opcode.DSUB: case Opcode.DMUL: case Opcode.DDIV: case Opcode.DAND: case Opcode.DOR:
+                    doubles = pop(doubles, 2, pc) + 1;
+                    break;
+                case Opcode.DNEG: case Opcode.DNOT:
+                    pop(doubles, 1, pc);
+                    break;
+                case Opcode.I2D: longs = pop(longs, 1, pc); doubles++; break;
+                case Opcode.DTEST: doubles = pop(doubles, 1, pc); longs++; break;
+                case Opcode.ICMP: relation(code[pc + 1], pc); longs = pop(longs, 2, pc) + 1; break;
+                case Opcode.DCMP: relation(code[pc + 1], pc); doubles = pop(doubles, 2, pc); longs++; break;
+                case Opcode.JF: longs = pop(longs, 1, pc); empty(pc, longs, doubles); break;
+                case Opcode.READ_I: slot(program, code[pc + 1], BytecodeProgram.INT, pc); break;
+                case Opcode.READ_F: slot(program, code[pc + 1], BytecodeProgram.FLOAT, pc); break;
+                case Opcode.READ_C: slot(program, code[pc + 1], BytecodeProgram.CHAR, pc); break;
+                case Opcode.WRITE_I: case Opcode.WRITE_C: longs = pop(longs, 1, pc); break;
+                case Opcode.WRITE_F: doubles = pop(doubles, 1, pc); break;
+                case Opcode.WRITE_S: constant(program.strings.length, code[pc + 1], pc); break;
+                case Opcode.IINC:
+                    intSlot(program, code[pc + 1], pc);
+                    constant(program.longs.length, code[pc + 2], pc);
+                    break;
+                case Opcode.IOP_SSS:
+                case Opcode.IOP_SSK:
+                    if (code[pc + 1] != '+' && code[pc + 1] != '-' && code[pc + 1] != '*') throw new InvalidBytecodeException(pc, "bad operator");
+                    intSlot(program, code[pc + 2], pc);
+                    intSlot(program, code[pc + 3], pc);
+                    if (op == Opcode.IOP_SSS) intSlot(program, code[pc + 4], pc);
+                    else constant(program.longs.length, code[pc + 4], pc);
+                    break;
+                case Opcode.DOP_SSS:
+                    if (code[pc + 1] != '+' && code[pc + 1] != '-' && code[pc + 1] != '*' && code[pc + 1] != '/') throw new InvalidBytecodeException(pc, "bad operator");
+                    floatSlot(program, code[pc + 2], pc);
+                    floatSlot(program, code[pc + 3], pc);
+                    floatSlot(program, code[pc + 4], pc);
+                    break;
+                case Opcode.JF_SS:
+                case Opcode.JF_SK:
+                    relation(code[pc + 1], pc);
+                    intSlot(program, code[pc + 2], pc);
+                    if (op == Opcode.JF_SS) intSlot(program, code[pc + 3], pc);
+                    else constant(program.longs.length, code[pc + 3], pc);
+                    empty(pc, longs, doubles);
+                    break;
+                case Opcode.IALOAD: array(program, code[pc + 1], BytecodeProgram.INT, pc); pop(longs, 1, pc); break;
+                case Opcode.CALOAD: array(program, code[pc + 1], BytecodeProgram.CHAR, pc); pop(longs, 1, pc); break;
+                case Opcode.DALOAD: array(program, code[pc + 1], BytecodeProgram.FLOAT, pc); longs = pop(longs, 1, pc); doubles++; break;
+                case Opcode.IASTORE: array(program, code[pc + 1], BytecodeProgram.INT, pc); longs = pop(longs, 2, pc); break;
+                case Opcode.CASTORE: array(program, code[pc + 1], BytecodeProgram.CHAR, pc); longs = pop(longs, 2, pc); break;
+                case Opcode.DASTORE:
+                    array(program, code[pc + 1], BytecodeProgram.FLOAT, pc);
+                    longs = pop(longs, 1, pc);
+                    doubles = pop(doubles, 1, pc);
+                    break;
+                case Opcode.READ_IA: array(program, code[pc + 1], BytecodeProgram.INT, pc); longs = pop(longs, 1, pc); break;
+                case Opcode.READ_FA: array(program, code[pc + 1], BytecodeProgram.FLOAT, pc); longs = pop(longs, 1, pc); break;
+                case Opcode.READ_CA: array(program, code[pc + 1], BytecodeProgram.CHAR, pc); longs = pop(longs, 1, pc); break;
+                case Opcode.IANDJ: case Opcode.IORJ:
+                case Opcode.DANDJ: case Opcode.DORJ: {
+                    if (op == Opcode.IANDJ || op == Opcode.IORJ) pop(longs, 1, pc);
+                    else pop(doubles, 1, pc);
+                    int target = code[pc + 1];
+                    if (targetLongs[target] >= 0 && (targetLongs[target] != longs || targetDoubles[target] != doubles))
+                        throw new InvalidBytecodeException(pc, "stack depths differ at a jump target");
+                    targetLongs[target] = longs;
+                    targetDoubles[target] = doubles;
+                    break;
+                }
+                default:
+                    throw new InvalidBytecodeException(pc, "unknown opcode " + op);
+            }
+            maxLongs = Math.max(maxLongs, longs);
+            maxDoubles = Math.max(maxDoubles, doubles);
+        }
+        program.maxLongStack = maxLongs;
+        program.maxDoubleStack = maxDoubles;
+    }
+
+    // Entradas em ordem crescente depois do HALT do programa; parâmetros e locais em slots válidos
+    private static void procedures(BytecodeProgram program) {
+        int[] entries = program.entries;
+        if (program.parameters.length != entries.length || program.frames.length != entries.length)
+            throw new InvalidBytecodeException("procedure tables of different sizes");
+        if (program.lengths.length != program.slotTypes.length) throw new InvalidBytecodeException("array table of a different size");
+        for (int p = 0; p < entries.length; p++) {
+            if (entries[p] <= (p == 0 ? 0 : entries[p - 1])) throw new InvalidBytecodeException(entries[p], "bad entry of procedure " + p);
+            int[] frame = program.frames[p];
+            if (program.parameters[p] < 0 || program.parameters[p] > frame.length)
+                throw new InvalidBytecodeException("bad parameter count of procedure " + p);
+            for (int slot : frame) {
+                if (slot < 0 || slot >= program.slotTypes.length) throw new InvalidBytecodeException("slot " + slot + " of procedure " + p + " out of range");
+            }
+        }
+    }
+
+    // Região do pc: 0 para o programa, p + 1 para o procedimento p
+    private static int region(int[] entries, int pc) {
+        int i = Arrays.binarySearch(entries, pc);
+        return i >= 0 ? i + 1 : -i - 1;
+    }
+
+    // A região não pode continuar na seguinte
+    private static void end(int last, int region, int pc) {
+        if (region == 0 ? last != Opcode.HALT && last != Opcode.JMP : last != Opcode.RET && last != Opcode.JMP)
+            throw new InvalidBytecodeException(pc, "code can fall off the end");
+    }
+
+    private static int pop(int depth, int count, int pc) {
+        if (depth < count) throw new InvalidBytecodeException(pc, "stack underflow");
+        return depth - count;
+    }
+
+    private static void empty(int pc, int longs, int doubles) {
+        if (longs != 0 || doubles != 0) throw new InvalidBytecodeException(pc, "branch with non-empty stack");
+    }
+
+    private static void constant(int size, int index, int pc) {
+        if (index < 0 || index >= size) throw new InvalidBytecodeException(pc, "constant " + index + " out of range");
+    }
+
+    private static void relation(int rel, int pc) {
+        if (rel < Opcode.LT || rel > Opcode.NE) throw new InvalidBytecodeException(pc, "bad relation " + rel);
+    }
+
+    // Slot int ou char
+    private static void intSlot(BytecodeProgram program, int slot, int pc) {
+        if (slot < 0 || slot >= program.slotTypes.length || program.slotTypes[slot] == BytecodeProgram.FLOAT || program.lengths[slot] != 0)
+            throw new InvalidBytecodeException(pc, "slot " + slot + " is not an int or char variable");
+    }
+
+    private static void floatSlot(BytecodeProgram program, int slot, int pc) {
+        slot(program, slot, BytecodeProgram.FLOAT, pc);
+    }
+
+    private static void slot(BytecodeProgram program, int slot, byte type, int pc) {
+        if (slot < 0 || slot >= program.slotTypes.length || program.slotTypes[slot] != type || program.lengths[slot] != 0)
+            throw new InvalidBytecodeException(pc, "slot " + slot + " has the wrong type");
+    }
+
+    private static void array(BytecodeProgram program, int slot, byte type, int pc) {
+        if (slot < 0 || slot >= program.slotTypes.length || program.slotTypes[slot] != type || program.lengths[slot] <= 0)
+            throw new InvalidBytecodeException(pc, "slot " + slot + " is not an array of the right type");
+    }
+}
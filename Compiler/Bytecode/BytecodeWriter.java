@@ -0,0 +1,67 @@
+package Compiler.Bytecode;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+/*
+ * Grava um BytecodeProgram para ser executado depois sem passar pelo compilador.
+ *
+ * Formato (inteiros de 4 bytes, big-endian):
+ *   magic "TBC1" | versão | nome (tamanho + UTF-8)
+ *   slots:     quantidade + um byte de tipo por slot
+ *   arranjos:  quantidade + tamanho de cada slot (0 numa variável simples)
+ *   longs:     quantidade + 8 bytes cada
+ *   doubles:   quantidade + 8 bytes cada (bits IEEE)
+ *   strings:   quantidade + {tamanho, bytes} cada
+ *   linhas:    quantidade + {pc, linha} cada
+ *   código:    quantidade + palavras
+ *   procedimentos: quantidade + {entrada, parâmetros, quantidade de slots + slots} cada
+ *
+ * A versão 1 não tinha a seção de procedimentos e a 2 não tinha a de
+ * arranjos; o BytecodeLoader ainda as lê.
+ */
+public class BytecodeWriter {
+
+    static final int MAGIC = 0x54424331;
+    static final int VERSION = 3;
+
+    public static void write(BytecodeProgram program, String fileName) throws IOException {
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(fileName)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            byte[] name = program.name.getBytes(StandardCharsets.UTF_8);
+            out.writeInt(name.length);
+            out.write(name);
+            out.writeInt(program.slotTypes.length);
+            out.write(program.slotTypes);
+            out.writeInt(program.lengths.length);
+            for (int length : program.lengths) out.writeInt(length);
+            out.writeInt(program.longs.length);
+            for (long value : program.longs) out.writeLong(value);
+            out.writeInt(program.doubles.length);
+            for (double value : program.doubles) out.writeLong(Double.doubleToRawLongBits(value));
+            out.writeInt(program.strings.length);
+            for (byte[] text : program.strings) {
+                out.writeInt(text.length);
+                out.write(text);
+            }
+            out.writeInt(program.lines.length);
+            for (int i = 0; i < program.lines.length; i++) {
+                out.writeInt(program.linePcs[i]);
+                out.writeInt(program.lines[i]);
+            }
+            out.writeInt(program.code.length);
+            for (int word : program.code) out.writeInt(word);
+            out.writeInt(program.entries.length);
+            for (int p = 0; p < program.entries.length; p++) {
+                out.writeInt(program.entries[p]);
+                out.writeInt(program.parameters[p]);
+                out.writeInt(program.frames[p].length);
+                for (int slot : program.frames[p]) out.writeInt(slot);
+            }
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package Compiler.Bytecode;
+
+public class InvalidBytecodeException extends RuntimeException {
+    public InvalidBytecodeException(int pc, String message) {
+        super("Invalid bytecode at " + pc + ": " + message);
+    }
+
+    public InvalidBytecodeException(String message) {
+        super("Invalid bytecode: " + message);
+    }
+}
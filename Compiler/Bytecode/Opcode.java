@@ -0,0 +1,138 @@
+package Compiler.Bytecode;
+
+/*
+ * Instruções da máquina virtual. Cada instrução ocupa uma posição do código
+ * para o opcode seguida dos operandos; OPERANDS dá quantos são.
+ * Os operandos são slots de variáveis (s), índices nas tabelas de constantes (k),
+ * uma relação (rel), o endereço de destino de um desvio (t) ou o índice de um
+ * procedimento (p).
+ * Os desvios de && e || (IANDJ ... DORJ) são os únicos tomados com valores na
+ * pilha: pulam o lado direito deixando o resultado no topo.
+ * Valores int e char usam a pilha de long; float usa a pilha de double.
+ */
+public final class Opcode {
+
+    public final static int
+            HALT = 0,
+            ICONST = 1,     // k          -> i
+            DCONST = 2,     // k          -> d
+            ILOAD = 3,      // s          -> i
+            DLOAD = 4,      // s          -> d
+            ISTORE = 5,     // s      i   ->
+            DSTORE = 6,     // s      d   ->
+            IADD = 7,       //        i i -> i
+            ISUB = 8,
+            IMUL = 9,
+            INEG = 10,      //        i   -> i
+            INOT = 11,      //        i   -> i   (1 se zero)
+            IAND = 12,      //        i i -> i   (1 se ambos diferentes de zero)
+            IOR = 13,
+            DADD = 14,      //        d d -> d
+            DSUB = 15,
+            DMUL = 16,
+            DDIV = 17,
+            DNEG = 18,      //        d   -> d
+            DNOT = 19,      //        d   -> d   (1.0 se zero)
+            DAND = 20,      //        d d -> d
+            DOR = 21,
+            I2D = 22,       //        i   -> d
+            DTEST = 23,     //        d   -> i   (1 se diferente de zero)
+            ICMP = 24,      // rel    i i -> i
+            DCMP = 25,      // rel    d d -> i
+            JMP = 26,       // t
+            JF = 27,        // t      i   ->     desvia se zero (falso)
+            READ_I = 28,    // s
+            READ_F = 29,    // s
+            READ_C = 30,    // s
+            WRITE_I = 31,   //        i   ->
+            WRITE_F = 32,   //        d   ->
+            WRITE_C = 33,   //        i   ->
+            WRITE_S = 34,   // k
+
+            //Superinstruções
+            IINC = 35,      // s k          x = x + const
+            IOP_SSS = 36,   // op s a b     x = a op b   (op: '+', '-', '*')
+            IOP_SSK = 37,   // op s a k     x = a op const
+            DOP_SSS = 38,   // op s a b     x = a op b   (op: '+', '-', '*', '/')
+            JF_SS = 39,     // rel a b t    desvia se !(a rel b)
+            JF_SK = 40,     // rel a k t    desvia se !(a rel const)
+
+            //Procedimentos
+            CALL = 41,      // p      args -> desvia para o corpo com os argumentos nos parâmetros
+            RET = 42,       //                volta para depois do CALL
+
+            //Arranjos: o índice é conferido contra o tamanho do arranjo no slot
+            IALOAD = 43,    // s      i   -> i
+            DALOAD = 44,    // s      i   -> d
+            CALOAD = 45,    // s      i   -> i
+            IASTORE = 46,   // s      i i ->     (índice, valor)
+            DASTORE = 47,   // s      i d ->
+            CASTORE = 48,   // s      i i ->     guarda os 16 bits de um char
+            READ_IA = 49,   // s      i   ->     lê a entrada e guarda no índice
+            READ_FA = 50,   // s      i   ->
+            READ_CA = 51,   // s      i   ->
+
+            //Curto-circuito, quando o lado direito pode falhar
+            IANDJ = 52,     // t      i   -> i   desvia se zero, mantendo o 0
+            IORJ = 53,      // t      i   -> i   desvia se diferente de zero, com 1 no topo
+            DANDJ = 54,     // t      d   -> d
+            DORJ = 55;      // t      d   -> d
+
+    //Relações dos comparadores
+    public final static int LT = 0, GT = 1, LE = 2, GE = 3, EQ = 4, NE = 5;
+
+    public static final int COUNT = 56;
+
+    public static final int[] OPERANDS = {
+        0, 1, 1, 1, 1, 1, 1, 0, 0, 0,
+        0, 0, 0, 0, 0, 0, 0, 0, 0, 0,
+        0, 0, 0, 0, 1, 1, 1, 1, 1, 1,
+        1, 0, 0, 0, 1, 2, 4, 4, 4, 4,
+        4, 1, 0, 1, 1, 1, 1, 1, 1, 1,
+        1, 1, 1, 1, 1, 1
+    };
+
+    private static final String[] NAMES = {
+        "halt", "iconst", "dconst", "iload", "dload", "istore", "dstore", "iadd", "isub", "imul",
+        "ineg", "inot", "iand", "ior", "dadd", "dsub", "dmul", "ddiv", "dneg", "dnot",
+        "dand", "dor", "i2d", "dtest", "icmp", "dcmp", "jmp", "jf", "read_i", "read_f",
+        "read_c", "write_i", "write_f", "write_c", "write_s", "iinc", "iop_sss", "iop_ssk", "dop_sss", "jf_ss",
+        "jf_sk", "call", "ret", "iaload", "daload", "caload", "iastore", "dastore", "castore", "read_ia",
+        "read_fa", "read_ca", "iandj", "iorj", "dandj", "dorj"
+    };
+
+    private static final String[] RELATIONS = { "<", ">", "<=", ">=", "==", "!=" };
+
+    private Opcode() {
+    }
+
+    public static String name(int opcode) {
+        return opcode >= 0 && opcode < COUNT ? NAMES[opcode] : "?" + opcode;
+    }
+
+    public static String relation(int rel) {
+        return rel >= 0 && rel < RELATIONS.length ? RELATIONS[rel] : "?" + rel;
+    }
+
+    static boolean compare(int rel, long a, long b) {
+        switch (rel) {
+            case LT: return a < b;
+            case GT: return a > b;
+            case LE: return a <= b;
+            case GE: return a >= b;
+            case EQ: return a == b;
+            default: return a != b;
+        }
+    }
+
+    static boolean compare(int rel, double a, double b) {
+        switch (rel) {
+            case LT: return a < b;
+            case GT: return a > b;
+            case LE: return a <= b;
+            case GE: return a >= b;
+            case EQ: return a == b;
+            default: return a != b;
+        }
+    }
+}
@@ -0,0 +1,368 @@
+package Compiler.Bytecode;
+
+import java.util.Arrays;
+
+import Compiler.Runtime.ProgramInput;
+import Compiler.Runtime.ProgramOutput;
+import Compiler.Runtime.RuntimeError;
+
+/*
+ * Máquina virtual de pilha: um laço de despacho com switch sobre o vetor de
+ * código. O programa é verificado antes de executar, então o laço não testa
+ * limites de pilha, tipos de slot nem destinos de desvio.
+ * Cada procedimento usa slots próprios; só uma chamada recursiva guarda os
+ * valores da chamada já aberta, que voltam no RET.
+ * Os arranjos ficam em vetores próprios por slot e todo acesso confere o
+ * índice; um arranjo local é zerado na entrada, e a chamada recursiva troca
+ * o vetor por um novo, devolvendo o antigo no RET.
+ */
+public class Vm {
+
+    private final ProgramInput input;
+    private final ProgramOutput output;
+    private boolean counting = false;
+    private long dispatched = 0;
+
+    public Vm(ProgramInput input, ProgramOutput output) {
+        this.input = input;
+        this.output = output;
+    }
+
+    /* Conta as instruções despachadas (deixa o laço um pouco mais lento) */
+    public void setCounting(boolean counting) {
+        this.counting = counting;
+    }
+
+    public long getDispatched() {
+        return dispatched;
+    }
+
+    public void run(BytecodeProgram program) {
+        if (!program.isVerified()) BytecodeVerifier.verify(program);
+        try {
+            if (counting) dispatched += execute(program, true);
+            else execute(program, false);
+        } finally {
+            output.flush();
+        }
+    }
+
+    private long execute(BytecodeProgram program, boolean counting) {
+        final int[] code = program.code;
+        final long[] longConstants = program.longs;
+        final double[] doubleConstants = program.doubles;
+        final byte[][] strings = program.strings;
+        // Variáveis int/char e float ficam em vetores separados, indexados pelo mesmo slot
+        final long[] ints = new long[program.slotTypes.length];
+        final double[] floats = new double[program.slotTypes.length];
+        final long[][] intArrays = new long[program.slotTypes.length][];
+        final double[][] floatArrays = new double[program.slotTypes.length][];
+        final char[][] charArrays = new char[program.slotTypes.length][];
+        for (int slot = 0; slot < program.lengths.length; slot++) {
+            int length = program.lengths[slot];
+            if (length == 0) continue;
+            if (program.slotTypes[slot] == BytecodeProgram.FLOAT) floatArrays[slot] = new double[length];
+            else if (program.slotTypes[slot] == BytecodeProgram.CHAR) charArrays[slot] = new char[length];
+            else intArrays[slot] = new long[length];
+        }
+        final long[] ls = new long[program.maxLongStack];
+        final double[] ds = new double[program.maxDoubleStack];
+        int lsp = 0, dsp = 0;
+        final Calls calls = program.entries.length == 0 ? null : new Calls(program, intArrays, floatArrays, charArrays);
+        int pc = 0;
+        long count = 0;
+
+        while (true) {
+            if (counting) count++;
+            switch (code[pc]) {
+                case Opcode.HALT:
+                    return count;
+                case Opcode.ICONST: ls[lsp++] = longConstants[code[pc + 1]]; pc += 2; break;
+                case Opcode.DCONST: ds[dsp++] = doubleConstants[code[pc + 1]]; pc += 2; break;
+                case Opcode.ILOAD: ls[lsp++] = ints[code[pc + 1]]; pc += 2; break;
+                case Opcode.DLOAD: ds[dsp++] = floats[code[pc + 1]]; pc += 2; break;
+                case Opcode.ISTORE: ints[code[pc + 1]] = ls[--lsp]; pc += 2; break;
+                case Opcode.DSTORE: floats[code[pc + 1]] = ds[--dsp]; pc += 2; break;
+                case Opcode.IADD: lsp--; ls[lsp - 1] += ls[lsp]; pc++; break;
+                case Opcode.ISUB: lsp--; ls[lsp - 1] -= ls[lsp]; pc++; break;
+                case Opcode.IMUL: lsp--; ls[lsp - 1] *= ls[lsp]; pc++; break;
+                case Opcode.INEG: ls[lsp - 1] = -ls[lsp - 1]; pc++; break;
+                case Opcode.INOT: ls[lsp - 1] = ls[lsp - 1] == 0 ? 1 : 0; pc++; break;
+                case Opcode.IAND: lsp--; ls[lsp - 1] = ls[lsp - 1] != 0 && ls[lsp] != 0 ? 1 : 0; pc++; break;
+                case Opcode.IOR: lsp--; ls[lsp - 1] = ls[lsp - 1] != 0 || ls[lsp] != 0 ? 1 : 0; pc++; break;
+                case Opcode.DADD: dsp--; ds[dsp - 1] += ds[dsp]; pc++; break;
+                case Opcode.DSUB: dsp--; ds[dsp - 1] -= ds[dsp]; pc++; break;
+                case Opcode.DMUL: dsp--; ds[dsp - 1] *= ds[dsp]; pc++; break;
+                case Opcode.DDIV: dsp--; ds[dsp - 1] /= ds[dsp]; pc++; break;
+                case Opcode.DNEG: ds[dsp - 1] = -ds[dsp - 1]; pc++; break;
+                case Opcode.DNOT: ds[dsp - 1] = ds[dsp - 1] == 0 ? 1.0 : 0.0; pc++; break;
+                case Opcode.DAND: dsp--; ds[dsp - 1] = ds[dsp - 1] != 0 && ds[dsp] != 0 ? 1.0 : 0.0; pc++; break;
+                case Opcode.DOR: dsp--; ds[dsp - 1] = ds[dsp - 1] != 0 || ds[dsp] != 0 ? 1.0 : 0.0; pc++; break;
+                case Opcode.I2D: ds[dsp++] = ls[--lsp]; pc++; break;
+                case Opcode.DTEST: ls[lsp++] = ds[--dsp] != 0 ? 1 : 0; pc++; break;
+                case Opcode.ICMP:
+                    lsp--;
+                    ls[lsp - 1] = Opcode.compare(code[pc + 1], ls[lsp - 1], ls[lsp]) ? 1 : 0;
+                    pc += 2;
+                    break;
+                case Opcode.DCMP:
+                    dsp -= 2;
+                    ls[lsp++] = Opcode.compare(code[pc + 1], ds[dsp], ds[dsp + 1]) ? 1 : 0;
+                    pc += 2;
+                    break;
+                case Opcode.JMP: pc = code[pc + 1]; break;
+                case Opcode.JF: pc = ls[--lsp] == 0 ? code[pc + 1] : pc + 2; break;
+                case Opcode.READ_I:
+                case Opcode.READ_F:
+                case Opcode.READ_C:
+                    read(program, code[pc], code[pc + 1], ints, floats, pc);
+                    pc += 2;
+                    break;
+                case Opcode.WRITE_I: output.writeInt(ls[--lsp]); pc++; break;
+                case Opcode.WRITE_F: output.writeFloat(ds[--dsp]); pc++; break;
+                case Opcode.WRITE_C: output.writeChar((char) ls[--lsp]); pc++; break;
+                case Opcode.WRITE_S: output.writeBytes(strings[code[pc + 1]]); pc += 2; break;
+                case Opcode.IINC: ints[code[pc + 1]] += longConstants[code[pc + 2]]; pc += 3; break;
+                case Opcode.IOP_SSS: {
+                    long a = ints[code[pc + 3]], b = ints[code[pc + 4]];
+                    int op = code[pc + 1];
+                    ints[code[pc + 2]] = op == '+' ? a + b : op == '-' ? a - b : a * b;
+                    pc += 5;
+                    break;
+                }
+                case Opcode.IOP_SSK: {
+                    long a = ints[code[pc + 3]], b = longConstants[code[pc + 4]];
+                    int op = code[pc + 1];
+                    ints[code[pc + 2]] = op == '+' ? a + b : op == '-' ? a - b : a * b;
+                    pc += 5;
+                    break;
+                }
+                case Opcode.DOP_SSS: {
+                    double a = floats[code[pc + 3]], b = floats[code[pc + 4]];
+                    int op = code[pc + 1];
+                    floats[code[pc + 2]] = op == '+' ? a + b : op == '-' ? a - b : op == '*' ? a * b : a / b;
+                    pc += 5;
+                    break;
+                }
+                case Opcode.JF_SS:
+                    pc = Opcode.compare(code[pc + 1], ints[code[pc + 2]], ints[code[pc + 3]]) ? pc + 5 : code[pc + 4];
+                    break;
+                case Opcode.JF_SK:
+                    pc = Opcode.compare(code[pc + 1], ints[code[pc + 2]], longConstants[code[pc + 3]]) ? pc + 5 : code[pc + 4];
+                    break;
+                case Opcode.CALL: {
+                    int p = code[pc + 1];
+                    if (calls.depth == RuntimeError.MAX_CALL_DEPTH) throw RuntimeError.callDepth(program.line(pc));
+                    lsp -= calls.longParameters[p];
+                    dsp -= calls.doubleParameters[p];
+                    calls.enter(p, pc + 2, ints, floats, ls, lsp, ds, dsp);
+                    pc = program.entries[p];
+                    break;
+                }
+                case Opcode.RET: pc = calls.leave(ints, floats); break;
+                case Opcode.IANDJ: pc = ls[lsp - 1] == 0 ? code[pc + 1] : pc + 2; break;
+                case Opcode.IORJ:
+                    if (ls[lsp - 1] != 0) {
+                        ls[lsp - 1] = 1;
+                        pc = code[pc + 1];
+                    } else {
+                        pc += 2;
+                    }
+                    break;
+                case Opcode.DANDJ: pc = ds[dsp - 1] == 0 ? code[pc + 1] : pc + 2; break;
+                case Opcode.DORJ:
+                    if (ds[dsp - 1] != 0) {
+                        ds[dsp - 1] = 1.0;
+                        pc = code[pc + 1];
+                    } else {
+                        pc += 2;
+                    }
+                    break;
+                case Opcode.IALOAD: {
+                    long[] array = intArrays[code[pc + 1]];
+                    ls[lsp - 1] = array[RuntimeError.checkIndex(ls[lsp - 1], array.length, program.line(pc))];
+                    pc += 2;
+                    break;
+                }
+                case Opcode.DALOAD: {
+                    double[] array = floatArrays[code[pc + 1]];
+                    ds[dsp++] = array[RuntimeError.checkIndex(ls[--lsp], array.length, program.line(pc))];
+                    pc += 2;
+                    break;
+                }
+                case Opcode.CALOAD: {
+                    char[] array = charArrays[code[pc + 1]];
+                    ls[lsp - 1] = array[RuntimeError.checkIndex(ls[lsp - 1], array.length, program.line(pc))];
+                    pc += 2;
+                    break;
+                }
+                case Opcode.IASTORE: {
+                    long[] array = intArrays[code[pc + 1]];
+                    lsp -= 2;
+                    array[RuntimeError.checkIndex(ls[lsp], array.length, program.line(pc))] = ls[lsp + 1];
+                    pc += 2;
+                    break;
+                }
+                case Opcode.DASTORE: {
+                    double[] array = floatArrays[code[pc + 1]];
+                    array[RuntimeError.checkIndex(ls[--lsp], array.length, program.line(pc))] = ds[--dsp];
+                    pc += 2;
+                    break;
+                }
+                case Opcode.CASTORE: {
+                    char[] array = charArrays[code[pc + 1]];
+                    lsp -= 2;
+                    array[RuntimeError.checkIndex(ls[lsp], array.length, program.line(pc))] = (char) ls[lsp + 1];
+                    pc += 2;
+                    break;
+                }
+                case Opcode.READ_IA:
+                case Opcode.READ_FA:
+                case Opcode.READ_CA:
+                    readElement(program, code[pc], code[pc + 1], ls[--lsp], intArrays, floatArrays, charArrays, pc);
+                    pc += 2;
+                    break;
+                default:
+                    throw new RuntimeError("Unknown opcode " + code[pc], program.line(pc));
+            }
+        }
+    }
+
+    // Chamadas abertas e os valores guardados das chamadas recursivas
+    private static final class Calls {
+        final BytecodeProgram program;
+        final int[] longParameters;   // argumentos na pilha de long de cada procedimento
+        final int[] doubleParameters;
+        final int[] returns = new int[RuntimeError.MAX_CALL_DEPTH];
+        final int[] callees = new int[RuntimeError.MAX_CALL_DEPTH];
+        final boolean[] saved = new boolean[RuntimeError.MAX_CALL_DEPTH];
+        final int[] active;
+        int depth = 0;
+        long[] savedInts = new long[64];
+        double[] savedFloats = new double[64];
+        Object[] savedArrays = new Object[16];
+        int savedIntCount = 0, savedFloatCount = 0, savedArrayCount = 0;
+        final long[][] intArrays;
+        final double[][] floatArrays;
+        final char[][] charArrays;
+
+        Calls(BytecodeProgram program, long[][] intArrays, double[][] floatArrays, char[][] charArrays) {
+            this.program = program;
+            this.intArrays = intArrays;
+            this.floatArrays = floatArrays;
+            this.charArrays = charArrays;
+            int count = program.entries.length;
+            longParameters = new int[count];
+            doubleParameters = new int[count];
+            active = new int[count];
+            for (int p = 0; p < count; p++) {
+                for (int i = 0; i < program.parameters[p]; i++) {
+                    if (isFloat(program.frames[p][i])) doubleParameters[p]++;
+                    else longParameters[p]++;
+                }
+            }
+        }
+
+        boolean isFloat(int slot) {
+            return program.slotTypes[slot] == BytecodeProgram.FLOAT;
+        }
+
+        /* Os argumentos estão em ls[lsp...] e ds[dsp...], na ordem dos parâmetros */
+        void enter(int p, int returnPc, long[] ints, double[] floats, long[] ls, int lsp, double[] ds, int dsp) {
+            int[] frame = program.frames[p];
+            boolean save = active[p] > 0;
+            if (save) {
+                if (savedIntCount + frame.length > savedInts.length) savedInts = Arrays.copyOf(savedInts, Math.max(savedInts.length * 2, savedIntCount + frame.length));
+                if (savedFloatCount + frame.length > savedFloats.length) savedFloats = Arrays.copyOf(savedFloats, Math.max(savedFloats.length * 2, savedFloatCount + frame.length));
+                if (savedArrayCount + frame.length > savedArrays.length) savedArrays = Arrays.copyOf(savedArrays, Math.max(savedArrays.length * 2, savedArrayCount + frame.length));
+                for (int slot : frame) {
+                    if (program.lengths[slot] != 0) savedArrays[savedArrayCount++] = array(slot);
+                    else if (isFloat(slot)) savedFloats[savedFloatCount++] = floats[slot];
+                    else savedInts[savedIntCount++] = ints[slot];
+                }
+            }
+            int parameters = program.parameters[p];
+            for (int i = 0; i < frame.length; i++) {
+                int slot = frame[i];
+                if (program.lengths[slot] != 0) clear(slot, save);
+                else if (isFloat(slot)) floats[slot] = i < parameters ? ds[dsp++] : 0.0;
+                else ints[slot] = i < parameters ? ls[lsp++] : 0;
+            }
+            returns[depth] = returnPc;
+            callees[depth] = p;
+            saved[depth] = save;
+            depth++;
+            active[p]++;
+        }
+
+        int leave(long[] ints, double[] floats) {
+            depth--;
+            int p = callees[depth];
+            active[p]--;
+            if (saved[depth]) {
+                int[] frame = program.frames[p];
+                for (int i = frame.length - 1; i >= 0; i--) {
+                    int slot = frame[i];
+                    if (program.lengths[slot] != 0) restore(slot, savedArrays[--savedArrayCount]);
+                    else if (isFloat(slot)) floats[slot] = savedFloats[--savedFloatCount];
+                    else ints[slot] = savedInts[--savedIntCount];
+                }
+            }
+            return returns[depth];
+        }
+
+        private Object array(int slot) {
+            if (isFloat(slot)) return floatArrays[slot];
+            return program.slotTypes[slot] == BytecodeProgram.CHAR ? charArrays[slot] : intArrays[slot];
+        }
+
+        // Zera o arranjo local; na chamada recursiva o vetor da chamada aberta foi guardado, então troca por um novo
+        private void clear(int slot, boolean fresh) {
+            int length = program.lengths[slot];
+            if (isFloat(slot)) {
+                if (fresh) floatArrays[slot] = new double[length];
+                else Arrays.fill(floatArrays[slot], 0.0);
+            } else if (program.slotTypes[slot] == BytecodeProgram.CHAR) {
+                if (fresh) charArrays[slot] = new char[length];
+                else Arrays.fill(charArrays[slot], '\0');
+            } else {
+                if (fresh) intArrays[slot] = new long[length];
+                else Arrays.fill(intArrays[slot], 0);
+            }
+        }
+
+        private void restore(int slot, Object array) {
+            if (isFloat(slot)) floatArrays[slot] = (double[]) array;
+            else if (program.slotTypes[slot] == BytecodeProgram.CHAR) charArrays[slot] = (char[]) array;
+            else intArrays[slot] = (long[]) array;
+        }
+    }
+
+    private void read(BytecodeProgram program, int op, int slot, long[] ints, double[] floats, int pc) {
+        try {
+            if (op == Opcode.READ_F) floats[slot] = input.readFloat();
+            else if (op == Opcode.READ_C) ints[slot] = input.readChar();
+            else ints[slot] = input.readInt();
+        } catch (RuntimeError e) {
+            throw new RuntimeError(e.getMessage(), program.line(pc));
+        }
+    }
+
+    // Lê o valor antes de conferir o índice, como as outras execuções
+    private void readElement(BytecodeProgram program, int op, int slot, long index,
+                             long[][] intArrays, double[][] floatArrays, char[][] charArrays, int pc) {
+        int line = program.line(pc);
+        double floatValue = 0;
+        long intValue = 0;
+        try {
+            if (op == Opcode.READ_FA) floatValue = input.readFloat();
+            else if (op == Opcode.READ_CA) intValue = input.readChar();
+            else intValue = input.readInt();
+        } catch (RuntimeError e) {
+            throw new RuntimeError(e.getMessage(), line);
+        }
+        if (op == Opcode.READ_FA) floatArrays[slot][RuntimeError.checkIndex(index, floatArrays[slot].length, line)] = floatValue;
+        else if (op == Opcode.READ_CA) charArrays[slot][RuntimeError.checkIndex(index, charArrays[slot].length, line)] = (char) intValue;
+        else intArrays[slot][RuntimeError.checkIndex(index, intArrays[slot].length, line)] = intValue;
+    }
+}
@@ -0,0 +1,72 @@
+package Compiler.Format;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+
+/*
+ * Writer que, em vez de escrever, compara o que recebe com um texto já
+ * existente: é o modo --check do Formatter, que roda a mesma passada e só
+ * descobre se a saída seria igual ao arquivo. Para na primeira diferença.
+ */
+final class CompareWriter extends Writer {
+
+    /* A saída deixou de coincidir com o texto; interrompe a passada */
+    static final class Mismatch extends RuntimeException {
+        final int line;
+
+        Mismatch(int line) {
+            super("differs at line " + line, null, false, false);
+            this.line = line;
+        }
+    }
+
+    private final Reader expected;
+    private final char[] buf = new char[1 << 14];
+    private int pos = 0;
+    private int limit = 0;
+    private int line = 1; // linha da saída em que está a próxima comparação
+
+    CompareWriter(Reader expected) {
+        this.expected = expected;
+    }
+
+    private int read() throws IOException {
+        if (pos == limit) {
+            limit = expected.read(buf, 0, buf.length);
+            pos = 0;
+            if (limit <= 0) {
+                limit = 0;
+                return -1;
+            }
+        }
+        return buf[pos++];
+    }
+
+    @Override
+    public void write(char[] text, int offset, int length) throws IOException {
+        for (int i = offset; i < offset + length; i++) {
+            if (read() != text[i]) throw new Mismatch(line);
+            if (text[i] == '\n') line++;
+        }
+    }
+
+    @Override
+    public void write(String text, int offset, int length) throws IOException {
+        for (int i = offset; i < offset + length; i++) {
+            char c = text.charAt(i);
+            if (read() != c) throw new Mismatch(line);
+            if (c == '\n') line++;
+        }
+    }
+
+    @Override
+    public void flush() {
+    }
+
+    /* O texto também precisa ter acabado; quem abriu o Reader o fecha */
+    @Override
+    public void close() throws IOException {
+        if (read() != -1) throw new Mismatch(line);
+    }
+}
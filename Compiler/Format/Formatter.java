@@ -0,0 +1,365 @@
+package Compiler.Format;
+
+import java.io.BufferedWriter;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+
+import Compiler.Lexical.Lexer;
+import Compiler.Lexical.Tag;
+import Compiler.Lexical.Tokens.Token;
+import Compiler.Lexical.Tokens.Word;
+import Compiler.SymbolTable.SymbolTable;
+
+/*
+ * Formatador: reescreve um programa com um comando ou declaração por linha,
+ * os blocos de if/while/repeat (e as declarações e o begin/end do programa e
+ * de cada procedimento) indentados e um espaço em volta dos operadores
+ * binários. O cabeçalho de um procedimento, com os parâmetros, fica numa linha. Comentários e
+ * literais {...} saem exatamente como estavam; das linhas em branco, fica no
+ * máximo uma onde já haveria uma quebra de linha.
+ *
+ * Uma única passada sobre os tokens do Lexer, sem árvore: memória limitada
+ * aos buffers, ao índice de linhas do Lexer (descartado conforme avança) e à
+ * pilha de blocos abertos. O texto dos tokens e dos comentários é copiado de
+ * uma segunda leitura do arquivo (SourceText), pelas posições que o Lexer
+ * informa. As decisões dependem só dos tokens, dos comentários e de quantas
+ * quebras de linha havia entre eles, e nada disso muda ao formatar: formatar
+ * de novo a saída não a altera. --check roda a mesma passada comparando a
+ * saída com o próprio arquivo (CompareWriter).
+ *
+ * Em volta de um token inválido o texto original é mantido como está, para
+ * que o Lexer volte a ler os mesmos tokens.
+ *
+ * Uso: java Compiler.Format.Formatter arquivo...                (saída padrão)
+ *      java Compiler.Format.Formatter --write [--verify] arquivo...
+ *      java Compiler.Format.Formatter --check arquivo...
+ */
+public final class Formatter {
+
+    private static final String INDENT = "    ";
+    private static final int TRIM_EVERY = 4096; // tokens entre descartes das linhas já passadas do Lexer
+
+    // Blocos abertos, um nível de indentação cada
+    private static final int DECLARATIONS = 0, BLOCK = 1, IF = 2, WHILE = 3, REPEAT = 4;
+
+    private final Lexer lexer;
+    private final SourceText text;
+    private final Writer out;
+
+    private int[] blocks = new int[16];
+    private int depth = 0;
+
+    private int previous = Tag.EOF; // tag do último token escrito (EOF: nenhum)
+    private boolean unary;          // o último token foi um - ou ! unário
+    private boolean header;         // o último token foi program: o próximo é o nome
+    private boolean procedure;      // dentro do cabeçalho de um procedimento, até o ')' dos parâmetros
+    private int parens;             // parênteses abertos: um ';' entre eles separa parâmetros, não comandos
+    private boolean breakAfter;     // o último token pede uma quebra de linha depois dele
+    private boolean afterComment;   // a última coisa escrita foi um comentário
+    private int newlines;           // quebras de linha no espaço antes do token, depois do último comentário
+    private boolean comment;        // houve comentário nesse espaço
+
+    private boolean written = false;
+    private boolean lineStart = true;
+    private char last;
+
+    /* tokens e source são duas leituras do mesmo texto */
+    public Formatter(InputStream tokens, InputStream source, Writer out) {
+        // Só as palavras reservadas interessam: os identificadores não ficam guardados
+        SymbolTable keywords = new SymbolTable() {
+            public Word put(String s, Word w) {
+                return null;
+            }
+        };
+        this.lexer = new Lexer(tokens, keywords);
+        this.text = new SourceText(source);
+        this.out = out;
+    }
+
+    public static void main(String[] args) throws IOException {
+        boolean check = false;
+        boolean write = false;
+        boolean verify = false;
+        int first = 0;
+        for (; first < args.length && args[first].startsWith("--"); first++) {
+            switch (args[first]) {
+                case "--check": check = true; break;
+                case "--write": write = true; break;
+                case "--verify": verify = true; break;
+                default: first = args.length;
+            }
+        }
+        if (first >= args.length || check && write || verify && !write) {
+            System.out.println("Usage: java Formatter [--check | --write [--verify]] {filenames}");
+            System.exit(2);
+        }
+
+        int status = 0;
+        for (int i = first; i < args.length; i++) {
+            String file = args[i];
+            if (check) {
+                int line = check(file);
+                if (line > 0) {
+                    System.out.println(file + ":" + line + ": not formatted");
+                    status = 1;
+                }
+            } else if (write) {
+                status = Math.max(status, rewrite(file, verify));
+            } else {
+                Writer out = new BufferedWriter(new OutputStreamWriter(System.out, StandardCharsets.UTF_8), 1 << 16);
+                format(file, out);
+                out.flush();
+            }
+        }
+        System.exit(status);
+    }
+
+    /* Formata o arquivo em out */
+    public static void format(String file, Writer out) throws IOException {
+        try (InputStream tokens = new FileInputStream(file); InputStream source = new FileInputStream(file)) {
+            new Formatter(tokens, source, out).run();
+        }
+    }
+
+    /* 0 se o arquivo já está formatado; senão, a primeira linha que mudaria */
+    public static int check(String file) throws IOException {
+        try (Reader expected = new InputStreamReader(new FileInputStream(file), StandardCharsets.UTF_8)) {
+            CompareWriter compare = new CompareWriter(expected);
+            format(file, compare);
+            compare.close();
+            return 0;
+        } catch (CompareWriter.Mismatch e) {
+            return e.line;
+        }
+    }
+
+    /*
+     * Formata no lugar: escreve num arquivo temporário ao lado e o move sobre o
+     * original. Com verify, antes de trocar confere que formatar a saída de
+     * novo não a muda; se mudar, o original fica intacto (status 2).
+     */
+    private static int rewrite(String file, boolean verify) throws IOException {
+        Path path = Paths.get(file).toAbsolutePath();
+        Path temporary = Files.createTempFile(path.getParent(), path.getFileName().toString(), ".fmt");
+        try {
+            try (Writer out = Files.newBufferedWriter(temporary, StandardCharsets.UTF_8)) {
+                format(file, out);
+            }
+            if (verify) {
+                int line = check(temporary.toString());
+                if (line > 0) {
+                    System.out.println(file + ":" + line + ": formatting is not idempotent; file left unchanged");
+                    return 2;
+                }
+            }
+            Files.move(temporary, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            return 0;
+        } finally {
+            Files.deleteIfExists(temporary);
+        }
+    }
+
+    public void run() throws IOException {
+        long count = 0;
+        while (true) {
+            Token t = lexer.scan();
+            int tag = t.getTag();
+            boolean verbatim = tag == Tag.INVALID || previous == Tag.INVALID;
+            if (verbatim) {
+                for (String s; (s = text.text(lexer.getTokenStart())) != null;) raw(s);
+            } else {
+                gap(lexer.getTokenStart());
+            }
+            if (tag == Tag.EOF) break;
+            token(tag, lexer.getTokenEnd(), verbatim);
+            if (++count % TRIM_EVERY == 0) lexer.getLineIndex().trim(lexer.getTokenStart());
+        }
+        // Um token inválido no fim do arquivo pode incluir o que vem depois dele (o fim do arquivo)
+        if (!lineStart && previous != Tag.INVALID) raw("\n");
+        out.flush();
+    }
+
+    /*
+     * Espaço entre o último token e start: escreve os comentários (na mesma
+     * linha do token anterior, se não havia quebra antes deles, ou numa linha
+     * própria) e conta as quebras de linha que sobram antes do próximo token.
+     */
+    private void gap(long start) throws IOException {
+        newlines = 0;
+        comment = false;
+        for (int kind; (kind = text.next(start)) != SourceText.END;) {
+            if (kind == SourceText.NEWLINE) {
+                newlines++;
+                continue;
+            }
+            if (newlines > 0) {
+                separate(newlines >= 2 ? 2 : 1, false);
+                breakAfter = false;
+            } else {
+                separate(0, true);
+            }
+            for (String s; (s = text.comment(start)) != null;) raw(s);
+            afterComment = true;
+            comment = true;
+            newlines = 0;
+        }
+    }
+
+    private void token(int tag, long end, boolean verbatim) throws IOException {
+        // Fechamento de blocos antes de escrever: o token fica no nível de fora
+        boolean reopen = false;
+        switch (tag) {
+            case Tag.BEG:
+            case Tag.PROCEDURE:
+                if (depth > 0 && blocks[depth - 1] == DECLARATIONS) depth--;
+                break;
+            case Tag.END:
+            case Tag.UNTIL:
+                if (depth > 0) depth--;
+                break;
+            case Tag.ELSE:
+                if (depth > 0 && blocks[depth - 1] == IF) {
+                    depth--;
+                    reopen = true;
+                }
+                break;
+        }
+
+        String first = text.text(end);
+        if (first == null) first = "";
+        if (!verbatim) {
+            boolean brk = breakAfter && !(previous == Tag.END && (tag == ';' || tag == '.'))
+                || tag == Tag.BEG || tag == Tag.END || tag == Tag.ELSE || tag == Tag.UNTIL || tag == Tag.PROCEDURE
+                || comment && newlines > 0;
+            if (brk) separate(newlines >= 2 ? 2 : 1, false);
+            else separate(0, spaced(tag) || !first.isEmpty() && glued(last, first.charAt(0)));
+        }
+        raw(first);
+        for (String s; (s = text.text(end)) != null;) raw(s);
+        afterComment = false;
+
+        breakAfter = false;
+        switch (tag) {
+            case Tag.PRG:
+                header = true;
+                previous = tag;
+                return;
+            case Tag.BEG: open(BLOCK); break;
+            case Tag.THEN: open(IF); break;
+            case Tag.ELSE: if (reopen) open(IF); break;
+            case Tag.DO: open(WHILE); break;
+            case Tag.REPEAT: open(REPEAT); break;
+        }
+        switch (tag) {
+            case ';':
+                breakAfter = parens == 0;
+                break;
+            case Tag.BEG: case Tag.THEN: case Tag.ELSE: case Tag.DO: case Tag.REPEAT: case Tag.END:
+                breakAfter = true;
+                break;
+            case Tag.PROCEDURE:
+                procedure = true;
+                parens = 0;
+                break;
+            case '(':
+                parens++;
+                break;
+            case ')':
+                if (parens > 0) parens--;
+                if (procedure && parens == 0) {
+                    // Depois dos parâmetros, as declarações locais
+                    procedure = false;
+                    open(DECLARATIONS);
+                    breakAfter = true;
+                }
+                break;
+        }
+        if (header && tag == Tag.ID) {
+            // Depois de "program nome", as declarações
+            open(DECLARATIONS);
+            breakAfter = true;
+        }
+        header = false;
+        unary = tag == '!' || tag == '-' && !isOperand(previous);
+        previous = tag;
+    }
+
+    private void open(int block) {
+        if (depth == blocks.length) blocks = Arrays.copyOf(blocks, depth * 2);
+        blocks[depth++] = block;
+    }
+
+    /* Um espaço entre o token anterior e este, quando estão na mesma linha */
+    private boolean spaced(int tag) {
+        if (afterComment) return true;
+        if (unary || previous == '(' || previous == '[') return false;
+        switch (tag) {
+            case ',': case ';': case ')': case '.':
+            case '[': case ']':
+                // Arranjos: "a[i]" e "int[10]"
+                return false;
+            case '(':
+                // Chamadas e cabeçalhos de procedimento: o nome fica junto dos parênteses
+                return previous != Tag.READ && previous != Tag.WRITE && previous != Tag.ID;
+        }
+        return true;
+    }
+
+    private static boolean isOperand(int tag) {
+        switch (tag) {
+            case Tag.ID: case Tag.INT_CONST: case Tag.FLOAT_CONST: case Tag.CHAR_CONST: case Tag.STRING_CONST: case ')': case ']':
+                return true;
+        }
+        return false;
+    }
+
+    /* Juntar a com b formaria outro token: "=" "=" viraria "==", "1" "." "5" um número, "/" "*" um comentário */
+    private static boolean glued(char a, char b) {
+        if (isWordChar(a) && isWordChar(b)) return true;
+        switch (b) {
+            case '=': return a == '=' || a == '<' || a == '>' || a == '!';
+            case '.': return a >= '0' && a <= '9';
+            case '*': return a == '/';
+            case '&': return a == '&';
+            case '|': return a == '|';
+        }
+        return false;
+    }
+
+    private static boolean isWordChar(char c) {
+        return Character.isLetterOrDigit(c) || c == '_';
+    }
+
+    /* Quebras de linha (no máximo uma em branco) ou um espaço antes da próxima coisa escrita, e a indentação */
+    private void separate(int lines, boolean space) throws IOException {
+        if (!written) return;
+        if (lines > 0) {
+            out.write(lines > 1 ? "\n\n" : "\n");
+            lineStart = true;
+        } else if (space && !lineStart) {
+            out.write(' ');
+        }
+        if (lineStart) {
+            for (int i = 0; i < depth; i++) out.write(INDENT);
+        }
+    }
+
+    private void raw(String s) throws IOException {
+        if (s.isEmpty()) return;
+        out.write(s);
+        written = true;
+        last = s.charAt(s.length() - 1);
+        lineStart = last == '\n';
+    }
+}
@@ -0,0 +1,119 @@
+package Compiler.Format;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+/*
+ * Segunda leitura, sequencial, do mesmo arquivo que o Lexer lê: o Lexer
+ * descarta espaços e comentários e só informa onde cada token começa e
+ * termina, então o texto exato de comentários e tokens vem daqui. Nada é
+ * guardado além de um bloco; um comentário ou literal enorme é entregue em
+ * pedaços, cortados sempre no início de um caractere UTF-8.
+ */
+final class SourceText {
+
+    static final int END = -1, NEWLINE = 0, COMMENT = 1;
+
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private final InputStream input;
+    private final byte[] buf = new byte[BUFFER_SIZE];
+    private int pos = 0;
+    private int limit = 0;
+    private long base = 0;           // posição no arquivo de buf[0]
+    private boolean eof = false;
+    private boolean inComment = false;
+    private boolean opening = false; // o próximo pedaço do comentário começa em "/*"
+    private boolean star = false;    // o último byte do comentário entregue foi '*'
+
+    SourceText(InputStream input) {
+        this.input = input;
+    }
+
+    long position() {
+        return base + pos;
+    }
+
+    /* Garante ao menos n bytes em buf a partir de pos, se o arquivo tiver */
+    private boolean available(int n) throws IOException {
+        while (limit - pos < n && !eof) {
+            if (pos > 0) {
+                System.arraycopy(buf, pos, buf, 0, limit - pos);
+                base += pos;
+                limit -= pos;
+                pos = 0;
+            }
+            int read = input.read(buf, limit, buf.length - limit);
+            if (read < 0) eof = true;
+            else limit += read;
+        }
+        return limit - pos >= n;
+    }
+
+    /*
+     * Próximo elemento do espaço entre tokens antes de end: NEWLINE (já
+     * consumida), COMMENT (a ser lido com comment()) ou END. Os demais
+     * espaços são pulados.
+     */
+    int next(long end) throws IOException {
+        while (position() < end && available(1)) {
+            byte b = buf[pos];
+            if (b == '/' && end - position() >= 2 && available(2) && buf[pos + 1] == '*') {
+                inComment = true;
+                opening = true;
+                star = false;
+                return COMMENT;
+            }
+            pos++;
+            if (b == '\n') return NEWLINE;
+        }
+        return END;
+    }
+
+    /* Próximo pedaço do comentário atual, até o "*\/" que o fecha ou até end; null quando acabou */
+    String comment(long end) throws IOException {
+        if (!inComment || position() >= end || !available(4) && pos == limit) {
+            inComment = false;
+            return null;
+        }
+        int start = pos;
+        int stop = (int) Math.min(limit, pos + (end - position()));
+        int i = start;
+        if (opening) {
+            // O '*' de "/*" não fecha o comentário: "/*/" continua aberto
+            i += 2;
+            opening = false;
+        }
+        for (; i < stop; i++) {
+            if (star && buf[i] == '/') {
+                inComment = false;
+                return take(start, i + 1, true);
+            }
+            star = buf[i] == '*';
+        }
+        return take(start, stop, base + stop >= end);
+    }
+
+    /* Próximo pedaço do texto até end (um token); null quando chegou lá */
+    String text(long end) throws IOException {
+        if (position() >= end || !available(4) && pos == limit) return null;
+        int stop = (int) Math.min(limit, pos + (end - position()));
+        return take(pos, stop, base + stop >= end);
+    }
+
+    /* Texto de buf[start, stop); sem last, deixa para o próximo pedaço um caractere UTF-8 incompleto no fim */
+    private String take(int start, int stop, boolean last) {
+        if (!last && !eof) {
+            for (int k = 1; k <= 3 && stop - k > start; k++) {
+                int b = buf[stop - k] & 0xFF;
+                if ((b & 0xC0) == 0x80) continue;
+                int length = b >= 0xF0 ? 4 : b >= 0xE0 ? 3 : b >= 0xC0 ? 2 : 1;
+                if (length > k) stop -= k;
+                break;
+            }
+        }
+        pos = stop;
+        return new String(buf, start, stop - start, StandardCharsets.UTF_8);
+    }
+}
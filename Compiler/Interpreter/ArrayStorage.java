@@ -0,0 +1,57 @@
+package Compiler.Interpreter;
+
+import java.util.Arrays;
+import java.util.List;
+
+import Compiler.Semantic.SemanticResultType;
+import Compiler.Tree.Variable;
+
+/*
+ * Elementos dos arranjos do programa, por slot: int em long[], float em
+ * double[] e char em char[] (a gravação num elemento char trunca o valor
+ * para 16 bits). Cada arranjo é alocado uma vez por execução; os nós do
+ * Specializer e os laços compilados guardam a referência, então uma chamada
+ * recursiva copia o conteúdo em vez de trocar o vetor.
+ */
+final class ArrayStorage {
+
+    final long[][] ints;
+    final double[][] floats;
+    final char[][] chars;
+
+    ArrayStorage(List<Variable> variables) {
+        ints = new long[variables.size()][];
+        floats = new double[variables.size()][];
+        chars = new char[variables.size()][];
+        for (Variable v : variables) {
+            if (!v.isArray()) continue;
+            if (v.getType() == SemanticResultType.TYPE_FLOAT) floats[v.slot] = new double[v.getLength()];
+            else if (v.getType() == SemanticResultType.TYPE_CHAR) chars[v.slot] = new char[v.getLength()];
+            else ints[v.slot] = new long[v.getLength()];
+        }
+    }
+
+    /* O vetor do arranjo no slot, de qualquer tipo */
+    Object get(int slot) {
+        if (ints[slot] != null) return ints[slot];
+        if (floats[slot] != null) return floats[slot];
+        return chars[slot];
+    }
+
+    static Object copy(Object array) {
+        if (array instanceof long[]) return ((long[]) array).clone();
+        if (array instanceof double[]) return ((double[]) array).clone();
+        return ((char[]) array).clone();
+    }
+
+    static void clear(Object array) {
+        if (array instanceof long[]) Arrays.fill((long[]) array, 0L);
+        else if (array instanceof double[]) Arrays.fill((double[]) array, 0.0);
+        else Arrays.fill((char[]) array, '\0');
+    }
+
+    /* Devolve a array o conteúdo guardado por copy */
+    static void restore(Object saved, Object array) {
+        System.arraycopy(saved, 0, array, 0, java.lang.reflect.Array.getLength(array));
+    }
+}
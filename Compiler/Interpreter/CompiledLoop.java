@@ -0,0 +1,65 @@
+package Compiler.Interpreter;
+
+import Compiler.Runtime.ProgramInput;
+import Compiler.Runtime.ProgramOutput;
+import Compiler.Runtime.RuntimeError;
+
+/*
+ * Base das classes geradas pelo LoopCompiler. run() executa o laço inteiro a
+ * partir do estado atual da memória, como se o interpretador continuasse na
+ * próxima volta, e devolve as variáveis alteradas para a memória ao terminar.
+ */
+public abstract class CompiledLoop {
+
+    protected ProgramInput in;
+    protected ProgramOutput out;
+    protected byte[][] literals;   // textos dos write({...}) do laço
+    protected long[] statements;   // contadores do Profile, null sem perfil
+    protected long[] backEdges;
+    protected long[][] intArrays;  // vetores do ArrayStorage, por slot
+    protected double[][] floatArrays;
+    protected char[][] charArrays;
+
+    public abstract void run(long[] ints, double[] floats);
+
+    protected long readInt(int line) {
+        try {
+            return in.readInt();
+        } catch (RuntimeError e) {
+            throw new RuntimeError(e.getMessage(), line);
+        }
+    }
+
+    protected double readFloat(int line) {
+        try {
+            return in.readFloat();
+        } catch (RuntimeError e) {
+            throw new RuntimeError(e.getMessage(), line);
+        }
+    }
+
+    protected long readChar(int line) {
+        try {
+            return in.readChar();
+        } catch (RuntimeError e) {
+            throw new RuntimeError(e.getMessage(), line);
+        }
+    }
+
+    /* Acessos conferidos: o índice e o valor já foram avaliados quando o índice é conferido */
+    protected static int index(long i, int length, int line) {
+        return RuntimeError.checkIndex(i, length, line);
+    }
+
+    protected static void store(long[] array, long i, long value, int line) {
+        array[RuntimeError.checkIndex(i, array.length, line)] = value;
+    }
+
+    protected static void store(double[] array, long i, double value, int line) {
+        array[RuntimeError.checkIndex(i, array.length, line)] = value;
+    }
+
+    protected static void store(char[] array, long i, long value, int line) {
+        array[RuntimeError.checkIndex(i, array.length, line)] = (char) value;
+    }
+}
@@ -0,0 +1,252 @@
+package Compiler.Interpreter;
+
+import java.util.List;
+
+import Compiler.Lexical.Tag;
+import Compiler.Runtime.ProgramInput;
+import Compiler.Runtime.ProgramOutput;
+import Compiler.Runtime.RuntimeError;
+import Compiler.Semantic.SemanticResultType;
+import Compiler.Tree.*;
+
+/*
+ * Interpretador de referência: percorre a árvore decidindo o tipo de cada
+ * valor em tempo de execução. Inteiros e chars ficam na memória como Long e
+ * floats como Double. Não usa os tipos resolvidos pela análise semântica (só
+ * segue os nós Conversion da árvore);
+ * serve de base de comparação para o Interpreter especializado.
+ * Operadores relacionais, && e || produzem 1 ou 0; uma condição é verdadeira quando diferente de zero.
+ * Uma chamada recursiva guarda os parâmetros e locais da chamada que já está
+ * aberta e os devolve no retorno.
+ * Os elementos de cada arranjo ficam num Number[] próprio; a gravação num
+ * elemento char trunca o valor para 16 bits, e o índice só é conferido
+ * depois de avaliados o índice e o valor.
+ */
+public class DynamicInterpreter {
+
+    private final ProgramInput input;
+    private final ProgramOutput output;
+    private Number[] memory;
+    private Number[][] arrays;   // por slot; null nas variáveis simples
+    private List<Procedure> procedures;
+    private int[] active; // chamadas abertas de cada procedimento
+    private int depth;
+
+    public DynamicInterpreter(ProgramInput input, ProgramOutput output) {
+        this.input = input;
+        this.output = output;
+    }
+
+    public void run(Program program) {
+        memory = new Number[program.variables.size()];
+        arrays = new Number[program.variables.size()][];
+        for (Variable variable : program.variables) {
+            if (variable.isArray()) arrays[variable.slot] = zeros(variable);
+            else memory[variable.slot] = zero(variable);
+        }
+        procedures = program.procedures;
+        active = new int[procedures.size()];
+        depth = 0;
+        try {
+            execute(program.body);
+        } finally {
+            output.flush();
+        }
+    }
+
+    private void execute(Stmt stmt) {
+        if (stmt instanceof Block) {
+            for (Stmt s : ((Block) stmt).statements) execute(s);
+            return;
+        }
+        if (stmt instanceof Assign) {
+            Assign assign = (Assign) stmt;
+            if (assign.index != null) {
+                Number index = evaluate(assign.index);
+                storeElement(assign.target, index.longValue(), evaluate(assign.value), assign.line);
+            } else {
+                store(assign.target, evaluate(assign.value));
+            }
+        } else if (stmt instanceof If) {
+            If ifStmt = (If) stmt;
+            if (isTrue(evaluate(ifStmt.condition))) execute(ifStmt.then);
+            else if (ifStmt.otherwise != null) execute(ifStmt.otherwise);
+        } else if (stmt instanceof While) {
+            While whileStmt = (While) stmt;
+            while (isTrue(evaluate(whileStmt.condition))) execute(whileStmt.body);
+        } else if (stmt instanceof Repeat) {
+            Repeat repeat = (Repeat) stmt;
+            do {
+                execute(repeat.body);
+            } while (!isTrue(evaluate(repeat.condition)));
+        } else if (stmt instanceof Call) {
+            call((Call) stmt);
+        } else if (stmt instanceof Read) {
+            read((Read) stmt);
+        } else if (stmt instanceof Write) {
+            Write write = (Write) stmt;
+            Number value = evaluate(write.value);
+            if (write.type == SemanticResultType.TYPE_FLOAT) output.writeFloat(value.doubleValue());
+            else if (write.type == SemanticResultType.TYPE_CHAR) output.writeChar((char) value.longValue());
+            else output.writeInt(value.longValue());
+        } else if (stmt instanceof WriteString) {
+            output.writeBytes(((WriteString) stmt).bytes);
+        } else {
+            throw new RuntimeError("Unknown statement", stmt.line);
+        }
+    }
+
+    private void call(Call call) {
+        Procedure procedure = procedures.get(call.procedure);
+        Number[] arguments = new Number[call.arguments.size()];
+        for (int i = 0; i < arguments.length; i++) arguments[i] = evaluate(call.arguments.get(i));
+        if (depth == RuntimeError.MAX_CALL_DEPTH) throw RuntimeError.callDepth(call.line);
+
+        int parameters = procedure.parameters.size();
+        Number[] saved = null;
+        Number[][] savedArrays = null;
+        if (active[call.procedure] > 0) {
+            saved = new Number[parameters + procedure.locals.size()];
+            savedArrays = new Number[saved.length][];
+            for (int i = 0; i < saved.length; i++) {
+                saved[i] = memory[frameSlot(procedure, i)];
+                savedArrays[i] = arrays[frameSlot(procedure, i)];
+            }
+        }
+        for (int i = 0; i < parameters; i++) store(procedure.parameters.get(i), arguments[i]);
+        for (Variable local : procedure.locals) {
+            if (local.isArray()) arrays[local.slot] = zeros(local);
+            else memory[local.slot] = zero(local);
+        }
+
+        depth++;
+        active[call.procedure]++;
+        execute(procedure.body);
+        active[call.procedure]--;
+        depth--;
+        if (saved != null) {
+            for (int i = 0; i < saved.length; i++) {
+                memory[frameSlot(procedure, i)] = saved[i];
+                arrays[frameSlot(procedure, i)] = savedArrays[i];
+            }
+        }
+    }
+
+    // Slot do i-ésimo parâmetro ou, depois deles, do i-ésimo local
+    private static int frameSlot(Procedure procedure, int i) {
+        int parameters = procedure.parameters.size();
+        return i < parameters ? procedure.parameters.get(i).slot : procedure.locals.get(i - parameters).slot;
+    }
+
+    private static Number zero(Variable variable) {
+        return variable.getType() == SemanticResultType.TYPE_FLOAT ? (Number) 0.0 : (Number) 0L;
+    }
+
+    private static Number[] zeros(Variable variable) {
+        Number[] elements = new Number[variable.getLength()];
+        java.util.Arrays.fill(elements, zero(variable));
+        return elements;
+    }
+
+    private void read(Read read) {
+        Variable target = read.target;
+        long index = read.index == null ? 0 : evaluate(read.index).longValue();
+        Number value;
+        try {
+            if (target.getType() == SemanticResultType.TYPE_FLOAT) value = input.readFloat();
+            else if (target.getType() == SemanticResultType.TYPE_CHAR) value = (long) input.readChar();
+            else value = input.readInt();
+        } catch (RuntimeError e) {
+            throw new RuntimeError(e.getMessage(), read.line);
+        }
+        if (read.index != null) storeElement(target, index, value, read.line);
+        else memory[target.slot] = value;
+    }
+
+    private void storeElement(Variable array, long index, Number value, int line) {
+        Number[] elements = arrays[array.slot];
+        if (index < 0 || index >= elements.length) throw RuntimeError.index(index, elements.length, line);
+        if (array.getType() == SemanticResultType.TYPE_FLOAT) {
+            if (!(value instanceof Double)) value = value.doubleValue();
+        } else {
+            value = array.getType() == SemanticResultType.TYPE_CHAR ? (long) (char) value.longValue() : value.longValue();
+        }
+        elements[(int) index] = value;
+    }
+
+    // Cada variável guarda o tipo com que foi declarada: float converte inteiros e int/char truncam floats
+    private void store(Variable target, Number value) {
+        if (target.getType() == SemanticResultType.TYPE_FLOAT) {
+            if (!(value instanceof Double)) value = value.doubleValue();
+        } else if (value instanceof Double) {
+            value = value.longValue();
+        }
+        memory[target.slot] = value;
+    }
+
+    private Number evaluate(Expr expr) {
+        if (expr instanceof IntLiteral) return ((IntLiteral) expr).value;
+        if (expr instanceof FloatLiteral) return ((FloatLiteral) expr).value;
+        if (expr instanceof CharLiteral) return (long) ((CharLiteral) expr).value;
+        if (expr instanceof VarRef) return memory[((VarRef) expr).variable.slot];
+        if (expr instanceof Index) {
+            Index element = (Index) expr;
+            long index = evaluate(element.index).longValue();
+            Number[] elements = arrays[element.array.slot];
+            if (index < 0 || index >= elements.length) throw RuntimeError.index(index, elements.length, element.line);
+            return elements[(int) index];
+        }
+        if (expr instanceof Conversion) return evaluate(((Conversion) expr).operand).doubleValue();
+        if (expr instanceof Unary) {
+            Unary unary = (Unary) expr;
+            Number value = evaluate(unary.operand);
+            if (unary.op == '!') return isTrue(value) ? 0L : 1L;
+            if (value instanceof Double) return -value.doubleValue();
+            return -value.longValue();
+        }
+        if (expr instanceof Binary) return binary((Binary) expr);
+        throw new RuntimeError("Unknown expression", expr.line);
+    }
+
+    private Number binary(Binary binary) {
+        // && e || avaliam o lado direito só quando necessário
+        if (binary.op == Tag.AND) return isTrue(evaluate(binary.left)) && isTrue(evaluate(binary.right)) ? 1L : 0L;
+        if (binary.op == Tag.OR) return isTrue(evaluate(binary.left)) || isTrue(evaluate(binary.right)) ? 1L : 0L;
+
+        Number left = evaluate(binary.left);
+        Number right = evaluate(binary.right);
+        if (binary.op == '/') return left.doubleValue() / right.doubleValue();
+        if (left instanceof Double || right instanceof Double) {
+            double a = left.doubleValue(), b = right.doubleValue();
+            switch (binary.op) {
+                case '+': return a + b;
+                case '-': return a - b;
+                case '*': return a * b;
+                case '<': return a < b ? 1L : 0L;
+                case '>': return a > b ? 1L : 0L;
+                case Tag.LE: return a <= b ? 1L : 0L;
+                case Tag.GE: return a >= b ? 1L : 0L;
+                case Tag.EQ: return a == b ? 1L : 0L;
+                case Tag.NE: return a != b ? 1L : 0L;
+            }
+        } else {
+            long a = left.longValue(), b = right.longValue();
+            switch (binary.op) {
+                case '+': return a + b;
+                case '-': return a - b;
+                case '*': return a * b;
+                case '<': return a < b ? 1L : 0L;
+                case '>': return a > b ? 1L : 0L;
+                case Tag.LE: return a <= b ? 1L : 0L;
+                case Tag.GE: return a >= b ? 1L : 0L;
+                case Tag.EQ: return a == b ? 1L : 0L;
+                case Tag.NE: return a != b ? 1L : 0L;
+            }
+        }
+        throw new RuntimeError("Unknown operator", binary.line);
+    }
+
+    private static boolean isTrue(Number value) {
+        return value instanceof Double ? value.doubleValue() != 0 : value.longValue() != 0;
+    }
+}
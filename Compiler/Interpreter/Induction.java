@@ -0,0 +1,172 @@
+package Compiler.Interpreter;
+
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+
+import Compiler.Lexical.Tag;
+import Compiler.Semantic.SemanticResultType;
+import Compiler.Tree.*;
+
+/*
+ * Variável de indução de um while/repeat, usada pelo LoopCompiler para tirar
+ * a conferência de índice dos acessos a[i + k]. As formas reconhecidas são
+ *   while (i < n | i <= n) do ...; i = i + c end
+ *   repeat ...; i = i + c until i >= n | i > n
+ * com c uma constante positiva, i int e escrito só no último comando do
+ * corpo, n uma constante ou uma variável int que o laço não escreve, e sem
+ * chamadas no corpo. Dentro do corpo i só cresce e fica abaixo de n (ou até
+ * n); num repeat a primeira volta usa o valor de entrada, que não foi
+ * testado. Então todos os acessos a[i + k] do corpo ficam dentro dos
+ * arranjos quando, na entrada do laço,
+ *   i >= low, n <= high e (num repeat) i <= entryHigh
+ * O LoopCompiler gera duas versões do laço e escolhe por essa condição.
+ */
+final class Induction {
+
+    final Variable variable;
+    final Expr bound;
+    long low = Long.MIN_VALUE;
+    long high = Long.MAX_VALUE;
+    long entryHigh = Long.MAX_VALUE;  // sem limite num while
+    final Set<Object> accesses = Collections.newSetFromMap(new IdentityHashMap<>()); // Index, Assign e Read provados
+
+    private final boolean repeat;
+    private final boolean inclusive;   // i <= n no while, until i > n no repeat
+    private boolean invalid;
+
+    private Induction(Variable variable, Expr bound, boolean repeat, boolean inclusive) {
+        this.variable = variable;
+        this.bound = bound;
+        this.repeat = repeat;
+        this.inclusive = inclusive;
+    }
+
+    /* A análise do laço, ou null quando ele não tem a forma ou nenhum acesso é provado */
+    static Induction analyze(Stmt loop) {
+        Expr condition;
+        Block body;
+        boolean repeat = loop instanceof Repeat;
+        if (loop instanceof While) {
+            condition = ((While) loop).condition;
+            body = ((While) loop).body;
+        } else if (repeat) {
+            condition = ((Repeat) loop).condition;
+            body = ((Repeat) loop).body;
+        } else {
+            return null;
+        }
+        if (!(condition instanceof Binary)) return null;
+        Binary test = (Binary) condition;
+        boolean inclusive;
+        if (repeat && (test.op == Tag.GE || test.op == '>')) inclusive = test.op == '>';
+        else if (!repeat && (test.op == '<' || test.op == Tag.LE)) inclusive = test.op == Tag.LE;
+        else return null;
+        Variable i = scalarInt(test.left);
+        Variable n = scalarInt(test.right);
+        if (i == null || n == i || n == null && !(test.right instanceof IntLiteral)) return null;
+
+        List<Stmt> statements = body.statements;
+        if (!isIncrement(statements.get(statements.size() - 1), i)) return null;
+        Induction induction = new Induction(i, test.right, repeat, inclusive);
+        for (int s = 0; s < statements.size() - 1; s++) induction.statement(statements.get(s));
+        if (induction.invalid || induction.accesses.isEmpty()) return null;
+        return induction;
+    }
+
+    // Variável int simples lida pela expressão, ou null
+    private static Variable scalarInt(Expr expr) {
+        if (!(expr instanceof VarRef)) return null;
+        Variable v = ((VarRef) expr).variable;
+        return v.getType() == SemanticResultType.TYPE_INT && !v.isArray() ? v : null;
+    }
+
+    // i = i + c, com 0 < c <= Integer.MAX_VALUE: i não passa de Long.MAX_VALUE enquanto o laço continua
+    private static boolean isIncrement(Stmt stmt, Variable i) {
+        if (!(stmt instanceof Assign) || ((Assign) stmt).target != i || ((Assign) stmt).index != null) return false;
+        Expr value = ((Assign) stmt).value;
+        if (!(value instanceof Binary) || ((Binary) value).op != '+') return false;
+        Binary sum = (Binary) value;
+        if (scalarInt(sum.left) != i || !(sum.right instanceof IntLiteral)) return false;
+        long c = ((IntLiteral) sum.right).value;
+        return c > 0 && c <= Integer.MAX_VALUE;
+    }
+
+    private void statement(Stmt stmt) {
+        if (stmt instanceof Block) {
+            for (Stmt s : ((Block) stmt).statements) statement(s);
+        } else if (stmt instanceof If) {
+            If ifStmt = (If) stmt;
+            expression(ifStmt.condition);
+            statement(ifStmt.then);
+            if (ifStmt.otherwise != null) statement(ifStmt.otherwise);
+        } else if (stmt instanceof While) {
+            expression(((While) stmt).condition);
+            statement(((While) stmt).body);
+        } else if (stmt instanceof Repeat) {
+            statement(((Repeat) stmt).body);
+            expression(((Repeat) stmt).condition);
+        } else if (stmt instanceof Assign) {
+            Assign assign = (Assign) stmt;
+            written(assign.target);
+            if (assign.index != null) {
+                expression(assign.index);
+                access(assign, assign.target, assign.index);
+            }
+            expression(assign.value);
+        } else if (stmt instanceof Read) {
+            Read read = (Read) stmt;
+            written(read.target);
+            if (read.index != null) {
+                expression(read.index);
+                access(read, read.target, read.index);
+            }
+        } else if (stmt instanceof Write) {
+            expression(((Write) stmt).value);
+        } else if (stmt instanceof Call) {
+            // O procedimento pode escrever i ou n
+            invalid = true;
+        }
+    }
+
+    private void written(Variable target) {
+        if (target == variable || bound instanceof VarRef && ((VarRef) bound).variable == target) invalid = true;
+    }
+
+    private void expression(Expr expr) {
+        if (expr instanceof Index) {
+            Index element = (Index) expr;
+            expression(element.index);
+            access(element, element.array, element.index);
+        } else if (expr instanceof Conversion) {
+            expression(((Conversion) expr).operand);
+        } else if (expr instanceof Unary) {
+            expression(((Unary) expr).operand);
+        } else if (expr instanceof Binary) {
+            expression(((Binary) expr).left);
+            expression(((Binary) expr).right);
+        }
+    }
+
+    /* Acesso a array[index]; só entra quando index é i, i + k ou i - k */
+    private void access(Object node, Variable array, Expr index) {
+        long k;
+        if (scalarInt(index) == variable) {
+            k = 0;
+        } else if (index instanceof Binary && (((Binary) index).op == '+' || ((Binary) index).op == '-')
+                && scalarInt(((Binary) index).left) == variable && ((Binary) index).right instanceof IntLiteral) {
+            k = ((IntLiteral) ((Binary) index).right).value;
+            if (Math.abs(k) > Variable.MAX_LENGTH) return;
+            if (((Binary) index).op == '-') k = -k;
+        } else {
+            return;
+        }
+        long length = array.getLength();
+        // No corpo, i + k >= i0 + k >= 0 e i + k <= (n - 1 ou n) + k <= length - 1
+        low = Math.max(low, -k);
+        high = Math.min(high, inclusive ? length - 1 - k : length - k);
+        if (repeat) entryHigh = Math.min(entryHigh, length - 1 - k);
+        accesses.add(node);
+    }
+}
@@ -0,0 +1,153 @@
+package Compiler.Interpreter;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import Compiler.Semantic.SemanticResultType;
+import Compiler.Tree.*;
+
+/*
+ * Expansão de chamadas na árvore, antes da especialização: a chamada a um
+ * procedimento pequeno e não recursivo vira um Block que atribui os
+ * argumentos aos parâmetros, zera os locais e repete o corpo. Os slots são
+ * os do próprio procedimento, que nunca está ativo duas vezes, então o
+ * efeito é o mesmo da chamada. Sem a chamada no meio, um laço que só chamava
+ * procedimentos pequenos também passa a ser compilado pelo LoopCompiler.
+ *
+ * Procedimentos num ciclo do grafo de chamadas (recursivos, direta ou
+ * indiretamente) não são expandidos. Os corpos são tratados dos chamados
+ * para os que chamam, e o limite vale para o corpo já com as expansões.
+ */
+final class Inliner {
+
+    private final Program program;
+    private final int limit;
+    private final boolean[] recursive;
+    private final Block[] bodies;   // corpos já com as expansões; null enquanto não tratados
+
+    private Inliner(Program program, int limit) {
+        this.program = program;
+        this.limit = limit;
+        this.recursive = new boolean[program.procedures.size()];
+        this.bodies = new Block[program.procedures.size()];
+    }
+
+    /* O mesmo programa com as chamadas expandidas; os procedimentos mantêm os índices */
+    static Program inline(Program program, int limit) {
+        if (program.procedures.isEmpty()) return program;
+        Inliner inliner = new Inliner(program, limit);
+        int count = program.procedures.size();
+        List<List<Integer>> callees = new ArrayList<>();
+        for (Procedure procedure : program.procedures) {
+            List<Integer> called = new ArrayList<>();
+            calls(procedure.body, called);
+            callees.add(called);
+        }
+        for (int p = 0; p < count; p++) inliner.recursive[p] = reaches(callees, p, p, new boolean[count]);
+
+        // Pós-ordem do grafo: um procedimento não recursivo é tratado depois de tudo que ele chama
+        boolean[] visited = new boolean[count];
+        for (int p = 0; p < count; p++) inliner.visit(callees, p, visited);
+
+        List<Procedure> procedures = new ArrayList<>();
+        for (Procedure procedure : program.procedures) {
+            procedures.add(new Procedure(procedure.line, procedure.name, procedure.index, procedure.parameters,
+                    procedure.locals, inliner.bodies[procedure.index]));
+        }
+        return new Program(program.line, program.name, program.variables, procedures, inliner.block(program.body));
+    }
+
+    private void visit(List<List<Integer>> callees, int p, boolean[] visited) {
+        if (visited[p]) return;
+        visited[p] = true;
+        for (int q : callees.get(p)) visit(callees, q, visited);
+        bodies[p] = block(program.procedures.get(p).body);
+    }
+
+    private static boolean reaches(List<List<Integer>> callees, int from, int target, boolean[] seen) {
+        for (int q : callees.get(from)) {
+            if (q == target) return true;
+            if (!seen[q]) {
+                seen[q] = true;
+                if (reaches(callees, q, target, seen)) return true;
+            }
+        }
+        return false;
+    }
+
+    private static void calls(Stmt stmt, List<Integer> called) {
+        if (stmt instanceof Call) {
+            called.add(((Call) stmt).procedure);
+        } else if (stmt instanceof Block) {
+            for (Stmt s : ((Block) stmt).statements) calls(s, called);
+        } else if (stmt instanceof If) {
+            calls(((If) stmt).then, called);
+            if (((If) stmt).otherwise != null) calls(((If) stmt).otherwise, called);
+        } else if (stmt instanceof While) {
+            calls(((While) stmt).body, called);
+        } else if (stmt instanceof Repeat) {
+            calls(((Repeat) stmt).body, called);
+        }
+    }
+
+    /* Cópia do bloco com as chamadas expandidas; o próprio bloco quando nada muda */
+    private Block block(Block block) {
+        List<Stmt> statements = new ArrayList<>();
+        boolean changed = false;
+        for (Stmt s : block.statements) {
+            Stmt rewritten = statement(s);
+            changed |= rewritten != s;
+            statements.add(rewritten);
+        }
+        return changed ? new Block(block.line, statements) : block;
+    }
+
+    private Stmt statement(Stmt stmt) {
+        if (stmt instanceof Call) return call((Call) stmt);
+        if (stmt instanceof Block) return block((Block) stmt);
+        if (stmt instanceof If) {
+            If ifStmt = (If) stmt;
+            Block then = block(ifStmt.then);
+            Block otherwise = ifStmt.otherwise == null ? null : block(ifStmt.otherwise);
+            if (then == ifStmt.then && otherwise == ifStmt.otherwise) return stmt;
+            return new If(ifStmt.line, ifStmt.condition, then, otherwise);
+        }
+        if (stmt instanceof While) {
+            While whileStmt = (While) stmt;
+            Block body = block(whileStmt.body);
+            return body == whileStmt.body ? stmt : new While(whileStmt.line, whileStmt.condition, body);
+        }
+        if (stmt instanceof Repeat) {
+            Repeat repeat = (Repeat) stmt;
+            Block body = block(repeat.body);
+            return body == repeat.body ? stmt : new Repeat(repeat.line, body, repeat.condition);
+        }
+        return stmt;
+    }
+
+    private Stmt call(Call call) {
+        Block body = bodies[call.procedure];
+        // Sem corpo tratado: chamada a um procedimento recursivo ou ainda na pilha da visita
+        if (recursive[call.procedure] || body == null || LoopCompiler.size(body) > limit) return call;
+        Procedure procedure = program.procedures.get(call.procedure);
+        // Não há comando que zere um arranjo local inteiro
+        for (Variable local : procedure.locals) {
+            if (local.isArray()) return call;
+        }
+        List<Stmt> statements = new ArrayList<>();
+        // Nenhum argumento lê um parâmetro do próprio procedimento (ele não chama a si mesmo),
+        // então as atribuições podem ser feitas em sequência
+        for (int i = 0; i < procedure.parameters.size(); i++) {
+            statements.add(new Assign(call.line, procedure.parameters.get(i), call.arguments.get(i)));
+        }
+        for (Variable local : procedure.locals) statements.add(new Assign(call.line, local, zero(call.line, local)));
+        statements.addAll(body.statements);
+        return new Block(call.line, statements);
+    }
+
+    private static Expr zero(int line, Variable variable) {
+        if (variable.getType() == SemanticResultType.TYPE_FLOAT) return new FloatLiteral(line, 0.0);
+        if (variable.getType() == SemanticResultType.TYPE_CHAR) return new CharLiteral(line, '\0');
+        return new IntLiteral(line, 0);
+    }
+}
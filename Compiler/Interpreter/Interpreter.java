@@ -0,0 +1,269 @@
+package Compiler.Interpreter;
+
+import java.util.ArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import Compiler.Interpreter.Specializer.CondNode;
+import Compiler.Interpreter.Specializer.DoubleNode;
+import Compiler.Interpreter.Specializer.LongNode;
+import Compiler.Interpreter.Specializer.StmtNode;
+import Compiler.Runtime.ProgramInput;
+import Compiler.Runtime.ProgramOutput;
+import Compiler.Runtime.RuntimeError;
+import Compiler.Semantic.SemanticResultType;
+import Compiler.Tree.*;
+
+/*
+ * Executa a árvore de um programa sem erros semânticos.
+ * O Specializer transforma a árvore em nós que já sabem o tipo de cada
+ * operação; inteiros e chars ficam num long[] e floats num double[].
+ * Operadores relacionais, && e || produzem 1 ou 0; uma condição é verdadeira quando diferente de zero.
+ *
+ * Cada while/repeat conta suas voltas; ao passar de tierThreshold o laço é
+ * compilado pelo LoopCompiler em segundo plano e a versão compilada assume
+ * a partir da próxima volta.
+ *
+ * Antes de especializar, o Inliner expande as chamadas a procedimentos
+ * pequenos e não recursivos. As que sobram vão direto à Activation do
+ * procedimento, resolvida uma vez por chamada (a ligação é estática); o
+ * corpo é especializado na primeira execução. Cada procedimento tem slots
+ * próprios: só uma chamada recursiva (com o procedimento já ativo) salva e
+ * restaura os valores do chamador, inclusive o conteúdo dos arranjos locais.
+ */
+public class Interpreter {
+
+    private final ProgramInput input;
+    private final ProgramOutput output;
+    private long[] ints;
+    private double[] floats;
+    private ArrayStorage arrays;
+
+    private Profile profile;
+    private int tierThreshold = Integer.getInteger("compiler.tier.threshold", 1000); // 0 desliga a compilação
+    private boolean background = true;
+    private int registerLimit = Integer.getInteger("compiler.tier.registers", 256);       // locais long e double por método
+    private int methodSizeLimit = Integer.getInteger("compiler.tier.methodSize", 1500);   // nós por método; 0 não divide
+    private int versionSizeLimit = Integer.getInteger("compiler.tier.versionSize", 200);  // nós do laço duplicado sem conferência de índice; 0 não duplica
+    private int inlineLimit = Integer.getInteger("compiler.inline.size", 40);             // nós por corpo expandido; 0 desliga
+
+    private Specializer specializer;
+    private Activation[] activations;
+    private int depth; // chamadas abertas
+
+    private static final ExecutorService compilerThread = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "loop-compiler");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    // Estado de um while/repeat: voltas dadas e a versão compilada, quando houver
+    private static final class Loop {
+        long iterations;
+        Future<CompiledLoop> pending;
+        CompiledLoop compiled;
+        boolean failed;
+    }
+
+    // Um procedimento: o corpo especializado e quantas chamadas dele estão abertas
+    private static final class Activation {
+        final Procedure procedure;
+        final int[] slots;        // parâmetros e depois locais simples
+        final boolean[] isFloat;
+        final Object[] arrays;    // vetores dos arranjos locais
+        StmtNode body;
+        int active;
+
+        Activation(Procedure procedure, ArrayStorage storage) {
+            this.procedure = procedure;
+            ArrayList<Variable> scalars = new ArrayList<>(procedure.parameters);
+            ArrayList<Object> locals = new ArrayList<>();
+            for (Variable v : procedure.locals) {
+                if (v.isArray()) locals.add(storage.get(v.slot));
+                else scalars.add(v);
+            }
+            slots = new int[scalars.size()];
+            isFloat = new boolean[scalars.size()];
+            for (int i = 0; i < slots.length; i++) {
+                slots[i] = scalars.get(i).slot;
+                isFloat[i] = scalars.get(i).getType() == SemanticResultType.TYPE_FLOAT;
+            }
+            arrays = locals.toArray();
+        }
+    }
+
+    public Interpreter(ProgramInput input, ProgramOutput output) {
+        this.input = input;
+        this.output = output;
+    }
+
+    /* Liga os contadores por linha; o perfil deve ter sido criado para o programa executado */
+    public void setProfile(Profile profile) {
+        this.profile = profile;
+    }
+
+    public void setTierThreshold(int threshold) {
+        this.tierThreshold = threshold;
+    }
+
+    /* Com false a compilação acontece na própria volta que passou do limite (útil em medições) */
+    public void setBackgroundCompilation(boolean background) {
+        this.background = background;
+    }
+
+    /* Limites do código gerado pelo LoopCompiler para laços quentes */
+    public void setRegisterLimit(int limit) {
+        this.registerLimit = limit;
+    }
+
+    public void setMethodSizeLimit(int limit) {
+        this.methodSizeLimit = limit;
+    }
+
+    public void setVersionSizeLimit(int limit) {
+        this.versionSizeLimit = limit;
+    }
+
+    public void setInlineLimit(int limit) {
+        this.inlineLimit = limit;
+    }
+
+    public void run(Program program) {
+        if (inlineLimit > 0) program = Inliner.inline(program, inlineLimit);
+        ints = new long[program.variables.size()];
+        floats = new double[program.variables.size()];
+        arrays = new ArrayStorage(program.variables);
+        activations = new Activation[program.procedures.size()];
+        for (Procedure procedure : program.procedures) activations[procedure.index] = new Activation(procedure, arrays);
+        depth = 0;
+        specializer = new Specializer(this, ints, floats, arrays, input, output, profile);
+        StmtNode body = specializer.statement(program.body);
+        try {
+            body.exec();
+        } finally {
+            output.flush();
+        }
+    }
+
+    /* Em cada parâmetro, o argumento vem em longs[i] ou doubles[i] conforme o tipo do parâmetro */
+    StmtNode call(Call call, LongNode[] longs, DoubleNode[] doubles) {
+        Activation target = activations[call.procedure];
+        int line = call.line;
+        int parameters = longs.length;
+        int[] slots = target.slots;
+        boolean[] isFloat = target.isFloat;
+        Object[] locals = target.arrays;
+        // Os argumentos são avaliados no escopo do chamador antes de qualquer slot do chamado mudar
+        long[] longValues = new long[parameters];
+        double[] doubleValues = new double[parameters];
+        return () -> {
+            for (int i = 0; i < parameters; i++) {
+                if (isFloat[i]) doubleValues[i] = doubles[i].eval();
+                else longValues[i] = longs[i].eval();
+            }
+            if (depth == RuntimeError.MAX_CALL_DEPTH) throw RuntimeError.callDepth(line);
+            long[] savedInts = null;
+            double[] savedFloats = null;
+            Object[] savedArrays = null;
+            if (target.active > 0) {
+                savedInts = new long[slots.length];
+                savedFloats = new double[slots.length];
+                for (int i = 0; i < slots.length; i++) {
+                    if (isFloat[i]) savedFloats[i] = floats[slots[i]];
+                    else savedInts[i] = ints[slots[i]];
+                }
+                savedArrays = new Object[locals.length];
+                for (int i = 0; i < locals.length; i++) savedArrays[i] = ArrayStorage.copy(locals[i]);
+            }
+            for (int i = 0; i < slots.length; i++) {
+                if (isFloat[i]) floats[slots[i]] = i < parameters ? doubleValues[i] : 0.0;
+                else ints[slots[i]] = i < parameters ? longValues[i] : 0;
+            }
+            for (Object array : locals) ArrayStorage.clear(array);
+            if (target.body == null) target.body = specializer.statement(target.procedure.body);
+            depth++;
+            target.active++;
+            target.body.exec();
+            target.active--;
+            depth--;
+            if (savedInts != null) {
+                for (int i = 0; i < slots.length; i++) {
+                    if (isFloat[i]) floats[slots[i]] = savedFloats[i];
+                    else ints[slots[i]] = savedInts[i];
+                }
+                for (int i = 0; i < locals.length; i++) ArrayStorage.restore(savedArrays[i], locals[i]);
+            }
+        };
+    }
+
+    StmtNode whileLoop(While stmt, CondNode condition, StmtNode body) {
+        Loop loop = new Loop();
+        loop.failed = !LoopCompiler.supports(stmt);
+        return () -> {
+            if (loop.compiled != null) {
+                loop.compiled.run(ints, floats);
+                return;
+            }
+            while (condition.test()) {
+                body.exec();
+                if (backEdge(stmt, loop)) {
+                    loop.compiled.run(ints, floats);
+                    return;
+                }
+            }
+        };
+    }
+
+    StmtNode repeatLoop(Repeat stmt, StmtNode body, CondNode condition) {
+        Loop loop = new Loop();
+        loop.failed = !LoopCompiler.supports(stmt);
+        return () -> {
+            if (loop.compiled != null) {
+                loop.compiled.run(ints, floats);
+                return;
+            }
+            do {
+                body.exec();
+                if (condition.test()) break;
+                if (backEdge(stmt, loop)) {
+                    loop.compiled.run(ints, floats);
+                    return;
+                }
+            } while (true);
+        };
+    }
+
+    /* Conta uma volta e diz se a versão compilada já pode assumir o laço */
+    private boolean backEdge(Stmt stmt, Loop loop) {
+        if (profile != null) profile.backEdge(stmt);
+        if (tierThreshold <= 0 || loop.failed || !LoopCompiler.available()) return false;
+        if (++loop.iterations == tierThreshold) {
+            if (background) {
+                loop.pending = compilerThread.submit(() -> LoopCompiler.compile(stmt, arrays, input, output, profile, registerLimit, methodSizeLimit, versionSizeLimit));
+            } else {
+                try {
+                    loop.compiled = LoopCompiler.compile(stmt, arrays, input, output, profile, registerLimit, methodSizeLimit, versionSizeLimit);
+                } catch (Exception e) {
+                    failed(stmt, loop, e);
+                }
+            }
+        }
+        if (loop.pending != null && loop.pending.isDone()) {
+            try {
+                loop.compiled = loop.pending.get();
+            } catch (Exception e) {
+                failed(stmt, loop, e);
+            }
+            loop.pending = null;
+        }
+        if (loop.compiled != null && profile != null) profile.tiered(stmt);
+        return loop.compiled != null;
+    }
+
+    // O laço continua interpretado; a falha indica um erro no código gerado
+    private void failed(Stmt stmt, Loop loop, Exception e) {
+        loop.failed = true;
+        System.err.println("Could not compile loop on line " + stmt.line + ": " + e.getMessage());
+    }
+}
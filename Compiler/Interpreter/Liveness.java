@@ -0,0 +1,233 @@
+package Compiler.Interpreter;
+
+import java.util.BitSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+
+import Compiler.Tree.*;
+
+/*
+ * Análise de vivacidade (liveness) de um trecho de comandos, usada pelo
+ * LoopCompiler para decidir quais variáveis podem dividir a mesma variável
+ * local no código gerado.
+ *
+ * Cada comando simples e cada condição é um ponto, numerado na ordem do
+ * código. Uma variável está viva num ponto quando algum caminho a partir
+ * dele a lê antes de escrevê-la; em while/repeat o cálculo itera até o ponto
+ * fixo, então uma variável que atravessa a volta fica viva no laço inteiro.
+ * O intervalo de uma variável vai do primeiro ao último ponto em que ela
+ * está viva ou é escrita: variáveis com intervalos disjuntos nunca estão
+ * vivas ao mesmo tempo. Arranjos não entram: ficam sempre na memória, e
+ * gravar um elemento só usa as variáveis do índice e do valor.
+ */
+class Liveness {
+
+    final int[] start;     // por slot; -1 se a variável não aparece no trecho
+    final int[] end;
+    final long[] weight;   // acessos ponderados pela profundidade de laço ou pelo perfil
+    final BitSet liveIn = new BitSet();   // lidas antes de escritas: carregadas da memória na entrada
+    final BitSet written = new BitSet();
+
+    private final IdentityHashMap<Object, Integer> points = new IdentityHashMap<>();
+    private final Profile profile;
+    private boolean recording;
+
+    Liveness(List<Stmt> statements, int slots, Profile profile) {
+        start = new int[slots];
+        end = new int[slots];
+        weight = new long[slots];
+        java.util.Arrays.fill(start, -1);
+        java.util.Arrays.fill(end, -1);
+        this.profile = profile;
+        for (Stmt s : statements) number(s, 0);
+
+        // Nada fica vivo depois do trecho: o estado do programa é a memória, não as locais
+        recording = true;
+        BitSet live = new BitSet();
+        for (int i = statements.size() - 1; i >= 0; i--) live = before(statements.get(i), live);
+        liveIn.or(live);
+        for (int v = live.nextSetBit(0); v >= 0; v = live.nextSetBit(v + 1)) start[v] = 0;
+    }
+
+    /* Numera os pontos na ordem em que aparecem e soma os pesos dos acessos */
+    private void number(Stmt stmt, int depth) {
+        if (stmt instanceof Block) {
+            for (Stmt s : ((Block) stmt).statements) number(s, depth);
+        } else if (stmt instanceof If) {
+            If ifStmt = (If) stmt;
+            point(ifStmt.condition, ifStmt.condition, stmt.line, depth);
+            number(ifStmt.then, depth);
+            if (ifStmt.otherwise != null) number(ifStmt.otherwise, depth);
+        } else if (stmt instanceof While) {
+            While whileStmt = (While) stmt;
+            point(whileStmt.condition, whileStmt.condition, stmt.line, depth + 1);
+            number(whileStmt.body, depth + 1);
+        } else if (stmt instanceof Repeat) {
+            Repeat repeat = (Repeat) stmt;
+            number(repeat.body, depth + 1);
+            point(repeat.condition, repeat.condition, stmt.line, depth + 1);
+        } else if (stmt instanceof Assign) {
+            Assign assign = (Assign) stmt;
+            point(stmt, assign.value, stmt.line, depth);
+            if (assign.index != null) {
+                accesses(assign.index, stmt.line, depth);
+            } else {
+                access(assign.target, stmt.line, depth);
+                written.set(assign.target.slot);
+            }
+        } else if (stmt instanceof Read) {
+            Read read = (Read) stmt;
+            point(stmt, read.index, stmt.line, depth);
+            if (read.index == null) {
+                access(read.target, stmt.line, depth);
+                written.set(read.target.slot);
+            }
+        } else if (stmt instanceof Write) {
+            point(stmt, ((Write) stmt).value, stmt.line, depth);
+        } else {
+            point(stmt, null, stmt.line, depth);
+        }
+    }
+
+    private void point(Object node, Expr uses, int line, int depth) {
+        points.put(node, points.size());
+        if (uses != null) accesses(uses, line, depth);
+    }
+
+    private void accesses(Expr expr, int line, int depth) {
+        if (expr instanceof VarRef) {
+            access(((VarRef) expr).variable, line, depth);
+        } else if (expr instanceof Index) {
+            accesses(((Index) expr).index, line, depth);
+        } else if (expr instanceof Conversion) {
+            accesses(((Conversion) expr).operand, line, depth);
+        } else if (expr instanceof Unary) {
+            accesses(((Unary) expr).operand, line, depth);
+        } else if (expr instanceof Binary) {
+            accesses(((Binary) expr).left, line, depth);
+            accesses(((Binary) expr).right, line, depth);
+        }
+    }
+
+    private void access(Variable v, int line, int depth) {
+        long w;
+        if (profile != null) w = profile.getStatements(line) + 1;
+        else w = 1L << (3 * Math.min(depth, 15));
+        weight[v.slot] = Math.min(Long.MAX_VALUE / 2, weight[v.slot] + w);
+    }
+
+    /* Variáveis vivas antes de stmt, dadas as vivas depois dele */
+    private BitSet before(Stmt stmt, BitSet after) {
+        if (stmt instanceof Block) {
+            List<Stmt> statements = ((Block) stmt).statements;
+            BitSet live = after;
+            for (int i = statements.size() - 1; i >= 0; i--) live = before(statements.get(i), live);
+            return live;
+        }
+        if (stmt instanceof If) {
+            If ifStmt = (If) stmt;
+            BitSet live = copy(before(ifStmt.then, after));
+            live.or(ifStmt.otherwise != null ? before(ifStmt.otherwise, after) : after);
+            return condition(ifStmt.condition, live);
+        }
+        if (stmt instanceof While) {
+            // Cabeçalho: condição, depois corpo ou saída; o corpo volta ao cabeçalho
+            While whileStmt = (While) stmt;
+            BitSet header = copy(after);
+            boolean saved = recording;
+            recording = false;
+            while (true) {
+                BitSet next = copy(after);
+                next.or(before(whileStmt.body, header));
+                next = uses(whileStmt.condition, next);
+                if (next.equals(header)) break;
+                header = next;
+            }
+            recording = saved;
+            BitSet exit = copy(after);
+            exit.or(before(whileStmt.body, header));
+            return condition(whileStmt.condition, exit);
+        }
+        if (stmt instanceof Repeat) {
+            // O corpo vem primeiro; depois da condição o laço sai ou volta ao corpo
+            Repeat repeat = (Repeat) stmt;
+            BitSet top = new BitSet();
+            boolean saved = recording;
+            recording = false;
+            while (true) {
+                BitSet next = copy(after);
+                next.or(top);
+                next = before(repeat.body, uses(repeat.condition, next));
+                if (next.equals(top)) break;
+                top = next;
+            }
+            recording = saved;
+            BitSet afterCondition = copy(after);
+            afterCondition.or(top);
+            return before(repeat.body, condition(repeat.condition, afterCondition));
+        }
+        int p = points.get(stmt);
+        BitSet live = copy(after);
+        if (stmt instanceof Assign && ((Assign) stmt).index != null) {
+            Assign assign = (Assign) stmt;
+            live = uses(assign.value, uses(assign.index, live));
+            record(p, after, null);
+        } else if (stmt instanceof Assign) {
+            Assign assign = (Assign) stmt;
+            live.clear(assign.target.slot);
+            live = uses(assign.value, live);
+            record(p, after, assign.target);
+        } else if (stmt instanceof Read && ((Read) stmt).index != null) {
+            live = uses(((Read) stmt).index, live);
+            record(p, after, null);
+        } else if (stmt instanceof Read) {
+            Variable target = ((Read) stmt).target;
+            live.clear(target.slot);
+            record(p, after, target);
+        } else if (stmt instanceof Write) {
+            live = uses(((Write) stmt).value, live);
+            record(p, after, null);
+        }
+        record(p, live, null);
+        return live;
+    }
+
+    private BitSet condition(Expr condition, BitSet after) {
+        int p = points.get(condition);
+        BitSet live = uses(condition, copy(after));
+        record(p, after, null);
+        record(p, live, null);
+        return live;
+    }
+
+    private BitSet uses(Expr expr, BitSet live) {
+        if (expr instanceof VarRef) {
+            live.set(((VarRef) expr).variable.slot);
+        } else if (expr instanceof Index) {
+            uses(((Index) expr).index, live);
+        } else if (expr instanceof Conversion) {
+            uses(((Conversion) expr).operand, live);
+        } else if (expr instanceof Unary) {
+            uses(((Unary) expr).operand, live);
+        } else if (expr instanceof Binary) {
+            uses(((Binary) expr).left, live);
+            uses(((Binary) expr).right, live);
+        }
+        return live;
+    }
+
+    private void record(int p, BitSet live, Variable defined) {
+        if (!recording) return;
+        for (int v = live.nextSetBit(0); v >= 0; v = live.nextSetBit(v + 1)) extend(v, p);
+        if (defined != null) extend(defined.slot, p);
+    }
+
+    private void extend(int v, int p) {
+        if (start[v] < 0 || p < start[v]) start[v] = p;
+        if (p > end[v]) end[v] = p;
+    }
+
+    private static BitSet copy(BitSet set) {
+        return (BitSet) set.clone();
+    }
+}
@@ -0,0 +1,75 @@
+package Compiler.Interpreter;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.PriorityQueue;
+
+import Compiler.Semantic.SemanticResultType;
+import Compiler.Tree.Variable;
+
+/*
+ * Alocação das variáveis locais do código gerado por linear scan sobre os
+ * intervalos da Liveness, separadamente para long e double.
+ * Variáveis com intervalos disjuntos dividem a mesma local. Quando as locais
+ * acabam, a variável de menor peso fica na memória (ints[]/floats[]) em vez
+ * de numa local.
+ */
+class LocalAllocator {
+
+    final int[] register;     // por slot; -1 quando a variável fica na memória
+    final boolean[] shared;   // a local também guarda outras variáveis
+    int longRegisters = 0;
+    int doubleRegisters = 0;
+
+    LocalAllocator(Liveness liveness, Collection<Variable> variables, int limit) {
+        register = new int[liveness.start.length];
+        shared = new boolean[liveness.start.length];
+        java.util.Arrays.fill(register, -1);
+        ArrayList<Variable> longs = new ArrayList<>();
+        ArrayList<Variable> doubles = new ArrayList<>();
+        for (Variable v : variables) {
+            if (liveness.start[v.slot] < 0) continue;
+            (v.getType() == SemanticResultType.TYPE_FLOAT ? doubles : longs).add(v);
+        }
+        longRegisters = allocate(liveness, longs, limit);
+        doubleRegisters = allocate(liveness, doubles, limit);
+    }
+
+    private int allocate(Liveness liveness, ArrayList<Variable> variables, int limit) {
+        variables.sort((a, b) -> liveness.start[a.slot] != liveness.start[b.slot]
+            ? Integer.compare(liveness.start[a.slot], liveness.start[b.slot]) : Integer.compare(a.slot, b.slot));
+        PriorityQueue<Variable> active = new PriorityQueue<>((a, b) -> Integer.compare(liveness.end[a.slot], liveness.end[b.slot]));
+        PriorityQueue<Integer> free = new PriorityQueue<>();
+        int[] owners = new int[Math.max(1, Math.min(limit, variables.size()))];
+        int count = 0;
+        for (Variable v : variables) {
+            // Libera as locais das variáveis que morreram antes deste ponto
+            while (!active.isEmpty() && liveness.end[active.peek().slot] < liveness.start[v.slot]) {
+                free.add(register[active.poll().slot]);
+            }
+            int r;
+            if (!free.isEmpty()) {
+                r = free.poll();
+            } else if (count < limit) {
+                r = count++;
+            } else {
+                Variable victim = v;
+                for (Variable a : active) {
+                    if (liveness.weight[a.slot] < liveness.weight[victim.slot]) victim = a;
+                }
+                if (victim == v) continue;
+                active.remove(victim);
+                r = register[victim.slot];
+                register[victim.slot] = -1;
+                owners[r]--;
+            }
+            register[v.slot] = r;
+            active.add(v);
+            owners[r]++;
+        }
+        for (Variable v : variables) {
+            if (register[v.slot] >= 0 && owners[register[v.slot]] > 1) shared[v.slot] = true;
+        }
+        return count;
+    }
+}
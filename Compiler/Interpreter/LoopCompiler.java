@@ -0,0 +1,612 @@
+package Compiler.Interpreter;
+
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.io.StringWriter;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.tools.FileObject;
+import javax.tools.ForwardingJavaFileManager;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileManager;
+import javax.tools.JavaFileObject;
+import javax.tools.SimpleJavaFileObject;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.ToolProvider;
+
+import Compiler.Lexical.Tag;
+import Compiler.Runtime.ProgramInput;
+import Compiler.Runtime.ProgramOutput;
+import Compiler.Semantic.SemanticResultType;
+import Compiler.Tree.*;
+
+/*
+ * Segundo nível de execução: traduz um while/repeat quente para uma classe Java,
+ * compila com o javac da própria JDK (javax.tools) e carrega o bytecode.
+ * As variáveis do laço viram variáveis locais long/double, sem Number nem
+ * instanceof; a semântica é a mesma do Interpreter.
+ *
+ * Com muitas variáveis, a Liveness e o LocalAllocator fazem variáveis que
+ * nunca estão vivas ao mesmo tempo dividirem a mesma local, e as de menor
+ * peso ficam direto na memória quando passam de registerLimit locais. Um laço
+ * maior que methodSizeLimit nós é dividido em métodos part1, part2, ...,
+ * cada um com suas próprias locais: a JVM não compila métodos enormes (acima
+ * de 8000 bytes de bytecode) com o JIT.
+ *
+ * Um acesso a elemento de arranjo é conferido por CompiledLoop.index/store,
+ * a não ser num laço com variável de indução (Induction): o laço é gerado
+ * duas vezes, e a versão escolhida quando a condição de entrada vale acessa
+ * os elementos a[i + k] sem conferir o índice. Só laços de até
+ * versionSizeLimit nós são duplicados; 0 desliga a eliminação.
+ */
+class LoopCompiler {
+
+    private static final AtomicInteger classes = new AtomicInteger();
+    private static final JavaCompiler javac = ToolProvider.getSystemJavaCompiler();
+
+    private StringBuilder source = new StringBuilder();
+    private final StringBuilder methods = new StringBuilder();
+    private final List<byte[]> literals = new ArrayList<>();
+    private final Profile profile;
+    private final boolean profiling;
+    private final int registerLimit;
+    private final int methodSizeLimit;
+    private final int versionSizeLimit;
+    private Stmt root;
+    private Set<Object> unchecked = Collections.newSetFromMap(new IdentityHashMap<>()); // acessos provados pela Induction
+    private int slots;
+    private int parts;
+    private int indent;
+
+    // Alocação do método sendo gerado; null quando todas as variáveis ficam na memória
+    private int[] register;
+    private boolean[] shared;
+
+    private LoopCompiler(Profile profile, int registerLimit, int methodSizeLimit, int versionSizeLimit) {
+        this.profile = profile;
+        this.profiling = profile != null;
+        this.registerLimit = registerLimit;
+        this.methodSizeLimit = methodSizeLimit;
+        this.versionSizeLimit = versionSizeLimit;
+    }
+
+    /* Só há segundo nível quando a JVM traz o compilador (JDK, não JRE) */
+    static boolean available() {
+        return javac != null;
+    }
+
+    static CompiledLoop compile(Stmt loop, ArrayStorage arrays, ProgramInput in, ProgramOutput out, Profile profile,
+                                int registerLimit, int methodSizeLimit, int versionSizeLimit) throws Exception {
+        LoopCompiler compiler = new LoopCompiler(profile, registerLimit, methodSizeLimit, versionSizeLimit);
+        String name = "Loop" + classes.incrementAndGet() + "_line" + loop.line;
+        String code = compiler.generate(name, loop);
+
+        CompiledLoop compiled = (CompiledLoop) load(name, code).getDeclaredConstructor().newInstance();
+        compiled.in = in;
+        compiled.out = out;
+        compiled.literals = compiler.literals.toArray(new byte[0][]);
+        compiled.intArrays = arrays.ints;
+        compiled.floatArrays = arrays.floats;
+        compiled.charArrays = arrays.chars;
+        if (profile != null) {
+            compiled.statements = profile.statements;
+            compiled.backEdges = profile.backEdges;
+        }
+        return compiled;
+    }
+
+    private String generate(String name, Stmt loop) {
+        root = loop;
+        TreeSet<Variable> variables = new TreeSet<>((a, b) -> Integer.compare(a.slot, b.slot));
+        collect(loop, variables);
+        slots = variables.isEmpty() ? 0 : variables.last().slot + 1;
+        method("public void run(long[] ints, double[] floats)", List.of(loop));
+
+        StringBuilder code = new StringBuilder();
+        // Importado por nome: no código gerado "Compiler" sozinho seria java.lang.Compiler
+        code.append("import ").append(CompiledLoop.class.getName()).append(";\n\n");
+        code.append("public final class ").append(name).append(" extends CompiledLoop {\n");
+        code.append(methods);
+        code.append("}\n");
+        return code.toString();
+    }
+
+    /* Gera um método para os comandos; divide em outros métodos se passar de methodSizeLimit */
+    private void method(String header, List<Stmt> statements) {
+        StringBuilder savedSource = source;
+        int[] savedRegister = register;
+        boolean[] savedShared = shared;
+        int savedIndent = indent;
+        int at = methods.length();   // antes das partes geradas dentro deste método
+        source = new StringBuilder();
+
+        StringBuilder text = new StringBuilder();
+        text.append("\n    ").append(header).append(" {\n");
+        TreeSet<Variable> variables = new TreeSet<>((a, b) -> Integer.compare(a.slot, b.slot));
+        for (Stmt s : statements) collect(s, variables);
+        // Os vetores dos arranjos não mudam durante a execução: cada método os lê uma vez
+        for (Variable v : variables) {
+            if (v.isArray()) text.append("        final ").append(arrayType(v)).append(' ').append(array(v)).append(" = ").append(arrayField(v)).append('[').append(v.slot).append("];\n");
+        }
+        variables.removeIf(Variable::isArray);
+        boolean compound = statements.size() > 1 || !isSimple(statements.get(0));
+        if (methodSizeLimit > 0 && compound && size(statements) > methodSizeLimit) {
+            register = null;
+            shared = null;
+            indent = 2;
+            split(statements);
+            text.append(source);
+        } else {
+            Liveness liveness = new Liveness(statements, slots, profile);
+            LocalAllocator allocator = new LocalAllocator(liveness, variables, registerLimit);
+            register = allocator.register;
+            shared = allocator.shared;
+
+            // Locais carregadas da memória: variáveis lidas antes de escritas e as exclusivas gravadas na
+            // saída, que podem sair sem ter sido escritas (laço sem nenhuma volta, if sem else)
+            String[] longInit = new String[allocator.longRegisters];
+            String[] doubleInit = new String[allocator.doubleRegisters];
+            ArrayList<Variable> stores = new ArrayList<>();
+            for (Variable v : variables) {
+                int r = register[v.slot];
+                if (r < 0) continue;
+                boolean store = liveness.written.get(v.slot) && !shared[v.slot];
+                if (store) stores.add(v);
+                if (store || liveness.liveIn.get(v.slot)) (isFloat(v) ? doubleInit : longInit)[r] = memory(v);
+            }
+            for (int r = 0; r < longInit.length; r++) {
+                text.append("        long r").append(r).append(" = ").append(longInit[r] == null ? "0L" : longInit[r]).append(";\n");
+            }
+            for (int r = 0; r < doubleInit.length; r++) {
+                text.append("        double d").append(r).append(" = ").append(doubleInit[r] == null ? "0.0" : doubleInit[r]).append(";\n");
+            }
+            // Locais divididas são escritas também na memória a cada atribuição; as exclusivas, só na saída
+            indent = stores.isEmpty() ? 2 : 3;
+            for (Stmt s : statements) statement(s);
+            if (stores.isEmpty()) {
+                text.append(source);
+            } else {
+                text.append("        try {\n").append(source).append("        } finally {\n");
+                for (Variable v : stores) {
+                    text.append("            ").append(memory(v)).append(" = ").append(local(v)).append(";\n");
+                }
+                text.append("        }\n");
+            }
+        }
+        text.append("    }\n");
+        methods.insert(at, text);
+
+        source = savedSource;
+        register = savedRegister;
+        shared = savedShared;
+        indent = savedIndent;
+    }
+
+    /* Agrupa comandos seguidos em métodos de até methodSizeLimit nós; comandos compostos maiores que isso
+       ficam no método atual, acessando a memória, e os seus blocos são divididos recursivamente */
+    private void split(List<Stmt> statements) {
+        ArrayList<Stmt> chunk = new ArrayList<>();
+        int chunkSize = 0;
+        for (Stmt s : statements) {
+            int size = size(s);
+            if (size > methodSizeLimit && !isSimple(s)) {
+                part(chunk);
+                chunkSize = 0;
+                control(s);
+                continue;
+            }
+            if (chunkSize + size > methodSizeLimit) {
+                part(chunk);
+                chunkSize = 0;
+            }
+            chunk.add(s);
+            chunkSize += size;
+        }
+        part(chunk);
+    }
+
+    private void part(ArrayList<Stmt> chunk) {
+        if (chunk.isEmpty()) return;
+        String name = "part" + (++parts);
+        line(name + "(ints, floats);");
+        method("private void " + name + "(long[] ints, double[] floats)", new ArrayList<>(chunk));
+        chunk.clear();
+    }
+
+    /* Comando composto grande: só o controle fica aqui, os blocos viram partes */
+    private void control(Stmt stmt) {
+        if (stmt instanceof Block) {
+            split(((Block) stmt).statements);
+            return;
+        }
+        if (profiling && stmt != root) line("statements[" + stmt.line + "]++;");
+        if (stmt instanceof If) {
+            If ifStmt = (If) stmt;
+            line("if (" + expression(ifStmt.condition) + " != 0) {");
+            splitBlock(ifStmt.then);
+            if (ifStmt.otherwise != null) {
+                line("} else {");
+                splitBlock(ifStmt.otherwise);
+            }
+            line("}");
+        } else if (stmt instanceof While) {
+            While whileStmt = (While) stmt;
+            line("while (" + expression(whileStmt.condition) + " != 0) {");
+            splitBlock(whileStmt.body);
+            if (profiling) line("    backEdges[" + stmt.line + "]++;");
+            line("}");
+        } else {
+            Repeat repeat = (Repeat) stmt;
+            line("while (true) {");
+            splitBlock(repeat.body);
+            line("    if (" + expression(repeat.condition) + " != 0) break;");
+            if (profiling) line("    backEdges[" + stmt.line + "]++;");
+            line("}");
+        }
+    }
+
+    private void splitBlock(Block block) {
+        indent++;
+        split(block.statements);
+        indent--;
+    }
+
+    private void line(String code) {
+        for (int i = 0; i < indent; i++) source.append("    ");
+        source.append(code).append('\n');
+    }
+
+    private void statement(Stmt stmt) {
+        if (stmt instanceof Block) {
+            for (Stmt s : ((Block) stmt).statements) statement(s);
+            return;
+        }
+        // A execução do próprio laço já foi contada pelo Interpreter
+        if (profiling && stmt != root) line("statements[" + stmt.line + "]++;");
+        if (stmt instanceof Assign) {
+            Assign assign = (Assign) stmt;
+            if (assign.index != null) {
+                store(assign, assign.target, assign.index, expression(assign.value));
+                return;
+            }
+            line(local(assign.target) + " = " + expression(assign.value) + ";");
+            writeThrough(assign.target);
+        } else if (stmt instanceof If) {
+            If ifStmt = (If) stmt;
+            line("if (" + expression(ifStmt.condition) + " != 0) {");
+            block(ifStmt.then);
+            if (ifStmt.otherwise != null) {
+                line("} else {");
+                block(ifStmt.otherwise);
+            }
+            line("}");
+        } else if (stmt instanceof While || stmt instanceof Repeat) {
+            Induction induction = size(stmt) <= versionSizeLimit ? Induction.analyze(stmt) : null;
+            String guard = induction == null ? null : guard(induction);
+            if (guard == null) {
+                loop(stmt);
+                return;
+            }
+            Set<Object> saved = unchecked;
+            unchecked = Collections.newSetFromMap(new IdentityHashMap<>());
+            unchecked.addAll(saved);
+            unchecked.addAll(induction.accesses);
+            line("if (" + guard + ") {");
+            indent++;
+            loop(stmt);
+            indent--;
+            unchecked = saved;
+            line("} else {");
+            indent++;
+            loop(stmt);
+            indent--;
+            line("}");
+        } else if (stmt instanceof Read) {
+            Read read = (Read) stmt;
+            Variable target = read.target;
+            String kind = isFloat(target) ? "readFloat" : target.getType() == SemanticResultType.TYPE_CHAR ? "readChar" : "readInt";
+            if (read.index != null) {
+                store(read, target, read.index, kind + "(" + stmt.line + ")");
+                return;
+            }
+            line(local(target) + " = " + kind + "(" + stmt.line + ");");
+            writeThrough(target);
+        } else if (stmt instanceof Write) {
+            Write write = (Write) stmt;
+            String value = expression(write.value);
+            if (write.value.isFloat()) line("out.writeFloat(" + value + ");");
+            else if (write.value.type == SemanticResultType.TYPE_CHAR) line("out.writeChar((char) " + value + ");");
+            else line("out.writeInt(" + value + ");");
+        } else if (stmt instanceof WriteString) {
+            literals.add(((WriteString) stmt).bytes);
+            line("out.writeBytes(literals[" + (literals.size() - 1) + "]);");
+        } else {
+            throw new IllegalArgumentException("Unknown statement on line " + stmt.line);
+        }
+    }
+
+    private void loop(Stmt stmt) {
+        if (stmt instanceof While) {
+            While whileStmt = (While) stmt;
+            line("while (" + expression(whileStmt.condition) + " != 0) {");
+            block(whileStmt.body);
+            if (profiling) line("    backEdges[" + stmt.line + "]++;");
+            line("}");
+        } else {
+            Repeat repeat = (Repeat) stmt;
+            line("while (true) {");
+            block(repeat.body);
+            line("    if (" + expression(repeat.condition) + " != 0) break;");
+            if (profiling) line("    backEdges[" + stmt.line + "]++;");
+            line("}");
+        }
+    }
+
+    /* Condição de entrada da versão sem conferência; null quando ela nunca vale */
+    private String guard(Induction induction) {
+        ArrayList<String> tests = new ArrayList<>();
+        String i = local(induction.variable);
+        if (induction.low > Long.MIN_VALUE) tests.add(i + " >= " + induction.low + "L");
+        if (induction.entryHigh < Long.MAX_VALUE) tests.add(i + " <= " + induction.entryHigh + "L");
+        if (induction.bound instanceof IntLiteral) {
+            if (((IntLiteral) induction.bound).value > induction.high) return null;
+        } else {
+            tests.add(local(((VarRef) induction.bound).variable) + " <= " + induction.high + "L");
+        }
+        return String.join(" && ", tests);
+    }
+
+    /* Gravação num elemento; o valor já vem como expressão Java */
+    private void store(Object node, Variable array, Expr index, String value) {
+        if (unchecked.contains(node)) {
+            String element = array(array) + "[(int) " + expression(index) + "]";
+            if (array.getType() == SemanticResultType.TYPE_CHAR) line(element + " = (char) " + value + ";");
+            else line(element + " = " + value + ";");
+        } else {
+            line("store(" + array(array) + ", " + expression(index) + ", " + value + ", " + ((Stmt) node).line + ");");
+        }
+    }
+
+    private void writeThrough(Variable v) {
+        if (register != null && register[v.slot] >= 0 && shared[v.slot]) line(memory(v) + " = " + local(v) + ";");
+    }
+
+    private void block(Block block) {
+        indent++;
+        statement(block);
+        indent--;
+    }
+
+    /* Expressão Java já parentizada; o tipo de cada nó (long ou double) vem da análise semântica */
+    private String expression(Expr expr) {
+        if (expr instanceof IntLiteral) return ((IntLiteral) expr).value + "L";
+        if (expr instanceof CharLiteral) return (int) ((CharLiteral) expr).value + "L";
+        if (expr instanceof FloatLiteral) {
+            double value = ((FloatLiteral) expr).value;
+            return Double.isFinite(value) ? value + "d" : "Double.longBitsToDouble(" + Double.doubleToRawLongBits(value) + "L)";
+        }
+        if (expr instanceof VarRef) return local(((VarRef) expr).variable);
+        if (expr instanceof Index) {
+            Index element = (Index) expr;
+            String array = array(element.array);
+            if (unchecked.contains(element)) return array + "[(int) " + expression(element.index) + "]";
+            return array + "[index(" + expression(element.index) + ", " + array + ".length, " + element.line + ")]";
+        }
+        if (expr instanceof Conversion) return "((double) " + expression(((Conversion) expr).operand) + ")";
+        String one = expr.isFloat() ? "1.0" : "1L";
+        String zero = expr.isFloat() ? "0.0" : "0L";
+        if (expr instanceof Unary) {
+            Unary unary = (Unary) expr;
+            String operand = expression(unary.operand);
+            if (unary.op == '!') return "(" + operand + " == 0 ? " + one + " : " + zero + ")";
+            return "(-" + operand + ")";
+        }
+        Binary binary = (Binary) expr;
+        String left = expression(binary.left);
+        String right = expression(binary.right);
+        switch (binary.op) {
+            case Tag.AND:
+                return "(" + left + " != 0 && " + right + " != 0 ? " + one + " : " + zero + ")";
+            case Tag.OR:
+                return "(" + left + " != 0 || " + right + " != 0 ? " + one + " : " + zero + ")";
+            case '+':
+            case '-':
+            case '*':
+            case '/':
+                return "(" + left + " " + (char) binary.op + " " + right + ")";
+            default:
+                return "(" + left + " " + relop(binary.op) + " " + right + " ? 1L : 0L)";
+        }
+    }
+
+    private static String relop(int op) {
+        switch (op) {
+            case '<': return "<";
+            case '>': return ">";
+            case Tag.LE: return "<=";
+            case Tag.GE: return ">=";
+            case Tag.EQ: return "==";
+            case Tag.NE: return "!=";
+            default: throw new IllegalArgumentException("Unknown operator " + op);
+        }
+    }
+
+    private static boolean isFloat(Variable v) {
+        return v.getType() == SemanticResultType.TYPE_FLOAT;
+    }
+
+    private static String array(Variable v) {
+        return "a" + v.slot;
+    }
+
+    private static String arrayType(Variable v) {
+        return isFloat(v) ? "double[]" : v.getType() == SemanticResultType.TYPE_CHAR ? "char[]" : "long[]";
+    }
+
+    private static String arrayField(Variable v) {
+        return isFloat(v) ? "floatArrays" : v.getType() == SemanticResultType.TYPE_CHAR ? "charArrays" : "intArrays";
+    }
+
+    private static String memory(Variable v) {
+        return (isFloat(v) ? "floats[" : "ints[") + v.slot + "]";
+    }
+
+    /* Local alocada para a variável ou, sem local, a posição na memória */
+    private String local(Variable v) {
+        int r = register == null ? -1 : register[v.slot];
+        if (r < 0) return memory(v);
+        return (isFloat(v) ? "d" : "r") + r;
+    }
+
+    private static boolean isSimple(Stmt stmt) {
+        return !(stmt instanceof Block || stmt instanceof If || stmt instanceof While || stmt instanceof Repeat);
+    }
+
+    /* Tamanho aproximado em nós da árvore; cada nó vira poucos bytes de bytecode */
+    static int size(List<Stmt> statements) {
+        int size = 0;
+        for (Stmt s : statements) size += size(s);
+        return size;
+    }
+
+    static int size(Stmt stmt) {
+        if (stmt instanceof Block) return size(((Block) stmt).statements);
+        if (stmt instanceof If) {
+            If ifStmt = (If) stmt;
+            return 2 + size(ifStmt.condition) + size(ifStmt.then) + (ifStmt.otherwise == null ? 0 : size(ifStmt.otherwise));
+        }
+        if (stmt instanceof While) return 2 + size(((While) stmt).condition) + size(((While) stmt).body);
+        if (stmt instanceof Repeat) return 2 + size(((Repeat) stmt).condition) + size(((Repeat) stmt).body);
+        if (stmt instanceof Assign) {
+            Assign assign = (Assign) stmt;
+            return 1 + (assign.index == null ? 0 : size(assign.index)) + size(assign.value);
+        }
+        if (stmt instanceof Read && ((Read) stmt).index != null) return 2 + size(((Read) stmt).index);
+        if (stmt instanceof Write) return 2 + size(((Write) stmt).value);
+        if (stmt instanceof Call) {
+            int size = 2;
+            for (Expr argument : ((Call) stmt).arguments) size += 1 + size(argument);
+            return size;
+        }
+        return 2;
+    }
+
+    /* Laços com chamadas ficam interpretados: o corpo do procedimento não entra no método gerado */
+    static boolean supports(Stmt stmt) {
+        if (stmt instanceof Call) return false;
+        if (stmt instanceof Block) {
+            for (Stmt s : ((Block) stmt).statements) {
+                if (!supports(s)) return false;
+            }
+            return true;
+        }
+        if (stmt instanceof If) {
+            If ifStmt = (If) stmt;
+            return supports(ifStmt.then) && (ifStmt.otherwise == null || supports(ifStmt.otherwise));
+        }
+        if (stmt instanceof While) return supports(((While) stmt).body);
+        if (stmt instanceof Repeat) return supports(((Repeat) stmt).body);
+        return true;
+    }
+
+    private static int size(Expr expr) {
+        if (expr instanceof Index) return 1 + size(((Index) expr).index);
+        if (expr instanceof Conversion) return 1 + size(((Conversion) expr).operand);
+        if (expr instanceof Unary) return 1 + size(((Unary) expr).operand);
+        if (expr instanceof Binary) return 1 + size(((Binary) expr).left) + size(((Binary) expr).right);
+        return 1;
+    }
+
+    private static void collect(Stmt stmt, Set<Variable> variables) {
+        if (stmt instanceof Block) {
+            for (Stmt s : ((Block) stmt).statements) collect(s, variables);
+        } else if (stmt instanceof If) {
+            If ifStmt = (If) stmt;
+            collect(ifStmt.condition, variables);
+            collect(ifStmt.then, variables);
+            if (ifStmt.otherwise != null) collect(ifStmt.otherwise, variables);
+        } else if (stmt instanceof While) {
+            collect(((While) stmt).condition, variables);
+            collect(((While) stmt).body, variables);
+        } else if (stmt instanceof Repeat) {
+            collect(((Repeat) stmt).body, variables);
+            collect(((Repeat) stmt).condition, variables);
+        } else if (stmt instanceof Assign) {
+            Assign assign = (Assign) stmt;
+            variables.add(assign.target);
+            if (assign.index != null) collect(assign.index, variables);
+            collect(assign.value, variables);
+        } else if (stmt instanceof Read) {
+            variables.add(((Read) stmt).target);
+            if (((Read) stmt).index != null) collect(((Read) stmt).index, variables);
+        } else if (stmt instanceof Write) {
+            collect(((Write) stmt).value, variables);
+        }
+    }
+
+    private static void collect(Expr expr, Set<Variable> variables) {
+        if (expr instanceof VarRef) variables.add(((VarRef) expr).variable);
+        else if (expr instanceof Index) {
+            variables.add(((Index) expr).array);
+            collect(((Index) expr).index, variables);
+        } else if (expr instanceof Conversion) collect(((Conversion) expr).operand, variables);
+        else if (expr instanceof Unary) collect(((Unary) expr).operand, variables);
+        else if (expr instanceof Binary) {
+            collect(((Binary) expr).left, variables);
+            collect(((Binary) expr).right, variables);
+        }
+    }
+
+    /* Compila o código gerado em memória e carrega a classe num ClassLoader próprio */
+    private static Class<?> load(String name, String code) throws Exception {
+        Map<String, byte[]> bytecode = new HashMap<>();
+        StandardJavaFileManager standard = javac.getStandardFileManager(null, null, null);
+        JavaFileManager manager = new ForwardingJavaFileManager<JavaFileManager>(standard) {
+            @Override
+            public JavaFileObject getJavaFileForOutput(Location location, String className, JavaFileObject.Kind kind, FileObject sibling) {
+                return new SimpleJavaFileObject(URI.create("mem:///" + className + ".class"), kind) {
+                    @Override
+                    public OutputStream openOutputStream() {
+                        return new ByteArrayOutputStream() {
+                            @Override
+                            public void close() {
+                                bytecode.put(className, toByteArray());
+                            }
+                        };
+                    }
+                };
+            }
+        };
+        JavaFileObject unit = new SimpleJavaFileObject(URI.create("mem:///" + name + ".java"), JavaFileObject.Kind.SOURCE) {
+            @Override
+            public CharSequence getCharContent(boolean ignoreEncodingErrors) {
+                return code;
+            }
+        };
+        StringWriter errors = new StringWriter();
+        List<String> options = List.of("-classpath", System.getProperty("java.class.path"), "-g:none");
+        if (!javac.getTask(errors, manager, null, options, null, List.of(unit)).call()) {
+            throw new IllegalStateException(errors.toString());
+        }
+        manager.close();
+
+        ClassLoader loader = new ClassLoader(CompiledLoop.class.getClassLoader()) {
+            @Override
+            protected Class<?> findClass(String className) throws ClassNotFoundException {
+                byte[] bytes = bytecode.get(className);
+                if (bytes == null) throw new ClassNotFoundException(className);
+                return defineClass(className, bytes, 0, bytes.length);
+            }
+        };
+        return loader.loadClass(name);
+    }
+}
@@ -0,0 +1,120 @@
+package Compiler.Interpreter;
+
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.EnumSet;
+
+import Compiler.Metrics.Production;
+import Compiler.Tree.*;
+
+/*
+ * Contadores por linha do código fonte: quantas vezes cada comando executou
+ * e quantas voltas (back-edges) cada while/repeat deu. O relatório associa
+ * cada linha às produções stmt do SyntaticAnalyzer que começam nela.
+ */
+public class Profile {
+
+    final long[] statements;
+    final long[] backEdges;
+    private final ArrayList<EnumSet<Production>> productions = new ArrayList<>();
+    private final boolean[] tiered;
+
+    public Profile(Program program) {
+        int lines = maxLine(program.body) + 1;
+        for (Procedure procedure : program.procedures) lines = Math.max(lines, maxLine(procedure.body) + 1);
+        statements = new long[lines];
+        backEdges = new long[lines];
+        tiered = new boolean[lines];
+        for (int i = 0; i < lines; i++) productions.add(EnumSet.noneOf(Production.class));
+        register(program.body);
+        for (Procedure procedure : program.procedures) register(procedure.body);
+    }
+
+    void statement(Stmt stmt) {
+        statements[stmt.line]++;
+    }
+
+    void backEdge(Stmt loop) {
+        backEdges[loop.line]++;
+    }
+
+    void tiered(Stmt loop) {
+        tiered[loop.line] = true;
+    }
+
+    public long getStatements(int line) {
+        return line < statements.length ? statements[line] : 0;
+    }
+
+    public long getBackEdges(int line) {
+        return line < backEdges.length ? backEdges[line] : 0;
+    }
+
+    /* As linhas mais executadas, da mais quente para a mais fria */
+    public void report(PrintStream out, int limit) {
+        ArrayList<Integer> lines = new ArrayList<>();
+        long total = 0;
+        for (int line = 0; line < statements.length; line++) {
+            total += statements[line];
+            if (statements[line] > 0 || backEdges[line] > 0) lines.add(line);
+        }
+        lines.sort((a, b) -> Long.compare(statements[b] + backEdges[b], statements[a] + backEdges[a]));
+
+        out.println("=== Hot lines ===");
+        out.printf("%6s %14s %14s %7s  %s%n", "line", "statements", "back-edges", "share", "productions");
+        for (int i = 0; i < lines.size() && i < limit; i++) {
+            int line = lines.get(i);
+            StringBuilder rules = new StringBuilder();
+            for (Production production : productions.get(line)) {
+                if (rules.length() > 0) rules.append(", ");
+                rules.append(production.rule);
+            }
+            if (tiered[line]) rules.append(" [compiled]");
+            out.printf("%6d %14d %14d %6.1f%%  %s%n", line, statements[line], backEdges[line],
+                    total == 0 ? 0.0 : 100.0 * statements[line] / total, rules);
+        }
+    }
+
+    private void register(Stmt stmt) {
+        if (stmt instanceof Block) {
+            for (Stmt s : ((Block) stmt).statements) register(s);
+            return;
+        }
+        productions.get(stmt.line).add(production(stmt));
+        if (stmt instanceof If) {
+            register(((If) stmt).then);
+            if (((If) stmt).otherwise != null) register(((If) stmt).otherwise);
+        } else if (stmt instanceof While) {
+            register(((While) stmt).body);
+        } else if (stmt instanceof Repeat) {
+            register(((Repeat) stmt).body);
+        }
+    }
+
+    // Produção do SyntaticAnalyzer que reconheceu o comando
+    static Production production(Stmt stmt) {
+        if (stmt instanceof Assign) return Production.ASSIGN_STMT;
+        if (stmt instanceof Call) return Production.CALL_STMT;
+        if (stmt instanceof If) return Production.IF_STMT;
+        if (stmt instanceof While) return Production.WHILE_STMT;
+        if (stmt instanceof Repeat) return Production.REPEAT_STMT;
+        if (stmt instanceof Read) return Production.READ_STMT;
+        if (stmt instanceof Write || stmt instanceof WriteString) return Production.WRITE_STMT;
+        return Production.STMT_LIST;
+    }
+
+    private static int maxLine(Stmt stmt) {
+        int line = stmt.line;
+        if (stmt instanceof Block) {
+            for (Stmt s : ((Block) stmt).statements) line = Math.max(line, maxLine(s));
+        } else if (stmt instanceof If) {
+            line = Math.max(line, maxLine(((If) stmt).then));
+            if (((If) stmt).otherwise != null) line = Math.max(line, maxLine(((If) stmt).otherwise));
+        } else if (stmt instanceof While) {
+            line = Math.max(line, maxLine(((While) stmt).body));
+        } else if (stmt instanceof Repeat) {
+            line = Math.max(line, maxLine(((Repeat) stmt).body));
+        }
+        return line;
+    }
+}
@@ -0,0 +1,412 @@
+package Compiler.Interpreter;
+
+import Compiler.Lexical.Tag;
+import Compiler.Runtime.ProgramInput;
+import Compiler.Runtime.ProgramOutput;
+import Compiler.Runtime.RuntimeError;
+import Compiler.Semantic.SemanticResultType;
+import Compiler.Tree.*;
+
+/*
+ * Traduz a árvore para nós executáveis especializados pelo tipo resolvido na
+ * análise semântica: expressões int/char viram LongNode e expressões float
+ * viram DoubleNode, lendo e escrevendo direto em long[]/double[]. Nenhum
+ * valor passa por Number e nenhuma operação testa o tipo em tempo de execução.
+ * Os elementos de arranjos ficam no ArrayStorage; cada nó já guarda o vetor
+ * do seu arranjo. Numa gravação, o índice e o valor são avaliados antes de o
+ * índice ser conferido.
+ */
+class Specializer {
+
+    interface LongNode {
+        long eval();
+    }
+
+    interface DoubleNode {
+        double eval();
+    }
+
+    interface CondNode {
+        boolean test();
+    }
+
+    interface StmtNode {
+        void exec();
+    }
+
+    private final Interpreter interpreter;
+    private final long[] ints;
+    private final double[] floats;
+    private final ArrayStorage arrays;
+    private final ProgramInput input;
+    private final ProgramOutput output;
+    private final Profile profile;
+
+    Specializer(Interpreter interpreter, long[] ints, double[] floats, ArrayStorage arrays,
+                ProgramInput input, ProgramOutput output, Profile profile) {
+        this.interpreter = interpreter;
+        this.ints = ints;
+        this.floats = floats;
+        this.arrays = arrays;
+        this.input = input;
+        this.output = output;
+        this.profile = profile;
+    }
+
+    StmtNode statement(Stmt stmt) {
+        if (stmt instanceof Block) return block((Block) stmt);
+        StmtNode node = command(stmt);
+        if (profile == null) return node;
+        // Com perfil ligado cada comando é envolvido por um contador da sua linha
+        long[] statements = profile.statements;
+        int line = stmt.line;
+        return () -> {
+            statements[line]++;
+            node.exec();
+        };
+    }
+
+    private StmtNode block(Block block) {
+        StmtNode[] nodes = new StmtNode[block.statements.size()];
+        for (int i = 0; i < nodes.length; i++) nodes[i] = statement(block.statements.get(i));
+        if (nodes.length == 1) return nodes[0];
+        return () -> {
+            for (StmtNode node : nodes) node.exec();
+        };
+    }
+
+    private StmtNode command(Stmt stmt) {
+        if (stmt instanceof Assign) return assign((Assign) stmt);
+        if (stmt instanceof If) {
+            If ifStmt = (If) stmt;
+            CondNode cond = condition(ifStmt.condition);
+            StmtNode then = statement(ifStmt.then);
+            if (ifStmt.otherwise == null) {
+                return () -> {
+                    if (cond.test()) then.exec();
+                };
+            }
+            StmtNode otherwise = statement(ifStmt.otherwise);
+            return () -> {
+                if (cond.test()) then.exec();
+                else otherwise.exec();
+            };
+        }
+        if (stmt instanceof While) {
+            While whileStmt = (While) stmt;
+            return interpreter.whileLoop(whileStmt, condition(whileStmt.condition), statement(whileStmt.body));
+        }
+        if (stmt instanceof Repeat) {
+            Repeat repeat = (Repeat) stmt;
+            return interpreter.repeatLoop(repeat, statement(repeat.body), condition(repeat.condition));
+        }
+        if (stmt instanceof Call) return call((Call) stmt);
+        if (stmt instanceof Read) return read((Read) stmt);
+        if (stmt instanceof Write) return write((Write) stmt);
+        if (stmt instanceof WriteString) {
+            byte[] bytes = ((WriteString) stmt).bytes;
+            return () -> output.writeBytes(bytes);
+        }
+        throw new RuntimeError("Unknown statement", stmt.line);
+    }
+
+    private StmtNode call(Call call) {
+        int count = call.arguments.size();
+        LongNode[] longs = new LongNode[count];
+        DoubleNode[] doubles = new DoubleNode[count];
+        for (int i = 0; i < count; i++) {
+            Expr argument = call.arguments.get(i);
+            if (argument.isFloat()) doubles[i] = doubleExpr(argument);
+            else longs[i] = longExpr(argument);
+        }
+        return interpreter.call(call, longs, doubles);
+    }
+
+    private StmtNode read(Read read) {
+        if (read.index != null) return readElement(read);
+        int slot = read.target.slot;
+        int line = read.line;
+        SemanticResultType type = read.target.getType();
+        return () -> {
+            try {
+                if (type == SemanticResultType.TYPE_FLOAT) floats[slot] = input.readFloat();
+                else if (type == SemanticResultType.TYPE_CHAR) ints[slot] = input.readChar();
+                else ints[slot] = input.readInt();
+            } catch (RuntimeError e) {
+                throw new RuntimeError(e.getMessage(), line);
+            }
+        };
+    }
+
+    private StmtNode readElement(Read read) {
+        int slot = read.target.slot;
+        int line = read.line;
+        LongNode index = longExpr(read.index);
+        if (read.target.getType() == SemanticResultType.TYPE_FLOAT) {
+            double[] array = arrays.floats[slot];
+            return () -> {
+                long i = index.eval();
+                double value;
+                try {
+                    value = input.readFloat();
+                } catch (RuntimeError e) {
+                    throw new RuntimeError(e.getMessage(), line);
+                }
+                array[RuntimeError.checkIndex(i, array.length, line)] = value;
+            };
+        }
+        if (read.target.getType() == SemanticResultType.TYPE_CHAR) {
+            char[] array = arrays.chars[slot];
+            return () -> {
+                long i = index.eval();
+                char value;
+                try {
+                    value = input.readChar();
+                } catch (RuntimeError e) {
+                    throw new RuntimeError(e.getMessage(), line);
+                }
+                array[RuntimeError.checkIndex(i, array.length, line)] = value;
+            };
+        }
+        long[] array = arrays.ints[slot];
+        return () -> {
+            long i = index.eval();
+            long value;
+            try {
+                value = input.readInt();
+            } catch (RuntimeError e) {
+                throw new RuntimeError(e.getMessage(), line);
+            }
+            array[RuntimeError.checkIndex(i, array.length, line)] = value;
+        };
+    }
+
+    private StmtNode write(Write write) {
+        if (write.value.isFloat()) {
+            DoubleNode value = doubleExpr(write.value);
+            return () -> output.writeFloat(value.eval());
+        }
+        LongNode value = longExpr(write.value);
+        if (write.value.type == SemanticResultType.TYPE_CHAR) return () -> output.writeChar((char) value.eval());
+        return () -> output.writeInt(value.eval());
+    }
+
+    private StmtNode assign(Assign assign) {
+        if (assign.index != null) return assignElement(assign);
+        int slot = assign.target.slot;
+        if (assign.target.getType() == SemanticResultType.TYPE_FLOAT) {
+            DoubleNode value = doubleExpr(assign.value);
+            return () -> floats[slot] = value.eval();
+        }
+        LongNode value = longExpr(assign.value);
+        return () -> ints[slot] = value.eval();
+    }
+
+    private StmtNode assignElement(Assign assign) {
+        int slot = assign.target.slot;
+        int line = assign.line;
+        LongNode index = longExpr(assign.index);
+        if (assign.target.getType() == SemanticResultType.TYPE_FLOAT) {
+            double[] array = arrays.floats[slot];
+            DoubleNode value = doubleExpr(assign.value);
+            return () -> {
+                long i = index.eval();
+                double v = value.eval();
+                array[RuntimeError.checkIndex(i, array.length, line)] = v;
+            };
+        }
+        LongNode value = longExpr(assign.value);
+        if (assign.target.getType() == SemanticResultType.TYPE_CHAR) {
+            char[] array = arrays.chars[slot];
+            return () -> {
+                long i = index.eval();
+                long v = value.eval();
+                array[RuntimeError.checkIndex(i, array.length, line)] = (char) v;
+            };
+        }
+        long[] array = arrays.ints[slot];
+        return () -> {
+            long i = index.eval();
+            long v = value.eval();
+            array[RuntimeError.checkIndex(i, array.length, line)] = v;
+        };
+    }
+
+    /* Condições de if/while/repeat: comparações viram testes diretos, sem produzir 1 ou 0 */
+    CondNode condition(Expr expr) {
+        if (expr instanceof Binary) {
+            Binary binary = (Binary) expr;
+            if (binary.op == Tag.AND && !binary.isFloat()) {
+                CondNode l = condition(binary.left), r = condition(binary.right);
+                return () -> l.test() && r.test();
+            }
+            if (binary.op == Tag.OR && !binary.isFloat()) {
+                CondNode l = condition(binary.left), r = condition(binary.right);
+                return () -> l.test() || r.test();
+            }
+            if (isRelational(binary.op)) return compare(binary);
+        }
+        if (expr instanceof Unary && ((Unary) expr).op == '!') {
+            CondNode operand = condition(((Unary) expr).operand);
+            return () -> !operand.test();
+        }
+        if (expr.isFloat()) {
+            DoubleNode value = doubleExpr(expr);
+            return () -> value.eval() != 0;
+        }
+        LongNode value = longExpr(expr);
+        return () -> value.eval() != 0;
+    }
+
+    private CondNode compare(Binary binary) {
+        // Os dois lados têm o mesmo tipo: a análise semântica já converteu o lado int quando o outro é float
+        if (binary.left.isFloat()) {
+            DoubleNode l = doubleExpr(binary.left), r = doubleExpr(binary.right);
+            switch (binary.op) {
+                case '<': return () -> l.eval() < r.eval();
+                case '>': return () -> l.eval() > r.eval();
+                case Tag.LE: return () -> l.eval() <= r.eval();
+                case Tag.GE: return () -> l.eval() >= r.eval();
+                case Tag.EQ: return () -> l.eval() == r.eval();
+                default: return () -> l.eval() != r.eval();
+            }
+        }
+        LongNode l = longExpr(binary.left);
+        if (binary.right instanceof IntLiteral || binary.right instanceof CharLiteral) {
+            long c = constant(binary.right);
+            switch (binary.op) {
+                case '<': return () -> l.eval() < c;
+                case '>': return () -> l.eval() > c;
+                case Tag.LE: return () -> l.eval() <= c;
+                case Tag.GE: return () -> l.eval() >= c;
+                case Tag.EQ: return () -> l.eval() == c;
+                default: return () -> l.eval() != c;
+            }
+        }
+        LongNode r = longExpr(binary.right);
+        switch (binary.op) {
+            case '<': return () -> l.eval() < r.eval();
+            case '>': return () -> l.eval() > r.eval();
+            case Tag.LE: return () -> l.eval() <= r.eval();
+            case Tag.GE: return () -> l.eval() >= r.eval();
+            case Tag.EQ: return () -> l.eval() == r.eval();
+            default: return () -> l.eval() != r.eval();
+        }
+    }
+
+    /* Expressão int ou char */
+    LongNode longExpr(Expr expr) {
+        if (expr instanceof IntLiteral || expr instanceof CharLiteral) {
+            long c = constant(expr);
+            return () -> c;
+        }
+        if (expr instanceof VarRef) {
+            int slot = ((VarRef) expr).variable.slot;
+            return () -> ints[slot];
+        }
+        if (expr instanceof Index) {
+            Index element = (Index) expr;
+            LongNode index = longExpr(element.index);
+            int line = element.line;
+            if (element.type == SemanticResultType.TYPE_CHAR) {
+                char[] array = arrays.chars[element.array.slot];
+                return () -> array[RuntimeError.checkIndex(index.eval(), array.length, line)];
+            }
+            long[] array = arrays.ints[element.array.slot];
+            return () -> array[RuntimeError.checkIndex(index.eval(), array.length, line)];
+        }
+        if (expr instanceof Unary) {
+            Unary unary = (Unary) expr;
+            if (unary.op == '!') {
+                CondNode operand = condition(unary.operand);
+                return () -> operand.test() ? 0 : 1;
+            }
+            LongNode operand = longExpr(unary.operand);
+            return () -> -operand.eval();
+        }
+        if (expr instanceof Binary) {
+            Binary binary = (Binary) expr;
+            if (isRelational(binary.op) || binary.op == Tag.AND || binary.op == Tag.OR) {
+                CondNode cond = condition(binary);
+                return () -> cond.test() ? 1 : 0;
+            }
+            LongNode l = longExpr(binary.left);
+            if (binary.right instanceof IntLiteral || binary.right instanceof CharLiteral) {
+                long c = constant(binary.right);
+                switch (binary.op) {
+                    case '+': return () -> l.eval() + c;
+                    case '-': return () -> l.eval() - c;
+                    case '*': return () -> l.eval() * c;
+                }
+            }
+            LongNode r = longExpr(binary.right);
+            switch (binary.op) {
+                case '+': return () -> l.eval() + r.eval();
+                case '-': return () -> l.eval() - r.eval();
+                case '*': return () -> l.eval() * r.eval();
+            }
+        }
+        throw new RuntimeError("Unknown int expression", expr.line);
+    }
+
+    /* Expressão float; operandos int já chegam envolvidos em Conversion */
+    DoubleNode doubleExpr(Expr expr) {
+        if (expr instanceof FloatLiteral) {
+            double c = ((FloatLiteral) expr).value;
+            return () -> c;
+        }
+        if (expr instanceof VarRef) {
+            int slot = ((VarRef) expr).variable.slot;
+            return () -> floats[slot];
+        }
+        if (expr instanceof Index) {
+            Index element = (Index) expr;
+            LongNode index = longExpr(element.index);
+            int line = element.line;
+            double[] array = arrays.floats[element.array.slot];
+            return () -> array[RuntimeError.checkIndex(index.eval(), array.length, line)];
+        }
+        if (expr instanceof Conversion) {
+            Expr operand = ((Conversion) expr).operand;
+            if (operand instanceof IntLiteral || operand instanceof CharLiteral) {
+                double c = constant(operand);
+                return () -> c;
+            }
+            LongNode value = longExpr(operand);
+            return () -> (double) value.eval();
+        }
+        if (expr instanceof Unary) {
+            Unary unary = (Unary) expr;
+            if (unary.op == '!') {
+                CondNode operand = condition(unary.operand);
+                return () -> operand.test() ? 0.0 : 1.0;
+            }
+            DoubleNode operand = doubleExpr(unary.operand);
+            return () -> -operand.eval();
+        }
+        if (expr instanceof Binary) {
+            Binary binary = (Binary) expr;
+            if (binary.op == Tag.AND || binary.op == Tag.OR) {
+                CondNode l = condition(binary.left), r = condition(binary.right);
+                if (binary.op == Tag.AND) return () -> l.test() && r.test() ? 1.0 : 0.0;
+                return () -> l.test() || r.test() ? 1.0 : 0.0;
+            }
+            DoubleNode l = doubleExpr(binary.left), r = doubleExpr(binary.right);
+            switch (binary.op) {
+                case '+': return () -> l.eval() + r.eval();
+                case '-': return () -> l.eval() - r.eval();
+                case '*': return () -> l.eval() * r.eval();
+                case '/': return () -> l.eval() / r.eval();
+            }
+        }
+        throw new RuntimeError("Unknown float expression", expr.line);
+    }
+
+    private static long constant(Expr literal) {
+        return literal instanceof IntLiteral ? ((IntLiteral) literal).value : ((CharLiteral) literal).value;
+    }
+
+    static boolean isRelational(int op) {
+        return op == '<' || op == '>' || op == Tag.LE || op == Tag.GE || op == Tag.EQ || op == Tag.NE;
+    }
+}
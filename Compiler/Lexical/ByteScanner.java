@@ -0,0 +1,83 @@
+package Compiler.Lexical;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+
+/*
+ * Buscas em blocos de bytes usadas pelo Lexer para pular espaços, comentários
+ * e literais. Cada iteração examina 8 bytes de uma vez lendo-os como um long
+ * (SWAR); o restante do bloco é tratado byte a byte.
+ */
+final class ByteScanner {
+
+    private static final VarHandle LONGS =
+            MethodHandles.byteArrayViewVarHandle(long[].class, ByteOrder.LITTLE_ENDIAN);
+
+    private static final long ONES = 0x0101010101010101L;
+    private static final long LOW7 = 0x7F7F7F7F7F7F7F7FL;
+    private static final long HIGH = 0x8080808080808080L;
+
+    private ByteScanner() {
+    }
+
+    /* Marca com 0x80 exatamente os bytes de word iguais a b */
+    private static long matches(long word, byte b) {
+        long x = word ^ (ONES * (b & 0xFF));
+        return ~(((x & LOW7) + LOW7) | x | LOW7);
+    }
+
+    private static long blanks(long word) {
+        return matches(word, (byte) ' ') | matches(word, (byte) '\t') | matches(word, (byte) '\r')
+                | matches(word, (byte) '\b') | matches(word, (byte) '\n');
+    }
+
+    private static boolean isBlank(byte b) {
+        return b == ' ' || b == '\t' || b == '\r' || b == '\b' || b == '\n';
+    }
+
+    /* Primeira posição em [from, to) que não é espaço, tabulação, \r, \b ou \n; to se não houver */
+    static int skipBlanks(byte[] buf, int from, int to) {
+        int i = from;
+        for (; i + 8 <= to; i += 8) {
+            long other = ~blanks((long) LONGS.get(buf, i)) & HIGH;
+            if (other != 0) {
+                return i + (Long.numberOfTrailingZeros(other) >>> 3);
+            }
+        }
+        while (i < to && isBlank(buf[i])) i++;
+        return i;
+    }
+
+    /* Primeira ocorrência de b em [from, to); to se não houver */
+    static int indexOf(byte[] buf, int from, int to, byte b) {
+        int i = from;
+        for (; i + 8 <= to; i += 8) {
+            long found = matches((long) LONGS.get(buf, i), b);
+            if (found != 0) {
+                return i + (Long.numberOfTrailingZeros(found) >>> 3);
+            }
+        }
+        while (i < to && buf[i] != b) i++;
+        return i;
+    }
+
+    /* Primeira ocorrência de a ou b em [from, to); to se não houver */
+    static int indexOfEither(byte[] buf, int from, int to, byte a, byte b) {
+        int i = from;
+        for (; i + 8 <= to; i += 8) {
+            long word = (long) LONGS.get(buf, i);
+            long found = matches(word, a) | matches(word, b);
+            if (found != 0) {
+                return i + (Long.numberOfTrailingZeros(found) >>> 3);
+            }
+        }
+        while (i < to && buf[i] != a && buf[i] != b) i++;
+        return i;
+    }
+
+    /* Marca com 0x80 os \n dos 8 bytes a partir de i */
+    static long newlines(byte[] buf, int i) {
+        return matches((long) LONGS.get(buf, i), (byte) '\n');
+    }
+}
@@ -1,35 +1,166 @@
 package Compiler.Lexical;
 
 import java.io.*;
+import java.nio.charset.StandardCharsets;
 
+import Compiler.Budget.Budget;
 import Compiler.Lexical.Tokens.InvalidToken;
 import Compiler.Lexical.Tokens.Token;
 import Compiler.Lexical.Tokens.Word;
 import Compiler.Lexical.Tokens.Char.*;
 import Compiler.Lexical.Tokens.Num.*;
+import Compiler.Metrics.Metrics;
 import Compiler.SymbolTable.SymbolTable;
 
 
-public class Lexer {
+public class Lexer implements TokenSource, Closeable {
+
+    private static final int BUFFER_SIZE = 1 << 16;
+    private static final char EOF_CHAR = (char) -1;
 
-    public static int line = 1; //contador de linhas
     private char ch = ' '; //caractere lido do arquivo
-    private FileReader file;
+    private InputStream input;
     private SymbolTable symbolTable;
+    private long bytesRead = 0; //bytes lidos desde o último token contabilizado
+
+    /* O arquivo é lido em blocos de bytes (UTF-8). Literais guardam apenas o
+       trecho do bloco onde aparecem e são convertidos quando forem usados */
+    private byte[] buf = new byte[BUFFER_SIZE];
+    private int pos = 0;      //próximo byte a ser lido
+    private int limit = 0;    //fim dos bytes válidos em buf
+    private int chPos = 0;    //posição de ch em buf
+    private int mark = -1;    //início do lexema em andamento, preservado ao recarregar o bloco
+    private boolean shared;   //algum token referencia buf, que não pode ser sobrescrito
+    private char lowSurrogate = 0; //segunda metade de um caractere fora do BMP
+    private long base = 0;    //posição no arquivo do primeiro byte de buf
+    private long tokenStart = 0; //posição no arquivo do início do último token
+    private boolean keepToken = false; //o último token fica no bloco até o próximo começar, para column()
+    private final LineIndex lines = new LineIndex(); //quebras de linha de tudo que já foi lido
+    private long lineContinuations = 0; //bytes de continuação UTF-8 entre o início da linha que contém base e base
+    private Budget budget; //limites da compilação; null não confere nada
 
     /* Método construtor */
     public Lexer(String fileName, SymbolTable symbolTable) throws FileNotFoundException {
-        try {
-            file = new FileReader(fileName);
-        } catch (FileNotFoundException e) {
-            throw e;
-        }
+        this(new FileInputStream(fileName), symbolTable);
+    }
+
+    public Lexer(InputStream input, SymbolTable symbolTable) {
+        this.input = input;
         this.symbolTable = symbolTable;
     }
 
+    /* Confere os limites de tamanho de token, de identificadores e de tempo da compilação */
+    public void setBudget(Budget budget) {
+        this.budget = budget;
+    }
+
+    /* Fecha o arquivo antes do fim, quando a análise para num erro */
+    @Override
+    public void close() throws IOException {
+        if (input != null) {
+            input.close();
+            input = null;
+        }
+    }
+
+    /* Carrega o próximo bloco do arquivo, mantendo os bytes a partir de keepFrom.
+       Retorna false se não houver mais nada para ler */
+    private boolean fill(int keepFrom) throws IOException {
+        // Um lexema em andamento faz o bloco crescer; confere antes de alocar o maior
+        if (budget != null && mark >= 0) {
+            budget.lexeme(limit - mark, this, tokenStart);
+        }
+        if (keepToken && tokenStart >= base) {
+            keepFrom = Math.min(keepFrom, (int) (tokenStart - base));
+        }
+        countContinuations(keepFrom);
+        int keep = limit - keepFrom;
+        int capacity = Math.max(BUFFER_SIZE, keep * 2);
+        if (budget != null) {
+            capacity = Math.max(BUFFER_SIZE, budget.lexemeBuffer(capacity, keep));
+        }
+        byte[] target = buf;
+        if (shared || keep > buf.length / 2 && capacity != buf.length) {
+            target = new byte[capacity];
+        }
+        System.arraycopy(buf, keepFrom, target, 0, keep);
+        buf = target;
+        base += keepFrom;
+        shared = false;
+        pos -= keepFrom;
+        chPos -= keepFrom;
+        limit = keep;
+        if (mark >= 0) {
+            mark -= keepFrom;
+        }
+        if (input == null) {
+            return false;
+        }
+        int n = input.read(buf, limit, buf.length - limit);
+        if (n < 0) {
+            input.close();
+            input = null;
+            return false;
+        }
+        lines.add(buf, limit, limit + n, base + limit);
+        limit += n;
+        bytesRead += n;
+        if (budget != null) {
+            budget.read(n, buf.length, lines.lines(), this, tokenStart);
+        }
+        return true;
+    }
+
+    /* Atualiza lineContinuations com os bytes de buf[0, discarded) que vão ser
+       descartados, olhando só o que vem depois da última quebra de linha */
+    private void countContinuations(int discarded) {
+        int i = discarded - 1;
+        int n = 0;
+        for (; i >= 0 && buf[i] != '\n'; i--) {
+            if ((buf[i] & 0xC0) == 0x80) n++;
+        }
+        lineContinuations = i >= 0 ? n : lineContinuations + n;
+    }
+
     /*Lê o próximo caractere do arquivo*/
     private void readch() throws IOException {
-        ch = (char) file.read();
+        if (lowSurrogate != 0) {
+            ch = lowSurrogate;
+            lowSurrogate = 0;
+            return;
+        }
+        if (pos >= limit && !fill(mark >= 0 ? mark : pos)) {
+            chPos = pos;
+            ch = EOF_CHAR;
+            return;
+        }
+        chPos = pos;
+        int b = buf[pos++];
+        ch = b >= 0 ? (char) b : decode(b);
+    }
+
+    /* Decodifica um caractere UTF-8 de mais de um byte iniciado por b */
+    private char decode(int b) throws IOException {
+        int extra = (b & 0xE0) == 0xC0 ? 1 : (b & 0xF0) == 0xE0 ? 2 : (b & 0xF8) == 0xF0 ? 3 : 0;
+        // A leitura pode entregar menos bytes que o necessário para completar o caractere
+        while (limit - pos < extra && fill(mark >= 0 ? Math.min(mark, chPos) : chPos)) {
+        }
+        int c = b & (0x3F >> extra);
+        for (int i = 0; i < extra; i++) {
+            if (pos >= limit || (buf[pos] & 0xC0) != 0x80) {
+                return '\uFFFD';
+            }
+            c = (c << 6) | (buf[pos++] & 0x3F);
+        }
+        // Fora do Unicode ou uma metade de surrogate codificada sozinha: inválidos em UTF-8
+        if (extra == 0 || c > Character.MAX_CODE_POINT || c >= 0xD800 && c <= 0xDFFF) {
+            return '\uFFFD';
+        }
+        if (c > 0xFFFF) {
+            lowSurrogate = Character.lowSurrogate(c);
+            return Character.highSurrogate(c);
+        }
+        return (char) c;
     }
 
     /* Lê o próximo caractere do arquivo e verifica se é igual a c*/
@@ -39,33 +170,135 @@ public class Lexer {
             return false;
         }
         ch = ' ';
+        chPos = pos;
         return true;
     }
 
+    /* Texto entre start e end no bloco atual */
+    private String text(int start, int end) {
+        return new String(buf, start, end - start, StandardCharsets.UTF_8);
+    }
+
+    /* Confere no Budget o lexema iniciado em mark que termina em end */
+    private void lexeme(int end) {
+        if (budget != null) {
+            budget.lexeme(end - mark, this, tokenStart);
+        }
+    }
+
+    /* Pula de uma vez os espaços que seguem ch; o próximo readch() lê o
+       primeiro caractere depois deles */
+    private void skipBlanks() throws IOException {
+        while (lowSurrogate == 0) {
+            if (pos < limit && buf[pos] > ' ') {
+                return; //caso comum: um único espaço entre tokens
+            }
+            pos = ByteScanner.skipBlanks(buf, pos, limit);
+            if (pos < limit || !fill(pos)) {
+                return;
+            }
+        }
+    }
+
+    /* Pula o corpo de um comentário até o primeiro "*\/". Retorna false se o
+       arquivo acabar antes */
+    private boolean skipComment() throws IOException {
+        while (true) {
+            pos = ByteScanner.indexOf(buf, pos, limit, (byte) '*');
+            if (pos < limit) {
+                pos++;
+                if (pos < limit || fill(pos)) {
+                    if (buf[pos] == '/') {
+                        pos++;
+                        chPos = pos;
+                        ch = ' ';
+                        return true;
+                    }
+                    continue;
+                }
+            } else if (fill(pos)) {
+                continue;
+            }
+            chPos = pos;
+            ch = EOF_CHAR;
+            return false;
+        }
+    }
+
+    /* Linha e coluna do último token, calculadas pelo LineIndex só quando pedidas */
+    public int getLine() {
+        return lines.line(tokenStart);
+    }
+
+    public int line(long position) {
+        return lines.line(position);
+    }
+
+    /* Coluna em caracteres: a coluna em bytes do LineIndex menos os bytes de
+       continuação UTF-8 entre o início da linha e a posição. O último token fica
+       no bloco; uma posição que já saiu dele (um token antigo) fica com a
+       coluna em bytes */
+    public int column(long position) {
+        int column = lines.column(position);
+        if (position < base || position > base + limit) {
+            return column;
+        }
+        long lineStart = position - column + 1;
+        int from = 0;
+        if (lineStart >= base) {
+            from = (int) (lineStart - base);
+        } else {
+            column -= lineContinuations;
+        }
+        for (int i = from; i < position - base; i++) {
+            if ((buf[i] & 0xC0) == 0x80) column--;
+        }
+        return column;
+    }
+
+    public LineIndex getLineIndex() {
+        return lines;
+    }
+
+    /* Posição (em bytes) no arquivo onde começa o último token lido */
+    public long getTokenStart() {
+        return tokenStart;
+    }
+
+    /* Posição (em bytes) no arquivo logo depois do último token lido */
+    public long getTokenEnd() {
+        return base + chPos;
+    }
+
     public Token scan() throws IOException {
+        if (!Metrics.enabled) {
+            return scanToken();
+        }
+        Token t = scanToken();
+        Metrics.token(t.getTag());
+        Metrics.bytes.add(bytesRead);
+        bytesRead = 0;
+        return t;
+    }
+
+    private Token scanToken() throws IOException {
+        keepToken = false;
         //Desconsidera delimitadores e comentários na entrada
         for (;; readch()) {
-            if (ch == ' ' || ch == '\t' || ch == '\r' || ch == '\b') {
-                continue;
-            } else if (ch == '\n') {
-                line++; //conta linhas
+            if (ch == ' ' || ch == '\t' || ch == '\r' || ch == '\b' || ch == '\n') {
+                skipBlanks();
             } else      
             //Procura por comentários
             if(ch=='/'){
+                long previous = tokenStart;
+                tokenStart = base + chPos;
+                keepToken = true;
                 if(readch('*')){
-                    while(true){
-                        while(!readch('*')){
-                            if(ch=='\n'){
-                                line++;
-                            }
-                            // End of File
-                            if(ch==(char)-1){
-                                return new Token(Tag.EOF);
-                            }
-                        }
-                        if(readch('/')) {
-                            break;
-                        };
+                    tokenStart = previous;
+                    keepToken = false;
+                    if(!skipComment()){
+                        tokenStart = base + chPos;
+                        return new Token(Tag.EOF);
                     }
                 } else {
                     return new Token('/');
@@ -75,6 +308,8 @@ public class Lexer {
             }
     
         }
+        tokenStart = base + chPos;
+        keepToken = true;
         
         switch (ch) {
             //Operadores
@@ -118,46 +353,52 @@ public class Lexer {
 
         //Tokens de um único caractere
         if( ch=='+'||ch=='-'||ch=='*'||ch=='.'||ch==','||
-            ch==';'||ch=='('||ch==')') {
+            ch==';'||ch=='('||ch==')'||ch=='['||ch==']') {
                 char character = ch;
                 readch();
                 return new Token(character);
             } 
 
-        //Números
-        if (Character.isDigit(ch)) {
-            StringBuilder value = new StringBuilder();
+        //Números: só delimita o lexema, o valor é calculado quando for pedido
+        if (isDigit(ch)) {
+            mark = chPos;
             boolean semDecimal = true;
             do {
                 if(ch == '.'){
                     semDecimal = false;
-                    value.append(ch);
                     readch();
-                    if(!Character.isDigit(ch)){
-                        return new InvalidToken(value.toString());
+                    if(!isDigit(ch)){
+                        Token invalid = new InvalidToken(text(mark, chPos));
+                        mark = -1;
+                        return invalid;
                     }
                 }
-                value.append(ch);
                 readch();
-            } while (Character.isDigit(ch)|| (ch == '.' && semDecimal));
-            if(semDecimal){
-                return new IntConst(Long.parseLong(value.toString()));
-            }
-            return new FloatConst(Double.parseDouble(value.toString()));
+            } while (isDigit(ch) || (ch == '.' && semDecimal));
+            lexeme(chPos);
+            shared = true;
+            Token number = semDecimal ? new IntConst(buf, mark, chPos)
+                                      : new FloatConst(buf, mark, chPos);
+            mark = -1;
+            return number;
         }
 
         //Identificadores
         if (Character.isLetter(ch)) {
-            StringBuffer sb = new StringBuffer();
+            mark = chPos;
             do {
-                sb.append(ch);
                 readch();
             } while (Character.isLetterOrDigit(ch) || ch == '_');
-            String s = sb.toString();
+            lexeme(chPos);
+            String s = text(mark, chPos);
+            mark = -1;
             Word w =  symbolTable.get(s);
             if (w != null) {
                 return w; //palavra já existe na HashTable
             }
+            if (budget != null) {
+                budget.identifier(this, tokenStart);
+            }
             w = new Word(s, Tag.ID);
             symbolTable.put(s, w);
             return w;
@@ -167,41 +408,87 @@ public class Lexer {
         if(ch=='\''){
             readch();
             char character = ch;
+            if(Character.isHighSurrogate(character) && lowSurrogate != 0){
+                //Um caractere fora do BMP não cabe num char: o token inválido leva o caractere inteiro
+                String invalid = "'" + wholeChar();
+                ch = ' ';
+                chPos = pos;
+                return new InvalidToken(invalid);
+            }
             if(readch('\'')){
                 return new CharConst(character);
             } 
-            String invalid = "'" + character + ch;
+            //ch volta a ser lido no próximo token; metade de um caractere fora do BMP não entra neste
+            String invalid = Character.isHighSurrogate(ch) ? "'" + character : "'" + character + ch;
             return new InvalidToken(invalid);
         }
 
-        // Strings literais
+        // Strings literais: o primeiro caractere sempre faz parte do literal,
+        // depois busca o '}' que o fecha ou a quebra de linha que o invalida
         if(ch=='{'){
-            StringBuffer sb = new StringBuffer();
             readch();
-            while(true){
-                if(ch=='\n'){
-                    sb.append(ch);
-                    return new InvalidToken(sb.toString());
-                }
-                // End of File
-                if(ch==(char)-1){
-                    return new InvalidToken(sb.toString());
+            mark = chPos;
+            Token t;
+            if(ch=='\n'){
+                t = new InvalidToken(text(mark, chPos + 1));
+            } else if(ch==EOF_CHAR){
+                t = new InvalidToken(text(mark, chPos));
+            } else {
+                lowSurrogate = 0;
+                while(true){
+                    int end = ByteScanner.indexOfEither(buf, pos, limit, (byte) '}', (byte) '\n');
+                    if(end < limit){
+                        chPos = end;
+                        pos = end + 1;
+                        if(buf[end] == '}'){
+                            lexeme(end);
+                            shared = true;
+                            t = new StringConst(buf, mark, end);
+                            chPos = pos;
+                            ch = ' ';
+                        } else {
+                            t = new InvalidToken(text(mark, end + 1));
+                            ch = '\n';
+                        }
+                        break;
+                    }
+                    pos = limit;
+                    if(!fill(mark)){
+                        // End of File
+                        chPos = pos;
+                        ch = EOF_CHAR;
+                        t = new InvalidToken(text(mark, pos));
+                        break;
+                    }
                 }
-                sb.append(ch);
-                if(readch('}')) {
-                    return new StringConst(sb.toString());
-                };
             }
+            mark = -1;
+            return t;
         }
 
         // End of File
-        if(ch==(char)-1){
+        if(ch==EOF_CHAR){
             return new Token(Tag.EOF);
         }
 
         //Caracteres não especificados
-        Token t = new InvalidToken(""+ch);
+        Token t = new InvalidToken(wholeChar());
         ch = ' ';
+        chPos = pos;
         return t;
     }
+
+    /* ch como texto; um caractere fora do BMP leva junto a segunda metade, para não ficar partido entre dois tokens */
+    private String wholeChar() {
+        if (lowSurrogate != 0 && Character.isHighSurrogate(ch)) {
+            String s = "" + ch + lowSurrogate;
+            lowSurrogate = 0;
+            return s;
+        }
+        return "" + ch;
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
 }
@@ -0,0 +1,81 @@
+package Compiler.Lexical;
+
+import java.util.Arrays;
+
+/*
+ * Início de cada linha de um arquivo, montado pelo Lexer a cada bloco lido
+ * (8 bytes por vez, como o ByteScanner) em vez de contar linhas enquanto pula
+ * espaços e comentários. Os tokens só guardam a posição (em bytes) onde
+ * começam; linha e coluna são calculadas quando alguém precisa delas, por
+ * busca binária. As consultas quase sempre avançam pelo arquivo, então a
+ * última linha encontrada é testada antes da busca. Um leitor que só anda
+ * para frente (o Formatter) pode descartar as linhas já passadas com trim().
+ */
+public final class LineIndex {
+
+    private long[] starts = new long[256]; // starts[i]: posição do primeiro byte da linha i + 1
+    private int lines = 1;
+    private int last = 0;                  // linha (base 0) da última consulta
+    private int dropped = 0;               // linhas descartadas por trim(), antes de starts[0]
+
+    /* Registra as quebras de linha de buf[from, to), cujo primeiro byte está na posição base */
+    void add(byte[] buf, int from, int to, long base) {
+        long offset = base - from + 1;
+        int i = from;
+        for (; i + 8 <= to; i += 8) {
+            long found = ByteScanner.newlines(buf, i);
+            if (found == 0) continue;
+            if (lines + 8 > starts.length) starts = Arrays.copyOf(starts, starts.length * 2);
+            do {
+                starts[lines++] = offset + i + (Long.numberOfTrailingZeros(found) >>> 3);
+                found &= found - 1;
+            } while (found != 0);
+        }
+        for (; i < to; i++) {
+            if (buf[i] != '\n') continue;
+            if (lines == starts.length) starts = Arrays.copyOf(starts, starts.length * 2);
+            starts[lines++] = offset + i;
+        }
+    }
+
+    /* Linha (a partir de 1) que contém a posição */
+    public int line(long position) {
+        return index(position) + 1 + dropped;
+    }
+
+    /* Índice em starts da linha que contém a posição */
+    private int index(long position) {
+        int l = last;
+        if (starts[l] > position || l + 1 < lines && starts[l + 1] <= position) {
+            if (l + 2 < lines && starts[l + 1] <= position && starts[l + 2] > position) {
+                l++;
+            } else {
+                int found = Arrays.binarySearch(starts, 0, lines, position);
+                l = found >= 0 ? found : -found - 2;
+            }
+            last = l;
+        }
+        return l;
+    }
+
+    /* Coluna (a partir de 1, em bytes) da posição na sua linha */
+    public int column(long position) {
+        return (int) (position - starts[index(position)]) + 1;
+    }
+
+    /* Linhas vistas até agora; a última pode ainda não ter terminado */
+    public int lines() {
+        return lines + dropped;
+    }
+
+    /* Esquece as linhas anteriores à que contém position; depois disso só
+       posições a partir dessa linha podem ser consultadas */
+    public void trim(long position) {
+        int l = index(position);
+        if (l == 0) return;
+        System.arraycopy(starts, l, starts, 0, lines - l);
+        lines -= l;
+        dropped += l;
+        last = 0;
+    }
+}
@@ -0,0 +1,179 @@
+package Compiler.Lexical.Snapshot;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+import Compiler.Lexical.Tag;
+import Compiler.Lexical.TokenSource;
+import Compiler.Lexical.Tokens.InvalidToken;
+import Compiler.Lexical.Tokens.Token;
+import Compiler.Lexical.Tokens.Word;
+import Compiler.Lexical.Tokens.Char.CharConst;
+import Compiler.Lexical.Tokens.Char.StringConst;
+import Compiler.Lexical.Tokens.Num.FloatConst;
+import Compiler.Lexical.Tokens.Num.IntConst;
+import Compiler.SymbolTable.SymbolTable;
+
+/*
+ * Reproduz um snapshot gravado pelo TokenSnapshotWriter. O arquivo é mapeado
+ * em memória e lido diretamente do mapeamento; as strings só são decodificadas
+ * na primeira vez que são usadas. Contagens, tamanhos e índices vindos do
+ * arquivo são conferidos antes do uso: um snapshot truncado ou corrompido
+ * termina com IOException, não com um vetor enorme ou um índice inválido.
+ */
+public class TokenSnapshotReader implements TokenSource {
+
+    private final MappedByteBuffer data;
+    private final SymbolTable symbolTable;
+    private final int[] stringOffsets;
+    private final int[] stringLengths;
+    private final String[] strings;
+    private final Word[] identifiers; // identificadores e palavras reservadas já resolvidos
+    private int remaining;
+    private int line = 0;
+
+    public TokenSnapshotReader(String fileName, SymbolTable symbolTable) throws IOException {
+        try (FileChannel channel = FileChannel.open(Paths.get(fileName), StandardOpenOption.READ)) {
+            data = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        this.symbolTable = symbolTable;
+
+        if (data.remaining() < 4 || data.getInt() != TokenSnapshotWriter.MAGIC) {
+            throw new IOException("File " + fileName + " is not a token snapshot");
+        }
+        int version = (int) readVarint();
+        if (version != TokenSnapshotWriter.VERSION) {
+            throw new IOException("Unsupported token snapshot version " + version);
+        }
+        int count = count(1); // cada string ocupa pelo menos o varint do tamanho
+        stringOffsets = new int[count];
+        stringLengths = new int[count];
+        for (int i = 0; i < count; i++) {
+            stringLengths[i] = count(1);
+            stringOffsets[i] = data.position();
+            data.position(data.position() + stringLengths[i]);
+        }
+        strings = new String[count];
+        identifiers = new Word[count];
+        remaining = count(2); // cada token tem pelo menos o tag e a variação da linha
+    }
+
+    /* Contagem de elementos que ocupam pelo menos size bytes cada no que resta do arquivo */
+    private int count(int size) throws IOException {
+        long count = readVarint();
+        if (count < 0 || count > Integer.MAX_VALUE || count * size > data.remaining()) {
+            throw new IOException("Bad count " + count + " in token snapshot");
+        }
+        return (int) count;
+    }
+
+    public int getLine() {
+        return line;
+    }
+
+    public Token scan() throws IOException {
+        if (remaining == 0) {
+            return new Token(Tag.EOF);
+        }
+        remaining--;
+        int tag = (int) unzigzag(readVarint());
+        line += (int) unzigzag(readVarint());
+
+        switch (tag) {
+            case Tag.INT_CONST:
+                return new IntConst(unzigzag(readVarint()));
+            case Tag.FLOAT_CONST:
+                if (data.remaining() < 8) {
+                    throw new IOException("Token snapshot is truncated");
+                }
+                long bits = 0;
+                for (int i = 0; i < 8; i++) {
+                    bits |= (data.get() & 0xFFL) << (i * 8);
+                }
+                return new FloatConst(Double.longBitsToDouble(bits));
+            case Tag.AND:
+                return Word.and;
+            case Tag.OR:
+                return Word.or;
+            case Tag.EQ:
+                return Word.eq;
+            case Tag.NE:
+                return Word.ne;
+            case Tag.LE:
+                return Word.le;
+            case Tag.GE:
+                return Word.ge;
+            case Tag.STRING_CONST:
+                return new StringConst(string((int) readVarint()));
+            case Tag.CHAR_CONST:
+                String c = string((int) readVarint());
+                if (c.isEmpty()) {
+                    throw new IOException("Empty char constant in token snapshot");
+                }
+                return new CharConst(c.charAt(0));
+            case Tag.INVALID:
+                return new InvalidToken(string((int) readVarint()));
+        }
+        if (TokenSnapshotWriter.hasStringPayload(tag)) {
+            return identifier((int) readVarint());
+        }
+        return new Token(tag);
+    }
+
+    /* Resolve identificadores pela tabela de símbolos, como o Lexer faz, para
+       que o analisador veja a mesma instância de Word em cada ocorrência */
+    private Word identifier(int index) throws IOException {
+        String s = string(index);
+        Word w = identifiers[index];
+        if (w != null) {
+            return w;
+        }
+        w = symbolTable.get(s);
+        if (w == null) {
+            w = new Word(s, Tag.ID);
+            symbolTable.put(s, w);
+        }
+        identifiers[index] = w;
+        return w;
+    }
+
+    private String string(int index) throws IOException {
+        if (index < 0 || index >= strings.length) {
+            throw new IOException("Bad string index " + index + " in token snapshot");
+        }
+        String s = strings[index];
+        if (s == null) {
+            byte[] bytes = new byte[stringLengths[index]];
+            data.get(stringOffsets[index], bytes);
+            s = new String(bytes, StandardCharsets.UTF_8);
+            strings[index] = s;
+        }
+        return s;
+    }
+
+    private long readVarint() throws IOException {
+        long result = 0;
+        int shift = 0;
+        byte b;
+        do {
+            if (shift > 63) {
+                throw new IOException("Bad varint in token snapshot");
+            }
+            if (!data.hasRemaining()) {
+                throw new IOException("Token snapshot is truncated");
+            }
+            b = data.get();
+            result |= (long) (b & 0x7F) << shift;
+            shift += 7;
+        } while (b < 0);
+        return result;
+    }
+
+    private static long unzigzag(long v) {
+        return (v >>> 1) ^ -(v & 1);
+    }
+}
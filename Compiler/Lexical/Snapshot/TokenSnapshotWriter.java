@@ -0,0 +1,119 @@
+package Compiler.Lexical.Snapshot;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+
+import Compiler.Lexical.Tag;
+import Compiler.Lexical.TokenSource;
+import Compiler.Lexical.Tokens.Token;
+import Compiler.Lexical.Tokens.Word;
+import Compiler.Lexical.Tokens.Num.Num;
+
+/*
+ * Grava o fluxo de tokens de uma fonte num snapshot binário compacto.
+ *
+ * Formato (inteiros em varint, com zigzag onde o valor pode ser negativo):
+ *   magic "TKS1" | versão
+ *   quantidade de strings | {tamanho, bytes UTF-8}      tabela de strings deduplicada
+ *   quantidade de tokens  | {tag, delta de linha, payload}
+ *
+ * O payload depende da tag: índice na tabela de strings para identificadores,
+ * palavras reservadas, literais e tokens inválidos; o valor para constantes
+ * inteiras; os 8 bytes do double para constantes float; nada para os demais.
+ */
+public class TokenSnapshotWriter {
+
+    static final int MAGIC = 0x544B5331;
+    static final int VERSION = 1;
+
+    private final HashMap<String, Integer> stringIndex = new HashMap<>();
+    private final ArrayList<byte[]> strings = new ArrayList<>();
+    private final ByteArrayOutputStream tokens = new ByteArrayOutputStream(1 << 12);
+    private int tokenCount = 0;
+    private int lastLine = 0;
+
+    /* Consome a fonte até o EOF (inclusive) e grava o snapshot em fileName.
+       Retorna a quantidade de tokens gravados */
+    public static int write(TokenSource source, String fileName) throws IOException {
+        TokenSnapshotWriter writer = new TokenSnapshotWriter();
+        Token t;
+        do {
+            t = source.scan();
+            writer.add(t, source.getLine());
+        } while (t.getTag() != Tag.EOF);
+        try (OutputStream out = new BufferedOutputStream(new FileOutputStream(fileName))) {
+            writer.writeTo(out);
+        }
+        return writer.tokenCount;
+    }
+
+    private void add(Token t, int line) {
+        int tag = t.getTag();
+        writeVarint(tokens, zigzag(tag));
+        writeVarint(tokens, zigzag(line - lastLine));
+        lastLine = line;
+        tokenCount++;
+
+        if (tag == Tag.INT_CONST) {
+            writeVarint(tokens, zigzag(((Num) t).getValue().longValue()));
+        } else if (tag == Tag.FLOAT_CONST) {
+            long bits = Double.doubleToRawLongBits(((Num) t).getValue().doubleValue());
+            for (int i = 0; i < 8; i++) {
+                tokens.write((int) (bits >>> (i * 8)));
+            }
+        } else if (hasStringPayload(tag)) {
+            writeVarint(tokens, intern(((Word) t).getLexeme()));
+        }
+    }
+
+    /* Operadores compostos (&&, ==, ...) são instâncias únicas de Word e
+       são reconstruídos apenas pela tag */
+    static boolean hasStringPayload(int tag) {
+        return tag == Tag.ID || tag == Tag.STRING_CONST || tag == Tag.CHAR_CONST
+                || tag == Tag.INVALID || (tag >= Tag.PRG && tag <= Tag.PROCEDURE);
+    }
+
+    private int intern(String s) {
+        Integer index = stringIndex.get(s);
+        if (index == null) {
+            index = strings.size();
+            stringIndex.put(s, index);
+            strings.add(s.getBytes(StandardCharsets.UTF_8));
+        }
+        return index;
+    }
+
+    private void writeTo(OutputStream out) throws IOException {
+        ByteArrayOutputStream header = new ByteArrayOutputStream();
+        for (int i = 3; i >= 0; i--) {
+            header.write(MAGIC >>> (i * 8));
+        }
+        writeVarint(header, VERSION);
+        writeVarint(header, strings.size());
+        header.writeTo(out);
+        for (byte[] s : strings) {
+            header.reset();
+            writeVarint(header, s.length);
+            header.writeTo(out);
+            out.write(s);
+        }
+        header.reset();
+        writeVarint(header, tokenCount);
+        header.writeTo(out);
+        tokens.writeTo(out);
+    }
+
+    static long zigzag(long v) {
+        return (v << 1) ^ (v >> 63);
+    }
+
+    static void writeVarint(ByteArrayOutputStream out, long v) {
+        while ((v & ~0x7FL) != 0) {
+            out.write((int) ((v & 0x7F) | 0x80));
+            v >>>= 7;
+        }
+        out.write((int) v);
+    }
+}
@@ -1,7 +1,5 @@
 package Compiler.Lexical;
 
-import java.util.HashMap;
-
 public class Tag {
 
     public final static int 
@@ -23,6 +21,7 @@ public class Tag {
             DO = 270,
             READ = 271,
             WRITE = 272,
+            PROCEDURE = 273,
             //Operadores e pontuação
 
             EQ = 288,
@@ -43,58 +42,58 @@ public class Tag {
             EOF= -1,
             INVALID = -2; 
 
-        private static HashMap<Integer, String> tagNames;
-
-        static{
-            tagNames = new HashMap<Integer, String>();
-            tagNames.put(PRG, "PROGRAM");
-            tagNames.put(BEG, "BEGIN");
-            tagNames.put(END, "END");
-            tagNames.put(IS, "IS");
-            tagNames.put(TYPE, "TYPE");
-            tagNames.put(INT, "INT");
-            tagNames.put(FLOAT, "FLOAT");
-            tagNames.put(CHAR, "CHAR");
-            tagNames.put(IF, "IF");
-            tagNames.put(THEN, "THEN");
-            tagNames.put(ELSE, "ELSE");
-            tagNames.put(REPEAT, "REPEAT");
-            tagNames.put(UNTIL, "UNTIL");
-            tagNames.put(WHILE, "WHILE");
-            tagNames.put(DO, "DO");
-            tagNames.put(READ, "READ");
-            tagNames.put(WRITE, "WRITE");
-            tagNames.put(EQ, "EQUAL");
-            tagNames.put(GE, "GREATER EQUAL");
-            tagNames.put(LE, "LESS EQUAL");
-            tagNames.put(NE, "NOT EQUAL");
-            tagNames.put(AND, "AND");
-            tagNames.put(OR, "OR");
-            tagNames.put(INT_CONST, "INT CONSTANT");
-            tagNames.put(FLOAT_CONST, "FLOAT CONSTANT");
-            tagNames.put(INT_CONST, "INT CONSTANT");
-            tagNames.put(ID, "ID");
-            tagNames.put(CHAR_CONST, "CHAR CONSTANT");
-            tagNames.put(STRING_CONST, "STRING CONSTANT");
-            tagNames.put(EOF, "END OF FILE");
-            tagNames.put(INVALID, "INVALID TOKEN");
-            tagNames.put((int)'.', "DOT");
-            tagNames.put((int)';', "SEMI COLON");
-            tagNames.put((int)',', "COLON");
-            tagNames.put((int)'=', "ASSIGN");
-            tagNames.put((int)'(', "OPEN PAR");
-            tagNames.put((int)')', "CLOSE PAR");
-            tagNames.put((int)'!', "NOT");
-            tagNames.put((int)'-', "SUB");
-            tagNames.put((int)'>', "GREATER");
-            tagNames.put((int)'<', "LESS");
-            tagNames.put((int)'+', "ADD");
-            tagNames.put((int)'*', "MUL");
-            tagNames.put((int)'/', "DIV");
-        
-        }
-
+        /* Nome de cada tag nas mensagens. Um switch não precisa de nenhuma estrutura
+           montada na inicialização da classe: nada a fazer na partida da JVM nem a
+           registrar para a imagem nativa */
         public static String getTagName(int tag){
-            return tagNames.get(tag);
+            switch(tag){
+                case PRG: return "PROGRAM";
+                case BEG: return "BEGIN";
+                case END: return "END";
+                case IS: return "IS";
+                case TYPE: return "TYPE";
+                case INT: return "INT";
+                case FLOAT: return "FLOAT";
+                case CHAR: return "CHAR";
+                case IF: return "IF";
+                case THEN: return "THEN";
+                case ELSE: return "ELSE";
+                case REPEAT: return "REPEAT";
+                case UNTIL: return "UNTIL";
+                case WHILE: return "WHILE";
+                case DO: return "DO";
+                case READ: return "READ";
+                case WRITE: return "WRITE";
+                case PROCEDURE: return "PROCEDURE";
+                case EQ: return "EQUAL";
+                case GE: return "GREATER EQUAL";
+                case LE: return "LESS EQUAL";
+                case NE: return "NOT EQUAL";
+                case AND: return "AND";
+                case OR: return "OR";
+                case INT_CONST: return "INT CONSTANT";
+                case FLOAT_CONST: return "FLOAT CONSTANT";
+                case ID: return "ID";
+                case CHAR_CONST: return "CHAR CONSTANT";
+                case STRING_CONST: return "STRING CONSTANT";
+                case EOF: return "END OF FILE";
+                case INVALID: return "INVALID TOKEN";
+                case '.': return "DOT";
+                case ';': return "SEMI COLON";
+                case ',': return "COLON";
+                case '=': return "ASSIGN";
+                case '(': return "OPEN PAR";
+                case ')': return "CLOSE PAR";
+                case '[': return "OPEN BRACKET";
+                case ']': return "CLOSE BRACKET";
+                case '!': return "NOT";
+                case '-': return "SUB";
+                case '>': return "GREATER";
+                case '<': return "LESS";
+                case '+': return "ADD";
+                case '*': return "MUL";
+                case '/': return "DIV";
+                default: return null;
+            }
         }
 }
@@ -0,0 +1,30 @@
+package Compiler.Lexical;
+
+import java.io.IOException;
+
+import Compiler.Lexical.Tokens.Token;
+
+/* Qualquer fonte de tokens que o analisador sintático pode consumir:
+   o Lexer sobre o texto ou uma reprodução de um snapshot binário */
+public interface TokenSource {
+
+    Token scan() throws IOException;
+
+    /* Linha do último token lido */
+    int getLine();
+
+    /* Posição do último token, convertida em linha e coluna só quando uma
+       mensagem precisa dela. Uma fonte que só conhece linhas (como o snapshot)
+       usa a própria linha como posição e não informa a coluna (0) */
+    default long getTokenStart() {
+        return getLine();
+    }
+
+    default int line(long position) {
+        return (int) position;
+    }
+
+    default int column(long position) {
+        return 0;
+    }
+}
@@ -1,10 +1,35 @@
 package Compiler.Lexical.Tokens.Char;
 
+import java.nio.charset.StandardCharsets;
+
 import Compiler.Lexical.*;
 import Compiler.Lexical.Tokens.Word;
 
 public class StringConst extends Word{
+
+    /* Trecho UTF-8 do código fonte, decodificado apenas quando o lexema for pedido */
+    private byte[] source;
+    private int start;
+    private int end;
+    private String lexeme;
+
     public StringConst(String s){
         super(s, Tag.STRING_CONST);
+        lexeme = s;
     } 
+
+    public StringConst(byte[] source, int start, int end){
+        super(null, Tag.STRING_CONST);
+        this.source = source;
+        this.start = start;
+        this.end = end;
+    }
+
+    public String getLexeme() {
+        if (lexeme == null) {
+            lexeme = new String(source, start, end - start, StandardCharsets.UTF_8);
+            source = null;
+        }
+        return lexeme;
+    }
 }
@@ -3,7 +3,41 @@ package Compiler.Lexical.Tokens.Num;
 import Compiler.Lexical.Tag;
 
 public class FloatConst extends Num {
+
+    // Potências de 10 representáveis exatamente em double
+    private static final double[] POWERS_OF_TEN = {
+        1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+        1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+
     public FloatConst(double value){
         super(value, Tag.FLOAT_CONST);
     }
+
+    public FloatConst(byte[] source, int start, int end){
+        super(source, start, end, Tag.FLOAT_CONST);
+    }
+
+    /* Acumula a mantissa numa só passada. Se ela e a potência de 10 do divisor
+       forem exatas em double, a divisão já é corretamente arredondada; senão
+       recorre a Double.parseDouble */
+    protected Number decode() {
+        long mantissa = 0;
+        int significant = 0;
+        int fraction = -1;
+        for (int i = start; i < end; i++) {
+            byte c = source[i];
+            if (c == '.') {
+                fraction = 0;
+                continue;
+            }
+            if (fraction >= 0) fraction++;
+            if (mantissa != 0 || c != '0') significant++;
+            if (significant <= 18) mantissa = mantissa * 10 + (c - '0');
+        }
+        if (significant <= 15 && fraction < POWERS_OF_TEN.length) {
+            return mantissa / POWERS_OF_TEN[Math.max(fraction, 0)];
+        }
+        return Double.parseDouble(sourceText());
+    }
 }
@@ -6,4 +6,21 @@ public class IntConst extends Num{
     public IntConst(long value){
         super(value, Tag.INT_CONST);
     }
+
+    public IntConst(byte[] source, int start, int end){
+        super(source, start, end, Tag.INT_CONST);
+    }
+
+    /* Acumula os dígitos numa só passada, com o mesmo erro de Long.parseLong em caso de overflow */
+    protected Number decode() {
+        long value = 0;
+        for (int i = start; i < end; i++) {
+            int digit = source[i] - '0';
+            if (value > (Long.MAX_VALUE - digit) / 10) {
+                throw new NumberFormatException("For input string: \"" + sourceText() + "\"");
+            }
+            value = value * 10 + digit;
+        }
+        return value;
+    }
 }
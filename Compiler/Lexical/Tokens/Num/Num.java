@@ -4,18 +4,43 @@ import Compiler.Lexical.Tokens.Token;
 
 public abstract class Num extends Token {
 
-    public final Number value;
+    private Number value;
+
+    /* Trecho do código fonte (ASCII) com o literal; o valor só é calculado no primeiro acesso */
+    protected final byte[] source;
+    protected final int start;
+    protected final int end;
 
     public Num(Number value, int tag) {
         super(tag);
         this.value = value;
+        this.source = null;
+        this.start = 0;
+        this.end = 0;
+    }
+
+    protected Num(byte[] source, int start, int end, int tag) {
+        super(tag);
+        this.source = source;
+        this.start = start;
+        this.end = end;
+    }
+
+    /* Converte o literal guardado em source[start, end) */
+    protected abstract Number decode();
+
+    protected String sourceText() {
+        return new String(source, start, end - start, java.nio.charset.StandardCharsets.ISO_8859_1);
     }
 
     public String toString() {
-        return "" + value;
+        return "" + getValue();
     }
 
     public Number getValue(){
+        if (value == null) {
+            value = decode();
+        }
         return this.value;
     }
 }
@@ -31,7 +31,7 @@ public class Word extends Token {
     }
 
     public String toString() {
-        return "" + lexeme;
+        return "" + getLexeme();
     }
 
     public String getLexeme() {
@@ -0,0 +1,374 @@
+package Compiler.Lsp;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+import Compiler.Lexical.Lexer;
+import Compiler.Lexical.Tag;
+import Compiler.Lexical.TokenSource;
+import Compiler.Lexical.Tokens.Token;
+import Compiler.Semantic.SemanticError;
+import Compiler.Semantic.SemanticResult;
+import Compiler.SymbolTable.SymbolTable;
+import Compiler.Syntatic.Resolution;
+import Compiler.Syntatic.SyntaticAnalyzer;
+import Compiler.Syntatic.Exceptions.InvalidTokenException;
+import Compiler.Syntatic.Exceptions.UnexpectedEOFException;
+import Compiler.Syntatic.Exceptions.UnexpectedTokenException;
+import Compiler.Tree.Variable;
+
+/*
+ * Estado de um documento aberto no editor. O texto é atualizado a cada
+ * alteração; a análise (tokens, índice de declarações e diagnósticos) é
+ * refeita só quando pedida para uma versão mais nova que a que está em cache.
+ */
+public class Document {
+
+    // Tipos e modificadores anunciados na legenda de semantic tokens
+    public static final List<String> TOKEN_TYPES = List.of("keyword", "variable", "number", "string", "operator");
+    public static final List<String> TOKEN_MODIFIERS = List.of("declaration");
+
+    public final String uri;
+    private String text;
+    private int version;
+    private Analysis analysis;
+
+    public Document(String uri, String text, int version) {
+        this.uri = uri;
+        this.text = text;
+        this.version = version;
+    }
+
+    public synchronized int getVersion() {
+        return version;
+    }
+
+    public synchronized void setText(String text, int version) {
+        this.text = text;
+        this.version = version;
+    }
+
+    /* Aplica uma alteração incremental; line e character seguem o LSP (UTF-16) */
+    public synchronized void edit(int startLine, int startChar, int endLine, int endChar, String newText, int version) {
+        int start = offsetOf(startLine, startChar);
+        int end = offsetOf(endLine, endChar);
+        text = text.substring(0, start) + newText + text.substring(end);
+        this.version = version;
+    }
+
+    /* Um character além do fim da linha vale o fim da linha (sem a quebra), como pede o LSP */
+    private int offsetOf(int line, int character) {
+        int offset = 0;
+        for (int i = 0; i < line; i++) {
+            int next = text.indexOf('\n', offset);
+            if (next < 0) return text.length();
+            offset = next + 1;
+        }
+        int end = text.indexOf('\n', offset);
+        if (end < 0) end = text.length();
+        else if (end > offset && text.charAt(end - 1) == '\r') end--;
+        return Math.min(offset + character, end);
+    }
+
+    /* Análise da versão atual, reaproveitando a do cache se ainda valer */
+    public Analysis analysis() {
+        String current;
+        int currentVersion;
+        synchronized (this) {
+            if (analysis != null && analysis.version == version) {
+                return analysis;
+            }
+            current = text;
+            currentVersion = version;
+        }
+        Analysis result = new Analysis(current.getBytes(StandardCharsets.UTF_8), currentVersion);
+        synchronized (this) {
+            if (analysis == null || analysis.version < result.version) {
+                analysis = result;
+            }
+        }
+        return result;
+    }
+
+    /* Resultado de uma passada do front end sobre uma versão do documento */
+    public static class Analysis {
+        public final int version;
+        private final byte[] bytes;
+        private int[] lineStarts = new int[64];
+        private int lines = 0;
+
+        // Tokens em ordem, como arrays paralelos
+        private int count = 0;
+        private int[] tags = new int[256];
+        private int[] starts = new int[256];
+        private int[] ends = new int[256];
+        private Object[] targets = new Object[256]; // Variable ou índice do procedimento ligado ao identificador
+        private boolean[] declaration = new boolean[256];
+        private long lastStart = -1; // início do último token lido, EOF inclusive
+
+        // Índice de identificadores: variável ou procedimento -> posições dos tokens
+        private final HashMap<Object, ArrayList<Integer>> declarations = new HashMap<>();
+        private final HashMap<Object, ArrayList<Integer>> references = new HashMap<>();
+
+        public final List<Object> diagnostics = new ArrayList<>();
+
+        Analysis(byte[] bytes, int version) {
+            this.bytes = bytes;
+            this.version = version;
+            indexLines();
+            run();
+            indexIdentifiers();
+        }
+
+        private void indexLines() {
+            lineStarts[lines++] = 0;
+            for (int i = 0; i < bytes.length; i++) {
+                if (bytes[i] == '\n') {
+                    if (lines == lineStarts.length) lineStarts = Arrays.copyOf(lineStarts, lines * 2);
+                    lineStarts[lines++] = i + 1;
+                }
+            }
+        }
+
+        /* Roda o analisador sintático/semântico gravando os tokens que ele
+           consome; após um erro sintático, termina de ler os tokens restantes */
+        private void run() {
+            SymbolTable table = new SymbolTable();
+            Lexer lexer = new Lexer(new ByteArrayInputStream(bytes), table);
+            TokenSource recorder = new TokenSource() {
+                public Token scan() throws IOException {
+                    Token t = lexer.scan();
+                    lastStart = lexer.getTokenStart();
+                    record(t, lexer);
+                    return t;
+                }
+
+                public int getLine() {
+                    return lexer.getLine();
+                }
+
+                public long getTokenStart() {
+                    return lexer.getTokenStart();
+                }
+
+                public int line(long position) {
+                    return lexer.line(position);
+                }
+
+                public int column(long position) {
+                    return lexer.column(position);
+                }
+            };
+            try {
+                SyntaticAnalyzer analyzer = new SyntaticAnalyzer(recorder, table);
+                analyzer.setResolution(new Resolution() {
+                    public void variable(long position, Variable variable, boolean isDeclaration) {
+                        if (variable != null) bind(position, variable, isDeclaration);
+                    }
+
+                    public void procedure(long position, int index, boolean isDeclaration) {
+                        if (index >= 0) bind(position, index, isDeclaration);
+                    }
+                });
+                SemanticResult result = analyzer.start();
+                for (SemanticError error : result.errors) {
+                    diagnostic(error.message, error.line, -1);
+                }
+            } catch (UnexpectedTokenException e) {
+                diagnostic(e.getMessage(), e.line, lastStart);
+            } catch (InvalidTokenException e) {
+                diagnostic(e.getMessage(), e.line, lastStart);
+            } catch (UnexpectedEOFException e) {
+                diagnostic(e.getMessage(), e.line, -1);
+            } catch (RuntimeException e) {
+                diagnostic(e.getMessage(), lines, -1);
+            }
+            try {
+                Token t;
+                do {
+                    t = recorder.scan();
+                } while (t.getTag() != Tag.EOF);
+            } catch (IOException io) {
+                // entrada em memória, não acontece
+            }
+        }
+
+        private void record(Token t, Lexer lexer) {
+            if (t.getTag() == Tag.EOF) return;
+            if (count == tags.length) {
+                int n = count * 2;
+                tags = Arrays.copyOf(tags, n);
+                starts = Arrays.copyOf(starts, n);
+                ends = Arrays.copyOf(ends, n);
+                targets = Arrays.copyOf(targets, n);
+                declaration = Arrays.copyOf(declaration, n);
+            }
+            tags[count] = t.getTag();
+            starts[count] = (int) lexer.getTokenStart();
+            ends[count] = (int) lexer.getTokenEnd();
+            count++;
+        }
+
+        /* Liga o identificador que começa em position ao que o analisador resolveu;
+           o token já foi gravado, porque o analisador só resolve o que já leu */
+        private void bind(long position, Object target, boolean isDeclaration) {
+            int token = Arrays.binarySearch(starts, 0, count, (int) position);
+            if (token < 0) return;
+            targets[token] = target;
+            declaration[token] = isDeclaration;
+        }
+
+        /* Agrupa os identificadores pela variável (ou procedimento) a que o
+           analisador os ligou, então um parâmetro ou local de um procedimento
+           não se mistura com uma global de mesmo nome. O nome do programa, os
+           usos sem declaração e o que vem depois de um erro sintático ficam
+           sem ligação e fora do índice */
+        private void indexIdentifiers() {
+            for (int i = 0; i < count; i++) {
+                if (targets[i] == null) continue;
+                (declaration[i] ? declarations : references)
+                        .computeIfAbsent(targets[i], k -> new ArrayList<>()).add(i);
+            }
+        }
+
+        /* Diagnóstico na linha dada (a partir de 1). Um erro sintático passa a
+           posição do token rejeitado e o diagnóstico cobre só o token; sem ela
+           (position < 0, ou o EOF, que não é gravado), cobre a linha inteira */
+        private void diagnostic(String message, int line, long position) {
+            line = Math.max(0, Math.min(line - 1, lines - 1));
+            int start = lineStarts[line];
+            int end = (line + 1 < lines ? lineStarts[line + 1] - 1 : bytes.length);
+            int token = position < 0 ? -1 : Arrays.binarySearch(starts, 0, count, (int) position);
+            if (token >= 0) {
+                start = starts[token];
+                end = Math.max(start, ends[token]);
+            }
+            Map<String, Object> d = new LinkedHashMap<>();
+            d.put("range", range(start, end));
+            d.put("severity", 1);
+            d.put("source", "compiler");
+            d.put("message", message);
+            diagnostics.add(d);
+        }
+
+        /* Token que contém a posição dada, ou -1 */
+        public int tokenAt(int line, int character) {
+            int offset = offset(line, character);
+            int lo = 0, hi = count - 1;
+            while (lo <= hi) {
+                int mid = (lo + hi) >>> 1;
+                if (ends[mid] <= offset) lo = mid + 1;
+                else if (starts[mid] > offset) hi = mid - 1;
+                else return mid;
+            }
+            return -1;
+        }
+
+        /* Variável ou procedimento ligado ao token; null se não for um identificador ligado */
+        public Object targetAt(int token) {
+            return token >= 0 ? targets[token] : null;
+        }
+
+        public List<Object> declarationsOf(Object target) {
+            return locations(declarations.get(target));
+        }
+
+        public List<Object> referencesOf(Object target, boolean includeDeclaration) {
+            List<Object> result = includeDeclaration ? locations(declarations.get(target)) : new ArrayList<>();
+            result.addAll(locations(references.get(target)));
+            return result;
+        }
+
+        private List<Object> locations(List<Integer> tokens) {
+            List<Object> result = new ArrayList<>();
+            if (tokens != null) {
+                for (int i : tokens) result.add(range(starts[i], ends[i]));
+            }
+            return result;
+        }
+
+        /* Codificação relativa de semantic tokens do LSP: 5 inteiros por token */
+        public int[] semanticTokens() {
+            int[] data = new int[count * 5];
+            int n = 0, lastLine = 0, lastChar = 0;
+            for (int i = 0; i < count; i++) {
+                int type = tokenType(tags[i]);
+                if (type < 0) continue;
+                int line = lineOf(starts[i]);
+                if (line != lineOf(ends[i] - 1)) continue; // tokens de várias linhas não são coloridos
+                int character = column(line, starts[i]);
+                data[n++] = line - lastLine;
+                data[n++] = line == lastLine ? character - lastChar : character;
+                data[n++] = utf16Length(starts[i], ends[i]);
+                data[n++] = type;
+                data[n++] = declaration[i] ? 1 : 0;
+                lastLine = line;
+                lastChar = character;
+            }
+            return Arrays.copyOf(data, n);
+        }
+
+        private static int tokenType(int tag) {
+            if (tag >= Tag.PRG && tag <= Tag.PROCEDURE) return 0;
+            switch (tag) {
+                case Tag.ID: return 1;
+                case Tag.INT_CONST: case Tag.FLOAT_CONST: return 2;
+                case Tag.STRING_CONST: case Tag.CHAR_CONST: return 3;
+                case Tag.EQ: case Tag.NE: case Tag.LE: case Tag.GE: case Tag.AND: case Tag.OR:
+                case '=': case '<': case '>': case '!': case '+': case '-': case '*': case '/':
+                    return 4;
+                default: return -1;
+            }
+        }
+
+        private Map<String, Object> range(int start, int end) {
+            Map<String, Object> range = new LinkedHashMap<>();
+            range.put("start", position(start));
+            range.put("end", position(end));
+            return range;
+        }
+
+        private Map<String, Object> position(int offset) {
+            int line = lineOf(offset);
+            Map<String, Object> position = new LinkedHashMap<>();
+            position.put("line", line);
+            position.put("character", column(line, offset));
+            return position;
+        }
+
+        private int lineOf(int offset) {
+            int index = Arrays.binarySearch(lineStarts, 0, lines, offset);
+            return index >= 0 ? index : -index - 2;
+        }
+
+        private int column(int line, int offset) {
+            return utf16Length(lineStarts[line], offset);
+        }
+
+        /* Quantidade de unidades UTF-16 nos bytes UTF-8 de [from, to) */
+        private int utf16Length(int from, int to) {
+            int n = 0;
+            for (int i = from; i < to; i++) {
+                int b = bytes[i];
+                if ((b & 0xC0) != 0x80) n++;
+                if ((b & 0xF8) == 0xF0) n++;
+            }
+            return n;
+        }
+
+        private int offset(int line, int character) {
+            if (line >= lines) return bytes.length;
+            int i = lineStarts[line];
+            int n = 0;
+            while (i < bytes.length && bytes[i] != '\n' && n < character) {
+                int b = bytes[i];
+                n += (b & 0xF8) == 0xF0 ? 2 : 1;
+                i++;
+                while (i < bytes.length && (bytes[i] & 0xC0) == 0x80) i++;
+            }
+            return i;
+        }
+    }
+}
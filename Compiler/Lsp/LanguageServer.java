@@ -0,0 +1,297 @@
+package Compiler.Lsp;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.*;
+
+/*
+ * Servidor LSP sobre stdin/stdout. Oferece diagnósticos (empurrados após as
+ * alterações se acalmarem), ir para a declaração, encontrar referências e
+ * semantic tokens.
+ *
+ * Toda análise roda numa única thread, o que serializa as reanálises de um
+ * mesmo documento; a thread principal só lê e responde mensagens.
+ */
+public class LanguageServer {
+
+    // Tempo sem alterações antes de reanalisar e publicar diagnósticos
+    private static final long DEBOUNCE_MS = Long.getLong("compiler.lsp.debounce", 50);
+
+    // Devolvido por handle() para um método que o servidor não conhece
+    private static final Object METHOD_NOT_FOUND = new Object();
+
+    private final InputStream in;
+    private final OutputStream out;
+    private final Map<String, Document> documents = new ConcurrentHashMap<>();
+    private final Map<String, ScheduledFuture<?>> pending = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService analyzer = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "lsp-analyzer");
+        t.setDaemon(true);
+        return t;
+    });
+    private boolean shutdown = false;
+
+    public LanguageServer(InputStream in, OutputStream out) {
+        this.in = new BufferedInputStream(in);
+        this.out = new BufferedOutputStream(out);
+    }
+
+    public static void main(String[] args) throws IOException {
+        new LanguageServer(System.in, System.out).run();
+    }
+
+    public void run() throws IOException {
+        while (true) {
+            String message = readMessage();
+            if (message == null) return;
+            // Uma mensagem malformada recebe o erro do JSON-RPC e o servidor segue lendo
+            Object parsed;
+            try {
+                parsed = Json.parse(message);
+            } catch (RuntimeException e) {
+                respond(null, null, error(-32700, "Parse error: " + e.getMessage()));
+                continue;
+            }
+            if (!(parsed instanceof Map)) {
+                respond(null, null, error(-32600, "Invalid Request: not an object"));
+                continue;
+            }
+            @SuppressWarnings("unchecked")
+            Map<String, Object> request = (Map<String, Object>) parsed;
+            Object id = request.get("id");
+            Object methodValue = request.get("method");
+            if (methodValue == null) continue; // resposta a algo que não pedimos
+            if (!(methodValue instanceof String)) {
+                respond(id, null, error(-32600, "Invalid Request: method is not a string"));
+                continue;
+            }
+            String method = (String) methodValue;
+            try {
+                Object result = handle(method, params(request));
+                if (method.equals("exit")) {
+                    System.exit(shutdown ? 0 : 1);
+                }
+                if (id == null) continue;
+                if (result == METHOD_NOT_FOUND) respond(id, null, error(-32601, "Method not found: " + method));
+                else respond(id, result, null);
+            } catch (Exception e) {
+                if (id != null) respond(id, null, error(-32603, String.valueOf(e.getMessage())));
+            }
+        }
+    }
+
+    private Object handle(String method, Map<String, Object> params) throws Exception {
+        switch (method) {
+            case "initialize":
+                return capabilities();
+            case "initialized":
+            case "$/cancelRequest":
+            case "$/setTrace":
+            case "textDocument/didSave":
+                return null;
+            case "shutdown":
+                shutdown = true;
+                return null;
+            case "exit":
+                return null;
+            case "textDocument/didOpen": {
+                Map<String, Object> doc = map(params.get("textDocument"));
+                String uri = (String) doc.get("uri");
+                documents.put(uri, new Document(uri, (String) doc.get("text"), number(doc.get("version"))));
+                schedule(uri, 0);
+                return null;
+            }
+            case "textDocument/didChange": {
+                Map<String, Object> doc = map(params.get("textDocument"));
+                Document document = documents.get((String) doc.get("uri"));
+                if (document == null) return null;
+                int version = number(doc.get("version"));
+                for (Object change : (List<?>) params.get("contentChanges")) {
+                    Map<String, Object> c = map(change);
+                    Map<String, Object> range = map(c.get("range"));
+                    if (range == null) {
+                        document.setText((String) c.get("text"), version);
+                    } else {
+                        Map<String, Object> start = map(range.get("start"));
+                        Map<String, Object> end = map(range.get("end"));
+                        document.edit(number(start.get("line")), number(start.get("character")),
+                                      number(end.get("line")), number(end.get("character")),
+                                      (String) c.get("text"), version);
+                    }
+                }
+                schedule(document.uri, DEBOUNCE_MS);
+                return null;
+            }
+            case "textDocument/didClose": {
+                String uri = (String) map(params.get("textDocument")).get("uri");
+                documents.remove(uri);
+                ScheduledFuture<?> f = pending.remove(uri);
+                if (f != null) f.cancel(false);
+                publish(uri, new ArrayList<>());
+                return null;
+            }
+            case "textDocument/definition": {
+                Document.Analysis a = analysis(params);
+                Object target = a == null ? null : a.targetAt(tokenAt(a, params));
+                if (target == null) return null;
+                List<Object> result = new ArrayList<>();
+                for (Object range : a.declarationsOf(target)) result.add(location(params, range));
+                return result;
+            }
+            case "textDocument/references": {
+                Document.Analysis a = analysis(params);
+                Object target = a == null ? null : a.targetAt(tokenAt(a, params));
+                if (target == null) return new ArrayList<>();
+                Map<String, Object> context = map(params.get("context"));
+                boolean includeDeclaration = context == null || Boolean.TRUE.equals(context.get("includeDeclaration"));
+                List<Object> result = new ArrayList<>();
+                for (Object range : a.referencesOf(target, includeDeclaration)) result.add(location(params, range));
+                return result;
+            }
+            case "textDocument/semanticTokens/full": {
+                Document.Analysis a = analysis(params);
+                Map<String, Object> result = new LinkedHashMap<>();
+                result.put("data", a == null ? new int[0] : a.semanticTokens());
+                return result;
+            }
+            default:
+                if (method.startsWith("$/")) return null;
+                return METHOD_NOT_FOUND;
+        }
+    }
+
+    private Map<String, Object> capabilities() {
+        Map<String, Object> legend = new LinkedHashMap<>();
+        legend.put("tokenTypes", Document.TOKEN_TYPES);
+        legend.put("tokenModifiers", Document.TOKEN_MODIFIERS);
+        Map<String, Object> semanticTokens = new LinkedHashMap<>();
+        semanticTokens.put("legend", legend);
+        semanticTokens.put("full", Boolean.TRUE);
+
+        Map<String, Object> capabilities = new LinkedHashMap<>();
+        capabilities.put("textDocumentSync", 2); // incremental
+        capabilities.put("definitionProvider", Boolean.TRUE);
+        capabilities.put("referencesProvider", Boolean.TRUE);
+        capabilities.put("semanticTokensProvider", semanticTokens);
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("capabilities", capabilities);
+        Map<String, Object> info = new LinkedHashMap<>();
+        info.put("name", "compiler-lsp");
+        result.put("serverInfo", info);
+        return result;
+    }
+
+    /* Reagenda a análise do documento, descartando a que ainda não rodou */
+    private void schedule(String uri, long delay) {
+        ScheduledFuture<?> previous = pending.put(uri, analyzer.schedule(() -> {
+            Document document = documents.get(uri);
+            if (document == null) return;
+            Document.Analysis a = document.analysis();
+            if (a.version == document.getVersion()) {
+                publish(uri, a.diagnostics);
+            }
+        }, delay, TimeUnit.MILLISECONDS));
+        if (previous != null) previous.cancel(false);
+    }
+
+    /* Consultas usam a análise em cache se for da versão atual; senão ela
+       é feita na hora, na thread de análise */
+    private Document.Analysis analysis(Map<String, Object> params) throws Exception {
+        Document document = documents.get((String) map(params.get("textDocument")).get("uri"));
+        if (document == null) return null;
+        return analyzer.submit(document::analysis).get();
+    }
+
+    private int tokenAt(Document.Analysis a, Map<String, Object> params) {
+        Map<String, Object> position = map(params.get("position"));
+        return a.tokenAt(number(position.get("line")), number(position.get("character")));
+    }
+
+    private Map<String, Object> location(Map<String, Object> params, Object range) {
+        Map<String, Object> location = new LinkedHashMap<>();
+        location.put("uri", map(params.get("textDocument")).get("uri"));
+        location.put("range", range);
+        return location;
+    }
+
+    private void publish(String uri, List<Object> diagnostics) {
+        Map<String, Object> params = new LinkedHashMap<>();
+        params.put("uri", uri);
+        params.put("diagnostics", diagnostics);
+        Map<String, Object> message = new LinkedHashMap<>();
+        message.put("jsonrpc", "2.0");
+        message.put("method", "textDocument/publishDiagnostics");
+        message.put("params", params);
+        send(message);
+    }
+
+    private void respond(Object id, Object result, Map<String, Object> error) {
+        Map<String, Object> message = new LinkedHashMap<>();
+        message.put("jsonrpc", "2.0");
+        message.put("id", id);
+        if (error != null) message.put("error", error);
+        else message.put("result", result);
+        send(message);
+    }
+
+    private static Map<String, Object> error(int code, String text) {
+        Map<String, Object> error = new LinkedHashMap<>();
+        error.put("code", code);
+        error.put("message", text);
+        return error;
+    }
+
+    private synchronized void send(Map<String, Object> message) {
+        byte[] body = Json.write(message).getBytes(StandardCharsets.UTF_8);
+        try {
+            out.write(("Content-Length: " + body.length + "\r\n\r\n").getBytes(StandardCharsets.US_ASCII));
+            out.write(body);
+            out.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /* Lê uma mensagem com cabeçalho Content-Length; null no fim da entrada */
+    private String readMessage() throws IOException {
+        int length = -1;
+        StringBuilder header = new StringBuilder();
+        while (true) {
+            int c = in.read();
+            if (c < 0) return null;
+            if (c == '\n') {
+                String line = header.toString().trim();
+                header.setLength(0);
+                if (line.isEmpty()) {
+                    if (length >= 0) break;
+                    continue;
+                }
+                if (line.toLowerCase().startsWith("content-length:")) {
+                    length = Integer.parseInt(line.substring("content-length:".length()).trim());
+                }
+            } else {
+                header.append((char) c);
+            }
+        }
+        byte[] body = in.readNBytes(length);
+        if (body.length < length) return null;
+        return new String(body, StandardCharsets.UTF_8);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> params(Map<String, Object> request) {
+        Object params = request.get("params");
+        return params instanceof Map ? (Map<String, Object>) params : new HashMap<>();
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> map(Object o) {
+        return (Map<String, Object>) o;
+    }
+
+    private static int number(Object o) {
+        return o == null ? 0 : ((Number) o).intValue();
+    }
+}
@@ -0,0 +1,48 @@
+package Compiler.Metrics;
+
+import jdk.jfr.*;
+
+/* Eventos do JDK Flight Recorder emitidos pelo compilador quando as métricas estão ligadas */
+public class Events {
+
+    /* O primeiro evento criado inicializa o JFR inteiro (centenas de classes e
+       reflexão sobre as anotações), o que domina a partida de uma verificação
+       curta. Sem métricas e sem gravação em andamento não há por que criá-lo */
+    public static boolean active() {
+        return Metrics.enabled || FlightRecorder.isInitialized();
+    }
+
+    @Name("compiler.Compilation")
+    @Label("Compilation")
+    @Category("Compiler")
+    public static class CompilationEvent extends Event {
+        @Label("Tokens")
+        public long tokens;
+
+        @Label("Semantic Errors")
+        public long semanticErrors;
+    }
+
+    /* Um evento por produção é caro, por isso vem desligado e precisa ser
+       habilitado explicitamente na configuração da gravação */
+    @Name("compiler.Production")
+    @Label("Grammar Production")
+    @Category("Compiler")
+    @Enabled(false)
+    public static class ProductionEvent extends Event {
+        @Label("Production")
+        public String production;
+
+        @Label("Duration")
+        @Timespan(Timespan.NANOSECONDS)
+        public long elapsed;
+    }
+
+    @Name("compiler.SemanticError")
+    @Label("Semantic Error")
+    @Category("Compiler")
+    public static class SemanticErrorEvent extends Event {
+        @Label("Message")
+        public String message;
+    }
+}
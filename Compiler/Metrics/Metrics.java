@@ -0,0 +1,187 @@
+package Compiler.Metrics;
+
+import java.io.*;
+import java.util.ArrayList;
+import java.util.concurrent.atomic.LongAdder;
+
+import Compiler.Lexical.Tag;
+
+/*
+ * Contadores por fase do compilador. Com as métricas desligadas cada ponto de
+ * instrumentação custa apenas a leitura de um boolean estático.
+ *
+ * Liga-se com --stats nos drivers de teste ou com -Dcompiler.metrics=true.
+ */
+public class Metrics {
+
+    public static boolean enabled = Boolean.getBoolean("compiler.metrics");
+
+    private static boolean printReport = false;
+    private static String exportFile = null;
+
+    // Tags vão de Tag.INVALID (-2) até Tag.STRING_CONST (304)
+    private static final int TAG_OFFSET = -Tag.INVALID;
+    private static final int TAG_SLOTS = Tag.STRING_CONST + TAG_OFFSET + 1;
+
+    public static final LongAdder scanCalls = new LongAdder();
+    public static final LongAdder bytes = new LongAdder();
+    public static final LongAdder symbolHits = new LongAdder();
+    public static final LongAdder symbolMisses = new LongAdder();
+    public static final LongAdder semanticErrors = new LongAdder();
+    private static final LongAdder[] tokensByTag = new LongAdder[TAG_SLOTS];
+    private static final LongAdder[] productionCalls = new LongAdder[Production.values().length];
+    private static final LongAdder[] productionNanos = new LongAdder[Production.values().length];
+
+    static {
+        for (int i = 0; i < TAG_SLOTS; i++) {
+            tokensByTag[i] = new LongAdder();
+        }
+        for (int i = 0; i < productionCalls.length; i++) {
+            productionCalls[i] = new LongAdder();
+            productionNanos[i] = new LongAdder();
+        }
+    }
+
+    /* Remove das opções de linha de comando --stats e --stats-file=<arquivo>,
+       ligando as métricas se alguma delas estiver presente */
+    public static String[] configure(String[] args) {
+        ArrayList<String> rest = new ArrayList<>();
+        for (String arg : args) {
+            if (arg.equals("--stats")) {
+                printReport = true;
+                enabled = true;
+            } else if (arg.startsWith("--stats-file=")) {
+                exportFile = arg.substring("--stats-file=".length());
+                enabled = true;
+            } else {
+                rest.add(arg);
+            }
+        }
+        return rest.toArray(new String[0]);
+    }
+
+    /* Imprime o relatório e/ou exporta o arquivo pedidos em configure() */
+    public static void finish() {
+        if (printReport) {
+            report(System.out);
+        }
+        if (exportFile != null) {
+            try {
+                exportPrometheus(exportFile);
+            } catch (IOException e) {
+                System.out.println("Could not write metrics to " + exportFile);
+            }
+        }
+    }
+
+    public static void token(int tag) {
+        scanCalls.increment();
+        int slot = tag + TAG_OFFSET;
+        if (slot >= 0 && slot < TAG_SLOTS) {
+            tokensByTag[slot].increment();
+        }
+    }
+
+    public static void symbolLookup(boolean hit) {
+        if (hit) symbolHits.increment();
+        else symbolMisses.increment();
+    }
+
+    public static void semanticError(String message) {
+        semanticErrors.increment();
+        Events.SemanticErrorEvent event = new Events.SemanticErrorEvent();
+        if (event.shouldCommit()) {
+            event.message = message;
+            event.commit();
+        }
+    }
+
+    /* Marca o início de uma produção; retorna 0 se as métricas estiverem desligadas */
+    public static long begin() {
+        return enabled ? System.nanoTime() : 0;
+    }
+
+    /* Contabiliza a produção iniciada em begin() e devolve result sem alterá-lo */
+    public static <T> T end(Production production, long start, T result) {
+        if (enabled) {
+            long duration = System.nanoTime() - start;
+            productionCalls[production.ordinal()].increment();
+            productionNanos[production.ordinal()].add(duration);
+            Events.ProductionEvent event = new Events.ProductionEvent();
+            if (event.shouldCommit()) {
+                event.production = production.rule;
+                event.elapsed = duration;
+                event.commit();
+            }
+        }
+        return result;
+    }
+
+    public static void report(PrintStream out) {
+        out.println();
+        out.println("Compiler statistics");
+        out.println("\tLexer.scan calls: " + scanCalls.sum());
+        out.println("\tBytes read: " + bytes.sum());
+        out.println("\tSymbol table hits: " + symbolHits.sum() + "\tmisses: " + symbolMisses.sum());
+        out.println("\tSemantic errors: " + semanticErrors.sum());
+        out.println("\tTokens by tag:");
+        for (int i = 0; i < TAG_SLOTS; i++) {
+            long n = tokensByTag[i].sum();
+            if (n > 0) {
+                out.println("\t\t" + tagName(i - TAG_OFFSET) + ": " + n);
+            }
+        }
+        out.println("\tParse time by production (inclusive):");
+        for (Production p : Production.values()) {
+            long calls = productionCalls[p.ordinal()].sum();
+            if (calls > 0) {
+                out.printf("\t\t%-12s %8d calls %12.3f ms%n", p.rule, calls,
+                           productionNanos[p.ordinal()].sum() / 1e6);
+            }
+        }
+    }
+
+    /* Exporta os contadores no formato texto do Prometheus */
+    public static void exportPrometheus(String fileName) throws IOException {
+        try (PrintWriter out = new PrintWriter(new BufferedWriter(new FileWriter(fileName)))) {
+            counter(out, "compiler_lexer_scan_calls_total", "Calls to Lexer.scan", scanCalls.sum());
+            counter(out, "compiler_lexer_bytes_total", "Bytes read by the lexer", bytes.sum());
+            counter(out, "compiler_symbol_table_hits_total", "Symbol table lookups that found a word", symbolHits.sum());
+            counter(out, "compiler_symbol_table_misses_total", "Symbol table lookups that found nothing", symbolMisses.sum());
+            counter(out, "compiler_semantic_errors_total", "Semantic errors reported", semanticErrors.sum());
+
+            out.println("# HELP compiler_lexer_tokens_total Tokens produced by the lexer");
+            out.println("# TYPE compiler_lexer_tokens_total counter");
+            for (int i = 0; i < TAG_SLOTS; i++) {
+                long n = tokensByTag[i].sum();
+                if (n > 0) {
+                    out.println("compiler_lexer_tokens_total{tag=\"" + tagName(i - TAG_OFFSET) + "\"} " + n);
+                }
+            }
+
+            out.println("# HELP compiler_parser_production_calls_total Times each grammar production was parsed");
+            out.println("# TYPE compiler_parser_production_calls_total counter");
+            for (Production p : Production.values()) {
+                out.println("compiler_parser_production_calls_total{production=\"" + p.rule + "\"} "
+                            + productionCalls[p.ordinal()].sum());
+            }
+            out.println("# HELP compiler_parser_production_seconds_total Time spent in each grammar production, inclusive");
+            out.println("# TYPE compiler_parser_production_seconds_total counter");
+            for (Production p : Production.values()) {
+                out.println("compiler_parser_production_seconds_total{production=\"" + p.rule + "\"} "
+                            + productionNanos[p.ordinal()].sum() / 1e9);
+            }
+        }
+    }
+
+    private static void counter(PrintWriter out, String name, String help, long value) {
+        out.println("# HELP " + name + " " + help);
+        out.println("# TYPE " + name + " counter");
+        out.println(name + " " + value);
+    }
+
+    private static String tagName(int tag) {
+        String name = Tag.getTagName(tag);
+        return name != null ? name : "'" + (char) tag + "'";
+    }
+}
@@ -0,0 +1,27 @@
+package Compiler.Metrics;
+
+/* Produções da gramática instrumentadas no SyntaticAnalyzer */
+public enum Production {
+    PROGRAM("program"),
+    DECL_LIST("decl-list"),
+    DECL("decl"),
+    PROC_DECL("proc-decl"),
+    STMT_LIST("stmt-list"),
+    ASSIGN_STMT("assign-stmt"),
+    CALL_STMT("call-stmt"),
+    IF_STMT("if-stmt"),
+    WHILE_STMT("while-stmt"),
+    REPEAT_STMT("repeat-stmt"),
+    READ_STMT("read-stmt"),
+    WRITE_STMT("write-stmt"),
+    EXPRESSION("expression"),
+    SIMPLE_EXPR("simple-expr"),
+    TERM("term"),
+    FACTOR("factor");
+
+    public final String rule;
+
+    Production(String rule) {
+        this.rule = rule;
+    }
+}
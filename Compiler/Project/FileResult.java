@@ -0,0 +1,29 @@
+package Compiler.Project;
+
+import Compiler.Budget.Budget;
+import Compiler.Semantic.SemanticResult;
+
+/* Resultado da compilação de um arquivo do projeto */
+public class FileResult {
+    public final String fileName;
+    public final SemanticResult result; // null se a análise parou com exceção
+    public final String error;          // mensagem da exceção, se houver
+    public final long nanos;
+    public final Budget budget;         // contabilidade da compilação; null fora do modo de orçamento
+
+    public FileResult(String fileName, SemanticResult result, String error, long nanos, Budget budget) {
+        this.fileName = fileName;
+        this.result = result;
+        this.error = error;
+        this.nanos = nanos;
+        this.budget = budget;
+    }
+
+    public boolean isOk() {
+        return result != null && !result.isError();
+    }
+
+    public String message() {
+        return error != null ? error : result.message;
+    }
+}
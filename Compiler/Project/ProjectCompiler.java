@@ -0,0 +1,107 @@
+package Compiler.Project;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+import Compiler.Budget.Budget;
+import Compiler.Budget.BudgetExceededException;
+import Compiler.Lexical.Lexer;
+import Compiler.Semantic.SemanticResult;
+import Compiler.SymbolTable.SymbolTable;
+import Compiler.Syntatic.SyntaticAnalyzer;
+import Compiler.Syntatic.Exceptions.InvalidTokenException;
+import Compiler.Syntatic.Exceptions.UnexpectedEOFException;
+import Compiler.Syntatic.Exceptions.UnexpectedTokenException;
+
+/*
+ * Compila várias unidades de programa em paralelo. Cada arquivo tem seu
+ * próprio Lexer e sua própria SymbolTable (as palavras reservadas vêm da
+ * KeywordTable compartilhada); cada tarefa grava seu resultado numa posição
+ * própria do array, então a agregação não precisa de locks. No modo de
+ * orçamento (Budget.enabled) cada arquivo tem seus próprios limites, e um
+ * arquivo que passa deles termina com o erro sem afetar os outros. Um
+ * arquivo aninhado demais para a pilha, fora desse modo, também vira só o
+ * erro do próprio arquivo.
+ */
+public class ProjectCompiler {
+
+    private final int threads;
+
+    public ProjectCompiler(int threads) {
+        this.threads = threads;
+    }
+
+    /* Interrompida, a compilação cancela os arquivos que faltam e repassa a
+       interrupção em vez de devolver resultados incompletos */
+    public FileResult[] compile(List<String> fileNames) throws InterruptedException {
+        String[] files = fileNames.toArray(new String[0]);
+        FileResult[] results = new FileResult[files.length];
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        try {
+            pool.submit(() -> IntStream.range(0, files.length).parallel()
+                    .forEach(i -> results[i] = compileFile(files[i]))).get();
+        } catch (ExecutionException e) {
+            throw new RuntimeException(e.getCause());
+        } finally {
+            pool.shutdownNow();
+        }
+        return results;
+    }
+
+    public static FileResult compileFile(String fileName) {
+        long start = System.nanoTime();
+        Budget budget = Budget.create();
+        SymbolTable symbolTable = new SymbolTable();
+        try (Lexer lexer = new Lexer(fileName, symbolTable)) {
+            lexer.setBudget(budget);
+            SyntaticAnalyzer syntaticAnalyzer = new SyntaticAnalyzer(lexer, symbolTable);
+            syntaticAnalyzer.setBudget(budget);
+            SemanticResult result = syntaticAnalyzer.start();
+            return new FileResult(fileName, result, null, System.nanoTime() - start, budget);
+        } catch (FileNotFoundException e) {
+            return new FileResult(fileName, null, "File: " + fileName + " not found.", System.nanoTime() - start, budget);
+        } catch (IOException | UnexpectedTokenException | UnexpectedEOFException | InvalidTokenException
+                | BudgetExceededException | NumberFormatException e) {
+            // Erros do programa analisado, já com a mensagem para o usuário
+            return new FileResult(fileName, null, e.getMessage(), System.nanoTime() - start, budget);
+        } catch (RuntimeException e) {
+            // Falha inesperada: a mensagem pode ser null, então o tipo da exceção vai junto
+            return new FileResult(fileName, null, String.valueOf(e), System.nanoTime() - start, budget);
+        } catch (StackOverflowError e) {
+            return new FileResult(fileName, null, "Program nested too deeply to analyze (stack overflow); use --budget to limit the depth",
+                    System.nanoTime() - start, budget);
+        } finally {
+            // O tempo e a alocação são medidos na thread que compilou
+            if (budget != null) budget.finish();
+        }
+    }
+
+    /* Arquivos .txt de um diretório (recursivamente) ou os próprios arquivos dados */
+    public static List<String> collect(String[] paths) {
+        List<String> files = new ArrayList<>();
+        for (String path : paths) {
+            collect(new File(path), files);
+        }
+        return files;
+    }
+
+    private static void collect(File f, List<String> files) {
+        if (f.isDirectory()) {
+            File[] children = f.listFiles();
+            if (children == null) return;
+            Arrays.sort(children);
+            for (File child : children) {
+                if (child.isDirectory() || child.getName().endsWith(".txt")) collect(child, files);
+            }
+        } else {
+            files.add(f.getPath());
+        }
+    }
+}
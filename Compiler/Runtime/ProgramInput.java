@@ -0,0 +1,164 @@
+package Compiler.Runtime;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+
+/*
+ * Entrada dos comandos read. Lê a entrada em blocos e converte os valores
+ * diretamente dos bytes, sem criar Strings nem objetos por leitura.
+ * Valores são separados por espaços ou quebras de linha.
+ */
+public class ProgramInput {
+
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    // Potências de 10 representáveis exatamente em double
+    private static final double[] POWERS_OF_TEN = {
+        1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+        1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+
+    private final InputStream in;
+    private final byte[] buf = new byte[BUFFER_SIZE];
+    private int pos = 0;
+    private int limit = 0;
+
+    public ProgramInput(InputStream in) {
+        this.in = in;
+    }
+
+    /* Próximo byte sem consumi-lo, ou -1 no fim da entrada */
+    private int peek() {
+        if (pos >= limit) {
+            try {
+                limit = in.read(buf, 0, buf.length);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            pos = 0;
+            if (limit <= 0) {
+                limit = 0;
+                return -1;
+            }
+        }
+        return buf[pos] & 0xFF;
+    }
+
+    private int skipBlanks() {
+        int c = peek();
+        while (c == ' ' || c == '\n' || c == '\r' || c == '\t') {
+            pos++;
+            c = peek();
+        }
+        if (c < 0) {
+            throw new RuntimeError("Unexpected end of input");
+        }
+        return c;
+    }
+
+    public long readInt() {
+        int c = skipBlanks();
+        boolean negative = c == '-';
+        if (c == '-' || c == '+') {
+            pos++;
+            c = peek();
+        }
+        if (c < '0' || c > '9') {
+            throw new RuntimeError("Expected an int value in the input");
+        }
+        // acumula negativo para aceitar Long.MIN_VALUE
+        long value = 0;
+        while (c >= '0' && c <= '9') {
+            int digit = c - '0';
+            if (value < (Long.MIN_VALUE + digit) / 10) {
+                throw new RuntimeError("Int value out of range in the input");
+            }
+            value = value * 10 - digit;
+            pos++;
+            c = peek();
+        }
+        if (!negative && value == Long.MIN_VALUE) {
+            throw new RuntimeError("Int value out of range in the input");
+        }
+        return negative ? value : -value;
+    }
+
+    /* Aceita [-]dígitos[.dígitos][e[-]dígitos]. Com até 15 dígitos significativos
+       e expoente pequeno o valor é exato sem passar por Double.parseDouble */
+    public double readFloat() {
+        int c = skipBlanks();
+        boolean negative = c == '-';
+        if (c == '-' || c == '+') {
+            pos++;
+            c = peek();
+        }
+        long mantissa = 0;
+        int significant = 0;
+        int scale = 0;
+        boolean digits = false;
+        boolean fraction = false;
+        while ((c >= '0' && c <= '9') || (c == '.' && !fraction)) {
+            if (c == '.') {
+                fraction = true;
+            } else {
+                digits = true;
+                if (mantissa != 0 || c != '0') significant++;
+                if (significant <= 18) {
+                    mantissa = mantissa * 10 + (c - '0');
+                    if (fraction) scale--;
+                } else if (!fraction) {
+                    scale++;
+                }
+            }
+            pos++;
+            c = peek();
+        }
+        if (!digits) {
+            throw new RuntimeError("Expected a float value in the input");
+        }
+        if (c == 'e' || c == 'E') {
+            pos++;
+            c = peek();
+            boolean negativeExponent = c == '-';
+            if (c == '-' || c == '+') {
+                pos++;
+                c = peek();
+            }
+            int exponent = 0;
+            while (c >= '0' && c <= '9') {
+                exponent = Math.min(exponent * 10 + (c - '0'), 100000);
+                pos++;
+                c = peek();
+            }
+            scale += negativeExponent ? -exponent : exponent;
+        }
+        double value;
+        if (significant <= 15 && scale <= 0 && -scale < POWERS_OF_TEN.length) {
+            value = mantissa / POWERS_OF_TEN[-scale];
+        } else if (significant <= 15 && scale > 0 && scale < POWERS_OF_TEN.length) {
+            value = mantissa * POWERS_OF_TEN[scale];
+        } else {
+            value = Double.parseDouble(mantissa + "e" + scale);
+        }
+        return negative ? -value : value;
+    }
+
+    /* Próximo caractere que não seja espaço (UTF-8 de até 3 bytes) */
+    public char readChar() {
+        int c = skipBlanks();
+        pos++;
+        if (c < 0x80) {
+            return (char) c;
+        }
+        int extra = (c & 0xE0) == 0xC0 ? 1 : 2;
+        int value = c & (0x3F >> extra);
+        for (int i = 0; i < extra; i++) {
+            int next = peek();
+            if (next < 0 || (next & 0xC0) != 0x80) return '\uFFFD';
+            value = (value << 6) | (next & 0x3F);
+            pos++;
+        }
+        return (char) value;
+    }
+}
@@ -0,0 +1,174 @@
+package Compiler.Runtime;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+
+/*
+ * Saída dos comandos write. Cada write escreve um valor seguido de uma
+ * quebra de linha num buffer que só vai para o stream quando enche ou em
+ * flush(). Inteiros e os floats mais comuns são formatados direto nos
+ * bytes do buffer, sem criar Strings.
+ */
+public class ProgramOutput {
+
+    private static final int BUFFER_SIZE = 1 << 16;
+    private static final byte[] MIN_LONG = Long.toString(Long.MIN_VALUE).getBytes(StandardCharsets.US_ASCII);
+
+    private static final double[] POWERS_OF_TEN = {
+        1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+        1e12, 1e13, 1e14, 1e15
+    };
+
+    private final OutputStream out;
+    private final byte[] buf = new byte[BUFFER_SIZE];
+    private int pos = 0;
+
+    public ProgramOutput(OutputStream out) {
+        this.out = out;
+    }
+
+    /* Codifica um literal uma única vez, para ser escrito com writeBytes */
+    public static byte[] encode(String literal) {
+        return literal.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private void ensure(int n) {
+        if (pos + n > buf.length) {
+            flushBuffer();
+        }
+    }
+
+    public void writeInt(long value) {
+        ensure(21);
+        appendLong(value);
+        buf[pos++] = '\n';
+    }
+
+    public void writeFloat(double value) {
+        ensure(32);
+        if (!appendDouble(value)) {
+            byte[] text = Double.toString(value).getBytes(StandardCharsets.US_ASCII);
+            ensure(text.length + 1);
+            System.arraycopy(text, 0, buf, pos, text.length);
+            pos += text.length;
+        }
+        buf[pos++] = '\n';
+    }
+
+    public void writeChar(char c) {
+        ensure(4);
+        if (c < 0x80) {
+            buf[pos++] = (byte) c;
+        } else if (c < 0x800) {
+            buf[pos++] = (byte) (0xC0 | (c >> 6));
+            buf[pos++] = (byte) (0x80 | (c & 0x3F));
+        } else {
+            buf[pos++] = (byte) (0xE0 | (c >> 12));
+            buf[pos++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+            buf[pos++] = (byte) (0x80 | (c & 0x3F));
+        }
+        buf[pos++] = '\n';
+    }
+
+    /* Escreve um literal já codificado por encode() */
+    public void writeBytes(byte[] literal) {
+        if (literal.length + 1 > buf.length) {
+            flushBuffer();
+            write(literal, literal.length);
+        } else {
+            ensure(literal.length + 1);
+            System.arraycopy(literal, 0, buf, pos, literal.length);
+            pos += literal.length;
+        }
+        ensure(1);
+        buf[pos++] = '\n';
+    }
+
+    private void appendLong(long value) {
+        if (value == Long.MIN_VALUE) {
+            System.arraycopy(MIN_LONG, 0, buf, pos, MIN_LONG.length);
+            pos += MIN_LONG.length;
+            return;
+        }
+        if (value < 0) {
+            buf[pos++] = '-';
+            value = -value;
+        }
+        int end = pos + digits(value);
+        int i = end;
+        do {
+            buf[--i] = (byte) ('0' + value % 10);
+            value /= 10;
+        } while (value != 0);
+        pos = end;
+    }
+
+    private static int digits(long value) {
+        int n = 1;
+        while (value >= 10) {
+            value /= 10;
+            n++;
+        }
+        return n;
+    }
+
+    /* Mesmo texto de Double.toString para valores entre 1e-3 e 1e7 que têm uma
+       representação decimal curta e exata; retorna false nos demais casos */
+    private boolean appendDouble(double value) {
+        double abs = Math.abs(value);
+        if (!(abs >= 1e-3 && abs < 1e7)) {
+            return false;
+        }
+        for (int scale = 1; scale < POWERS_OF_TEN.length; scale++) {
+            double scaled = abs * POWERS_OF_TEN[scale];
+            if (scaled >= 1L << 53) {
+                return false;
+            }
+            long m = Math.round(scaled);
+            if (m / POWERS_OF_TEN[scale] == abs) {
+                if (value < 0) buf[pos++] = '-';
+                long integer = m / (long) POWERS_OF_TEN[scale];
+                long fraction = m % (long) POWERS_OF_TEN[scale];
+                appendLong(integer);
+                buf[pos++] = '.';
+                int width = scale;
+                while (width > 1 && fraction % 10 == 0) {
+                    fraction /= 10;
+                    width--;
+                }
+                int end = pos + width;
+                for (int i = end - 1; i >= pos; i--) {
+                    buf[i] = (byte) ('0' + fraction % 10);
+                    fraction /= 10;
+                }
+                pos = end;
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void flushBuffer() {
+        write(buf, pos);
+        pos = 0;
+    }
+
+    private void write(byte[] bytes, int length) {
+        try {
+            out.write(bytes, 0, length);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public void flush() {
+        flushBuffer();
+        try {
+            out.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package Compiler.Runtime;
+
+/* Erro durante a execução de um programa */
+public class RuntimeError extends RuntimeException {
+    // Chamadas de procedimento abertas ao mesmo tempo; todos os back ends param no mesmo ponto
+    public static final int MAX_CALL_DEPTH = 256;
+
+    public RuntimeError(String message) {
+        super(message);
+    }
+
+    public RuntimeError(String message, int line) {
+        super(message + " on line " + line);
+    }
+
+    public static RuntimeError callDepth(int line) {
+        return new RuntimeError("Call depth limit exceeded", line);
+    }
+
+    // Acesso a um elemento fora do arranjo; a mensagem é a mesma em todos os back ends
+    public static RuntimeError index(long index, int length, int line) {
+        return new RuntimeError("Index " + index + " out of bounds for length " + length, line);
+    }
+
+    /* Posição de um elemento num arranjo de tamanho length; fora dele é o erro acima */
+    public static int checkIndex(long index, int length, int line) {
+        if (index < 0 || index >= length) throw index(index, length, line);
+        return (int) index;
+    }
+}
@@ -0,0 +1,13 @@
+package Compiler.Semantic;
+
+/* Um erro semântico com a linha onde aconteceu, para quem precisa da posição
+   sem depender do texto da mensagem (o servidor LSP) */
+public class SemanticError {
+    public final String message;
+    public final int line;
+
+    public SemanticError(String message, int line) {
+        this.message = message;
+        this.line = line;
+    }
+}
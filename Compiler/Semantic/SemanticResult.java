@@ -1,8 +1,15 @@
 package Compiler.Semantic;
 
+import java.util.ArrayList;
+import java.util.List;
+
+import Compiler.Tree.Node;
+
 public class SemanticResult {
     public SemanticResultType type;
     public String message;
+    public Node node; // nó da árvore montado pela produção, null em caso de erro
+    public List<SemanticError> errors = List.of(); // erros com mensagem, na ordem de message
 
     public SemanticResult (SemanticResultType type, String message){
         this(type);
@@ -10,9 +17,24 @@ public class SemanticResult {
     }
 
 
+    public SemanticResult (SemanticResultType type, String message, int line){
+        this(type, message);
+        errors = List.of(new SemanticError(message, line));
+    }
+
     public SemanticResult (SemanticResultType type, int line){
-        this(type);
-        message = "Semantic error on line " + line;
+        this(type, "Semantic error on line " + line, line);
+    }
+
+    /* Erro com a mensagem já montada a partir de parts, juntando os erros de cada parte que falhou */
+    public static SemanticResult error(String message, SemanticResult... parts){
+        SemanticResult result = new SemanticResult(null, message);
+        List<SemanticError> errors = new ArrayList<>();
+        for(SemanticResult part : parts){
+            if(part.isError()) errors.addAll(part.errors);
+        }
+        result.errors = errors;
+        return result;
     }
 
     
@@ -33,7 +55,9 @@ public class SemanticResult {
 
     public SemanticResult okIfNotError(){
             if(isError()) return this;
-            return new SemanticResult(SemanticResultType.TYPE_OK); 
+            SemanticResult ok = new SemanticResult(SemanticResultType.TYPE_OK);
+            ok.node = node;
+            return ok;
     }
     
     
@@ -53,4 +77,40 @@ public class SemanticResult {
     public static String getIncompatibleVariableTypesErrorMessage(int line) {
         return "Incompatible variable types on " + " on line "+ line+".";
     }
+
+    public static String getUndefinedProcedureErrorMessage(int line, String name) {
+        return "Undefined procedure " + name + " on line " + line + ".";
+    }
+
+    public static String getDuplicateProcedureErrorMessage(int line, String name) {
+        return "Procedure " + name + " already declared on line " + line + ".";
+    }
+
+    public static String getArgumentCountErrorMessage(int line, String name, int expected, int found) {
+        return "Procedure " + name + " expects " + expected + " arguments, found " + found + " on line " + line + ".";
+    }
+
+    public static String getIncompatibleArgumentErrorMessage(int line, String name, int argument) {
+        return "Incompatible type for argument " + argument + " of procedure " + name + " on line " + line + ".";
+    }
+
+    public static String getArraySizeErrorMessage(int line) {
+        return "Invalid array size on line " + line + ".";
+    }
+
+    public static String getArrayParameterErrorMessage(int line, String name) {
+        return "Parameter " + name + " cannot be an array on line " + line + ".";
+    }
+
+    public static String getMissingIndexErrorMessage(int line, String name) {
+        return "Array " + name + " used without an index on line " + line + ".";
+    }
+
+    public static String getNotArrayErrorMessage(int line, String name) {
+        return "Variable " + name + " is not an array on line " + line + ".";
+    }
+
+    public static String getIndexTypeErrorMessage(int line) {
+        return "Array index must be int on line " + line + ".";
+    }
 }
@@ -0,0 +1,117 @@
+package Compiler.SymbolTable.Export;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+import Compiler.Semantic.SemanticResultType;
+
+/*
+ * Lê um export gravado pelo SymbolExportWriter direto do arquivo mapeado em
+ * memória. Abrir o arquivo só valida o cabeçalho; find() custa um hash e,
+ * em média, uma comparação de bytes com a arena.
+ */
+public class SymbolExportReader {
+
+    private static final SemanticResultType[] TYPES = SemanticResultType.values();
+
+    private final MappedByteBuffer data;
+    private final int count;
+    private final int capacity;
+    private final int entries;
+    private final int hashTable;
+    private final int arena;
+
+    public SymbolExportReader(String fileName) throws IOException {
+        try (FileChannel channel = FileChannel.open(Paths.get(fileName), StandardOpenOption.READ)) {
+            data = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        if (data.capacity() < SymbolExportWriter.HEADER_SIZE || data.getInt(0) != SymbolExportWriter.MAGIC) {
+            throw new IOException("File " + fileName + " is not a symbol export");
+        }
+        if (data.getInt(4) != SymbolExportWriter.VERSION) {
+            throw new IOException("Unsupported symbol export version " + data.getInt(4));
+        }
+        count = data.getInt(8);
+        capacity = data.getInt(12);
+        int arenaSize = data.getInt(16);
+        entries = SymbolExportWriter.HEADER_SIZE;
+        // Mesma regra do BytecodeLoader: a quantidade tem que caber no resto do arquivo
+        if (count < 0 || (long) count * SymbolExportWriter.ENTRY_SIZE > data.capacity() - entries) {
+            throw new IOException("Bad count " + count + " in symbol export " + fileName);
+        }
+        hashTable = entries + count * SymbolExportWriter.ENTRY_SIZE;
+        long arenaStart = hashTable + (long) capacity * 4;
+        if (capacity <= 0 || Integer.bitCount(capacity) != 1 || capacity < count
+                || arenaSize < 0 || arenaStart + arenaSize != data.capacity()) {
+            throw new IOException("Symbol export " + fileName + " is truncated or corrupted");
+        }
+        arena = (int) arenaStart;
+    }
+
+    public int size() {
+        return count;
+    }
+
+    /* Id do símbolo com esse nome, ou -1 */
+    public int find(String name) {
+        return find(name.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public int find(byte[] name) {
+        int slot = SymbolExportWriter.hash(name, 0, name.length) & (capacity - 1);
+        while (true) {
+            int id = data.getInt(hashTable + slot * 4) - 1;
+            if (id < 0) return -1;
+            if (equals(id, name)) return id;
+            slot = (slot + 1) & (capacity - 1);
+        }
+    }
+
+    private boolean equals(int id, byte[] name) {
+        if (length(id) != name.length) return false;
+        int offset = arena + offset(id);
+        for (int i = 0; i < name.length; i++) {
+            if (data.get(offset + i) != name[i]) return false;
+        }
+        return true;
+    }
+
+    public String name(int id) {
+        byte[] bytes = new byte[length(id)];
+        data.get(arena + offset(id), bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /* Tipo declarado, ou null para identificadores sem declaração */
+    public SemanticResultType type(int id) {
+        int type = data.getInt(entry(id) + 12);
+        return type < 0 ? null : TYPES[type];
+    }
+
+    /* Linha da declaração, ou 0 para identificadores sem declaração */
+    public int declarationLine(int id) {
+        return data.getInt(entry(id) + 8);
+    }
+
+    int offset(int id) {
+        return data.getInt(entry(id));
+    }
+
+    int length(int id) {
+        return data.getInt(entry(id) + 4);
+    }
+
+    // Byte do lexema relativo ao início da arena
+    byte arenaByte(int position) {
+        return data.get(arena + position);
+    }
+
+    private int entry(int id) {
+        if (id < 0 || id >= count) throw new IndexOutOfBoundsException("Symbol id " + id + " out of range");
+        return entries + id * SymbolExportWriter.ENTRY_SIZE;
+    }
+}
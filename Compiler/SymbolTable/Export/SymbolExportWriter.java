@@ -0,0 +1,114 @@
+package Compiler.SymbolTable.Export;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+
+import Compiler.Lexical.Tokens.Word;
+import Compiler.SymbolTable.SymbolTable;
+import Compiler.Tree.Procedure;
+import Compiler.Tree.Variable;
+
+/*
+ * Exporta os identificadores de um arquivo num formato binário que outras
+ * ferramentas podem mapear em memória sem rodar o compilador.
+ *
+ * Formato (inteiros de 4 bytes, big-endian):
+ *   magic "SYM1" | versão | quantidade | capacidade da tabela hash | tamanho da arena
+ *   entradas:  quantidade x {offset na arena, tamanho, linha da declaração, tipo}
+ *   hash:      capacidade x {id + 1, 0 se vazio}     endereçamento aberto, FNV-1a sobre o UTF-8
+ *   arena:     lexemas em UTF-8, um após o outro
+ *
+ * Os ids são densos: as variáveis declaradas ficam com o próprio slot e os demais
+ * identificadores (nome do programa, variáveis não declaradas) vêm depois, em
+ * ordem alfabética. Sem declaração, linha é 0 e tipo é -1; senão o tipo é o
+ * ordinal de SemanticResultType.
+ *
+ * O export descreve só o escopo global: os procedimentos e os parâmetros e as
+ * variáveis locais deles ficam de fora, porque o mesmo nome pode ser uma
+ * variável diferente em cada escopo. Um nome que só aparece num procedimento
+ * não entra nem como identificador não declarado. Um vetor aparece com o tipo
+ * do elemento: o tamanho dele não é gravado, então o export não distingue
+ * vetores de variáveis simples.
+ */
+public class SymbolExportWriter {
+
+    static final int MAGIC = 0x53594D31;
+    static final int VERSION = 1;
+    static final int HEADER_SIZE = 20;
+    static final int ENTRY_SIZE = 16;
+
+    /* Grava o export das variáveis globais em fileName e retorna a quantidade de símbolos */
+    public static int write(SymbolTable table, List<Variable> variables, List<Procedure> procedures, String fileName) throws IOException {
+        ArrayList<byte[]> names = new ArrayList<>();
+        ArrayList<Variable> declared = new ArrayList<>();
+        HashSet<Word> seen = new HashSet<>();
+        for (Variable variable : variables) {
+            names.add(variable.getName().getBytes(StandardCharsets.UTF_8));
+            declared.add(variable);
+            seen.add(variable.word);
+        }
+        HashSet<String> scoped = new HashSet<>();
+        for (Procedure procedure : procedures) {
+            scoped.add(procedure.name);
+            for (Variable variable : procedure.parameters) scoped.add(variable.getName());
+            for (Variable variable : procedure.locals) scoped.add(variable.getName());
+        }
+        ArrayList<String> others = new ArrayList<>();
+        for (Word w : table.identifiers()) {
+            if (!seen.contains(w) && !scoped.contains(w.getLexeme())) others.add(w.getLexeme());
+        }
+        others.sort(null);
+        for (String name : others) names.add(name.getBytes(StandardCharsets.UTF_8));
+
+        int count = names.size();
+        int capacity = Integer.highestOneBit(Math.max(count * 2, 2) - 1) << 1;
+        int[] slots = new int[capacity];
+        int arenaSize = 0;
+        for (int id = 0; id < count; id++) {
+            byte[] name = names.get(id);
+            int slot = hash(name, 0, name.length) & (capacity - 1);
+            while (slots[slot] != 0) slot = (slot + 1) & (capacity - 1);
+            slots[slot] = id + 1;
+            arenaSize += name.length;
+        }
+
+        // O arquivo inteiro é montado num único buffer e gravado de uma vez
+        ByteBuffer out = ByteBuffer.allocate(HEADER_SIZE + count * ENTRY_SIZE + capacity * 4 + arenaSize);
+        out.putInt(MAGIC).putInt(VERSION).putInt(count).putInt(capacity).putInt(arenaSize);
+        int offset = 0;
+        for (int id = 0; id < count; id++) {
+            Variable variable = id < declared.size() ? declared.get(id) : null;
+            out.putInt(offset);
+            out.putInt(names.get(id).length);
+            out.putInt(variable == null ? 0 : variable.line);
+            out.putInt(variable == null || variable.getType() == null ? -1 : variable.getType().ordinal());
+            offset += names.get(id).length;
+        }
+        out.asIntBuffer().put(slots);
+        out.position(out.position() + capacity * 4);
+        for (byte[] name : names) out.put(name);
+        out.flip();
+        try (FileChannel channel = FileChannel.open(Paths.get(fileName), StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            while (out.hasRemaining()) channel.write(out);
+        }
+        return count;
+    }
+
+    // FNV-1a de 32 bits; o leitor calcula o mesmo valor sobre os bytes do nome procurado
+    static int hash(byte[] bytes, int start, int end) {
+        int h = 0x811C9DC5;
+        for (int i = start; i < end; i++) {
+            h ^= bytes[i] & 0xFF;
+            h *= 0x01000193;
+        }
+        return h;
+    }
+}
@@ -0,0 +1,100 @@
+package Compiler.SymbolTable.Export;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import Compiler.Semantic.SemanticResultType;
+
+/*
+ * Listagem textual de um export, ordenada pelo nome e escrita em blocos:
+ * uma linha "nome<TAB>tipo<TAB>linha" por símbolo. Os nomes são copiados
+ * direto da arena e a ordenação compara os bytes UTF-8, sem criar Strings,
+ * o que mantém tabelas grandes baratas de listar.
+ */
+public class SymbolTextDump {
+
+    private static final byte[][] TYPE_NAMES = new byte[SemanticResultType.values().length][];
+    private static final byte[] NONE = "-".getBytes(StandardCharsets.US_ASCII);
+
+    static {
+        for (SemanticResultType type : SemanticResultType.values()) {
+            TYPE_NAMES[type.ordinal()] = type.name().substring("TYPE_".length()).toLowerCase().getBytes(StandardCharsets.US_ASCII);
+        }
+    }
+
+    private final SymbolExportReader export;
+    private final OutputStream out;
+    private final byte[] buf = new byte[1 << 16];
+    private int pos = 0;
+
+    private SymbolTextDump(SymbolExportReader export, OutputStream out) {
+        this.export = export;
+        this.out = out;
+    }
+
+    /* Escreve todos os símbolos em ordem; retorna quantos foram escritos */
+    public static int write(SymbolExportReader export, OutputStream out) throws IOException {
+        SymbolTextDump dump = new SymbolTextDump(export, out);
+        Integer[] ids = new Integer[export.size()];
+        for (int i = 0; i < ids.length; i++) ids[i] = i;
+        Arrays.sort(ids, dump::compare);
+        for (Integer id : ids) dump.line(id);
+        dump.flush();
+        return ids.length;
+    }
+
+    // Ordem dos bytes UTF-8 sem sinal, que é a ordem dos code points
+    private int compare(int a, int b) {
+        int offsetA = export.offset(a), lengthA = export.length(a);
+        int offsetB = export.offset(b), lengthB = export.length(b);
+        int n = Math.min(lengthA, lengthB);
+        for (int i = 0; i < n; i++) {
+            int x = export.arenaByte(offsetA + i) & 0xFF;
+            int y = export.arenaByte(offsetB + i) & 0xFF;
+            if (x != y) return x - y;
+        }
+        return lengthA - lengthB;
+    }
+
+    private void line(int id) throws IOException {
+        int offset = export.offset(id);
+        int length = export.length(id);
+        for (int i = 0; i < length; i++) {
+            if (pos == buf.length) flushBuffer();
+            buf[pos++] = export.arenaByte(offset + i);
+        }
+        if (pos + 32 > buf.length) flushBuffer();
+        buf[pos++] = '\t';
+        SemanticResultType type = export.type(id);
+        byte[] typeName = type == null ? NONE : TYPE_NAMES[type.ordinal()];
+        System.arraycopy(typeName, 0, buf, pos, typeName.length);
+        pos += typeName.length;
+        buf[pos++] = '\t';
+        appendInt(export.declarationLine(id));
+        buf[pos++] = '\n';
+    }
+
+    private void appendInt(int value) {
+        int digits = 1;
+        for (int v = value; v >= 10; v /= 10) digits++;
+        int end = pos + digits;
+        int i = end;
+        do {
+            buf[--i] = (byte) ('0' + value % 10);
+            value /= 10;
+        } while (value != 0);
+        pos = end;
+    }
+
+    private void flushBuffer() throws IOException {
+        out.write(buf, 0, pos);
+        pos = 0;
+    }
+
+    private void flush() throws IOException {
+        flushBuffer();
+        out.flush();
+    }
+}
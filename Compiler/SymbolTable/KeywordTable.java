@@ -0,0 +1,56 @@
+package Compiler.SymbolTable;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import Compiler.Lexical.Tag;
+import Compiler.Lexical.Tokens.Word;
+
+/* Palavras reservadas da linguagem. A tabela é imutável e compartilhada por
+   todas as SymbolTable, inclusive entre threads compilando arquivos diferentes.
+   Só depende de Word e Tag, então a imagem nativa a monta durante o build
+   (scripts/build-native.sh) e o executável já parte com ela pronta */
+public final class KeywordTable {
+
+    private static final Map<String, Word> keywords;
+
+    static {
+        HashMap<String, Word> words = new HashMap<>();
+        reserve(words, new Word("program", Tag.PRG));
+        reserve(words, new Word("begin", Tag.BEG));
+        reserve(words, new Word("end", Tag.END));
+        reserve(words, new Word("is", Tag.IS));
+        reserve(words, new Word("type", Tag.TYPE));
+        reserve(words, new Word("int", Tag.INT));
+        reserve(words, new Word("float", Tag.FLOAT));
+        reserve(words, new Word("char", Tag.CHAR));
+        reserve(words, new Word("if", Tag.IF));
+        reserve(words, new Word("then", Tag.THEN));
+        reserve(words, new Word("else", Tag.ELSE));
+        reserve(words, new Word("repeat", Tag.REPEAT));
+        reserve(words, new Word("until", Tag.UNTIL));
+        reserve(words, new Word("while", Tag.WHILE));
+        reserve(words, new Word("do", Tag.DO));
+        reserve(words, new Word("read", Tag.READ));
+        reserve(words, new Word("write", Tag.WRITE));
+        reserve(words, new Word("procedure", Tag.PROCEDURE));
+        keywords = Collections.unmodifiableMap(words);
+    }
+
+    private KeywordTable() {
+    }
+
+    private static void reserve(HashMap<String, Word> words, Word w) {
+        words.put(w.getLexeme(), w);
+    }
+
+    public static Word get(String s) {
+        return keywords.get(s);
+    }
+
+    public static Collection<Word> words() {
+        return keywords.values();
+    }
+}
@@ -3,7 +3,12 @@ package Compiler.Syntatic.Exceptions;
 import Compiler.Lexical.Tokens.InvalidToken;
 
 public class InvalidTokenException extends RuntimeException{
-    public InvalidTokenException(InvalidToken invalid, int line){
-        super("Invalid token " + invalid.toString() + " on line " + line);
+    public final int line;
+    public final int column;
+
+    public InvalidTokenException(InvalidToken invalid, int line, int column){
+        super("Invalid token " + invalid.toString() + " on line " + line + (column > 0 ? ", column " + column : ""));
+        this.line = line;
+        this.column = column;
     }
 }
@@ -1,8 +1,11 @@
 package Compiler.Syntatic.Exceptions;
 
 public class UnexpectedEOFException extends RuntimeException{
-    public UnexpectedEOFException(){
-        super("Unexpected END of file");
+    public final int line;
+
+    public UnexpectedEOFException(int line){
+        super("Unexpected END of file on line: " + line);
+        this.line = line;
     }
     
 }
@@ -4,11 +4,23 @@ import Compiler.Lexical.Tag;
 import Compiler.Lexical.Tokens.Token;
 
 public class UnexpectedTokenException extends RuntimeException{
-    public UnexpectedTokenException(Token unexpected, int expected, int line){
-        super("Unexpected token: " + unexpected.toString() + " of type: " + Tag.getTagName(unexpected.getTag()) + " on line: " + line + "\nExpected: type: " + Tag.getTagName(expected));
+    public final int line;
+    public final int column; // em caracteres; 0 se a fonte não informa
+
+    public UnexpectedTokenException(Token unexpected, int expected, int line, int column){
+        super("Unexpected token: " + unexpected.toString() + " of type: " + Tag.getTagName(unexpected.getTag()) + position(line, column) + "\nExpected: type: " + Tag.getTagName(expected));
+        this.line = line;
+        this.column = column;
+    }
+
+    public UnexpectedTokenException(Token unexpected, int line, int column){
+        super("Unexpected token: " + unexpected.toString() + " of type: " + Tag.getTagName(unexpected.getTag()) + position(line, column));
+        this.line = line;
+        this.column = column;
     }
 
-    public UnexpectedTokenException(Token unexpected, int line){
-        super("Unexpected token: " + unexpected.toString() + " of type: " + Tag.getTagName(unexpected.getTag()) + " on line: " + line);
+    // A coluna é 0 quando a fonte de tokens só conhece linhas (snapshot)
+    private static String position(int line, int column){
+        return " on line: " + line + (column > 0 ? ", column: " + column : "");
     }
 }
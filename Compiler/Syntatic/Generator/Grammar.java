@@ -0,0 +1,177 @@
+package Compiler.Syntatic.Generator;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import Compiler.Lexical.Tag;
+
+/*
+ * Gramática lida pelo GrammarReader. Os grupos ( ... ), ( ... )* e ( ... )?
+ * já chegam como regras próprias, que usam o quadro da regra onde aparecem
+ * (owner): rótulos e locais pertencem à regra, não ao grupo. resolve()
+ * confere os símbolos e distribui os slots dos quadros e os números das ações.
+ */
+final class Grammar {
+
+    static final int TERMINAL = 0, NONTERMINAL = 1, ACTION = 2;
+
+    /* Um símbolo do lado direito ou uma ação */
+    static final class Item {
+        final int kind;
+        final String name;  // NOME ou 'c' nos terminais, a regra nos não terminais
+        final String label; // rótulo ou null
+        final String code;  // código das ações
+        final int line;
+        int slot = -1;      // onde o valor é guardado no quadro; -1 se em nenhum lugar
+        int action = -1;
+
+        Item(int kind, String name, String label, String code, int line) {
+            this.kind = kind;
+            this.name = name;
+            this.label = label;
+            this.code = code;
+            this.line = line;
+        }
+
+        boolean isSymbol() {
+            return kind != ACTION;
+        }
+    }
+
+    static final class Alternative {
+        final List<Item> items = new ArrayList<>();
+        final int line;
+        boolean isDefault;
+
+        Alternative(int line) {
+            this.line = line;
+        }
+    }
+
+    static final class Rule {
+        final String name;
+        final int line;
+        final Rule owner; // a própria regra ou, num grupo, a regra onde ele aparece
+        final List<Alternative> alternatives = new ArrayList<>();
+        String type;
+        String metric;
+        int groups;       // grupos já criados dentro da regra, para dar nome ao próximo
+        // Só na regra dona: slot e tipo de cada rótulo ou local; o slot 0 é $$
+        final Map<String, Integer> slots = new LinkedHashMap<>();
+        final Map<String, String> types = new HashMap<>();
+        final Set<String> locals = new HashSet<>();
+
+        Rule(String name, int line, Rule owner) {
+            this.name = name;
+            this.line = line;
+            this.owner = owner == null ? this : owner;
+            if (owner == null) slots.put("$", 0);
+        }
+
+        boolean isGroup() {
+            return owner != this;
+        }
+    }
+
+    final String file;
+    String packageName;
+    String className;
+    String defaultType = "Object";
+    String start;
+    String members = "";
+    final List<String> imports = new ArrayList<>();
+    final List<Rule> rules = new ArrayList<>();
+    final Map<String, Rule> byName = new HashMap<>();
+    final List<Item> actions = new ArrayList<>();
+
+    Grammar(String file) {
+        this.file = file;
+    }
+
+    void add(Rule rule) {
+        if (byName.containsKey(rule.name)) throw error(rule.line, "rule " + rule.name + " defined twice");
+        rules.add(rule);
+        byName.put(rule.name, rule);
+    }
+
+    GrammarException error(int line, String message) {
+        return new GrammarException(file, line, message);
+    }
+
+    /* Tipo do valor de uma regra (o da dona, num grupo) */
+    String type(Rule rule) {
+        Rule owner = rule.owner;
+        return owner.type != null ? owner.type : defaultType;
+    }
+
+    void resolve() {
+        if (packageName == null || className == null) throw error(1, "missing %package or %class");
+        if (start == null || !byName.containsKey(start)) throw error(1, "missing or unknown %start rule");
+        for (Rule rule : rules) {
+            for (Alternative alternative : rule.alternatives) {
+                int symbols = 0;
+                boolean valued = false;
+                for (Item item : alternative.items) {
+                    if (item.kind == ACTION) {
+                        item.action = actions.size();
+                        actions.add(item);
+                        valued = true;
+                        continue;
+                    }
+                    symbols++;
+                    if (item.kind == TERMINAL) tag(item);
+                    else if (!byName.containsKey(item.name)) throw error(item.line, "undefined rule " + item.name);
+                    if (item.label != null) {
+                        item.slot = slot(rule.owner, item.label, symbolType(item), item.line);
+                        valued = true;
+                    }
+                }
+                // Uma alternativa de um símbolo só, sem rótulo nem ação, tem o valor do símbolo
+                if (!rule.isGroup() && symbols == 1 && !valued) {
+                    Item only = alternative.items.get(0);
+                    if (only.kind == TERMINAL || !byName.get(only.name).isGroup()) only.slot = 0;
+                }
+            }
+        }
+    }
+
+    /* Declara um local: ocupa um slot do quadro mas não tem linha */
+    void local(Rule rule, String name, String type, int line) {
+        slot(rule, name, type, line);
+        rule.locals.add(name);
+    }
+
+    private int slot(Rule owner, String label, String type, int line) {
+        if (label.equals("$")) throw error(line, "invalid label");
+        String previous = owner.types.get(label);
+        if (previous != null && !previous.equals(type)) {
+            throw error(line, "label " + label + " used as " + previous + " and " + type + " in " + owner.name);
+        }
+        owner.types.put(label, type);
+        return owner.slots.computeIfAbsent(label, l -> owner.slots.size());
+    }
+
+    private String symbolType(Item item) {
+        return item.kind == TERMINAL ? "Token" : type(byName.get(item.name));
+    }
+
+    /* Valor do tag de um terminal: constante de Tag ou caractere */
+    int tag(Item item) {
+        if (item.name.startsWith("'")) return item.name.charAt(1);
+        try {
+            return Tag.class.getField(item.name).getInt(null);
+        } catch (ReflectiveOperationException e) {
+            throw error(item.line, "unknown terminal " + item.name + " (not a constant of Compiler.Lexical.Tag)");
+        }
+    }
+
+    /* Expressão Java do tag, para o código gerado */
+    static String tagExpression(String terminal) {
+        return terminal.startsWith("'") ? terminal : "Tag." + terminal;
+    }
+}
@@ -0,0 +1,8 @@
+package Compiler.Syntatic.Generator;
+
+/* Erro no arquivo de gramática: sintaxe, símbolo desconhecido ou conflito LL(1) */
+public class GrammarException extends RuntimeException {
+    public GrammarException(String file, int line, String message) {
+        super(file + ":" + line + ": " + message);
+    }
+}
@@ -0,0 +1,283 @@
+package Compiler.Syntatic.Generator;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+
+import Compiler.Syntatic.Generator.Grammar.Alternative;
+import Compiler.Syntatic.Generator.Grammar.Item;
+import Compiler.Syntatic.Generator.Grammar.Rule;
+
+/*
+ * Lê um arquivo .grammar (o formato está descrito no início de
+ * Language.grammar). Descendente recursivo direto sobre os caracteres; as
+ * ações em Java são copiadas como texto, contando chaves e pulando literais e
+ * comentários. Cada grupo vira uma regra "dona#n":
+ *   ( a | b )    G ::= a | b
+ *   ( a | b )*   G ::= a G | b G | %default %empty
+ *   ( a | b )?   G ::= a | b | %default %empty
+ */
+final class GrammarReader {
+
+    private final Grammar grammar;
+    private final String text;
+    private int pos = 0;
+    private int line = 1;
+
+    private GrammarReader(String file, String text) {
+        this.grammar = new Grammar(file);
+        this.text = text;
+    }
+
+    static Grammar read(String file) throws IOException {
+        String text = new String(Files.readAllBytes(Paths.get(file)), StandardCharsets.UTF_8);
+        GrammarReader reader = new GrammarReader(file, text);
+        reader.grammar();
+        reader.grammar.resolve();
+        return reader.grammar;
+    }
+
+    private void grammar() {
+        skip();
+        while (pos < text.length()) {
+            if (peek() == '%') directive();
+            else rule();
+            skip();
+        }
+    }
+
+    private void directive() {
+        int at = line;
+        String name = keyword();
+        switch (name) {
+            case "%package": grammar.packageName = restOfLine(); break;
+            case "%class": grammar.className = restOfLine(); break;
+            case "%type": grammar.defaultType = restOfLine(); break;
+            case "%start": grammar.start = restOfLine(); break;
+            case "%import": grammar.imports.add(restOfLine()); break;
+            case "%members":
+                skip();
+                grammar.members = code();
+                break;
+            default:
+                throw grammar.error(at, "unknown directive " + name);
+        }
+    }
+
+    // rule ::= name [<Tipo>] [%metric NOME] {%local Tipo nome} "::=" alternatives ";"
+    private void rule() {
+        int at = line;
+        Rule rule = new Rule(word(), at, null);
+        grammar.add(rule);
+        skip();
+        while (!text.startsWith("::=", pos)) {
+            if (peek() == '<') {
+                pos++;
+                rule.type = angled();
+            } else if (text.startsWith("%metric", pos)) {
+                keyword();
+                skip();
+                rule.metric = word();
+            } else if (text.startsWith("%local", pos)) {
+                keyword();
+                skip();
+                String type = type();
+                skip();
+                grammar.local(rule, word(), type, line);
+            } else {
+                throw grammar.error(line, "expected ::= after " + rule.name);
+            }
+            skip();
+        }
+        pos += 3;
+        alternatives(rule, ';');
+        pos++;
+    }
+
+    /* Alternativas separadas por | até o caractere end, que não é consumido */
+    private void alternatives(Rule rule, char end) {
+        while (true) {
+            Alternative alternative = new Alternative(line);
+            rule.alternatives.add(alternative);
+            items(rule, alternative);
+            skip();
+            if (pos >= text.length()) throw grammar.error(line, "unterminated rule " + rule.owner.name);
+            if (peek() == end) return;
+            if (peek() != '|') throw grammar.error(line, "unexpected '" + peek() + "' in " + rule.owner.name);
+            pos++;
+        }
+    }
+
+    private void items(Rule rule, Alternative alternative) {
+        while (true) {
+            skip();
+            if (pos >= text.length()) return;
+            char c = peek();
+            int at = line;
+            if (c == '|' || c == ';' || c == ')') return;
+            if (c == '%') {
+                String name = keyword();
+                if (name.equals("%default")) alternative.isDefault = true;
+                else if (!name.equals("%empty")) throw grammar.error(at, "unexpected " + name);
+            } else if (c == '{') {
+                alternative.items.add(new Item(Grammar.ACTION, null, null, code(), at));
+            } else if (c == '(') {
+                pos++;
+                alternative.items.add(group(rule.owner, at));
+            } else {
+                String label = null;
+                String symbol = c == '\'' ? character() : word();
+                skip();
+                if (pos < text.length() && peek() == '=' && c != '\'') {
+                    pos++;
+                    skip();
+                    label = symbol;
+                    symbol = peek() == '\'' ? character() : word();
+                }
+                boolean terminal = symbol.startsWith("'") || symbol.equals(symbol.toUpperCase());
+                alternative.items.add(new Item(terminal ? Grammar.TERMINAL : Grammar.NONTERMINAL, symbol, label, null, at));
+            }
+        }
+    }
+
+    private Item group(Rule owner, int at) {
+        Rule group = new Rule(owner.name + "#" + ++owner.groups, at, owner);
+        grammar.add(group);
+        alternatives(group, ')');
+        pos++;
+        char suffix = pos < text.length() ? peek() : ' ';
+        if (suffix == '*' || suffix == '?') {
+            pos++;
+            for (Alternative alternative : group.alternatives) {
+                if (alternative.isDefault) throw grammar.error(alternative.line, "%default inside ( )" + suffix + ": the empty alternative is the default");
+                if (suffix == '*') alternative.items.add(new Item(Grammar.NONTERMINAL, group.name, null, null, at));
+            }
+            Alternative empty = new Alternative(at);
+            empty.isDefault = true;
+            group.alternatives.add(empty);
+        }
+        return new Item(Grammar.NONTERMINAL, group.name, null, null, at);
+    }
+
+    // Bloco { ... } de código Java, devolvido sem as chaves externas
+    private String code() {
+        if (peek() != '{') throw grammar.error(line, "expected {");
+        int start = ++pos;
+        int depth = 1;
+        while (depth > 0) {
+            if (pos >= text.length()) throw grammar.error(line, "unterminated code block");
+            char c = text.charAt(pos);
+            if (c == '"' || c == '\'') {
+                literal(c);
+                continue;
+            }
+            if (text.startsWith("//", pos) || text.startsWith("/*", pos)) {
+                comment();
+                continue;
+            }
+            if (c == '{') depth++;
+            else if (c == '}') depth--;
+            else if (c == '\n') line++;
+            pos++;
+        }
+        return text.substring(start, pos - 1);
+    }
+
+    private void literal(char quote) {
+        pos++;
+        while (pos < text.length() && text.charAt(pos) != quote) {
+            if (text.charAt(pos) == '\\') pos++;
+            else if (text.charAt(pos) == '\n') throw grammar.error(line, "unterminated literal");
+            pos++;
+        }
+        pos++;
+    }
+
+    private String character() {
+        int start = pos;
+        if (pos + 2 >= text.length() || text.charAt(pos + 2) != '\'') throw grammar.error(line, "expected 'c'");
+        pos += 3;
+        return text.substring(start, pos);
+    }
+
+    // Tipo Java: nome com pontos, argumentos <...> e []
+    private String type() {
+        int start = pos;
+        while (pos < text.length() && (Character.isJavaIdentifierPart(peek()) || peek() == '.')) pos++;
+        if (pos < text.length() && peek() == '<') {
+            pos++;
+            angled();
+        }
+        while (text.startsWith("[]", pos)) pos += 2;
+        if (start == pos) throw grammar.error(line, "expected a type");
+        return text.substring(start, pos);
+    }
+
+    // Conteúdo até o > correspondente, já depois do <
+    private String angled() {
+        int start = pos;
+        int depth = 1;
+        while (depth > 0) {
+            if (pos >= text.length() || peek() == '\n') throw grammar.error(line, "unterminated <type>");
+            if (peek() == '<') depth++;
+            else if (peek() == '>') depth--;
+            pos++;
+        }
+        return text.substring(start, pos - 1).trim();
+    }
+
+    private String word() {
+        int start = pos;
+        while (pos < text.length() && (Character.isLetterOrDigit(peek()) || peek() == '_' || peek() == '-')) pos++;
+        if (start == pos) throw grammar.error(line, "unexpected '" + (pos < text.length() ? peek() : ' ') + "'");
+        return text.substring(start, pos);
+    }
+
+    private String keyword() {
+        pos++;
+        return "%" + word();
+    }
+
+    private String restOfLine() {
+        int end = text.indexOf('\n', pos);
+        if (end < 0) end = text.length();
+        String value = text.substring(pos, end).trim();
+        pos = end;
+        return value;
+    }
+
+    // Espaços e comentários
+    private void skip() {
+        while (pos < text.length()) {
+            char c = peek();
+            if (c == '\n') {
+                line++;
+                pos++;
+            } else if (Character.isWhitespace(c)) {
+                pos++;
+            } else if (text.startsWith("//", pos) || text.startsWith("/*", pos)) {
+                comment();
+            } else {
+                return;
+            }
+        }
+    }
+
+    private void comment() {
+        if (text.startsWith("//", pos)) {
+            while (pos < text.length() && peek() != '\n') pos++;
+            return;
+        }
+        int end = text.indexOf("*/", pos + 2);
+        if (end < 0) throw grammar.error(line, "unterminated comment");
+        for (int i = pos; i < end; i++) {
+            if (text.charAt(i) == '\n') line++;
+        }
+        pos = end + 2;
+    }
+
+    private char peek() {
+        return text.charAt(pos);
+    }
+}
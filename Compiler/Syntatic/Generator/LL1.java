@@ -0,0 +1,244 @@
+package Compiler.Syntatic.Generator;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import Compiler.Syntatic.Generator.Grammar.Alternative;
+import Compiler.Syntatic.Generator.Grammar.Item;
+import Compiler.Syntatic.Generator.Grammar.Rule;
+
+/*
+ * Conjuntos FIRST e FOLLOW (ponto fixo sobre BitSets de colunas) e a tabela
+ * de previsão. A previsão de uma alternativa é o seu FIRST, mais o FOLLOW da
+ * regra quando ela pode ser vazia; duas alternativas que prevêem o mesmo
+ * terminal são um conflito. As células que nenhuma alternativa prevê (e a
+ * coluna dos tags que a gramática não usa) ficam com a alternativa %default,
+ * ou com a única alternativa da regra, como num descendente recursivo que
+ * testa os casos conhecidos e cai no último; sem ela, -1 (token inesperado).
+ * Também recusa recursão à esquerda, que faria a análise expandir a mesma
+ * regra para sempre.
+ */
+final class LL1 {
+
+    final Grammar grammar;
+    final List<String> terminals = new ArrayList<>(); // uma coluna cada; a última coluna é a dos demais tags
+    final List<Alternative> productions = new ArrayList<>();
+    final Map<Alternative, Integer> production = new HashMap<>();
+    final Map<Rule, Integer> index = new HashMap<>();
+    final List<String> conflicts = new ArrayList<>();
+    final List<String> warnings = new ArrayList<>();
+    boolean[] nullable;
+    BitSet[] first;
+    BitSet[] follow;
+    int[][] table;
+
+    private final Map<String, Integer> column = new LinkedHashMap<>();
+
+    LL1(Grammar grammar) {
+        this.grammar = grammar;
+        for (Rule rule : grammar.rules) {
+            index.put(rule, index.size());
+            for (Alternative alternative : rule.alternatives) {
+                production.put(alternative, productions.size());
+                productions.add(alternative);
+                for (Item item : alternative.items) {
+                    if (item.kind == Grammar.TERMINAL && !column.containsKey(item.name)) {
+                        column.put(item.name, terminals.size());
+                        terminals.add(item.name);
+                    }
+                }
+            }
+        }
+        sets();
+        leftRecursion();
+        table();
+        reachable();
+    }
+
+    int columns() {
+        return terminals.size() + 1;
+    }
+
+    int column(String terminal) {
+        return column.get(terminal);
+    }
+
+    private Rule rule(Item item) {
+        return grammar.byName.get(item.name);
+    }
+
+    private void sets() {
+        int n = grammar.rules.size();
+        nullable = new boolean[n];
+        first = new BitSet[n];
+        follow = new BitSet[n];
+        for (int i = 0; i < n; i++) {
+            first[i] = new BitSet();
+            follow[i] = new BitSet();
+        }
+        boolean changed = true;
+        while (changed) {
+            changed = false;
+            for (Rule rule : grammar.rules) {
+                int r = index.get(rule);
+                for (Alternative alternative : rule.alternatives) {
+                    BitSet set = new BitSet();
+                    boolean empty = first(alternative.items, 0, set);
+                    if (empty && !nullable[r]) {
+                        nullable[r] = true;
+                        changed = true;
+                    }
+                    changed |= addAll(first[r], set);
+                }
+            }
+        }
+        changed = true;
+        while (changed) {
+            changed = false;
+            for (Rule rule : grammar.rules) {
+                for (Alternative alternative : rule.alternatives) {
+                    List<Item> items = alternative.items;
+                    for (int i = 0; i < items.size(); i++) {
+                        if (items.get(i).kind != Grammar.NONTERMINAL) continue;
+                        int target = index.get(rule(items.get(i)));
+                        BitSet rest = new BitSet();
+                        boolean empty = first(items, i + 1, rest);
+                        changed |= addAll(follow[target], rest);
+                        if (empty) changed |= addAll(follow[target], follow[index.get(rule)]);
+                    }
+                }
+            }
+        }
+    }
+
+    /* Soma em set o FIRST de items[from..]; true se essa parte pode ser vazia */
+    boolean first(List<Item> items, int from, BitSet set) {
+        for (int i = from; i < items.size(); i++) {
+            Item item = items.get(i);
+            if (item.kind == Grammar.ACTION) continue;
+            if (item.kind == Grammar.TERMINAL) {
+                set.set(column(item.name));
+                return false;
+            }
+            int r = index.get(rule(item));
+            set.or(first[r]);
+            if (!nullable[r]) return false;
+        }
+        return true;
+    }
+
+    BitSet predict(Rule rule, Alternative alternative) {
+        BitSet set = new BitSet();
+        if (first(alternative.items, 0, set)) set.or(follow[index.get(rule)]);
+        return set;
+    }
+
+    private static boolean addAll(BitSet target, BitSet source) {
+        int before = target.cardinality();
+        target.or(source);
+        return target.cardinality() != before;
+    }
+
+    private void table() {
+        table = new int[grammar.rules.size()][columns()];
+        for (Rule rule : grammar.rules) {
+            int[] row = table[index.get(rule)];
+            Arrays.fill(row, -1);
+            Alternative fallback = rule.alternatives.size() == 1 ? rule.alternatives.get(0) : null;
+            for (Alternative alternative : rule.alternatives) {
+                if (!alternative.isDefault) continue;
+                if (fallback != null && fallback != alternative) {
+                    conflicts.add(grammar.error(alternative.line, "more than one %default in " + name(rule)).getMessage());
+                }
+                fallback = alternative;
+            }
+            for (Alternative alternative : rule.alternatives) {
+                BitSet set = predict(rule, alternative);
+                for (int c = set.nextSetBit(0); c >= 0; c = set.nextSetBit(c + 1)) {
+                    if (row[c] >= 0) {
+                        Alternative other = productions.get(row[c]);
+                        conflicts.add(grammar.error(alternative.line, "LL(1) conflict in " + name(rule) + " on " + terminals.get(c)
+                            + ": alternatives at lines " + other.line + " and " + alternative.line).getMessage());
+                        continue;
+                    }
+                    row[c] = production.get(alternative);
+                }
+            }
+            if (fallback == null) continue;
+            for (int c = 0; c < row.length; c++) {
+                if (row[c] < 0) row[c] = production.get(fallback);
+            }
+        }
+    }
+
+    private void leftRecursion() {
+        int n = grammar.rules.size();
+        for (Rule rule : grammar.rules) {
+            int start = index.get(rule);
+            // Busca em largura pelas regras que podem aparecer na ponta esquerda
+            int[] parent = new int[n];
+            Arrays.fill(parent, -2);
+            List<Integer> queue = new ArrayList<>();
+            queue.add(start);
+            parent[start] = -1;
+            for (int q = 0; q < queue.size(); q++) {
+                Rule current = grammar.rules.get(queue.get(q));
+                for (Alternative alternative : current.alternatives) {
+                    for (Item item : alternative.items) {
+                        if (item.kind == Grammar.ACTION) continue;
+                        if (item.kind == Grammar.TERMINAL) break;
+                        int next = index.get(rule(item));
+                        if (next == start) {
+                            StringBuilder path = new StringBuilder(name(rule(item)));
+                            for (int p = queue.get(q); p >= 0; p = parent[p]) path.insert(0, name(grammar.rules.get(p)) + " -> ");
+                            conflicts.add(grammar.error(rule.line, "left recursion: " + path).getMessage());
+                            return;
+                        }
+                        if (parent[next] == -2) {
+                            parent[next] = queue.get(q);
+                            queue.add(next);
+                        }
+                        if (!nullable[next]) break;
+                    }
+                }
+            }
+        }
+    }
+
+    private void reachable() {
+        BitSet seen = new BitSet();
+        List<Rule> queue = new ArrayList<>();
+        queue.add(grammar.byName.get(grammar.start));
+        seen.set(index.get(queue.get(0)));
+        for (int q = 0; q < queue.size(); q++) {
+            for (Alternative alternative : queue.get(q).alternatives) {
+                for (Item item : alternative.items) {
+                    if (item.kind != Grammar.NONTERMINAL || seen.get(index.get(rule(item)))) continue;
+                    seen.set(index.get(rule(item)));
+                    queue.add(rule(item));
+                }
+            }
+        }
+        for (Rule rule : grammar.rules) {
+            if (!seen.get(index.get(rule))) warnings.add(grammar.error(rule.line, "rule " + rule.name + " is never used").getMessage());
+        }
+    }
+
+    String name(Rule rule) {
+        return rule.isGroup() ? rule.name + " (group at line " + rule.line + ")" : rule.name;
+    }
+
+    String names(BitSet set) {
+        StringBuilder out = new StringBuilder();
+        for (int c = set.nextSetBit(0); c >= 0; c = set.nextSetBit(c + 1)) {
+            if (out.length() > 0) out.append(' ');
+            out.append(terminals.get(c));
+        }
+        return out.toString();
+    }
+}
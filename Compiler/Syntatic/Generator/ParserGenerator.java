@@ -0,0 +1,346 @@
+package Compiler.Syntatic.Generator;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.List;
+
+import Compiler.Syntatic.Generator.Grammar.Alternative;
+import Compiler.Syntatic.Generator.Grammar.Item;
+import Compiler.Syntatic.Generator.Grammar.Rule;
+
+/*
+ * Gera um analisador LL(1) dirigido por tabela a partir de um .grammar e do
+ * esqueleto Parser.skeleton (no mesmo diretório da gramática):
+ *   java Compiler.Syntatic.Generator.ParserGenerator [--check] [--report] gramatica saida.java
+ * Conflitos LL(1), recursão à esquerda e símbolos desconhecidos são erros
+ * (saída 1) e o arquivo não é escrito. --check só compara o que seria gerado
+ * com a saída existente, para o build acusar um analisador desatualizado;
+ * --report lista FIRST, FOLLOW e a previsão de cada alternativa.
+ */
+public class ParserGenerator {
+
+    private final Grammar grammar;
+    private final LL1 ll1;
+    private final StringBuilder out = new StringBuilder();
+
+    private ParserGenerator(Grammar grammar, LL1 ll1) {
+        this.grammar = grammar;
+        this.ll1 = ll1;
+    }
+
+    public static void main(String[] args) throws IOException {
+        boolean check = false;
+        boolean report = false;
+        String grammarFile = null;
+        String outputFile = null;
+        for (String arg : args) {
+            if (arg.equals("--check")) check = true;
+            else if (arg.equals("--report")) report = true;
+            else if (grammarFile == null) grammarFile = arg;
+            else outputFile = arg;
+        }
+        if (outputFile == null) {
+            System.out.println("Usage: java ParserGenerator [--check] [--report] file.grammar Output.java");
+            System.exit(2);
+        }
+
+        Grammar grammar;
+        LL1 ll1;
+        try {
+            grammar = GrammarReader.read(grammarFile);
+            ll1 = new LL1(grammar);
+        } catch (GrammarException e) {
+            System.err.println(e.getMessage());
+            System.exit(1);
+            return;
+        }
+        for (String warning : ll1.warnings) System.err.println(warning + " (warning)");
+        for (String conflict : ll1.conflicts) System.err.println(conflict);
+        if (report) report(grammar, ll1);
+        if (!ll1.conflicts.isEmpty()) {
+            System.err.println(ll1.conflicts.size() + " error(s); " + outputFile + " not generated");
+            System.exit(1);
+        }
+
+        File skeleton = new File(new File(grammarFile).getAbsoluteFile().getParentFile(), "Parser.skeleton");
+        String text = new ParserGenerator(grammar, ll1).generate(grammarFile,
+            new String(Files.readAllBytes(skeleton.toPath()), StandardCharsets.UTF_8));
+        File output = new File(outputFile);
+        if (check) {
+            String current = output.exists() ? new String(Files.readAllBytes(output.toPath()), StandardCharsets.UTF_8) : "";
+            if (!current.equals(text)) {
+                System.err.println(outputFile + " is out of date with " + grammarFile + "; run scripts/generate-parser.sh");
+                System.exit(1);
+            }
+            System.out.println(outputFile + " is up to date");
+            return;
+        }
+        Files.write(output.toPath(), text.getBytes(StandardCharsets.UTF_8));
+        System.out.println(outputFile + ": " + grammar.rules.size() + " rules, " + ll1.productions.size()
+            + " productions, " + ll1.terminals.size() + " terminals");
+    }
+
+    private static void report(Grammar grammar, LL1 ll1) {
+        for (Rule rule : grammar.rules) {
+            int r = ll1.index.get(rule);
+            System.out.println(ll1.name(rule) + (ll1.nullable[r] ? " (nullable)" : ""));
+            System.out.println("    FIRST  " + ll1.names(ll1.first[r]));
+            System.out.println("    FOLLOW " + ll1.names(ll1.follow[r]));
+            for (Alternative alternative : rule.alternatives) {
+                System.out.println("    " + text(alternative) + (alternative.isDefault ? "   %default" : "")
+                    + "\n        predict " + ll1.names(ll1.predict(rule, alternative)));
+            }
+        }
+    }
+
+    private String generate(String grammarFile, String skeleton) {
+        StringBuilder imports = new StringBuilder();
+        for (String name : grammar.imports) imports.append("import ").append(name).append(";\n");
+        return skeleton
+            .replace("%%PACKAGE%%", grammar.packageName)
+            .replace("%%GRAMMAR%%", grammarFile.replace(File.separatorChar, '/'))
+            .replace("%%IMPORTS%%\n", imports.toString())
+            .replace("%%CLASS%%", grammar.className)
+            .replace("%%MEMBERS%%", reindent(grammar.members, "    "))
+            .replace("%%TABLES%%\n", tables())
+            .replace("%%ACTIONS%%\n", actions());
+    }
+
+    private String tables() {
+        out.setLength(0);
+        List<String> terminals = ll1.terminals;
+        int columns = ll1.columns();
+
+        line("    private static final int START = " + ll1.index.get(grammar.byName.get(grammar.start)) + ";");
+        line("    private static final int COLUMNS = " + columns + ";");
+        line("");
+        line("    // Tag de cada coluna, para o MATCH");
+        line("    private static final int[] TAGS = {");
+        StringBuilder tags = new StringBuilder("       ");
+        for (String terminal : terminals) {
+            String tag = Grammar.tagExpression(terminal);
+            if (tags.length() + tag.length() > 110) {
+                line(tags.toString());
+                tags = new StringBuilder("       ");
+            }
+            tags.append(' ').append(tag).append(',');
+        }
+        line(tags.toString());
+        line("    };");
+        line("");
+        line("    private static int column(int tag){");
+        line("        switch(tag){");
+        for (int c = 0; c < terminals.size(); c++) {
+            line("            case " + Grammar.tagExpression(terminals.get(c)) + ": return " + c + ";");
+        }
+        line("            default: return " + terminals.size() + ";");
+        line("        }");
+        line("    }");
+        line("");
+
+        line("    // Tamanho do quadro de cada regra: $$, rótulos e locais (os grupos usam o quadro da regra)");
+        out.append("    private static final int[] SLOTS = {");
+        for (Rule rule : grammar.rules) out.append(rule == grammar.rules.get(0) ? " " : ", ").append(rule.isGroup() ? 0 : rule.slots.size());
+        line(" };");
+        line("");
+        line("    private static final Production[] METRICS = {");
+        for (Rule rule : grammar.rules) {
+            line("        " + (rule.metric == null ? "null" : "Production." + rule.metric) + ", // " + rule.name);
+        }
+        line("    };");
+        line("");
+
+        line("    // PREDICT[regra * COLUMNS + coluna]: produção a expandir ou -1 (token inesperado). Colunas:");
+        StringBuilder header = new StringBuilder("    //");
+        for (int c = 0; c <= terminals.size(); c++) {
+            String name = c < terminals.size() ? terminals.get(c) : "(outros)";
+            if (header.length() + name.length() > 110) {
+                line(header.toString());
+                header = new StringBuilder("    //");
+            }
+            header.append(' ').append(c).append(':').append(name);
+        }
+        line(header.toString());
+        line("    private static final short[] PREDICT = {");
+        for (Rule rule : grammar.rules) {
+            int[] row = ll1.table[ll1.index.get(rule)];
+            StringBuilder cells = new StringBuilder();
+            for (int c = 0; c < columns; c++) cells.append(String.format("%3d,", row[c]));
+            line("        " + cells + " // " + rule.name);
+        }
+        line("    };");
+        line("");
+
+        line("    private static final int[][] PRODUCTIONS = {");
+        for (int p = 0; p < ll1.productions.size(); p++) {
+            Alternative alternative = ll1.productions.get(p);
+            StringBuilder ops = new StringBuilder();
+            for (Item item : alternative.items) {
+                if (ops.length() > 0) ops.append(", ");
+                ops.append(op(item));
+            }
+            line("        /* " + p + " " + owner(alternative).name + " ::= " + text(alternative) + " */");
+            line("        {" + (ops.length() == 0 ? "" : " " + ops + " ") + "},");
+        }
+        line("    };");
+        line("");
+        line("    private static int op(int kind, int arg, int slot){");
+        line("        return kind | arg << 4 | (slot + 1) << 16;");
+        line("    }");
+        return out.toString();
+    }
+
+    private String op(Item item) {
+        switch (item.kind) {
+            case Grammar.TERMINAL:
+                return "op(MATCH, " + ll1.column(item.name) + ", " + item.slot + ")";
+            case Grammar.NONTERMINAL:
+                Rule rule = grammar.byName.get(item.name);
+                return rule.isGroup() ? "op(EXPAND, " + ll1.index.get(rule) + ", -1)"
+                    : "op(CALL, " + ll1.index.get(rule) + ", " + item.slot + ")";
+            default:
+                return "op(ACTION, " + item.action + ", -1)";
+        }
+    }
+
+    private Rule owner(Alternative alternative) {
+        for (Rule rule : grammar.rules) {
+            if (rule.alternatives.contains(alternative)) return rule;
+        }
+        throw new IllegalStateException();
+    }
+
+    /* A alternativa como no .grammar, com as ações trocadas pelo seu número */
+    private static String text(Alternative alternative) {
+        StringBuilder text = new StringBuilder();
+        for (Item item : alternative.items) {
+            if (text.length() > 0) text.append(' ');
+            if (item.kind == Grammar.ACTION) {
+                text.append('{').append(item.action).append('}');
+                continue;
+            }
+            if (item.label != null) text.append(item.label).append('=');
+            text.append(item.name);
+        }
+        return text.length() == 0 ? "%empty" : text.toString();
+    }
+
+    private String actions() {
+        out.setLength(0);
+        line("    @SuppressWarnings(\"unchecked\")");
+        line("    private void action(int action, int b){");
+        line("        switch(action){");
+        for (Item action : grammar.actions) {
+            Rule rule = ruleOf(action);
+            line("            case " + action.action + ": { // " + rule.owner.name + ", " + grammar.file.replace(File.separatorChar, '/')
+                .replaceAll(".*/", "") + ":" + action.line);
+            out.append(reindent(translate(action, rule.owner), "                "));
+            line("                break;");
+            line("            }");
+        }
+        line("        }");
+        line("    }");
+        return out.toString();
+    }
+
+    private Rule ruleOf(Item action) {
+        for (Rule rule : grammar.rules) {
+            for (Alternative alternative : rule.alternatives) {
+                if (alternative.items.contains(action)) return rule;
+            }
+        }
+        throw new IllegalStateException();
+    }
+
+    /*
+     * Troca $$, $r, @$ e @r pelos acessos ao quadro: values[b + slot] com
+     * conversão para o tipo do rótulo, ou sem ela numa atribuição ($r = ...),
+     * e line(positions[b + slot]). Literais e comentários ficam como estão.
+     */
+    private String translate(Item action, Rule owner) {
+        String code = action.code;
+        StringBuilder result = new StringBuilder(code.length() + 64);
+        int i = 0;
+        while (i < code.length()) {
+            char c = code.charAt(i);
+            if (c == '"' || c == '\'') {
+                int end = i + 1;
+                while (end < code.length() && code.charAt(end) != c) end += code.charAt(end) == '\\' ? 2 : 1;
+                result.append(code, i, Math.min(end + 1, code.length()));
+                i = end + 1;
+                continue;
+            }
+            if (code.startsWith("//", i) || code.startsWith("/*", i)) {
+                int end = code.startsWith("//", i) ? code.indexOf('\n', i) : code.indexOf("*/", i) + 2;
+                if (end < i) end = code.length();
+                result.append(code, i, end);
+                i = end;
+                continue;
+            }
+            if ((c != '$' && c != '@') || i + 1 >= code.length()) {
+                result.append(c);
+                i++;
+                continue;
+            }
+            int end = i + 1;
+            String name;
+            if (code.charAt(end) == '$') {
+                name = "$";
+                end++;
+            } else {
+                while (end < code.length() && Character.isJavaIdentifierPart(code.charAt(end))) end++;
+                name = code.substring(i + 1, end);
+            }
+            Integer slot = owner.slots.get(name);
+            if (name.isEmpty() || slot == null) {
+                throw grammar.error(action.line, "unknown label " + c + name + " in " + owner.name);
+            }
+            String cell = slot == 0 ? "[b]" : "[b + " + slot + "]";
+            if (c == '@') {
+                if (owner.locals.contains(name)) throw grammar.error(action.line, "local " + name + " has no line");
+                result.append("line(positions").append(cell).append(')');
+            } else if (isAssignment(code, end)) {
+                result.append("values").append(cell);
+            } else {
+                String type = name.equals("$") ? grammar.type(owner) : owner.types.get(name);
+                result.append("((").append(type).append(") values").append(cell).append(')');
+            }
+            i = end;
+        }
+        return result.toString();
+    }
+
+    private static boolean isAssignment(String code, int from) {
+        int i = from;
+        while (i < code.length() && code.charAt(i) == ' ') i++;
+        return i + 1 < code.length() && code.charAt(i) == '=' && code.charAt(i + 1) != '=';
+    }
+
+    /* Tira o recuo comum das linhas e aplica indent; sem as linhas em branco das pontas */
+    private static String reindent(String code, String indent) {
+        String[] lines = code.replace("\r", "").split("\n", -1);
+        int first = 0;
+        int last = lines.length - 1;
+        while (first <= last && lines[first].trim().isEmpty()) first++;
+        while (last >= first && lines[last].trim().isEmpty()) last--;
+        int common = Integer.MAX_VALUE;
+        for (int i = first; i <= last; i++) {
+            if (lines[i].trim().isEmpty()) continue;
+            int spaces = 0;
+            while (lines[i].charAt(spaces) == ' ') spaces++;
+            common = Math.min(common, spaces);
+        }
+        StringBuilder result = new StringBuilder();
+        for (int i = first; i <= last; i++) {
+            if (!lines[i].trim().isEmpty()) result.append(indent).append(lines[i].substring(common).stripTrailing());
+            result.append('\n');
+        }
+        return result.toString();
+    }
+
+    private void line(String text) {
+        out.append(text).append('\n');
+    }
+}
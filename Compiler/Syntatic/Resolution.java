@@ -0,0 +1,15 @@
+package Compiler.Syntatic;
+
+import Compiler.Tree.Variable;
+
+/* Ligações de nomes feitas pelo SyntaticAnalyzer, para ferramentas que precisam
+   saber a que cada identificador se refere (o servidor LSP). position é o início
+   do identificador no TokenSource; declaration marca a declaração do nome */
+public interface Resolution {
+
+    /* Variável do escopo onde o identificador foi resolvido; null num uso sem declaração */
+    void variable(long position, Variable variable, boolean declaration);
+
+    /* Procedimento pelo índice em Program.procedures; -1 numa chamada a procedimento não declarado */
+    void procedure(long position, int index, boolean declaration);
+}
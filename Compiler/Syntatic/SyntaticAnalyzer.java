@@ -2,36 +2,99 @@ package Compiler.Syntatic;
 
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
 
+import Compiler.Budget.Budget;
 import Compiler.Lexical.*;
 import Compiler.Lexical.Tokens.*;
+import Compiler.Lexical.Tokens.Num.Num;
+import Compiler.Metrics.Metrics;
+import Compiler.Metrics.Production;
+import Compiler.Metrics.Events;
+import Compiler.Semantic.SemanticError;
 import Compiler.Semantic.SemanticResult;
 import Compiler.Semantic.SemanticResultType;
 import Compiler.SymbolTable.SymbolTable;
 import Compiler.Syntatic.Exceptions.*;
+import Compiler.Tree.*;
 
 public class SyntaticAnalyzer{
 
-    private Lexer lexer;
+    private TokenSource lexer;
     private Token tok;
+    private long tokens = 0;
+    private Budget budget; // limites da compilação; null não confere nada
+    private Resolution resolution; // recebe a ligação de cada identificador; null não informa nada
+    private long position; // início de tok na fonte; linha e coluna só são calculadas para mensagens e nós
+    // Variáveis globais na ordem de declaração; uma redeclaração reaproveita o mesmo slot
+    private LinkedHashMap<Word, Variable> variables = new LinkedHashMap<>();
+    // Parâmetros e locais do procedimento sendo analisado; null no corpo do programa
+    private LinkedHashMap<Word, Variable> scope;
+    // Todas as variáveis, na ordem dos slots
+    private ArrayList<Variable> slots = new ArrayList<>();
+    // Procedimentos pelo nome, com o índice em Program.procedures; o nome entra logo
+    // depois dos parâmetros, para que o corpo possa chamar o próprio procedimento
+    private HashMap<Word, Integer> procedureIndex = new HashMap<>();
+    private ArrayList<List<Variable>> signatures = new ArrayList<>();
+    private ArrayList<Procedure> procedures = new ArrayList<>();
     
-    public SyntaticAnalyzer(Lexer lexer, SymbolTable table){
+    public SyntaticAnalyzer(TokenSource lexer, SymbolTable table){
         this.lexer = lexer;
     }    
 
+    /* Confere o total de tokens, a profundidade de aninhamento e o tempo da compilação */
+    public void setBudget(Budget budget){
+        this.budget = budget;
+    }
+
+    /* Informa a variável ou o procedimento a que cada identificador foi ligado */
+    public void setResolution(Resolution resolution){
+        this.resolution = resolution;
+    }
+
+    /* Variáveis globais, na ordem de declaração; disponível mesmo com erros semânticos */
+    public ArrayList<Variable> getVariables(){
+        return new ArrayList<>(variables.values());
+    }
+
+    /* Procedimentos na ordem de declaração, com os parâmetros e as locais de cada um */
+    public ArrayList<Procedure> getProcedures(){
+        return new ArrayList<>(procedures);
+    }
 
     public SemanticResult start(){
+        Events.CompilationEvent event = Events.active() ? new Events.CompilationEvent() : null;
+        if(event != null) event.begin();
         tok = getToken();
         SemanticResult result = program();
         eat(Tag.EOF);
+        if(event != null){
+            if(result.isError()) countErrors(result, event);
+            event.tokens = tokens;
+            event.commit();
+        }
         return result;
     }
+
+    // The final result carries every semantic error of the program, in order
+    private void countErrors(SemanticResult result, Events.CompilationEvent event){
+        if(!Metrics.enabled) return;
+        for(SemanticError error : result.errors){
+            Metrics.semanticError(error.message);
+            event.semanticErrors++;
+        }
+    }
  
     private Token getToken(){
         try {
             tok = lexer.scan();
+            position = lexer.getTokenStart();
+            tokens++;
+            if(budget != null) budget.token(tok.getTag(), lexer, position);
             if(tok.getTag() == Tag.INVALID){
-                throw new InvalidTokenException((InvalidToken)tok, Lexer.line);
+                throw new InvalidTokenException((InvalidToken)tok, line(), column());
             }
             return tok;
         } catch (IOException e){
@@ -42,12 +105,12 @@ public class SyntaticAnalyzer{
 
     private void eat(int tag){
         if(tag != Tag.EOF && tok.getTag() == Tag.EOF){
-            throw new UnexpectedEOFException();
+            throw new UnexpectedEOFException(line());
         }
         if(tag == tok.getTag())
             advance();
         else
-            throw new UnexpectedTokenException(tok, tag, Lexer.line);
+            throw new UnexpectedTokenException(tok, tag, line(), column());
     }
 
     private void advance(){
@@ -55,67 +118,258 @@ public class SyntaticAnalyzer{
     }
 
     private void throwUnexpected(){
-        throw new UnexpectedTokenException(tok, Lexer.line);
+        throw new UnexpectedTokenException(tok, line(), column());
+    }
+
+    // Linha e coluna do token corrente
+    private int line(){
+        return lexer.line(position);
+    }
+
+    private int column(){
+        return lexer.column(position);
     }
 
     // Each method bellow implements one of the grammar's rules with all of its productions
 
-    // program ::= program identifier [decl-list] begin stmt-list end "."   
-    // {if stmt-list.type == ok and decl-list.type == ok return result(ok)}
+    // program ::= program identifier [decl-list] {proc-decl} begin stmt-list end "."   
+    // {if stmt-list.type == ok and decl-list.type == ok and proc-decl.type == ok return result(ok)}
     private SemanticResult program(){
-        SemanticResult declListResult = null;
+        long start = Metrics.begin();
+        SemanticResult declListResult = new SemanticResult(SemanticResultType.TYPE_OK);
+        SemanticResult procedureResult = new SemanticResult(SemanticResultType.TYPE_OK);
         SemanticResult stmtListResult;
+        int line = line();
 
         eat(Tag.PRG);
-        eat(Tag.ID);
-        if(tok.getTag() != Tag.BEG)
+        Word name = identifier();
+        if(tok.getTag() != Tag.BEG && tok.getTag() != Tag.PROCEDURE)
             declListResult = declList();
+        while(tok.getTag() == Tag.PROCEDURE){
+            SemanticResult procedure = procDecl();
+            if(procedure.isError())
+                procedureResult = concatErrors(procedureResult, procedure);
+        }
         eat(Tag.BEG);
         stmtListResult = stmtList();
         eat(Tag.END);
         eat('.');    
         
-        if(stmtListResult.isError() || declListResult != null && declListResult.isError()){
-            return new SemanticResult(null, getConcatErrorMessages(stmtListResult, declListResult));
+        if(stmtListResult.isError() || declListResult.isError() || procedureResult.isError()){
+            return Metrics.end(Production.PROGRAM, start, concatErrors(stmtListResult, declListResult, procedureResult));
+        }
+        SemanticResult result = new SemanticResult(SemanticResultType.TYPE_OK);
+        result.node = new Program(line, name.getLexeme(), new ArrayList<>(slots), new ArrayList<>(procedures), (Block) stmtListResult.node);
+        return Metrics.end(Production.PROGRAM, start, result);
+    }
+
+    // proc-decl ::= procedure identifier "(" [param-list] ")" [decl-list] begin stmt-list end ";"
+    // param-list ::= decl {";" decl}
+    // {os parâmetros e as variáveis do decl-list formam o escopo do procedimento}
+    private SemanticResult procDecl(){
+        long start = Metrics.begin();
+        SemanticResult result = new SemanticResult(SemanticResultType.TYPE_OK);
+        int line = line();
+        eat(Tag.PROCEDURE);
+        int nameLine = line();
+        long namePosition = position;
+        Word name = identifier();
+        int index = signatures.size();
+        if(resolution != null) resolution.procedure(namePosition, index, true);
+        scope = new LinkedHashMap<>();
+        eat('(');
+        if(tok.getTag() != ')'){
+            SemanticResult paramResult = decl();
+            while(tok.getTag() == ';'){
+                eat(';');
+                SemanticResult next = decl();
+                if(next.isError()) paramResult = next;
+            }
+            if(paramResult.isError()) result = paramResult;
+        }
+        eat(')');
+        ArrayList<Variable> parameters = new ArrayList<>(scope.values());
+        signatures.add(parameters);
+        if(procedureIndex.containsKey(name))
+            result = concatErrors(result, new SemanticResult(null, SemanticResult.getDuplicateProcedureErrorMessage(nameLine, name.getLexeme()), nameLine));
+        else
+            procedureIndex.put(name, index);
+        if(tok.getTag() != Tag.BEG){
+            SemanticResult declListResult = declList();
+            if(declListResult.isError()) result = concatErrors(result, declListResult);
         }
-        return new SemanticResult(SemanticResultType.TYPE_OK);
+        result = scalarParameters(result, parameters);
+        ArrayList<Variable> locals = new ArrayList<>(scope.values());
+        locals.removeAll(parameters);
+        eat(Tag.BEG);
+        SemanticResult body = stmtList();
+        eat(Tag.END);
+        eat(';');
+        scope = null;
+        if(body.isError()) result = concatErrors(result, body);
+        procedures.add(new Procedure(line, name.getLexeme(), index, parameters, locals, (Block) body.node));
+        return Metrics.end(Production.PROC_DECL, start, result);
     }
 
     // decl-list ::= decl ";" { decl ";"} 
     private SemanticResult declList() {
+        long start = Metrics.begin();
         SemanticResult result = new SemanticResult(SemanticResultType.TYPE_OK);
         do {
             SemanticResult declResult = decl();
             if(declResult.isError()) result = declResult;
             eat(';');
         } while(tok.getTag() == Tag.ID);
-        return result;
+        return Metrics.end(Production.DECL_LIST, start, result);
     }
 
-    // decl ::= ident-list is type
+    // decl ::= ident-list is type ["[" integer_const "]"]
     private SemanticResult decl() {
-        ArrayList<Word> identifiers = identList();
+        long start = Metrics.begin();
+        ArrayList<Variable> identifiers = identList();
         eat(Tag.IS);
         SemanticResult typeResult = type();
-        for (Word identifier : identifiers) {
-            identifier.setType(typeResult.type);
+        Num size = null;
+        int sizeLine = 0;
+        if(tok.getTag() == '['){
+            sizeLine = line();
+            eat('[');
+            Token length = tok;
+            eat(Tag.INT_CONST);
+            size = (Num) length;
+            eat(']');
+        }
+        return Metrics.end(Production.DECL, start, declared(identifiers, typeResult, size, sizeLine));
+    }
+
+    // Aplica o tipo, e o tamanho num arranjo (size null numa variável simples), aos identificadores do decl
+    private SemanticResult declared(ArrayList<Variable> identifiers, SemanticResult type, Num size, int line) {
+        SemanticResult result = type;
+        int length = 0;
+        if(size != null){
+            long value = size.getValue().longValue();
+            if(value < 1 || value > Variable.MAX_LENGTH){
+                // Continua um arranjo, para que cada uso não vire outro erro
+                value = 1;
+                if(!type.isError()) result = new SemanticResult(null, SemanticResult.getArraySizeErrorMessage(line), line);
+            }
+            length = (int) value;
+        }
+        for (Variable identifier : identifiers) {
+            identifier.setType(type.type);
+            identifier.setLength(length);
         }
-        return typeResult;
+        return result;
+    }
+
+    // Um parâmetro recebe um valor: não pode ser um arranjo (nem redeclarado como um nas locais)
+    private SemanticResult scalarParameters(SemanticResult result, List<Variable> parameters) {
+        for (Variable parameter : parameters) {
+            if(parameter.isArray())
+                result = concatErrors(result, new SemanticResult(null, SemanticResult.getArrayParameterErrorMessage(parameter.line, parameter.getName()), parameter.line));
+        }
+        return result;
     }
 
     // ident-list ::= identifier {"," identifier}
-    private ArrayList<Word> identList() {
-        ArrayList<Word> identifiers = new ArrayList<>();
-        identifiers.add((Word)tok);
-        eat(Tag.ID);
+    private ArrayList<Variable> identList() {
+        ArrayList<Variable> identifiers = new ArrayList<>();
+        identifiers.add(declare());
         while(tok.getTag() == ','){
             eat(',');
-            identifiers.add((Word)tok);
-            eat(Tag.ID);
+            identifiers.add(declare());
         }
         return identifiers;
     }
 
+    // Registra o identificador atual no escopo corrente com a linha da declaração
+    private Variable declare() {
+        int line = line();
+        long at = position;
+        Word identifier = identifier();
+        LinkedHashMap<Word, Variable> declared = scope != null ? scope : variables;
+        Variable variable = declared.get(identifier);
+        if(variable == null){
+            variable = new Variable(identifier, slots.size(), line);
+            declared.put(identifier, variable);
+            slots.add(variable);
+        }
+        if(resolution != null) resolution.variable(at, variable, true);
+        return variable;
+    }
+
+    // Informa a variável visível com o nome do identificador que estava em at
+    private void used(long at, Word identifier) {
+        if(resolution != null) resolution.variable(at, lookup(identifier), false);
+    }
+
+    // Variável visível com esse nome: a do procedimento sendo analisado ou a global; null se não declarada
+    private Variable lookup(Word identifier) {
+        if(scope != null){
+            Variable local = scope.get(identifier);
+            if(local != null) return local;
+        }
+        return variables.get(identifier);
+    }
+
+    // Uso de uma variável: a variável simples (index null) ou um elemento do arranjo, com índice int.
+    // Sem declaração é um erro sem mensagem, que cada produção trata como antes dos arranjos
+    private SemanticResult access(int line, Word name, SemanticResult index) {
+        Variable variable = lookup(name);
+        if(variable == null) return new SemanticResult(null);
+        SemanticResult result;
+        if(index == null){
+            if(variable.isArray()) return new SemanticResult(null, SemanticResult.getMissingIndexErrorMessage(line, name.getLexeme()), line);
+            result = new SemanticResult(variable.getType());
+            result.node = new VarRef(line, variable);
+            return result;
+        }
+        if(!variable.isArray()) return new SemanticResult(null, SemanticResult.getNotArrayErrorMessage(line, name.getLexeme()), line);
+        if(index.type != SemanticResultType.TYPE_INT) return new SemanticResult(null, SemanticResult.getIndexTypeErrorMessage(line), line);
+        result = new SemanticResult(variable.getType());
+        result.node = new Index(line, variable, (Expr) index.node);
+        return result;
+    }
+
+    // Atribuição ao alvo (variável ou elemento); um int atribuído a um float é convertido
+    private SemanticResult assignment(int line, Word name, SemanticResult index, SemanticResult value) {
+        SemanticResult target = access(line, name, index);
+        if(target.type == value.type || target.type == SemanticResultType.TYPE_FLOAT && value.type == SemanticResultType.TYPE_INT){
+            if(!target.isError()){
+                Expr converted = (Expr) value.node;
+                if(target.type == SemanticResultType.TYPE_FLOAT) converted = Conversion.toFloat(converted);
+                if(target.node instanceof Index)
+                    target.node = new Assign(line, ((Index) target.node).array, ((Index) target.node).index, converted);
+                else
+                    target.node = new Assign(line, ((VarRef) target.node).variable, converted);
+            }
+            return target.okIfNotError();
+        }
+        if(target.isError() && target.message != null) return SemanticResult.error(target.message, target);
+        return new SemanticResult(null, SemanticResult.getIncompatibleVariableTypesErrorMessage(line), line);
+    }
+
+    // Leitura para o alvo (variável ou elemento)
+    private SemanticResult reading(int statementLine, int line, Word name, SemanticResult index) {
+        SemanticResult target = access(line, name, index);
+        if(target.isError() && target.message != null)
+            return SemanticResult.error(target.message, target);
+        if(target.isError())
+            return new SemanticResult(null, SemanticResult.getUndefinedVariableErrorMessage(line, name.getLexeme()), line);
+        if(target.node instanceof Index)
+            target.node = new Read(statementLine, ((Index) target.node).array, ((Index) target.node).index);
+        else
+            target.node = new Read(statementLine, ((VarRef) target.node).variable);
+        return target;
+    }
+
+    // Consome um identificador; outro token no lugar é erro de sintaxe, não falha de conversão
+    private Word identifier() {
+        Token identifier = tok;
+        eat(Tag.ID);
+        return (Word) identifier;
+    }
+
     // type ::= int | float | char
     private SemanticResult type(){
         if(tok.getTag()==Tag.INT){
@@ -123,32 +377,52 @@ public class SyntaticAnalyzer{
             return new SemanticResult(SemanticResultType.TYPE_INT);
         } else if(tok.getTag()==Tag.FLOAT){
             eat(tok.getTag());
-            return new SemanticResult(SemanticResultType.TYPE_INT);
+            return new SemanticResult(SemanticResultType.TYPE_FLOAT);
         } else if(tok.getTag()==Tag.CHAR){
             eat(tok.getTag());
-            return new SemanticResult(SemanticResultType.TYPE_INT);
+            return new SemanticResult(SemanticResultType.TYPE_CHAR);
         }
         return new SemanticResult(null);  
     }
     
     // stmt-list ::= stmt {";" stmt}
     private SemanticResult stmtList() {
+        long start = Metrics.begin();
+        int line = line();
+        ArrayList<Stmt> statements = new ArrayList<>();
         SemanticResult left = stmt();
+        statements.add((Stmt) left.node);
         while(tok.getTag() == ';'){
             eat(';');
             SemanticResult right = stmt();
+            statements.add((Stmt) right.node);
             if(left.isError() || right.isError()){
-                left = new SemanticResult(null, getConcatErrorMessages(left, right));
+                left = concatErrors(left, right);
             }
         }
-        return left;
+        if(!left.isError()){
+            left = new SemanticResult(SemanticResultType.TYPE_OK);
+            left.node = new Block(line, statements);
+        }
+        return Metrics.end(Production.STMT_LIST, start, left);
     }
     
-    // stmt ::= assign-stmt | if-stmt | while-stmt | repeat-stmt
+    // stmt ::= assign-stmt | call-stmt | if-stmt | while-stmt | repeat-stmt
     //  | read-stmt | write-stmt
+    // (assign-stmt e call-stmt começam pelo identificador: o token seguinte decide)
     private SemanticResult stmt() {
-        if(tok.getTag() == Tag.ID)
-            return assignStmt().okIfNotError();
+        if(tok.getTag() == Tag.ID){
+            Word identifier = (Word) tok;
+            int line = line();
+            long at = position;
+            eat(Tag.ID);
+            if(tok.getTag() == '('){
+                if(resolution != null) resolution.procedure(at, procedureIndex.getOrDefault(identifier, -1), false);
+                return callStmt(identifier, line).okIfNotError();
+            }
+            used(at, identifier);
+            return assignStmt(identifier, line).okIfNotError();
+        }
         else if(tok.getTag() == Tag.IF)
             return ifStmt().okIfNotError();
         else if(tok.getTag() == Tag.WHILE)
@@ -164,30 +438,55 @@ public class SyntaticAnalyzer{
         return new SemanticResult(null);
     }
     
-    // assign-stmt ::= identifier "=" simple_expr
-    private SemanticResult assignStmt() {
-        Word old = (Word) tok;
-        int line = Lexer.line;
-        eat(Tag.ID);
-        SemanticResult resultId = new SemanticResult(old.getType());
+    // assign-stmt ::= identifier [index] "=" simple_expr       (o identificador já foi consumido pelo stmt)
+    private SemanticResult assignStmt(Word old, int line) {
+        long start = Metrics.begin();
+        SemanticResult index = index();
         eat('=');
         SemanticResult resultExpr = simpleExpr();
+        return Metrics.end(Production.ASSIGN_STMT, start, assignment(line, old, index, resultExpr));
+    }
 
-        if(resultId.type == resultExpr.type || resultId.type == SemanticResultType.TYPE_FLOAT && resultExpr.type == SemanticResultType.TYPE_INT)
-            return resultId.okIfNotError();
-        return new SemanticResult(null, SemanticResult.getIncompatibleVariableTypesErrorMessage(line));
+    // index ::= "[" simple-expr "]"       (opcional depois de um identificador: null sem o índice)
+    private SemanticResult index() {
+        if(tok.getTag() != '[') return null;
+        eat('[');
+        SemanticResult result = simpleExpr();
+        eat(']');
+        return result;
+    }
+
+    // call-stmt ::= identifier "(" [simple-expr {"," simple-expr}] ")"       (o identificador já foi consumido)
+    private SemanticResult callStmt(Word name, int line) {
+        long start = Metrics.begin();
+        ArrayList<SemanticResult> arguments = new ArrayList<>();
+        eat('(');
+        if(tok.getTag() != ')'){
+            arguments.add(simpleExpr());
+            while(tok.getTag() == ','){
+                eat(',');
+                arguments.add(simpleExpr());
+            }
+        }
+        eat(')');
+        return Metrics.end(Production.CALL_STMT, start, call(line, name, arguments));
     }
 
     // if-stmt ::=	if condition then stmt-list end-else
     private SemanticResult ifStmt() {
+        long start = Metrics.begin();
+        int line = line();
         eat(Tag.IF);
         SemanticResult cond = condition();
         eat(Tag.THEN);
         SemanticResult list = stmtList();
         SemanticResult endOrElse = endElse();
         if(cond.isError() || list.isError() || endOrElse.isError()){
-            return new SemanticResult(null, getConcatErrorMessages(cond, list, endOrElse));
-        } else return new SemanticResult(SemanticResultType.TYPE_OK);
+            return Metrics.end(Production.IF_STMT, start, concatErrors(cond, list, endOrElse));
+        }
+        SemanticResult result = new SemanticResult(SemanticResultType.TYPE_OK);
+        result.node = new If(line, (Expr) cond.node, (Block) list.node, (Block) endOrElse.node);
+        return Metrics.end(Production.IF_STMT, start, result);
     }
     
     // end-else	::=	end
@@ -215,13 +514,17 @@ public class SyntaticAnalyzer{
 
     // repeat-stmt ::= repeat stmt-list stmt-suffix
     private SemanticResult repeatStmt() {
+        long start = Metrics.begin();
+        int line = line();
         eat(Tag.REPEAT);
         SemanticResult list = stmtList();
         SemanticResult suffix = stmtSuffix();
         if(list.isError() || suffix.isError()) {
-            return new SemanticResult(null, getConcatErrorMessages(list, suffix));
+            return Metrics.end(Production.REPEAT_STMT, start, concatErrors(list, suffix));
         }
-        return new SemanticResult(SemanticResultType.TYPE_OK);
+        SemanticResult result = new SemanticResult(SemanticResultType.TYPE_OK);
+        result.node = new Repeat(line, (Block) list.node, (Expr) suffix.node);
+        return Metrics.end(Production.REPEAT_STMT, start, result);
     }
 
     // stmt-suffix ::= until condition
@@ -232,10 +535,17 @@ public class SyntaticAnalyzer{
     
     // while-stmt ::= stmt-prefix stmt-list end
     private SemanticResult whileStmt() {
+        long start = Metrics.begin();
+        int line = line();
         SemanticResult prefix = stmtPrefix();
         SemanticResult list = stmtList();
-        eat(Tag.END);        
-        return new SemanticResult(null, getConcatErrorMessages(prefix, list));
+        eat(Tag.END);
+        if(prefix.isError() || list.isError()) {
+            return Metrics.end(Production.WHILE_STMT, start, concatErrors(prefix, list));
+        }
+        SemanticResult result = new SemanticResult(SemanticResultType.TYPE_OK);
+        result.node = new While(line, (Expr) prefix.node, (Block) list.node);
+        return Metrics.end(Production.WHILE_STMT, start, result);
     }
 
     // stmt-prefix ::= while condition do
@@ -246,34 +556,44 @@ public class SyntaticAnalyzer{
         return result.okIfNotError();
     }
 
-    // read-stmt ::= read "(" identifier ")"
+    // read-stmt ::= read "(" identifier [index] ")"
     private SemanticResult readStmt() {
+        long start = Metrics.begin();
+        int statementLine = line();
         eat(Tag.READ);
         eat('(');
-        Word old = (Word) tok;
-        int line = Lexer.line;
-        eat(Tag.ID);
+        int line = line();
+        long at = position;
+        Word old = identifier();
+        used(at, old);
+        SemanticResult index = index();
         eat(')');
-        return new SemanticResult(old.getType(), SemanticResult.getUndefinedVariableErrorMessage(line, old.getLexeme()));       
+        return Metrics.end(Production.READ_STMT, start, reading(statementLine, line, old, index));
     }
 
     // write-stmt ::= write "(" writable ")"
     private SemanticResult writeStmt() {
+        long start = Metrics.begin();
+        int line = line();
         eat(Tag.WRITE);
         eat('(');
-        SemanticResult result = writable();
+        SemanticResult result = writable(line);
         eat(')');
-        return result;
+        return Metrics.end(Production.WRITE_STMT, start, result);
     }
     
     // writable ::= simple-expr       {writable.type = simple-expr.type}
     //            | literal           {writable.type = literal.type}
-    private SemanticResult writable() {
+    private SemanticResult writable(int line) {
         if(tok.getTag()==Tag.STRING_CONST) {
+            Word literal = (Word) tok;
             eat(Tag.STRING_CONST);
-            return new SemanticResult(SemanticResultType.TYPE_OK);
+            SemanticResult result = new SemanticResult(SemanticResultType.TYPE_OK);
+            result.node = new WriteString(line, literal.getLexeme());
+            return result;
         } else {
             SemanticResult result = simpleExpr();
+            if(!result.isError()) result.node = new Write(line, (Expr) result.node, result.type);
             return result.okIfNotError();
         }
     }
@@ -281,9 +601,10 @@ public class SyntaticAnalyzer{
     // expression ::= simple-expr { relop simple-expr }
     //      {   result = true
     //          foreach simple-expr then if isNotNumber(simple-expr) then result = false end end
-    //          expression.type = result ? ok : error
+    //          expression.type = result ? int : error
     //      }
     private SemanticResult expression() {
+        long start = Metrics.begin();
         SemanticResult s1 = simpleExpr();
         while(tok.getTag() == Tag.EQ ||
             tok.getTag() == '>' ||
@@ -292,30 +613,43 @@ public class SyntaticAnalyzer{
             tok.getTag() == Tag.LE ||
             tok.getTag() == Tag.NE) {
         
+            int op = tok.getTag();
+            int line = line();
             relop();
             SemanticResult s2 = simpleExpr();
 
             if(!s1.isNumericOrChar() || !s2.isNumericOrChar()){
                 s1.type = SemanticResultType.TYPE_ERROR;
+            } else {
+                s1.node = binary(line, op, s1, s2, promoted(s1, s2));
+                s1.type = SemanticResultType.TYPE_INT;
             }
 
         }
         
-        return s1;
+        return Metrics.end(Production.EXPRESSION, start, s1);
     }
     
     // simple-expr ::= term | simple-expr addop term
+    //      {if simple-expr1.type == float or term.type == float then simple-expr.type = float
+    //       else simple-expr.type = int}
     private SemanticResult simpleExpr() {
+        long start = Metrics.begin();
         SemanticResult t1 = term();
         while(tok.getTag() == '+' || tok.getTag() == '-' || tok.getTag() == Tag.OR){
+            int op = tok.getTag();
+            int line = line();
             addop();
             SemanticResult t2 = term();
 
             if(!t1.isNumericOrChar() || !t2.isNumericOrChar()){
                 t1.type = SemanticResultType.TYPE_ERROR;
+            } else {
+                t1.type = promoted(t1, t2);
+                t1.node = binary(line, op, t1, t2, t1.type);
             }
         }
-        return t1;
+        return Metrics.end(Production.SIMPLE_EXPR, start, t1);
     }
     
     // term ::= factor-a                {term.type = factor-a.type}
@@ -326,59 +660,70 @@ public class SyntaticAnalyzer{
     //       term.type = int  
     //       }
     private SemanticResult term() {
+        long start = Metrics.begin();
         SemanticResult left = factorA();
         while(tok.getTag() == '*' || tok.getTag() == '/' || tok.getTag() == Tag.AND){
+            int tag = tok.getTag();
+            int line = line();
             SemanticResult op = mulop();
             SemanticResult right = factorA();
 
             if(!left.isNumericOrChar() || !right.isNumericOrChar()) {
                 left.type = SemanticResultType.TYPE_ERROR;
             }
-            else if(op.type == SemanticResultType.TYPE_DIV || left.type == SemanticResultType.TYPE_FLOAT || right.type == SemanticResultType.TYPE_FLOAT){
-                left.type = SemanticResultType.TYPE_FLOAT;
-            } else {
-                left.type = SemanticResultType.TYPE_INT;
+            else {
+                if(op.type == SemanticResultType.TYPE_DIV || left.type == SemanticResultType.TYPE_FLOAT || right.type == SemanticResultType.TYPE_FLOAT){
+                    left.type = SemanticResultType.TYPE_FLOAT;
+                } else {
+                    left.type = SemanticResultType.TYPE_INT;
+                }
+                left.node = binary(line, tag, left, right, left.type);
             }
         }
-        return left;
+        return Metrics.end(Production.TERM, start, left);
     }
     
     // factor-a ::= factor | "!" factor | "-" factor        
     //          {if isNumericOrChar(factor) then factor-a.type = factor.type else factor-a.type = error end}
     private SemanticResult factorA() {
+        int op = tok.getTag();
+        int line = line();
         if(tok.getTag() == '!')
             eat('!');
         else if(tok.getTag() == '-')
             eat('-');    
-        int line  = Lexer.line;
         SemanticResult result = factor();
         if(result.isNumericOrChar()) {
+            if(op == '!' || op == '-') result.node = new Unary(line, op, (Expr) result.node);
             return result;
         } else {
-            return new SemanticResult(null, SemanticResult.getExpectedNumericErrorMessage(line));
+            return new SemanticResult(null, SemanticResult.getExpectedNumericErrorMessage(line), line);
         }
 
     }
     
-    // factor ::= identifier                {factor.type = identifier.type}
+    // factor ::= identifier [index]        {factor.type = identifier.type (o dos elementos num arranjo)}
     //          | constant                  {factor.type = constant.type}
     //          | "(" expression ")"        {factor.type = experssion.type}
     private SemanticResult factor() {
+        long start = Metrics.begin();
         SemanticResult result;
         if(tok.getTag()==Tag.ID){
             Word old = (Word) tok;
+            int line = line();
+            used(position, old);
             eat(Tag.ID);
-            result = new SemanticResult(old.getType());
+            result = access(line, old, index());
         } else if(tok.getTag()=='('){
+            int line = line();
             eat('(');
-            int line = Lexer.line;
             result = expression();
-            if(!result.isNumericOrChar()) result = new SemanticResult(null, SemanticResult.getUnexpectedTypeErrorMessage(line));
+            if(!result.isNumericOrChar()) result = new SemanticResult(null, SemanticResult.getUnexpectedTypeErrorMessage(line), line);
             eat(')');
         } else {
             result = constant();
         }
-        return result;
+        return Metrics.end(Production.FACTOR, start, result);
     }
     
     // relop ::= "==" | ">" | ">=" | "<" | "<=" | "!="       {relop.type = ok}
@@ -436,22 +781,83 @@ public class SyntaticAnalyzer{
     //            | float_const         {constant.type = float}
     //            | char_const          {constant.type = char}
     private SemanticResult constant(){
+        Token old = tok;
+        int line = line();
+        SemanticResult result;
         switch(tok.getTag()) {
             case Tag.INT_CONST:
                 advance();
-                return new SemanticResult(SemanticResultType.TYPE_INT);
+                result = new SemanticResult(SemanticResultType.TYPE_INT);
+                result.node = new IntLiteral(line, ((Num) old).getValue().longValue());
+                return result;
             case Tag.FLOAT_CONST:
                 advance();
-                return new SemanticResult(SemanticResultType.TYPE_FLOAT);
+                result = new SemanticResult(SemanticResultType.TYPE_FLOAT);
+                result.node = new FloatLiteral(line, ((Num) old).getValue().doubleValue());
+                return result;
             case Tag.CHAR_CONST:
                 advance();
-                return new SemanticResult(SemanticResultType.TYPE_CHAR);
+                result = new SemanticResult(SemanticResultType.TYPE_CHAR);
+                result.node = new CharLiteral(line, ((Word) old).getLexeme().charAt(0));
+                return result;
             default:
                 throwUnexpected();
         }
         return new SemanticResult(null);
     }
 
+    // Tipo de uma operação aritmética: float se algum dos lados for float
+    private SemanticResultType promoted(SemanticResult left, SemanticResult right) {
+        if(left.type == SemanticResultType.TYPE_FLOAT || right.type == SemanticResultType.TYPE_FLOAT)
+            return SemanticResultType.TYPE_FLOAT;
+        return SemanticResultType.TYPE_INT;
+    }
+
+    // Monta o nó da operação com as conversões implícitas: se o resultado (ou, nos relacionais,
+    // a comparação) é float, os operandos int/char são convertidos antes da operação
+    private Binary binary(int line, int op, SemanticResult left, SemanticResult right, SemanticResultType operands) {
+        Expr l = (Expr) left.node;
+        Expr r = (Expr) right.node;
+        if(operands == SemanticResultType.TYPE_FLOAT){
+            l = Conversion.toFloat(l);
+            r = Conversion.toFloat(r);
+        }
+        boolean relational = op != '+' && op != '-' && op != '*' && op != '/' && op != Tag.AND && op != Tag.OR;
+        return new Binary(line, op, l, r, relational ? SemanticResultType.TYPE_INT : operands);
+    }
+
+    // Confere os argumentos com os parâmetros do procedimento: mesma quantidade e cada argumento
+    // atribuível ao parâmetro (um int passado a um float é convertido, como na atribuição)
+    private SemanticResult call(int line, Word name, ArrayList<SemanticResult> arguments) {
+        Integer index = procedureIndex.get(name);
+        if(index == null)
+            return new SemanticResult(null, SemanticResult.getUndefinedProcedureErrorMessage(line, name.getLexeme()), line);
+        List<Variable> parameters = signatures.get(index);
+        if(parameters.size() != arguments.size())
+            return new SemanticResult(null, SemanticResult.getArgumentCountErrorMessage(line, name.getLexeme(), parameters.size(), arguments.size()), line);
+        ArrayList<Expr> values = new ArrayList<>();
+        for(int i = 0; i < arguments.size(); i++){
+            SemanticResultType type = parameters.get(i).getType();
+            SemanticResult argument = arguments.get(i);
+            if(argument.isError() || argument.type != type && !(type == SemanticResultType.TYPE_FLOAT && argument.type == SemanticResultType.TYPE_INT))
+                return new SemanticResult(null, SemanticResult.getIncompatibleArgumentErrorMessage(line, name.getLexeme(), i + 1), line);
+            Expr value = (Expr) argument.node;
+            if(type == SemanticResultType.TYPE_FLOAT) value = Conversion.toFloat(value);
+            values.add(value);
+        }
+        SemanticResult result = new SemanticResult(SemanticResultType.TYPE_OK);
+        result.node = new Call(line, name.getLexeme(), index, values);
+        return result;
+    }
+
+    private SemanticResult concatErrors(SemanticResult res1, SemanticResult res2) {
+        return SemanticResult.error(getConcatErrorMessages(res1, res2), res1, res2);
+    }
+
+    private SemanticResult concatErrors(SemanticResult res1, SemanticResult res2, SemanticResult res3) {
+        return SemanticResult.error(getConcatErrorMessages(res1, res2, res3), res1, res2, res3);
+    }
+
     private String getConcatErrorMessages(SemanticResult res1, SemanticResult res2) {
         if(res1.isError() && res2. isError())
             return res1.message + "\n" + res2.message;
@@ -463,7 +869,7 @@ public class SyntaticAnalyzer{
     private String getConcatErrorMessages(SemanticResult res1, SemanticResult res2, SemanticResult res3) {
         String message = getConcatErrorMessages(res1, res2);
         if(res3.isError())
-            return message + "\n" + res3.message;
-        else return res3.message;
+            return message.isEmpty() ? res3.message : message + "\n" + res3.message;
+        else return message;
     }
 }
\ No newline at end of file
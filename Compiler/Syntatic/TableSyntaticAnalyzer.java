@@ -0,0 +1,1082 @@
+package Compiler.Syntatic;
+
+/* Gerado pelo ParserGenerator a partir de Compiler/Syntatic/Generator/Language.grammar; não editar.
+   Para mudar a gramática ou as ações, edite o .grammar e rode scripts/generate-parser.sh */
+
+import java.io.IOException;
+import java.util.Arrays;
+
+import Compiler.Budget.Budget;
+import Compiler.Lexical.*;
+import Compiler.Lexical.Tokens.*;
+import Compiler.Metrics.Metrics;
+import Compiler.Metrics.Production;
+import Compiler.SymbolTable.SymbolTable;
+import Compiler.Syntatic.Exceptions.*;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import Compiler.Lexical.Tokens.Num.Num;
+import Compiler.Metrics.Events;
+import Compiler.Semantic.SemanticError;
+import Compiler.Semantic.SemanticResult;
+import Compiler.Semantic.SemanticResultType;
+import Compiler.Tree.*;
+
+/*
+ * Analisador LL(1) dirigido por tabela. PREDICT tem uma linha por não
+ * terminal e uma coluna por terminal da gramática (mais uma para os demais
+ * tags) com a produção a expandir. Cada produção é uma sequência de
+ * operações, empilhadas na ordem inversa:
+ *   MATCH   consome um terminal; se rotulado, guarda o token e a linha no quadro
+ *   CALL    abre o quadro de uma regra e a expande
+ *   EXPAND  expande um grupo da regra, no mesmo quadro
+ *   ACTION  executa uma ação da gramática
+ *   RETURN  fecha o quadro e entrega $$ ao rótulo de quem chamou
+ * O quadro de uma regra são posições consecutivas de values/positions: $$
+ * e o início da regra na primeira, depois os rótulos e locais. A linha (@$,
+ * @r) só é calculada quando uma ação a pede. Uma operação é tipo | arg << 4 |
+ * (slot + 1) << 16.
+ */
+public class TableSyntaticAnalyzer {
+
+    private static final int MATCH = 0, CALL = 1, EXPAND = 2, ACTION = 3, RETURN = 4;
+
+    private static final int START = 0;
+    private static final int COLUMNS = 45;
+
+    // Tag de cada coluna, para o MATCH
+    private static final int[] TAGS = {
+        Tag.EOF, Tag.PRG, Tag.ID, Tag.BEG, Tag.END, '.', Tag.PROCEDURE, '(', ')', ';', Tag.IS, '[',
+        Tag.INT_CONST, ']', ',', Tag.INT, Tag.FLOAT, Tag.CHAR, '=', Tag.IF, Tag.THEN, Tag.ELSE, Tag.REPEAT,
+        Tag.UNTIL, Tag.WHILE, Tag.DO, Tag.READ, Tag.WRITE, Tag.STRING_CONST, '!', '-', Tag.EQ, '>', Tag.GE, '<',
+        Tag.LE, Tag.NE, '+', Tag.OR, '*', '/', Tag.AND, Tag.FLOAT_CONST, Tag.CHAR_CONST,
+    };
+
+    private static int column(int tag){
+        switch(tag){
+            case Tag.EOF: return 0;
+            case Tag.PRG: return 1;
+            case Tag.ID: return 2;
+            case Tag.BEG: return 3;
+            case Tag.END: return 4;
+            case '.': return 5;
+            case Tag.PROCEDURE: return 6;
+            case '(': return 7;
+            case ')': return 8;
+            case ';': return 9;
+            case Tag.IS: return 10;
+            case '[': return 11;
+            case Tag.INT_CONST: return 12;
+            case ']': return 13;
+            case ',': return 14;
+            case Tag.INT: return 15;
+            case Tag.FLOAT: return 16;
+            case Tag.CHAR: return 17;
+            case '=': return 18;
+            case Tag.IF: return 19;
+            case Tag.THEN: return 20;
+            case Tag.ELSE: return 21;
+            case Tag.REPEAT: return 22;
+            case Tag.UNTIL: return 23;
+            case Tag.WHILE: return 24;
+            case Tag.DO: return 25;
+            case Tag.READ: return 26;
+            case Tag.WRITE: return 27;
+            case Tag.STRING_CONST: return 28;
+            case '!': return 29;
+            case '-': return 30;
+            case Tag.EQ: return 31;
+            case '>': return 32;
+            case Tag.GE: return 33;
+            case '<': return 34;
+            case Tag.LE: return 35;
+            case Tag.NE: return 36;
+            case '+': return 37;
+            case Tag.OR: return 38;
+            case '*': return 39;
+            case '/': return 40;
+            case Tag.AND: return 41;
+            case Tag.FLOAT_CONST: return 42;
+            case Tag.CHAR_CONST: return 43;
+            default: return 44;
+        }
+    }
+
+    // Tamanho do quadro de cada regra: $$, rótulos e locais (os grupos usam o quadro da regra)
+    private static final int[] SLOTS = { 2, 5, 1, 2, 0, 6, 1, 2, 0, 1, 2, 0, 4, 2, 2, 0, 2, 1, 3, 0, 3, 1, 3, 2, 2, 2, 0, 4, 2, 1, 3, 2, 3, 2, 3, 3, 0, 4, 0, 4, 0, 4, 0, 3, 0, 4, 1, 1, 1, 3 };
+
+    private static final Production[] METRICS = {
+        null, // compilation
+        Production.PROGRAM, // program
+        null, // declarations
+        null, // procedures
+        null, // procedures#1
+        Production.PROC_DECL, // proc-decl
+        null, // parameter-list
+        null, // param-list
+        null, // param-list#1
+        null, // local-declarations
+        Production.DECL_LIST, // decl-list
+        null, // decl-list#1
+        Production.DECL, // decl
+        null, // array-size
+        null, // ident-list
+        null, // ident-list#1
+        null, // declare
+        null, // type
+        Production.STMT_LIST, // stmt-list
+        null, // stmt-list#1
+        null, // stmt
+        null, // identifier-stmt
+        Production.ASSIGN_STMT, // assign-stmt
+        null, // index
+        Production.CALL_STMT, // call-stmt
+        null, // argument-list
+        null, // argument-list#1
+        Production.IF_STMT, // if-stmt
+        null, // end-else
+        null, // condition
+        Production.REPEAT_STMT, // repeat-stmt
+        null, // stmt-suffix
+        Production.WHILE_STMT, // while-stmt
+        null, // stmt-prefix
+        Production.READ_STMT, // read-stmt
+        Production.WRITE_STMT, // write-stmt
+        null, // write-stmt#1
+        Production.EXPRESSION, // expression
+        null, // expression#1
+        Production.SIMPLE_EXPR, // simple-expr
+        null, // simple-expr#1
+        Production.TERM, // term
+        null, // term#1
+        null, // factor-a
+        null, // factor-a#1
+        Production.FACTOR, // factor
+        null, // relop
+        null, // addop
+        null, // mulop
+        null, // constant
+    };
+
+    // PREDICT[regra * COLUMNS + coluna]: produção a expandir ou -1 (token inesperado). Colunas:
+    // 0:EOF 1:PRG 2:ID 3:BEG 4:END 5:'.' 6:PROCEDURE 7:'(' 8:')' 9:';' 10:IS 11:'[' 12:INT_CONST 13:']' 14:','
+    // 15:INT 16:FLOAT 17:CHAR 18:'=' 19:IF 20:THEN 21:ELSE 22:REPEAT 23:UNTIL 24:WHILE 25:DO 26:READ 27:WRITE
+    // 28:STRING_CONST 29:'!' 30:'-' 31:EQ 32:'>' 33:GE 34:'<' 35:LE 36:NE 37:'+' 38:OR 39:'*' 40:'/' 41:AND
+    // 42:FLOAT_CONST 43:CHAR_CONST 44:(outros)
+    private static final short[] PREDICT = {
+          0,  0,  0,  0,  0,  0,  0,  0,  0,  0,  0,  0,  0,  0,  0,  0,  0,  0,  0,  0,  0,  0,  0,  0,  0,  0,  0,  0,  0,  0,  0,  0,  0,  0,  0,  0,  0,  0,  0,  0,  0,  0,  0,  0,  0, // compilation
+          1,  1,  1,  1,  1,  1,  1,  1,  1,  1,  1,  1,  1,  1,  1,  1,  1,  1,  1,  1,  1,  1,  1,  1,  1,  1,  1,  1,  1,  1,  1,  1,  1,  1,  1,  1,  1,  1,  1,  1,  1,  1,  1,  1,  1, // program
+          2,  2,  2,  3,  2,  2,  3,  2,  2,  2,  2,  2,  2,  2,  2,  2,  2,  2,  2,  2,  2,  2,  2,  2,  2,  2,  2,  2,  2,  2,  2,  2,  2,  2,  2,  2,  2,  2,  2,  2,  2,  2,  2,  2,  2, // declarations
+          4,  4,  4,  4,  4,  4,  4,  4,  4,  4,  4,  4,  4,  4,  4,  4,  4,  4,  4,  4,  4,  4,  4,  4,  4,  4,  4,  4,  4,  4,  4,  4,  4,  4,  4,  4,  4,  4,  4,  4,  4,  4,  4,  4,  4, // procedures
+          6,  6,  6,  6,  6,  6,  5,  6,  6,  6,  6,  6,  6,  6,  6,  6,  6,  6,  6,  6,  6,  6,  6,  6,  6,  6,  6,  6,  6,  6,  6,  6,  6,  6,  6,  6,  6,  6,  6,  6,  6,  6,  6,  6,  6, // procedures#1
+          7,  7,  7,  7,  7,  7,  7,  7,  7,  7,  7,  7,  7,  7,  7,  7,  7,  7,  7,  7,  7,  7,  7,  7,  7,  7,  7,  7,  7,  7,  7,  7,  7,  7,  7,  7,  7,  7,  7,  7,  7,  7,  7,  7,  7, // proc-decl
+          8,  8,  8,  8,  8,  8,  8,  8,  9,  8,  8,  8,  8,  8,  8,  8,  8,  8,  8,  8,  8,  8,  8,  8,  8,  8,  8,  8,  8,  8,  8,  8,  8,  8,  8,  8,  8,  8,  8,  8,  8,  8,  8,  8,  8, // parameter-list
+         10, 10, 10, 10, 10, 10, 10, 10, 10, 10, 10, 10, 10, 10, 10, 10, 10, 10, 10, 10, 10, 10, 10, 10, 10, 10, 10, 10, 10, 10, 10, 10, 10, 10, 10, 10, 10, 10, 10, 10, 10, 10, 10, 10, 10, // param-list
+         12, 12, 12, 12, 12, 12, 12, 12, 12, 11, 12, 12, 12, 12, 12, 12, 12, 12, 12, 12, 12, 12, 12, 12, 12, 12, 12, 12, 12, 12, 12, 12, 12, 12, 12, 12, 12, 12, 12, 12, 12, 12, 12, 12, 12, // param-list#1
+         13, 13, 13, 14, 13, 13, 13, 13, 13, 13, 13, 13, 13, 13, 13, 13, 13, 13, 13, 13, 13, 13, 13, 13, 13, 13, 13, 13, 13, 13, 13, 13, 13, 13, 13, 13, 13, 13, 13, 13, 13, 13, 13, 13, 13, // local-declarations
+         15, 15, 15, 15, 15, 15, 15, 15, 15, 15, 15, 15, 15, 15, 15, 15, 15, 15, 15, 15, 15, 15, 15, 15, 15, 15, 15, 15, 15, 15, 15, 15, 15, 15, 15, 15, 15, 15, 15, 15, 15, 15, 15, 15, 15, // decl-list
+         17, 17, 16, 17, 17, 17, 17, 17, 17, 17, 17, 17, 17, 17, 17, 17, 17, 17, 17, 17, 17, 17, 17, 17, 17, 17, 17, 17, 17, 17, 17, 17, 17, 17, 17, 17, 17, 17, 17, 17, 17, 17, 17, 17, 17, // decl-list#1
+         18, 18, 18, 18, 18, 18, 18, 18, 18, 18, 18, 18, 18, 18, 18, 18, 18, 18, 18, 18, 18, 18, 18, 18, 18, 18, 18, 18, 18, 18, 18, 18, 18, 18, 18, 18, 18, 18, 18, 18, 18, 18, 18, 18, 18, // decl
+         20, 20, 20, 20, 20, 20, 20, 20, 20, 20, 20, 19, 20, 20, 20, 20, 20, 20, 20, 20, 20, 20, 20, 20, 20, 20, 20, 20, 20, 20, 20, 20, 20, 20, 20, 20, 20, 20, 20, 20, 20, 20, 20, 20, 20, // array-size
+         21, 21, 21, 21, 21, 21, 21, 21, 21, 21, 21, 21, 21, 21, 21, 21, 21, 21, 21, 21, 21, 21, 21, 21, 21, 21, 21, 21, 21, 21, 21, 21, 21, 21, 21, 21, 21, 21, 21, 21, 21, 21, 21, 21, 21, // ident-list
+         23, 23, 23, 23, 23, 23, 23, 23, 23, 23, 23, 23, 23, 23, 22, 23, 23, 23, 23, 23, 23, 23, 23, 23, 23, 23, 23, 23, 23, 23, 23, 23, 23, 23, 23, 23, 23, 23, 23, 23, 23, 23, 23, 23, 23, // ident-list#1
+         24, 24, 24, 24, 24, 24, 24, 24, 24, 24, 24, 24, 24, 24, 24, 24, 24, 24, 24, 24, 24, 24, 24, 24, 24, 24, 24, 24, 24, 24, 24, 24, 24, 24, 24, 24, 24, 24, 24, 24, 24, 24, 24, 24, 24, // declare
+         28, 28, 28, 28, 28, 28, 28, 28, 28, 28, 28, 28, 28, 28, 28, 25, 26, 27, 28, 28, 28, 28, 28, 28, 28, 28, 28, 28, 28, 28, 28, 28, 28, 28, 28, 28, 28, 28, 28, 28, 28, 28, 28, 28, 28, // type
+         29, 29, 29, 29, 29, 29, 29, 29, 29, 29, 29, 29, 29, 29, 29, 29, 29, 29, 29, 29, 29, 29, 29, 29, 29, 29, 29, 29, 29, 29, 29, 29, 29, 29, 29, 29, 29, 29, 29, 29, 29, 29, 29, 29, 29, // stmt-list
+         31, 31, 31, 31, 31, 31, 31, 31, 31, 30, 31, 31, 31, 31, 31, 31, 31, 31, 31, 31, 31, 31, 31, 31, 31, 31, 31, 31, 31, 31, 31, 31, 31, 31, 31, 31, 31, 31, 31, 31, 31, 31, 31, 31, 31, // stmt-list#1
+         -1, -1, 32, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, 33, -1, -1, 35, -1, 34, -1, 36, 37, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, // stmt
+         39, 39, 39, 39, 39, 39, 39, 38, 39, 39, 39, 39, 39, 39, 39, 39, 39, 39, 39, 39, 39, 39, 39, 39, 39, 39, 39, 39, 39, 39, 39, 39, 39, 39, 39, 39, 39, 39, 39, 39, 39, 39, 39, 39, 39, // identifier-stmt
+         40, 40, 40, 40, 40, 40, 40, 40, 40, 40, 40, 40, 40, 40, 40, 40, 40, 40, 40, 40, 40, 40, 40, 40, 40, 40, 40, 40, 40, 40, 40, 40, 40, 40, 40, 40, 40, 40, 40, 40, 40, 40, 40, 40, 40, // assign-stmt
+         42, 42, 42, 42, 42, 42, 42, 42, 42, 42, 42, 41, 42, 42, 42, 42, 42, 42, 42, 42, 42, 42, 42, 42, 42, 42, 42, 42, 42, 42, 42, 42, 42, 42, 42, 42, 42, 42, 42, 42, 42, 42, 42, 42, 42, // index
+         43, 43, 43, 43, 43, 43, 43, 43, 43, 43, 43, 43, 43, 43, 43, 43, 43, 43, 43, 43, 43, 43, 43, 43, 43, 43, 43, 43, 43, 43, 43, 43, 43, 43, 43, 43, 43, 43, 43, 43, 43, 43, 43, 43, 43, // call-stmt
+         44, 44, 44, 44, 44, 44, 44, 44, 45, 44, 44, 44, 44, 44, 44, 44, 44, 44, 44, 44, 44, 44, 44, 44, 44, 44, 44, 44, 44, 44, 44, 44, 44, 44, 44, 44, 44, 44, 44, 44, 44, 44, 44, 44, 44, // argument-list
+         47, 47, 47, 47, 47, 47, 47, 47, 47, 47, 47, 47, 47, 47, 46, 47, 47, 47, 47, 47, 47, 47, 47, 47, 47, 47, 47, 47, 47, 47, 47, 47, 47, 47, 47, 47, 47, 47, 47, 47, 47, 47, 47, 47, 47, // argument-list#1
+         48, 48, 48, 48, 48, 48, 48, 48, 48, 48, 48, 48, 48, 48, 48, 48, 48, 48, 48, 48, 48, 48, 48, 48, 48, 48, 48, 48, 48, 48, 48, 48, 48, 48, 48, 48, 48, 48, 48, 48, 48, 48, 48, 48, 48, // if-stmt
+         -1, -1, -1, -1, 49, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, 50, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, // end-else
+         51, 51, 51, 51, 51, 51, 51, 51, 51, 51, 51, 51, 51, 51, 51, 51, 51, 51, 51, 51, 51, 51, 51, 51, 51, 51, 51, 51, 51, 51, 51, 51, 51, 51, 51, 51, 51, 51, 51, 51, 51, 51, 51, 51, 51, // condition
+         52, 52, 52, 52, 52, 52, 52, 52, 52, 52, 52, 52, 52, 52, 52, 52, 52, 52, 52, 52, 52, 52, 52, 52, 52, 52, 52, 52, 52, 52, 52, 52, 52, 52, 52, 52, 52, 52, 52, 52, 52, 52, 52, 52, 52, // repeat-stmt
+         53, 53, 53, 53, 53, 53, 53, 53, 53, 53, 53, 53, 53, 53, 53, 53, 53, 53, 53, 53, 53, 53, 53, 53, 53, 53, 53, 53, 53, 53, 53, 53, 53, 53, 53, 53, 53, 53, 53, 53, 53, 53, 53, 53, 53, // stmt-suffix
+         54, 54, 54, 54, 54, 54, 54, 54, 54, 54, 54, 54, 54, 54, 54, 54, 54, 54, 54, 54, 54, 54, 54, 54, 54, 54, 54, 54, 54, 54, 54, 54, 54, 54, 54, 54, 54, 54, 54, 54, 54, 54, 54, 54, 54, // while-stmt
+         55, 55, 55, 55, 55, 55, 55, 55, 55, 55, 55, 55, 55, 55, 55, 55, 55, 55, 55, 55, 55, 55, 55, 55, 55, 55, 55, 55, 55, 55, 55, 55, 55, 55, 55, 55, 55, 55, 55, 55, 55, 55, 55, 55, 55, // stmt-prefix
+         56, 56, 56, 56, 56, 56, 56, 56, 56, 56, 56, 56, 56, 56, 56, 56, 56, 56, 56, 56, 56, 56, 56, 56, 56, 56, 56, 56, 56, 56, 56, 56, 56, 56, 56, 56, 56, 56, 56, 56, 56, 56, 56, 56, 56, // read-stmt
+         57, 57, 57, 57, 57, 57, 57, 57, 57, 57, 57, 57, 57, 57, 57, 57, 57, 57, 57, 57, 57, 57, 57, 57, 57, 57, 57, 57, 57, 57, 57, 57, 57, 57, 57, 57, 57, 57, 57, 57, 57, 57, 57, 57, 57, // write-stmt
+         59, 59, 59, 59, 59, 59, 59, 59, 59, 59, 59, 59, 59, 59, 59, 59, 59, 59, 59, 59, 59, 59, 59, 59, 59, 59, 59, 59, 58, 59, 59, 59, 59, 59, 59, 59, 59, 59, 59, 59, 59, 59, 59, 59, 59, // write-stmt#1
+         60, 60, 60, 60, 60, 60, 60, 60, 60, 60, 60, 60, 60, 60, 60, 60, 60, 60, 60, 60, 60, 60, 60, 60, 60, 60, 60, 60, 60, 60, 60, 60, 60, 60, 60, 60, 60, 60, 60, 60, 60, 60, 60, 60, 60, // expression
+         62, 62, 62, 62, 62, 62, 62, 62, 62, 62, 62, 62, 62, 62, 62, 62, 62, 62, 62, 62, 62, 62, 62, 62, 62, 62, 62, 62, 62, 62, 62, 61, 61, 61, 61, 61, 61, 62, 62, 62, 62, 62, 62, 62, 62, // expression#1
+         63, 63, 63, 63, 63, 63, 63, 63, 63, 63, 63, 63, 63, 63, 63, 63, 63, 63, 63, 63, 63, 63, 63, 63, 63, 63, 63, 63, 63, 63, 63, 63, 63, 63, 63, 63, 63, 63, 63, 63, 63, 63, 63, 63, 63, // simple-expr
+         65, 65, 65, 65, 65, 65, 65, 65, 65, 65, 65, 65, 65, 65, 65, 65, 65, 65, 65, 65, 65, 65, 65, 65, 65, 65, 65, 65, 65, 65, 64, 65, 65, 65, 65, 65, 65, 64, 64, 65, 65, 65, 65, 65, 65, // simple-expr#1
+         66, 66, 66, 66, 66, 66, 66, 66, 66, 66, 66, 66, 66, 66, 66, 66, 66, 66, 66, 66, 66, 66, 66, 66, 66, 66, 66, 66, 66, 66, 66, 66, 66, 66, 66, 66, 66, 66, 66, 66, 66, 66, 66, 66, 66, // term
+         68, 68, 68, 68, 68, 68, 68, 68, 68, 68, 68, 68, 68, 68, 68, 68, 68, 68, 68, 68, 68, 68, 68, 68, 68, 68, 68, 68, 68, 68, 68, 68, 68, 68, 68, 68, 68, 68, 68, 67, 67, 67, 68, 68, 68, // term#1
+         69, 69, 69, 69, 69, 69, 69, 69, 69, 69, 69, 69, 69, 69, 69, 69, 69, 69, 69, 69, 69, 69, 69, 69, 69, 69, 69, 69, 69, 69, 69, 69, 69, 69, 69, 69, 69, 69, 69, 69, 69, 69, 69, 69, 69, // factor-a
+         72, 72, 72, 72, 72, 72, 72, 72, 72, 72, 72, 72, 72, 72, 72, 72, 72, 72, 72, 72, 72, 72, 72, 72, 72, 72, 72, 72, 72, 70, 71, 72, 72, 72, 72, 72, 72, 72, 72, 72, 72, 72, 72, 72, 72, // factor-a#1
+         75, 75, 73, 75, 75, 75, 75, 74, 75, 75, 75, 75, 75, 75, 75, 75, 75, 75, 75, 75, 75, 75, 75, 75, 75, 75, 75, 75, 75, 75, 75, 75, 75, 75, 75, 75, 75, 75, 75, 75, 75, 75, 75, 75, 75, // factor
+         -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, 76, 77, 78, 79, 80, 81, -1, -1, -1, -1, -1, -1, -1, -1, // relop
+         -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, 83, -1, -1, -1, -1, -1, -1, 82, 84, -1, -1, -1, -1, -1, -1, // addop
+         -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, 85, 86, 87, -1, -1, -1, // mulop
+         -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, 88, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, 89, 90, -1, // constant
+    };
+
+    private static final int[][] PRODUCTIONS = {
+        /* 0 compilation ::= p=program EOF {0} */
+        { op(CALL, 1, 1), op(MATCH, 0, -1), op(ACTION, 0, -1) },
+        /* 1 program ::= PRG name=ID d=declarations p=procedures BEG s=stmt-list END '.' {1} */
+        { op(MATCH, 1, -1), op(MATCH, 2, 1), op(CALL, 2, 2), op(CALL, 3, 3), op(MATCH, 3, -1), op(CALL, 18, 4), op(MATCH, 4, -1), op(MATCH, 5, -1), op(ACTION, 1, -1) },
+        /* 2 declarations ::= decl-list */
+        { op(CALL, 10, 0) },
+        /* 3 declarations ::= %empty */
+        {},
+        /* 4 procedures ::= {2} procedures#1 */
+        { op(ACTION, 2, -1), op(EXPAND, 4, -1) },
+        /* 5 procedures#1 ::= p=proc-decl {3} procedures#1 */
+        { op(CALL, 5, 1), op(ACTION, 3, -1), op(EXPAND, 4, -1) },
+        /* 6 procedures#1 ::= %empty */
+        {},
+        /* 7 proc-decl ::= PROCEDURE name=ID {4} '(' p=parameter-list ')' {5} d=local-declarations {6} BEG b=stmt-list END ';' {7} */
+        { op(MATCH, 6, -1), op(MATCH, 2, 2), op(ACTION, 4, -1), op(MATCH, 7, -1), op(CALL, 6, 3), op(MATCH, 8, -1), op(ACTION, 5, -1), op(CALL, 9, 4), op(ACTION, 6, -1), op(MATCH, 3, -1), op(CALL, 18, 5), op(MATCH, 4, -1), op(MATCH, 9, -1), op(ACTION, 7, -1) },
+        /* 8 parameter-list ::= param-list */
+        { op(CALL, 7, 0) },
+        /* 9 parameter-list ::= %empty */
+        {},
+        /* 10 param-list ::= d=decl {8} param-list#1 */
+        { op(CALL, 12, 1), op(ACTION, 8, -1), op(EXPAND, 8, -1) },
+        /* 11 param-list#1 ::= ';' d=decl {9} param-list#1 */
+        { op(MATCH, 9, -1), op(CALL, 12, 1), op(ACTION, 9, -1), op(EXPAND, 8, -1) },
+        /* 12 param-list#1 ::= %empty */
+        {},
+        /* 13 local-declarations ::= decl-list */
+        { op(CALL, 10, 0) },
+        /* 14 local-declarations ::= %empty */
+        {},
+        /* 15 decl-list ::= {10} d=decl {11} ';' decl-list#1 */
+        { op(ACTION, 10, -1), op(CALL, 12, 1), op(ACTION, 11, -1), op(MATCH, 9, -1), op(EXPAND, 11, -1) },
+        /* 16 decl-list#1 ::= d=decl {12} ';' decl-list#1 */
+        { op(CALL, 12, 1), op(ACTION, 12, -1), op(MATCH, 9, -1), op(EXPAND, 11, -1) },
+        /* 17 decl-list#1 ::= %empty */
+        {},
+        /* 18 decl ::= ids=ident-list IS t=type s=array-size {13} */
+        { op(CALL, 14, 1), op(MATCH, 10, -1), op(CALL, 17, 2), op(CALL, 13, 3), op(ACTION, 13, -1) },
+        /* 19 array-size ::= '[' n=INT_CONST ']' {14} */
+        { op(MATCH, 11, -1), op(MATCH, 12, 1), op(MATCH, 13, -1), op(ACTION, 14, -1) },
+        /* 20 array-size ::= %empty */
+        {},
+        /* 21 ident-list ::= i=declare {15} ident-list#1 */
+        { op(CALL, 16, 1), op(ACTION, 15, -1), op(EXPAND, 15, -1) },
+        /* 22 ident-list#1 ::= ',' i=declare {16} ident-list#1 */
+        { op(MATCH, 14, -1), op(CALL, 16, 1), op(ACTION, 16, -1), op(EXPAND, 15, -1) },
+        /* 23 ident-list#1 ::= %empty */
+        {},
+        /* 24 declare ::= id=ID {17} */
+        { op(MATCH, 2, 1), op(ACTION, 17, -1) },
+        /* 25 type ::= INT {18} */
+        { op(MATCH, 15, -1), op(ACTION, 18, -1) },
+        /* 26 type ::= FLOAT {19} */
+        { op(MATCH, 16, -1), op(ACTION, 19, -1) },
+        /* 27 type ::= CHAR {20} */
+        { op(MATCH, 17, -1), op(ACTION, 20, -1) },
+        /* 28 type ::= {21} */
+        { op(ACTION, 21, -1) },
+        /* 29 stmt-list ::= s=stmt {22} stmt-list#1 {23} */
+        { op(CALL, 20, 2), op(ACTION, 22, -1), op(EXPAND, 19, -1), op(ACTION, 23, -1) },
+        /* 30 stmt-list#1 ::= ';' s=stmt {24} stmt-list#1 */
+        { op(MATCH, 9, -1), op(CALL, 20, 2), op(ACTION, 24, -1), op(EXPAND, 19, -1) },
+        /* 31 stmt-list#1 ::= %empty */
+        {},
+        /* 32 stmt ::= id=ID {25} s=identifier-stmt {26} */
+        { op(MATCH, 2, 1), op(ACTION, 25, -1), op(CALL, 21, 2), op(ACTION, 26, -1) },
+        /* 33 stmt ::= s=if-stmt {27} */
+        { op(CALL, 27, 2), op(ACTION, 27, -1) },
+        /* 34 stmt ::= s=while-stmt {28} */
+        { op(CALL, 32, 2), op(ACTION, 28, -1) },
+        /* 35 stmt ::= s=repeat-stmt {29} */
+        { op(CALL, 30, 2), op(ACTION, 29, -1) },
+        /* 36 stmt ::= s=read-stmt {30} */
+        { op(CALL, 34, 2), op(ACTION, 30, -1) },
+        /* 37 stmt ::= s=write-stmt {31} */
+        { op(CALL, 35, 2), op(ACTION, 31, -1) },
+        /* 38 identifier-stmt ::= call-stmt */
+        { op(CALL, 24, 0) },
+        /* 39 identifier-stmt ::= assign-stmt */
+        { op(CALL, 22, 0) },
+        /* 40 assign-stmt ::= i=index '=' e=simple-expr {32} */
+        { op(CALL, 23, 1), op(MATCH, 18, -1), op(CALL, 39, 2), op(ACTION, 32, -1) },
+        /* 41 index ::= '[' e=simple-expr ']' {33} */
+        { op(MATCH, 11, -1), op(CALL, 39, 1), op(MATCH, 13, -1), op(ACTION, 33, -1) },
+        /* 42 index ::= %empty */
+        {},
+        /* 43 call-stmt ::= '(' a=argument-list ')' {34} */
+        { op(MATCH, 7, -1), op(CALL, 25, 1), op(MATCH, 8, -1), op(ACTION, 34, -1) },
+        /* 44 argument-list ::= e=simple-expr {35} argument-list#1 */
+        { op(CALL, 39, 1), op(ACTION, 35, -1), op(EXPAND, 26, -1) },
+        /* 45 argument-list ::= %empty */
+        {},
+        /* 46 argument-list#1 ::= ',' e=simple-expr {36} argument-list#1 */
+        { op(MATCH, 14, -1), op(CALL, 39, 1), op(ACTION, 36, -1), op(EXPAND, 26, -1) },
+        /* 47 argument-list#1 ::= %empty */
+        {},
+        /* 48 if-stmt ::= IF c=condition THEN l=stmt-list e=end-else {37} */
+        { op(MATCH, 19, -1), op(CALL, 29, 1), op(MATCH, 20, -1), op(CALL, 18, 2), op(CALL, 28, 3), op(ACTION, 37, -1) },
+        /* 49 end-else ::= END {38} */
+        { op(MATCH, 4, -1), op(ACTION, 38, -1) },
+        /* 50 end-else ::= ELSE l=stmt-list END {39} */
+        { op(MATCH, 21, -1), op(CALL, 18, 1), op(MATCH, 4, -1), op(ACTION, 39, -1) },
+        /* 51 condition ::= expression */
+        { op(CALL, 37, 0) },
+        /* 52 repeat-stmt ::= REPEAT l=stmt-list s=stmt-suffix {40} */
+        { op(MATCH, 22, -1), op(CALL, 18, 1), op(CALL, 31, 2), op(ACTION, 40, -1) },
+        /* 53 stmt-suffix ::= UNTIL c=condition {41} */
+        { op(MATCH, 23, -1), op(CALL, 29, 1), op(ACTION, 41, -1) },
+        /* 54 while-stmt ::= p=stmt-prefix l=stmt-list END {42} */
+        { op(CALL, 33, 1), op(CALL, 18, 2), op(MATCH, 4, -1), op(ACTION, 42, -1) },
+        /* 55 stmt-prefix ::= WHILE c=condition DO {43} */
+        { op(MATCH, 24, -1), op(CALL, 29, 1), op(MATCH, 25, -1), op(ACTION, 43, -1) },
+        /* 56 read-stmt ::= READ '(' id=ID i=index ')' {44} */
+        { op(MATCH, 26, -1), op(MATCH, 7, -1), op(MATCH, 2, 1), op(CALL, 23, 2), op(MATCH, 8, -1), op(ACTION, 44, -1) },
+        /* 57 write-stmt ::= WRITE '(' write-stmt#1 ')' */
+        { op(MATCH, 27, -1), op(MATCH, 7, -1), op(EXPAND, 36, -1), op(MATCH, 8, -1) },
+        /* 58 write-stmt#1 ::= literal=STRING_CONST {45} */
+        { op(MATCH, 28, 1), op(ACTION, 45, -1) },
+        /* 59 write-stmt#1 ::= e=simple-expr {46} */
+        { op(CALL, 39, 2), op(ACTION, 46, -1) },
+        /* 60 expression ::= s1=simple-expr expression#1 {47} */
+        { op(CALL, 39, 1), op(EXPAND, 38, -1), op(ACTION, 47, -1) },
+        /* 61 expression#1 ::= op=relop s2=simple-expr {48} expression#1 */
+        { op(CALL, 46, 2), op(CALL, 39, 3), op(ACTION, 48, -1), op(EXPAND, 38, -1) },
+        /* 62 expression#1 ::= %empty */
+        {},
+        /* 63 simple-expr ::= t1=term simple-expr#1 {49} */
+        { op(CALL, 41, 1), op(EXPAND, 40, -1), op(ACTION, 49, -1) },
+        /* 64 simple-expr#1 ::= op=addop t2=term {50} simple-expr#1 */
+        { op(CALL, 47, 2), op(CALL, 41, 3), op(ACTION, 50, -1), op(EXPAND, 40, -1) },
+        /* 65 simple-expr#1 ::= %empty */
+        {},
+        /* 66 term ::= left=factor-a term#1 {51} */
+        { op(CALL, 43, 1), op(EXPAND, 42, -1), op(ACTION, 51, -1) },
+        /* 67 term#1 ::= op=mulop right=factor-a {52} term#1 */
+        { op(CALL, 48, 2), op(CALL, 43, 3), op(ACTION, 52, -1), op(EXPAND, 42, -1) },
+        /* 68 term#1 ::= %empty */
+        {},
+        /* 69 factor-a ::= factor-a#1 f=factor {53} */
+        { op(EXPAND, 44, -1), op(CALL, 45, 1), op(ACTION, 53, -1) },
+        /* 70 factor-a#1 ::= op='!' */
+        { op(MATCH, 29, 2) },
+        /* 71 factor-a#1 ::= op='-' */
+        { op(MATCH, 30, 2) },
+        /* 72 factor-a#1 ::= %empty */
+        {},
+        /* 73 factor ::= id=ID i=index {54} */
+        { op(MATCH, 2, 1), op(CALL, 23, 2), op(ACTION, 54, -1) },
+        /* 74 factor ::= '(' e=expression ')' {55} */
+        { op(MATCH, 7, -1), op(CALL, 37, 3), op(MATCH, 8, -1), op(ACTION, 55, -1) },
+        /* 75 factor ::= constant */
+        { op(CALL, 49, 0) },
+        /* 76 relop ::= EQ */
+        { op(MATCH, 31, 0) },
+        /* 77 relop ::= '>' */
+        { op(MATCH, 32, 0) },
+        /* 78 relop ::= GE */
+        { op(MATCH, 33, 0) },
+        /* 79 relop ::= '<' */
+        { op(MATCH, 34, 0) },
+        /* 80 relop ::= LE */
+        { op(MATCH, 35, 0) },
+        /* 81 relop ::= NE */
+        { op(MATCH, 36, 0) },
+        /* 82 addop ::= '+' */
+        { op(MATCH, 37, 0) },
+        /* 83 addop ::= '-' */
+        { op(MATCH, 30, 0) },
+        /* 84 addop ::= OR */
+        { op(MATCH, 38, 0) },
+        /* 85 mulop ::= '*' */
+        { op(MATCH, 39, 0) },
+        /* 86 mulop ::= '/' */
+        { op(MATCH, 40, 0) },
+        /* 87 mulop ::= AND */
+        { op(MATCH, 41, 0) },
+        /* 88 constant ::= n=INT_CONST {56} */
+        { op(MATCH, 12, 1), op(ACTION, 56, -1) },
+        /* 89 constant ::= n=FLOAT_CONST {57} */
+        { op(MATCH, 42, 1), op(ACTION, 57, -1) },
+        /* 90 constant ::= c=CHAR_CONST {58} */
+        { op(MATCH, 43, 2), op(ACTION, 58, -1) },
+    };
+
+    private static int op(int kind, int arg, int slot){
+        return kind | arg << 4 | (slot + 1) << 16;
+    }
+
+    private TokenSource lexer;
+    private Token tok;
+    private long tokens = 0;
+    private Budget budget; // limites da compilação; null não confere nada
+    private long position; // início de tok na fonte; linha e coluna só são calculadas quando usadas
+    private int lookahead; // coluna de PREDICT de tok, calculada uma vez por token
+
+    private int[] stack = new int[64];
+    private int sp = 0;
+    private Object[] values = new Object[64];
+    private long[] positions = new long[64];
+    private int top = 0;
+    private int[] frames = new int[32];   // início do quadro de cada regra aberta
+    private long[] starts = new long[32]; // Metrics.begin() de cada regra aberta
+    private int fp = 0;
+
+    public TableSyntaticAnalyzer(TokenSource lexer, SymbolTable table){
+        this.lexer = lexer;
+    }
+
+    /* Confere o total de tokens, a profundidade de aninhamento e o tempo da compilação */
+    public void setBudget(Budget budget){
+        this.budget = budget;
+    }
+
+    // Variáveis globais na ordem de declaração; uma redeclaração reaproveita o mesmo slot
+    private LinkedHashMap<Word, Variable> variables = new LinkedHashMap<>();
+    // Parâmetros e locais do procedimento sendo analisado; null no corpo do programa
+    private LinkedHashMap<Word, Variable> scope;
+    // Todas as variáveis, na ordem dos slots
+    private ArrayList<Variable> slots = new ArrayList<>();
+    // Procedimentos pelo nome, com o índice em Program.procedures; o nome entra logo
+    // depois dos parâmetros, para que o corpo possa chamar o próprio procedimento
+    private HashMap<Word, Integer> procedureIndex = new HashMap<>();
+    private ArrayList<List<Variable>> signatures = new ArrayList<>();
+    private ArrayList<Procedure> procedures = new ArrayList<>();
+    // Identificador que começa o comando, lido antes de se saber se é atribuição ou chamada
+    private Word statementTarget;
+    private int statementLine;
+
+    /* Variáveis globais, na ordem de declaração; disponível mesmo com erros semânticos */
+    public ArrayList<Variable> getVariables(){
+        return new ArrayList<>(variables.values());
+    }
+
+    /* Procedimentos na ordem de declaração, com os parâmetros e as locais de cada um */
+    public ArrayList<Procedure> getProcedures(){
+        return new ArrayList<>(procedures);
+    }
+
+    public SemanticResult start(){
+        Events.CompilationEvent event = Events.active() ? new Events.CompilationEvent() : null;
+        if(event != null) event.begin();
+        SemanticResult result = (SemanticResult) parse();
+        if(event != null){
+            if(result.isError()) countErrors(result, event);
+            event.tokens = tokens;
+            event.commit();
+        }
+        return result;
+    }
+
+    // The final result carries every semantic error of the program, in order
+    private void countErrors(SemanticResult result, Events.CompilationEvent event){
+        if(!Metrics.enabled) return;
+        for(SemanticError error : result.errors){
+            Metrics.semanticError(error.message);
+            event.semanticErrors++;
+        }
+    }
+
+    // Variável visível com esse nome: a do procedimento sendo analisado ou a global; null se não declarada
+    private Variable lookup(Word identifier) {
+        if(scope != null){
+            Variable local = scope.get(identifier);
+            if(local != null) return local;
+        }
+        return variables.get(identifier);
+    }
+
+    // Uso de uma variável: a variável simples (index null) ou um elemento do arranjo, com índice int.
+    // Sem declaração é um erro sem mensagem, que cada produção trata como antes dos arranjos
+    private SemanticResult access(int line, Word name, SemanticResult index) {
+        Variable variable = lookup(name);
+        if(variable == null) return new SemanticResult(null);
+        SemanticResult result;
+        if(index == null){
+            if(variable.isArray()) return new SemanticResult(null, SemanticResult.getMissingIndexErrorMessage(line, name.getLexeme()), line);
+            result = new SemanticResult(variable.getType());
+            result.node = new VarRef(line, variable);
+            return result;
+        }
+        if(!variable.isArray()) return new SemanticResult(null, SemanticResult.getNotArrayErrorMessage(line, name.getLexeme()), line);
+        if(index.type != SemanticResultType.TYPE_INT) return new SemanticResult(null, SemanticResult.getIndexTypeErrorMessage(line), line);
+        result = new SemanticResult(variable.getType());
+        result.node = new Index(line, variable, (Expr) index.node);
+        return result;
+    }
+
+    // Atribuição ao alvo (variável ou elemento); um int atribuído a um float é convertido
+    private SemanticResult assignment(int line, Word name, SemanticResult index, SemanticResult value) {
+        SemanticResult target = access(line, name, index);
+        if(target.type == value.type || target.type == SemanticResultType.TYPE_FLOAT && value.type == SemanticResultType.TYPE_INT){
+            if(!target.isError()){
+                Expr converted = (Expr) value.node;
+                if(target.type == SemanticResultType.TYPE_FLOAT) converted = Conversion.toFloat(converted);
+                if(target.node instanceof Index)
+                    target.node = new Assign(line, ((Index) target.node).array, ((Index) target.node).index, converted);
+                else
+                    target.node = new Assign(line, ((VarRef) target.node).variable, converted);
+            }
+            return target.okIfNotError();
+        }
+        if(target.isError() && target.message != null) return SemanticResult.error(target.message, target);
+        return new SemanticResult(null, SemanticResult.getIncompatibleVariableTypesErrorMessage(line), line);
+    }
+
+    // Leitura para o alvo (variável ou elemento)
+    private SemanticResult reading(int statementLine, int line, Word name, SemanticResult index) {
+        SemanticResult target = access(line, name, index);
+        if(target.isError() && target.message != null)
+            return SemanticResult.error(target.message, target);
+        if(target.isError())
+            return new SemanticResult(null, SemanticResult.getUndefinedVariableErrorMessage(line, name.getLexeme()), line);
+        if(target.node instanceof Index)
+            target.node = new Read(statementLine, ((Index) target.node).array, ((Index) target.node).index);
+        else
+            target.node = new Read(statementLine, ((VarRef) target.node).variable);
+        return target;
+    }
+
+    // Confere os argumentos com os parâmetros do procedimento: mesma quantidade e cada argumento
+    // atribuível ao parâmetro (um int passado a um float é convertido, como na atribuição)
+    private SemanticResult call(int line, Word name, ArrayList<SemanticResult> arguments) {
+        Integer index = procedureIndex.get(name);
+        if(index == null)
+            return new SemanticResult(null, SemanticResult.getUndefinedProcedureErrorMessage(line, name.getLexeme()), line);
+        List<Variable> parameters = signatures.get(index);
+        if(parameters.size() != arguments.size())
+            return new SemanticResult(null, SemanticResult.getArgumentCountErrorMessage(line, name.getLexeme(), parameters.size(), arguments.size()), line);
+        ArrayList<Expr> values = new ArrayList<>();
+        for(int i = 0; i < arguments.size(); i++){
+            SemanticResultType type = parameters.get(i).getType();
+            SemanticResult argument = arguments.get(i);
+            if(argument.isError() || argument.type != type && !(type == SemanticResultType.TYPE_FLOAT && argument.type == SemanticResultType.TYPE_INT))
+                return new SemanticResult(null, SemanticResult.getIncompatibleArgumentErrorMessage(line, name.getLexeme(), i + 1), line);
+            Expr value = (Expr) argument.node;
+            if(type == SemanticResultType.TYPE_FLOAT) value = Conversion.toFloat(value);
+            values.add(value);
+        }
+        SemanticResult result = new SemanticResult(SemanticResultType.TYPE_OK);
+        result.node = new Call(line, name.getLexeme(), index, values);
+        return result;
+    }
+
+    // Aplica o tipo, e o tamanho num arranjo (size null numa variável simples), aos identificadores do decl
+    private SemanticResult declared(ArrayList<Variable> identifiers, SemanticResult type, Num size, int line) {
+        SemanticResult result = type;
+        int length = 0;
+        if(size != null){
+            long value = size.getValue().longValue();
+            if(value < 1 || value > Variable.MAX_LENGTH){
+                // Continua um arranjo, para que cada uso não vire outro erro
+                value = 1;
+                if(!type.isError()) result = new SemanticResult(null, SemanticResult.getArraySizeErrorMessage(line), line);
+            }
+            length = (int) value;
+        }
+        for (Variable identifier : identifiers) {
+            identifier.setType(type.type);
+            identifier.setLength(length);
+        }
+        return result;
+    }
+
+    // Um parâmetro recebe um valor: não pode ser um arranjo (nem redeclarado como um nas locais)
+    private SemanticResult scalarParameters(SemanticResult result, List<Variable> parameters) {
+        for (Variable parameter : parameters) {
+            if(parameter.isArray())
+                result = concatErrors(result, new SemanticResult(null, SemanticResult.getArrayParameterErrorMessage(parameter.line, parameter.getName()), parameter.line));
+        }
+        return result;
+    }
+
+    // Tipo de uma operação aritmética: float se algum dos lados for float
+    private SemanticResultType promoted(SemanticResult left, SemanticResult right) {
+        if(left.type == SemanticResultType.TYPE_FLOAT || right.type == SemanticResultType.TYPE_FLOAT)
+            return SemanticResultType.TYPE_FLOAT;
+        return SemanticResultType.TYPE_INT;
+    }
+
+    // Monta o nó da operação com as conversões implícitas: se o resultado (ou, nos relacionais,
+    // a comparação) é float, os operandos int/char são convertidos antes da operação
+    private Binary binary(int line, int op, SemanticResult left, SemanticResult right, SemanticResultType operands) {
+        Expr l = (Expr) left.node;
+        Expr r = (Expr) right.node;
+        if(operands == SemanticResultType.TYPE_FLOAT){
+            l = Conversion.toFloat(l);
+            r = Conversion.toFloat(r);
+        }
+        boolean relational = op != '+' && op != '-' && op != '*' && op != '/' && op != Tag.AND && op != Tag.OR;
+        return new Binary(line, op, l, r, relational ? SemanticResultType.TYPE_INT : operands);
+    }
+
+    private SemanticResult concatErrors(SemanticResult res1, SemanticResult res2) {
+        return SemanticResult.error(getConcatErrorMessages(res1, res2), res1, res2);
+    }
+
+    private SemanticResult concatErrors(SemanticResult res1, SemanticResult res2, SemanticResult res3) {
+        return SemanticResult.error(getConcatErrorMessages(res1, res2, res3), res1, res2, res3);
+    }
+
+    private String getConcatErrorMessages(SemanticResult res1, SemanticResult res2) {
+        if(res1.isError() && res2. isError())
+            return res1.message + "\n" + res2.message;
+        else if (res1.isError()) return res1.message;
+        else if (res2.isError()) return res2.message;
+        else return "";
+    }
+
+    private String getConcatErrorMessages(SemanticResult res1, SemanticResult res2, SemanticResult res3) {
+        String message = getConcatErrorMessages(res1, res2);
+        if(res3.isError())
+            return message.isEmpty() ? res3.message : message + "\n" + res3.message;
+        else return message;
+    }
+
+
+    /* Analisa a entrada inteira e devolve o $$ da regra inicial */
+    private Object parse(){
+        tok = getToken();
+        values[0] = null;
+        top = 1;
+        frames[0] = 0;
+        stack[sp++] = CALL | START << 4 | 1 << 16;
+        int b = 0;
+        while(sp > 0){
+            int op = stack[--sp];
+            int arg = op >>> 4 & 0xFFF;
+            int slot = (op >>> 16) - 1;
+            switch(op & 0xF){
+                case MATCH:
+                    if(slot >= 0){
+                        values[b + slot] = tok;
+                        positions[b + slot] = position;
+                    }
+                    eat(TAGS[arg]);
+                    break;
+                case CALL:
+                    b = open(arg, slot);
+                    expand(arg);
+                    break;
+                case EXPAND:
+                    expand(arg);
+                    break;
+                case ACTION:
+                    action(arg, b);
+                    break;
+                case RETURN:
+                    b = close(arg, slot, b);
+                    break;
+            }
+        }
+        return values[0];
+    }
+
+    private int open(int rule, int slot){
+        int base = top;
+        int size = SLOTS[rule];
+        if(base + size > values.length){
+            values = Arrays.copyOf(values, Math.max(values.length * 2, base + size));
+            positions = Arrays.copyOf(positions, values.length);
+        }
+        for(int i = base; i < base + size; i++) values[i] = null;
+        positions[base] = position;
+        top = base + size;
+        if(++fp == frames.length){
+            frames = Arrays.copyOf(frames, fp * 2);
+            starts = Arrays.copyOf(starts, fp * 2);
+        }
+        frames[fp] = base;
+        starts[fp] = Metrics.begin();
+        push(RETURN | rule << 4 | (slot + 1) << 16);
+        return base;
+    }
+
+    private int close(int rule, int slot, int base){
+        Object value = values[base];
+        if(METRICS[rule] != null) Metrics.end(METRICS[rule], starts[fp], value);
+        top = base;
+        int caller = frames[--fp];
+        if(slot >= 0){
+            values[caller + slot] = value;
+            positions[caller + slot] = positions[base];
+        }
+        return caller;
+    }
+
+    private void expand(int rule){
+        int production = PREDICT[rule * COLUMNS + lookahead];
+        if(production < 0) throwUnexpected();
+        int[] ops = PRODUCTIONS[production];
+        for(int i = ops.length - 1; i >= 0; i--) push(ops[i]);
+    }
+
+    private void push(int op){
+        if(sp == stack.length) stack = Arrays.copyOf(stack, sp * 2);
+        stack[sp++] = op;
+    }
+
+    private Token getToken(){
+        try {
+            tok = lexer.scan();
+            position = lexer.getTokenStart();
+            lookahead = column(tok.getTag());
+            tokens++;
+            if(budget != null) budget.token(tok.getTag(), lexer, position);
+            if(tok.getTag() == Tag.INVALID){
+                throw new InvalidTokenException((InvalidToken)tok, line(), column());
+            }
+            return tok;
+        } catch (IOException e){
+            throw new RuntimeException("An error ocurred while trying to read from the file");
+        }
+    }
+
+    private void eat(int tag){
+        if(tag != Tag.EOF && tok.getTag() == Tag.EOF){
+            throw new UnexpectedEOFException(line());
+        }
+        if(tag == tok.getTag())
+            tok = getToken();
+        else
+            throw new UnexpectedTokenException(tok, tag, line(), column());
+    }
+
+    private void throwUnexpected(){
+        throw new UnexpectedTokenException(tok, line(), column());
+    }
+
+    // Linha e coluna do token corrente
+    private int line(){
+        return lexer.line(position);
+    }
+
+    private int line(long position){
+        return lexer.line(position);
+    }
+
+    private int column(){
+        return lexer.column(position);
+    }
+
+    @SuppressWarnings("unchecked")
+    private void action(int action, int b){
+        switch(action){
+            case 0: { // compilation, Language.grammar:241
+                values[b] = ((SemanticResult) values[b + 1]);
+                break;
+            }
+            case 1: { // program, Language.grammar:247
+                if(((SemanticResult) values[b + 2]) == null) values[b + 2] = new SemanticResult(SemanticResultType.TYPE_OK);
+                if(((SemanticResult) values[b + 4]).isError() || ((SemanticResult) values[b + 2]).isError() || ((SemanticResult) values[b + 3]).isError()){
+                    values[b] = concatErrors(((SemanticResult) values[b + 4]), ((SemanticResult) values[b + 2]), ((SemanticResult) values[b + 3]));
+                } else {
+                    values[b] = new SemanticResult(SemanticResultType.TYPE_OK);
+                    ((SemanticResult) values[b]).node = new Program(line(positions[b]), ((Word) ((Token) values[b + 1])).getLexeme(), new ArrayList<>(slots), new ArrayList<>(procedures), (Block) ((SemanticResult) values[b + 4]).node);
+                }
+                break;
+            }
+            case 2: { // procedures, Language.grammar:262
+                values[b] = new SemanticResult(SemanticResultType.TYPE_OK);
+                break;
+            }
+            case 3: { // procedures, Language.grammar:263
+                if(((SemanticResult) values[b + 1]).isError()) values[b] = concatErrors(((SemanticResult) values[b]), ((SemanticResult) values[b + 1]));
+                break;
+            }
+            case 4: { // proc-decl, Language.grammar:270
+                values[b] = new SemanticResult(SemanticResultType.TYPE_OK);
+                scope = new LinkedHashMap<>();
+                break;
+            }
+            case 5: { // proc-decl, Language.grammar:275
+                if(((SemanticResult) values[b + 3]) != null && ((SemanticResult) values[b + 3]).isError()) values[b] = ((SemanticResult) values[b + 3]);
+                values[b + 1] = new ArrayList<>(scope.values());
+                signatures.add(((ArrayList<Variable>) values[b + 1]));
+                if(procedureIndex.containsKey((Word) ((Token) values[b + 2])))
+                    values[b] = concatErrors(((SemanticResult) values[b]), new SemanticResult(null, SemanticResult.getDuplicateProcedureErrorMessage(line(positions[b + 2]), ((Word) ((Token) values[b + 2])).getLexeme()), line(positions[b + 2])));
+                else
+                    procedureIndex.put((Word) ((Token) values[b + 2]), procedures.size());
+                break;
+            }
+            case 6: { // proc-decl, Language.grammar:285
+                if(((SemanticResult) values[b + 4]) != null && ((SemanticResult) values[b + 4]).isError()) values[b] = concatErrors(((SemanticResult) values[b]), ((SemanticResult) values[b + 4]));
+                values[b] = scalarParameters(((SemanticResult) values[b]), ((ArrayList<Variable>) values[b + 1]));
+                break;
+            }
+            case 7: { // proc-decl, Language.grammar:290
+                ArrayList<Variable> locals = new ArrayList<>(scope.values());
+                locals.removeAll(((ArrayList<Variable>) values[b + 1]));
+                scope = null;
+                if(((SemanticResult) values[b + 5]).isError()) values[b] = concatErrors(((SemanticResult) values[b]), ((SemanticResult) values[b + 5]));
+                procedures.add(new Procedure(line(positions[b]), ((Word) ((Token) values[b + 2])).getLexeme(), procedures.size(), ((ArrayList<Variable>) values[b + 1]), locals, (Block) ((SemanticResult) values[b + 5]).node));
+                break;
+            }
+            case 8: { // param-list, Language.grammar:304
+                values[b] = ((SemanticResult) values[b + 1]);
+                break;
+            }
+            case 9: { // param-list, Language.grammar:305
+                if(((SemanticResult) values[b + 1]).isError()) values[b] = ((SemanticResult) values[b + 1]);
+                break;
+            }
+            case 10: { // decl-list, Language.grammar:313
+                values[b] = new SemanticResult(SemanticResultType.TYPE_OK);
+                break;
+            }
+            case 11: { // decl-list, Language.grammar:314
+                if(((SemanticResult) values[b + 1]).isError()) values[b] = ((SemanticResult) values[b + 1]);
+                break;
+            }
+            case 12: { // decl-list, Language.grammar:315
+                if(((SemanticResult) values[b + 1]).isError()) values[b] = ((SemanticResult) values[b + 1]);
+                break;
+            }
+            case 13: { // decl, Language.grammar:321
+                values[b] = declared(((ArrayList<Variable>) values[b + 1]), ((SemanticResult) values[b + 2]), (Num) ((Token) values[b + 3]), line(positions[b + 3]));
+                break;
+            }
+            case 14: { // array-size, Language.grammar:325
+                values[b] = ((Token) values[b + 1]);
+                break;
+            }
+            case 15: { // ident-list, Language.grammar:329
+                values[b] = new ArrayList<>(); ((ArrayList<Variable>) values[b]).add(((Variable) values[b + 1]));
+                break;
+            }
+            case 16: { // ident-list, Language.grammar:330
+                ((ArrayList<Variable>) values[b]).add(((Variable) values[b + 1]));
+                break;
+            }
+            case 17: { // declare, Language.grammar:336
+                LinkedHashMap<Word, Variable> declared = scope != null ? scope : variables;
+                values[b] = declared.get((Word) ((Token) values[b + 1]));
+                if(((Variable) values[b]) == null){
+                    values[b] = new Variable((Word) ((Token) values[b + 1]), slots.size(), line(positions[b + 1]));
+                    declared.put((Word) ((Token) values[b + 1]), ((Variable) values[b]));
+                    slots.add(((Variable) values[b]));
+                }
+                break;
+            }
+            case 18: { // type, Language.grammar:348
+                values[b] = new SemanticResult(SemanticResultType.TYPE_INT);
+                break;
+            }
+            case 19: { // type, Language.grammar:349
+                values[b] = new SemanticResult(SemanticResultType.TYPE_FLOAT);
+                break;
+            }
+            case 20: { // type, Language.grammar:350
+                values[b] = new SemanticResult(SemanticResultType.TYPE_CHAR);
+                break;
+            }
+            case 21: { // type, Language.grammar:351
+                values[b] = new SemanticResult(null);
+                break;
+            }
+            case 22: { // stmt-list, Language.grammar:357
+                values[b + 1] = new ArrayList<>();
+                ((ArrayList<Stmt>) values[b + 1]).add((Stmt) ((SemanticResult) values[b + 2]).node);
+                values[b] = ((SemanticResult) values[b + 2]);
+                break;
+            }
+            case 23: { // stmt-list, Language.grammar:370
+                if(!((SemanticResult) values[b]).isError()){
+                    values[b] = new SemanticResult(SemanticResultType.TYPE_OK);
+                    ((SemanticResult) values[b]).node = new Block(line(positions[b]), ((ArrayList<Stmt>) values[b + 1]));
+                }
+                break;
+            }
+            case 24: { // stmt-list, Language.grammar:363
+                ((ArrayList<Stmt>) values[b + 1]).add((Stmt) ((SemanticResult) values[b + 2]).node);
+                if(((SemanticResult) values[b]).isError() || ((SemanticResult) values[b + 2]).isError()){
+                    values[b] = concatErrors(((SemanticResult) values[b]), ((SemanticResult) values[b + 2]));
+                }
+                break;
+            }
+            case 25: { // stmt, Language.grammar:381
+                statementTarget = (Word) ((Token) values[b + 1]); statementLine = line(positions[b + 1]);
+                break;
+            }
+            case 26: { // stmt, Language.grammar:381
+                values[b] = ((SemanticResult) values[b + 2]).okIfNotError();
+                break;
+            }
+            case 27: { // stmt, Language.grammar:382
+                values[b] = ((SemanticResult) values[b + 2]).okIfNotError();
+                break;
+            }
+            case 28: { // stmt, Language.grammar:383
+                values[b] = ((SemanticResult) values[b + 2]).okIfNotError();
+                break;
+            }
+            case 29: { // stmt, Language.grammar:384
+                values[b] = ((SemanticResult) values[b + 2]).okIfNotError();
+                break;
+            }
+            case 30: { // stmt, Language.grammar:385
+                values[b] = ((SemanticResult) values[b + 2]).okIfNotError();
+                break;
+            }
+            case 31: { // stmt, Language.grammar:386
+                values[b] = ((SemanticResult) values[b + 2]).okIfNotError();
+                break;
+            }
+            case 32: { // assign-stmt, Language.grammar:394
+                values[b] = assignment(statementLine, statementTarget, ((SemanticResult) values[b + 1]), ((SemanticResult) values[b + 2]));
+                break;
+            }
+            case 33: { // index, Language.grammar:398
+                values[b] = ((SemanticResult) values[b + 1]);
+                break;
+            }
+            case 34: { // call-stmt, Language.grammar:403
+                values[b] = call(statementLine, statementTarget, ((ArrayList<SemanticResult>) values[b + 1]) == null ? new ArrayList<>() : ((ArrayList<SemanticResult>) values[b + 1]));
+                break;
+            }
+            case 35: { // argument-list, Language.grammar:408
+                values[b] = new ArrayList<>(); ((ArrayList<SemanticResult>) values[b]).add(((SemanticResult) values[b + 1]));
+                break;
+            }
+            case 36: { // argument-list, Language.grammar:409
+                ((ArrayList<SemanticResult>) values[b]).add(((SemanticResult) values[b + 1]));
+                break;
+            }
+            case 37: { // if-stmt, Language.grammar:416
+                if(((SemanticResult) values[b + 1]).isError() || ((SemanticResult) values[b + 2]).isError() || ((SemanticResult) values[b + 3]).isError()){
+                    values[b] = concatErrors(((SemanticResult) values[b + 1]), ((SemanticResult) values[b + 2]), ((SemanticResult) values[b + 3]));
+                } else {
+                    values[b] = new SemanticResult(SemanticResultType.TYPE_OK);
+                    ((SemanticResult) values[b]).node = new If(line(positions[b]), (Expr) ((SemanticResult) values[b + 1]).node, (Block) ((SemanticResult) values[b + 2]).node, (Block) ((SemanticResult) values[b + 3]).node);
+                }
+                break;
+            }
+            case 38: { // end-else, Language.grammar:428
+                values[b] = new SemanticResult(SemanticResultType.TYPE_OK);
+                break;
+            }
+            case 39: { // end-else, Language.grammar:429
+                values[b] = ((SemanticResult) values[b + 1]);
+                break;
+            }
+            case 40: { // repeat-stmt, Language.grammar:438
+                if(((SemanticResult) values[b + 1]).isError() || ((SemanticResult) values[b + 2]).isError()) {
+                    values[b] = concatErrors(((SemanticResult) values[b + 1]), ((SemanticResult) values[b + 2]));
+                } else {
+                    values[b] = new SemanticResult(SemanticResultType.TYPE_OK);
+                    ((SemanticResult) values[b]).node = new Repeat(line(positions[b]), (Block) ((SemanticResult) values[b + 1]).node, (Expr) ((SemanticResult) values[b + 2]).node);
+                }
+                break;
+            }
+            case 41: { // stmt-suffix, Language.grammar:449
+                values[b] = ((SemanticResult) values[b + 1]);
+                break;
+            }
+            case 42: { // while-stmt, Language.grammar:454
+                if(((SemanticResult) values[b + 1]).isError() || ((SemanticResult) values[b + 2]).isError()) {
+                    values[b] = concatErrors(((SemanticResult) values[b + 1]), ((SemanticResult) values[b + 2]));
+                } else {
+                    values[b] = new SemanticResult(SemanticResultType.TYPE_OK);
+                    ((SemanticResult) values[b]).node = new While(line(positions[b]), (Expr) ((SemanticResult) values[b + 1]).node, (Block) ((SemanticResult) values[b + 2]).node);
+                }
+                break;
+            }
+            case 43: { // stmt-prefix, Language.grammar:465
+                values[b] = ((SemanticResult) values[b + 1]).okIfNotError();
+                break;
+            }
+            case 44: { // read-stmt, Language.grammar:470
+                values[b] = reading(line(positions[b]), line(positions[b + 1]), (Word) ((Token) values[b + 1]), ((SemanticResult) values[b + 2]));
+                break;
+            }
+            case 45: { // write-stmt, Language.grammar:480
+                values[b] = new SemanticResult(SemanticResultType.TYPE_OK);
+                ((SemanticResult) values[b]).node = new WriteString(line(positions[b]), ((Word) ((Token) values[b + 1])).getLexeme());
+                break;
+            }
+            case 46: { // write-stmt, Language.grammar:485
+                if(!((SemanticResult) values[b + 2]).isError()) ((SemanticResult) values[b + 2]).node = new Write(line(positions[b]), (Expr) ((SemanticResult) values[b + 2]).node, ((SemanticResult) values[b + 2]).type);
+                values[b] = ((SemanticResult) values[b + 2]).okIfNotError();
+                break;
+            }
+            case 47: { // expression, Language.grammar:510
+                values[b] = ((SemanticResult) values[b + 1]);
+                break;
+            }
+            case 48: { // expression, Language.grammar:501
+                if(!((SemanticResult) values[b + 1]).isNumericOrChar() || !((SemanticResult) values[b + 3]).isNumericOrChar()){
+                    ((SemanticResult) values[b + 1]).type = SemanticResultType.TYPE_ERROR;
+                } else {
+                    ((SemanticResult) values[b + 1]).node = binary(line(positions[b + 2]), ((Token) values[b + 2]).getTag(), ((SemanticResult) values[b + 1]), ((SemanticResult) values[b + 3]), promoted(((SemanticResult) values[b + 1]), ((SemanticResult) values[b + 3])));
+                    ((SemanticResult) values[b + 1]).type = SemanticResultType.TYPE_INT;
+                }
+                break;
+            }
+            case 49: { // simple-expr, Language.grammar:528
+                values[b] = ((SemanticResult) values[b + 1]);
+                break;
+            }
+            case 50: { // simple-expr, Language.grammar:519
+                if(!((SemanticResult) values[b + 1]).isNumericOrChar() || !((SemanticResult) values[b + 3]).isNumericOrChar()){
+                    ((SemanticResult) values[b + 1]).type = SemanticResultType.TYPE_ERROR;
+                } else {
+                    ((SemanticResult) values[b + 1]).type = promoted(((SemanticResult) values[b + 1]), ((SemanticResult) values[b + 3]));
+                    ((SemanticResult) values[b + 1]).node = binary(line(positions[b + 2]), ((Token) values[b + 2]).getTag(), ((SemanticResult) values[b + 1]), ((SemanticResult) values[b + 3]), ((SemanticResult) values[b + 1]).type);
+                }
+                break;
+            }
+            case 51: { // term, Language.grammar:555
+                values[b] = ((SemanticResult) values[b + 1]);
+                break;
+            }
+            case 52: { // term, Language.grammar:541
+                if(!((SemanticResult) values[b + 1]).isNumericOrChar() || !((SemanticResult) values[b + 3]).isNumericOrChar()) {
+                    ((SemanticResult) values[b + 1]).type = SemanticResultType.TYPE_ERROR;
+                }
+                else {
+                    if(((Token) values[b + 2]).getTag() == '/' || ((SemanticResult) values[b + 1]).type == SemanticResultType.TYPE_FLOAT || ((SemanticResult) values[b + 3]).type == SemanticResultType.TYPE_FLOAT){
+                        ((SemanticResult) values[b + 1]).type = SemanticResultType.TYPE_FLOAT;
+                    } else {
+                        ((SemanticResult) values[b + 1]).type = SemanticResultType.TYPE_INT;
+                    }
+                    ((SemanticResult) values[b + 1]).node = binary(line(positions[b + 2]), ((Token) values[b + 2]).getTag(), ((SemanticResult) values[b + 1]), ((SemanticResult) values[b + 3]), ((SemanticResult) values[b + 1]).type);
+                }
+                break;
+            }
+            case 53: { // factor-a, Language.grammar:562
+                if(((SemanticResult) values[b + 1]).isNumericOrChar()) {
+                    if(((Token) values[b + 2]) != null) ((SemanticResult) values[b + 1]).node = new Unary(line(positions[b]), ((Token) values[b + 2]).getTag(), (Expr) ((SemanticResult) values[b + 1]).node);
+                    values[b] = ((SemanticResult) values[b + 1]);
+                } else {
+                    values[b] = new SemanticResult(null, SemanticResult.getExpectedNumericErrorMessage(line(positions[b])), line(positions[b]));
+                }
+                break;
+            }
+            case 54: { // factor, Language.grammar:577
+                values[b] = access(line(positions[b + 1]), (Word) ((Token) values[b + 1]), ((SemanticResult) values[b + 2]));
+                break;
+            }
+            case 55: { // factor, Language.grammar:579
+                values[b] = ((SemanticResult) values[b + 3]);
+                if(!((SemanticResult) values[b + 3]).isNumericOrChar()) values[b] = new SemanticResult(null, SemanticResult.getUnexpectedTypeErrorMessage(line(positions[b])), line(positions[b]));
+                break;
+            }
+            case 56: { // constant, Language.grammar:600
+                values[b] = new SemanticResult(SemanticResultType.TYPE_INT);
+                ((SemanticResult) values[b]).node = new IntLiteral(line(positions[b]), ((Num) ((Token) values[b + 1])).getValue().longValue());
+                break;
+            }
+            case 57: { // constant, Language.grammar:605
+                values[b] = new SemanticResult(SemanticResultType.TYPE_FLOAT);
+                ((SemanticResult) values[b]).node = new FloatLiteral(line(positions[b]), ((Num) ((Token) values[b + 1])).getValue().doubleValue());
+                break;
+            }
+            case 58: { // constant, Language.grammar:610
+                values[b] = new SemanticResult(SemanticResultType.TYPE_CHAR);
+                ((SemanticResult) values[b]).node = new CharLiteral(line(positions[b]), ((Word) ((Token) values[b + 2])).getLexeme().charAt(0));
+                break;
+            }
+        }
+    }
+}
@@ -0,0 +1,561 @@
+package Compiler.Test.Fuzz;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import Compiler.Lexical.Lexer;
+import Compiler.Lexical.Tag;
+import Compiler.SymbolTable.SymbolTable;
+
+/*
+ * Entradas do fuzzer: programas gerados com tipos corretos (int, float e
+ * char), arranjos desses tipos e mutações de programas já existentes,
+ * feitas sobre os tokens ou sobre os bytes. Os índices dos arranjos são
+ * quase sempre contadores de laço ou literais, às vezes fora do arranjo. Os laços gerados usam contadores que só o próprio laço
+ * altera e os procedimentos só chamam os declarados antes deles (a não ser
+ * um recursivo com profundidade limitada), então todo programa gerado
+ * termina; programas mutados podem não terminar e são executados com um
+ * limite de passos (StepLimit).
+ */
+public class CaseGenerator {
+
+    private static final String[] WORDS = { "soma", "total", "valor", "laco", "fim", "ok", "x", "çà", "中文" };
+    private static final String[] RELOPS = { "<", ">", "<=", ">=", "==", "!=" };
+    private static final String[] FRAGMENTS = {
+        "+", "-", "*", "/", "&&", "||", "!", "=", "==", "<", ">=", "(", ")", ";", ",", ".", "{", "}", "'",
+        "/*", "*/", "\n", " ", "if", "then", "else", "end", "while", "do", "repeat", "until", "read", "write",
+        "int", "float", "char", "is", "begin", "program", "0", "9999999999999999999", "1.", "0.5", "'a'",
+        "{texto}", "x", "&", "|", "#", "\t", "é", "😀", "procedure", "proc0", "r0"
+    };
+    private static final String[] TYPES = { "int", "float", "char" };
+
+    // Procedimento já declarado: nome e tipo de cada parâmetro
+    private static final class Signature {
+        final String name;
+        final List<String> types;
+        final boolean recursive; // o primeiro parâmetro é a profundidade
+
+        Signature(String name, List<String> types, boolean recursive) {
+            this.name = name;
+            this.types = types;
+            this.recursive = recursive;
+        }
+    }
+
+    private final Random random;
+    private final StringBuilder out = new StringBuilder();
+    private final List<String> ints = new ArrayList<>();
+    private final List<String> floats = new ArrayList<>();
+    private final List<String> chars = new ArrayList<>();
+    private final List<String> intArrays = new ArrayList<>();
+    private final List<String> floatArrays = new ArrayList<>();
+    private final List<String> charArrays = new ArrayList<>();
+    private final Map<String, Integer> lengths = new HashMap<>();
+    private int counters;
+    private final List<Signature> procedures = new ArrayList<>();
+    private int callable;        // procedimentos que o código sendo gerado pode chamar
+    private boolean inProcedure;
+    private int loops;           // laços abertos em volta do comando sendo gerado
+
+    public CaseGenerator(long seed) {
+        random = new Random(seed);
+    }
+
+    public Random random() {
+        return random;
+    }
+
+    /* Programa válido que sempre termina */
+    public byte[] program() {
+        out.setLength(0);
+        ints.clear();
+        floats.clear();
+        chars.clear();
+        intArrays.clear();
+        floatArrays.clear();
+        charArrays.clear();
+        lengths.clear();
+        counters = 0;
+        procedures.clear();
+        callable = 0;
+        loops = 0;
+        for (int i = 1 + random.nextInt(6); i > 0; i--) ints.add("i" + ints.size());
+        for (int i = random.nextInt(4); i > 0; i--) floats.add("f" + floats.size());
+        for (int i = random.nextInt(3); i > 0; i--) chars.add("c" + chars.size());
+
+        out.append("program p").append(random.nextInt(100)).append('\n');
+        int maxDepth = 3;
+        declare(ints, "int");
+        declare(floats, "float");
+        declare(chars, "char");
+        for (int i = random.nextInt(4); i > 0; i--) array("v" + lengths.size(), TYPES[random.nextInt(TYPES.length)]);
+        for (int d = 0; d < maxDepth; d++) out.append("    k").append(d).append(" is int;\n");
+        for (int i = random.nextInt(4); i > 0; i--) procedure(false);
+        if (random.nextInt(3) == 0) procedure(true);
+        callable = procedures.size();
+        out.append("begin\n");
+        stmtList(1, maxDepth, 2 + random.nextInt(8));
+        out.append("\nend.\n");
+        return out.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    /* Entrada para os read(): números, chars e, às vezes, lixo */
+    public byte[] input() {
+        StringBuilder in = new StringBuilder();
+        for (int i = random.nextInt(12); i > 0; i--) {
+            switch (random.nextInt(8)) {
+                case 0: in.append((char) ('a' + random.nextInt(26))); break;
+                case 1: in.append(random.nextInt(1000)).append('.').append(random.nextInt(100)); break;
+                case 2: in.append('-').append(random.nextInt(50)); break;
+                case 3: in.append(WORDS[random.nextInt(WORDS.length)]); break;
+                default: in.append(random.nextInt(200));
+            }
+            in.append(random.nextBoolean() ? ' ' : '\n');
+        }
+        return in.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    /* Aplica de uma a quatro mutações; other serve de doador para cruzamentos */
+    public byte[] mutate(byte[] source, byte[] other) {
+        byte[] result = source;
+        for (int n = 1 + random.nextInt(4); n > 0; n--) {
+            result = random.nextInt(3) == 0 ? mutateBytes(result) : mutateTokens(result, other);
+        }
+        return result;
+    }
+
+    private byte[] mutateTokens(byte[] source, byte[] other) {
+        List<int[]> spans = tokens(source);
+        if (spans.isEmpty()) return mutateBytes(source);
+        int[] a = spans.get(random.nextInt(spans.size()));
+        int[] b = spans.get(Math.min(spans.size() - 1, spans.indexOf(a) + random.nextInt(4)));
+        ByteArrayOutputStream result = new ByteArrayOutputStream(source.length + 32);
+        switch (random.nextInt(5)) {
+            case 0: // remove tokens
+                result.write(source, 0, a[0]);
+                result.write(source, b[1], source.length - b[1]);
+                break;
+            case 1: // duplica
+                result.write(source, 0, b[1]);
+                result.write(source, a[0], b[1] - a[0]);
+                result.write(source, b[1], source.length - b[1]);
+                break;
+            case 2: // troca um token por um fragmento qualquer da linguagem
+                result.write(source, 0, a[0]);
+                write(result, FRAGMENTS[random.nextInt(FRAGMENTS.length)]);
+                result.write(source, a[1], source.length - a[1]);
+                break;
+            case 3: // troca um operador ou literal por outro do mesmo tipo
+                result.write(source, 0, a[0]);
+                write(result, random.nextBoolean() ? RELOPS[random.nextInt(RELOPS.length)] : Integer.toString(random.nextInt(10)));
+                result.write(source, a[1], source.length - a[1]);
+                break;
+            default: // cruza com um trecho de outro programa
+                List<int[]> donor = other == null ? spans : tokens(other);
+                byte[] from = other == null || donor.isEmpty() ? source : other;
+                if (donor.isEmpty()) donor = spans;
+                int[] c = donor.get(random.nextInt(donor.size()));
+                int[] d = donor.get(Math.min(donor.size() - 1, donor.indexOf(c) + random.nextInt(8)));
+                result.write(source, 0, a[0]);
+                result.write(from, c[0], d[1] - c[0]);
+                result.write(source, a[1], source.length - a[1]);
+        }
+        return result.toByteArray();
+    }
+
+    private byte[] mutateBytes(byte[] source) {
+        ByteArrayOutputStream result = new ByteArrayOutputStream(source.length + 8);
+        int at = source.length == 0 ? 0 : random.nextInt(source.length);
+        switch (random.nextInt(4)) {
+            case 0: // apaga um trecho
+                result.write(source, 0, at);
+                int skip = Math.min(source.length - at, 1 + random.nextInt(4));
+                result.write(source, at + skip, source.length - at - skip);
+                break;
+            case 1: // troca um byte
+                result.write(source, 0, source.length);
+                byte[] bytes = result.toByteArray();
+                if (bytes.length > 0) bytes[at] = (byte) random.nextInt(256);
+                return bytes;
+            case 2: // insere um fragmento no meio de um token
+                result.write(source, 0, at);
+                write(result, FRAGMENTS[random.nextInt(FRAGMENTS.length)]);
+                result.write(source, at, source.length - at);
+                break;
+            default: // corta o final
+                result.write(source, 0, at);
+        }
+        return result.toByteArray();
+    }
+
+    /* Trechos [início, fim) dos tokens do programa, segundo o Lexer */
+    static List<int[]> tokens(byte[] source) {
+        List<int[]> spans = new ArrayList<>();
+        try {
+            Lexer lexer = new Lexer(new java.io.ByteArrayInputStream(source), new SymbolTable());
+            while (lexer.scan().getTag() != Tag.EOF) {
+                int start = (int) lexer.getTokenStart();
+                int end = (int) Math.min(source.length, Math.max(start, lexer.getTokenEnd()));
+                spans.add(new int[] { start, end });
+            }
+        } catch (IOException | RuntimeException e) {
+            // Fica com os tokens lidos até o erro
+        }
+        return spans;
+    }
+
+    private static void write(ByteArrayOutputStream out, String text) {
+        byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+        out.write(bytes, 0, bytes.length);
+    }
+
+    private void declare(List<String> names, String type) {
+        if (names.isEmpty()) return;
+        out.append("    ").append(String.join(", ", names)).append(" is ").append(type).append(";\n");
+    }
+
+    // Declara um arranjo de até 16 elementos, visível no escopo sendo gerado
+    private void array(String name, String type) {
+        int length = 1 + random.nextInt(16);
+        out.append("    ").append(name).append(" is ").append(type).append('[').append(length).append("];\n");
+        lengths.put(name, length);
+        (type.equals("int") ? intArrays : type.equals("float") ? floatArrays : charArrays).add(name);
+    }
+
+    /*
+     * Procedimento com parâmetros dos três tipos e um contador local k0, que
+     * esconde o global; às vezes um local redeclara uma global com outro
+     * tipo, e às vezes há um arranjo local, zerado a cada chamada. Só chama os procedimentos declarados antes dele e só fora de
+     * laços, para que o custo de cada chamada continue pequeno. O recursivo
+     * recebe a profundidade d (que nenhum comando gerado altera) e chama a
+     * si mesmo uma vez, com d - 1, dentro de "if d > 0".
+     */
+    private void procedure(boolean recursive) {
+        List<String> savedInts = new ArrayList<>(ints);
+        List<String> savedFloats = new ArrayList<>(floats);
+        List<String> savedChars = new ArrayList<>(chars);
+        List<String> savedIntArrays = new ArrayList<>(intArrays);
+        List<String> savedFloatArrays = new ArrayList<>(floatArrays);
+        List<String> savedCharArrays = new ArrayList<>(charArrays);
+        String name = (recursive ? "r" : "proc") + procedures.size();
+        List<String> types = new ArrayList<>();
+        List<String> parameters = new ArrayList<>();
+        if (recursive) {
+            types.add("int");
+            parameters.add("d is int");
+        }
+        for (int i = random.nextInt(4); i > 0; i--) {
+            String type = TYPES[random.nextInt(TYPES.length)];
+            String parameter = "a" + types.size();
+            types.add(type);
+            parameters.add(parameter + " is " + type);
+            visible(parameter, type);
+        }
+        out.append("procedure ").append(name).append('(').append(String.join("; ", parameters)).append(")\n");
+        out.append("    k0 is int;\n");
+        if (random.nextBoolean() && ints.size() > 1) {
+            String shadowed = pick(ints);
+            String type = TYPES[random.nextInt(TYPES.length)];
+            out.append("    ").append(shadowed).append(" is ").append(type).append(";\n");
+            visible(shadowed, type);
+        }
+        if (random.nextBoolean()) {
+            String type = TYPES[random.nextInt(TYPES.length)];
+            out.append("    t0 is ").append(type).append(";\n");
+            visible("t0", type);
+        }
+        if (random.nextInt(4) == 0) array("l" + procedures.size(), TYPES[random.nextInt(TYPES.length)]);
+        out.append("begin\n");
+        callable = procedures.size();
+        inProcedure = true;
+        counters = 0;
+        if (recursive) {
+            out.append("    if d > 0 then\n");
+            if (random.nextBoolean()) {
+                stmtList(2, 1, 1 + random.nextInt(3));
+                out.append(";\n");
+            }
+            indent(2);
+            out.append(name).append("(d - 1");
+            for (int i = 1; i < types.size(); i++) out.append(", ").append(argument(types.get(i)));
+            out.append(')');
+            if (random.nextBoolean()) {
+                out.append(";\n");
+                stmtList(2, 1, 1 + random.nextInt(3));
+            }
+            out.append("\n    end");
+        } else {
+            stmtList(1, 1, 1 + random.nextInt(4));
+        }
+        out.append("\nend;\n\n");
+        inProcedure = false;
+        ints.clear();
+        ints.addAll(savedInts);
+        floats.clear();
+        floats.addAll(savedFloats);
+        chars.clear();
+        chars.addAll(savedChars);
+        intArrays.clear();
+        intArrays.addAll(savedIntArrays);
+        floatArrays.clear();
+        floatArrays.addAll(savedFloatArrays);
+        charArrays.clear();
+        charArrays.addAll(savedCharArrays);
+        procedures.add(new Signature(name, types, recursive));
+    }
+
+    // O nome passa a ser uma variável desse tipo no escopo sendo gerado
+    private void visible(String name, String type) {
+        ints.remove(name);
+        floats.remove(name);
+        chars.remove(name);
+        (type.equals("int") ? ints : type.equals("float") ? floats : chars).add(name);
+    }
+
+    private void call() {
+        Signature target = procedures.get(random.nextInt(callable));
+        out.append(target.name).append('(');
+        for (int i = 0; i < target.types.size(); i++) {
+            if (i > 0) out.append(", ");
+            if (i == 0 && target.recursive) out.append(random.nextInt(4));
+            else out.append(argument(target.types.get(i)));
+        }
+        out.append(')');
+    }
+
+    // Um int passado a um parâmetro float é convertido
+    private String argument(String type) {
+        switch (type) {
+            case "float": return random.nextBoolean() ? floatExpr(1) : intExpr(1);
+            case "char": return chars.isEmpty() || random.nextBoolean() ? "'" + (char) ('a' + random.nextInt(26)) + "'" : pick(chars);
+            default: return intExpr(1);
+        }
+    }
+
+    private void stmtList(int depth, int maxDepth, int count) {
+        for (int i = 0; i < count; i++) {
+            if (i > 0) out.append(";\n");
+            indent(depth);
+            if (random.nextInt(10) == 0) out.append("/* ").append(WORDS[random.nextInt(WORDS.length)]).append(" */ ");
+            stmt(depth, maxDepth);
+        }
+    }
+
+    private void stmt(int depth, int maxDepth) {
+        if (callable > 0 && (!inProcedure || loops == 0) && random.nextInt(6) == 0) {
+            call();
+            return;
+        }
+        int kind = random.nextInt(depth <= maxDepth ? 12 : 8);
+        switch (kind) {
+            case 0: case 1: case 2:
+                assign();
+                break;
+            case 3:
+                out.append("read(").append(random.nextInt(4) == 0 && arrays() > 0 ? anyElement() : any()).append(')');
+                break;
+            case 4: case 5:
+                out.append("write(");
+                if (random.nextInt(4) == 0) out.append('{').append(WORDS[random.nextInt(WORDS.length)]).append('}');
+                else out.append(random.nextBoolean() ? floatExpr(0) : intExpr(0));
+                out.append(')');
+                break;
+            case 6: case 7:
+                if (!charArrays.isEmpty() && random.nextBoolean()) {
+                    out.append("write(").append(element(pick(charArrays))).append(')');
+                } else if (!chars.isEmpty()) {
+                    out.append("write(").append(pick(chars)).append(')');
+                } else {
+                    assign();
+                }
+                break;
+            case 8: case 9:
+                out.append("if ").append(condition()).append(" then\n");
+                stmtList(depth + 1, maxDepth, 1 + random.nextInt(3));
+                out.append('\n');
+                indent(depth);
+                if (random.nextBoolean()) {
+                    out.append("else\n");
+                    stmtList(depth + 1, maxDepth, 1 + random.nextInt(3));
+                    out.append('\n');
+                    indent(depth);
+                }
+                out.append("end");
+                break;
+            default:
+                // Contador exclusivo do laço: nenhum outro comando o altera
+                if (counters >= 3 || depth > maxDepth) {
+                    assign();
+                    break;
+                }
+                String k = "k" + counters++;
+                int bound = 1 + random.nextInt(12);
+                out.append(k).append(" = 0;\n");
+                indent(depth);
+                loops++;
+                if (random.nextBoolean()) {
+                    out.append("while (").append(k).append(" < ").append(bound).append(") do\n");
+                    stmtList(depth + 1, maxDepth, 1 + random.nextInt(4));
+                    out.append(";\n");
+                    indent(depth + 1);
+                    out.append(k).append(" = ").append(k).append(" + 1\n");
+                    indent(depth);
+                    out.append("end");
+                } else {
+                    out.append("repeat\n");
+                    stmtList(depth + 1, maxDepth, 1 + random.nextInt(4));
+                    out.append(";\n");
+                    indent(depth + 1);
+                    out.append(k).append(" = ").append(k).append(" + 1\n");
+                    indent(depth);
+                    out.append("until ").append(k).append(" >= ").append(bound);
+                }
+                loops--;
+                counters--;
+        }
+    }
+
+    private void assign() {
+        int kind = random.nextInt(5);
+        if (kind == 3 && arrays() > 0) {
+            assignElement();
+        } else if (kind == 1 && !floats.isEmpty()) {
+            out.append(pick(floats)).append(" = ").append(floatExpr(0));
+        } else if (kind == 2 && !chars.isEmpty()) {
+            out.append(pick(chars)).append(" = ").append(charValue());
+        } else {
+            out.append(pick(ints)).append(" = ").append(intExpr(0));
+        }
+    }
+
+    private void assignElement() {
+        int kind = random.nextInt(3);
+        if (kind == 1 && !floatArrays.isEmpty()) {
+            out.append(element(pick(floatArrays))).append(" = ").append(floatExpr(0));
+        } else if (kind == 2 && !charArrays.isEmpty()) {
+            out.append(element(pick(charArrays))).append(" = ").append(charValue());
+        } else if (!intArrays.isEmpty()) {
+            out.append(element(pick(intArrays))).append(" = ").append(intExpr(0));
+        } else {
+            out.append(pick(ints)).append(" = ").append(intExpr(0));
+        }
+    }
+
+    private String charValue() {
+        if (!charArrays.isEmpty() && random.nextInt(3) == 0) return element(pick(charArrays));
+        return !chars.isEmpty() && random.nextBoolean() ? pick(chars) : "'" + (char) ('a' + random.nextInt(26)) + "'";
+    }
+
+    /* Elemento de um arranjo: contador de laço aberto, literal ou, raramente, uma expressão qualquer */
+    private String element(String array) {
+        int length = lengths.get(array);
+        int kind = random.nextInt(8);
+        String index;
+        if (kind < 3 && counters > 0) {
+            String k = "k" + random.nextInt(counters);
+            index = random.nextInt(3) > 0 ? k : k + (random.nextBoolean() ? " + " : " - ") + random.nextInt(3);
+        } else if (kind < 7) {
+            index = Integer.toString(random.nextInt(length + (random.nextInt(10) == 0 ? 2 : 0)));
+        } else {
+            index = random.nextInt(3) == 0 ? intExpr(2) : pick(ints);
+        }
+        return array + "[" + index + "]";
+    }
+
+    // Arranjos visíveis no escopo sendo gerado
+    private int arrays() {
+        return intArrays.size() + floatArrays.size() + charArrays.size();
+    }
+
+    private String anyElement() {
+        int i = random.nextInt(arrays());
+        if (i < intArrays.size()) return element(intArrays.get(i));
+        i -= intArrays.size();
+        return element(i < floatArrays.size() ? floatArrays.get(i) : charArrays.get(i - floatArrays.size()));
+    }
+
+    private String condition() {
+        String relop = RELOPS[random.nextInt(RELOPS.length)];
+        String left = random.nextInt(3) == 0 ? floatExpr(1) : intExpr(1);
+        String cond = left + " " + relop + " " + (random.nextBoolean() ? intExpr(2) : floatExpr(2));
+        return random.nextInt(4) == 0 ? "(" + cond + ")" : cond;
+    }
+
+    /* simple-expr int: variáveis int e char, literais, + - * e os lógicos */
+    private String intExpr(int depth) {
+        if (depth > 2 || random.nextInt(3) == 0) return intFactor();
+        switch (random.nextInt(8)) {
+            case 0: return intExpr(depth + 1) + " + " + intTerm(depth + 1);
+            case 1: return intExpr(depth + 1) + " - " + intTerm(depth + 1);
+            case 2: return intExpr(depth + 1) + " || " + intTerm(depth + 1);
+            default: return intTerm(depth);
+        }
+    }
+
+    private String intTerm(int depth) {
+        if (depth > 2 || random.nextBoolean()) return intFactor();
+        return intTerm(depth + 1) + (random.nextInt(4) == 0 ? " && " : " * ") + intFactor();
+    }
+
+    private String intFactor() {
+        switch (random.nextInt(9)) {
+            case 0: return "(" + intExpr(2) + ")";
+            case 1: return "-" + pick(ints);
+            case 2: return "!" + pick(ints);
+            case 3: // char sozinho não é int; numa operação aritmética vira int
+                return "(" + (chars.isEmpty() ? "'z'" : pick(chars)) + " - " + random.nextInt(10) + ")";
+            case 4: return "(" + intExpr(2) + " " + RELOPS[random.nextInt(RELOPS.length)] + " " + intExpr(3) + ")";
+            case 5: return Integer.toString(random.nextInt(random.nextBoolean() ? 10 : 100000));
+            case 6:
+                if (!intArrays.isEmpty() && random.nextBoolean()) return element(pick(intArrays));
+                if (!charArrays.isEmpty() && random.nextBoolean()) return "(" + element(pick(charArrays)) + " + 1)";
+                return Integer.toString(random.nextInt(10));
+            default: return pick(ints);
+        }
+    }
+
+    private String floatExpr(int depth) {
+        if (depth > 2 || random.nextInt(3) == 0) return floatFactor();
+        String op = random.nextInt(6) == 0 ? " || " : random.nextBoolean() ? " + " : " - ";
+        return floatExpr(depth + 1) + op + floatTerm(depth + 1);
+    }
+
+    private String floatTerm(int depth) {
+        if (depth > 2 || random.nextBoolean()) return floatFactor();
+        String op = random.nextInt(6) == 0 ? " && " : random.nextBoolean() ? " * " : " / ";
+        return floatTerm(depth + 1) + op + floatFactor();
+    }
+
+    private String floatFactor() {
+        switch (random.nextInt(8)) {
+            case 0: return "(" + floatExpr(2) + ")";
+            case 1: return random.nextInt(100) + "." + random.nextInt(1000);
+            case 2: return "-" + (floats.isEmpty() ? "0.5" : pick(floats));
+            case 3: return intFactor();
+            case 4: return floatArrays.isEmpty() ? "2.5" : element(pick(floatArrays));
+            default: return floats.isEmpty() ? "1.5" : pick(floats);
+        }
+    }
+
+    private String any() {
+        int total = ints.size() + floats.size() + chars.size();
+        int i = random.nextInt(total);
+        if (i < ints.size()) return ints.get(i);
+        i -= ints.size();
+        return i < floats.size() ? floats.get(i) : chars.get(i - floats.size());
+    }
+
+    private String pick(List<String> names) {
+        return names.get(random.nextInt(names.size()));
+    }
+
+    private void indent(int depth) {
+        for (int i = 0; i < depth; i++) out.append("    ");
+    }
+}
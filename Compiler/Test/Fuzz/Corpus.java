@@ -0,0 +1,84 @@
+package Compiler.Test.Fuzz;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+/*
+ * Programas usados como base das mutações. Ficam em memória e, quando há um
+ * diretório, também em disco, para a próxima execução começar de onde esta
+ * parou:
+ *   case-<hash>.txt         entrada que trouxe características novas
+ *   crash-<hash>.txt        divergência já reduzida pelo Shrinker
+ *   crash-<hash>.orig.txt   o caso original, antes da redução
+ *   crash-<hash>.in         entrada do programa reduzido
+ *   crash-<hash>.log        etapa e modo que divergiram
+ */
+public class Corpus {
+
+    private static final int MAX_ENTRIES = 10_000;
+    private static final int MAX_SIZE = 64 * 1024;
+
+    private final File directory;
+    private final List<byte[]> entries = new ArrayList<>();
+
+    Corpus(String directory) throws IOException {
+        this.directory = directory == null ? null : new File(directory);
+        if (this.directory == null) return;
+        if (!this.directory.isDirectory() && !this.directory.mkdirs()) {
+            throw new IOException("Could not create corpus directory " + directory);
+        }
+        File[] files = this.directory.listFiles((dir, name) -> name.startsWith("case-") && name.endsWith(".txt"));
+        if (files == null) return;
+        Arrays.sort(files);
+        for (File file : files) entries.add(Files.readAllBytes(file.toPath()));
+    }
+
+    /* Acrescenta os test*.txt de um diretório, só em memória */
+    void seed(File dir) throws IOException {
+        File[] files = dir.listFiles((d, name) -> name.startsWith("test") && name.endsWith(".txt"));
+        if (files == null) return;
+        Arrays.sort(files);
+        for (File file : files) entries.add(Files.readAllBytes(file.toPath()));
+    }
+
+    int size() {
+        return entries.size();
+    }
+
+    byte[] pick(Random random) {
+        return entries.get(random.nextInt(entries.size()));
+    }
+
+    void add(byte[] source) throws IOException {
+        if (source.length > MAX_SIZE || entries.size() >= MAX_ENTRIES) return;
+        entries.add(source);
+        if (directory != null) Files.write(new File(directory, "case-" + hash(source) + ".txt").toPath(), source);
+    }
+
+    /* Grava a divergência e devolve o nome base dos arquivos */
+    String saveCrash(byte[] original, byte[] reduced, byte[] input, String report) throws IOException {
+        String name = "crash-" + hash(reduced);
+        if (directory == null) return name + " (no --corpus, not written)";
+        Files.write(new File(directory, name + ".txt").toPath(), reduced);
+        Files.write(new File(directory, name + ".orig.txt").toPath(), original);
+        Files.write(new File(directory, name + ".in").toPath(), input);
+        Files.write(new File(directory, name + ".log").toPath(), (report + "\n").getBytes(StandardCharsets.UTF_8));
+        return new File(directory, name).getPath();
+    }
+
+    // FNV-1a de 64 bits
+    private static String hash(byte[] data) {
+        long h = 0xcbf29ce484222325L;
+        for (byte b : data) {
+            h ^= b & 0xff;
+            h *= 0x100000001b3L;
+        }
+        return String.format("%016x", h);
+    }
+}
@@ -0,0 +1,541 @@
+package Compiler.Test.Fuzz;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import Compiler.Bytecode.BytecodeCompiler;
+import Compiler.Bytecode.BytecodeLoader;
+import Compiler.Bytecode.BytecodeWriter;
+import Compiler.Bytecode.Vm;
+import Compiler.Format.Formatter;
+import Compiler.Interpreter.DynamicInterpreter;
+import Compiler.Interpreter.Interpreter;
+import Compiler.Lexical.Lexer;
+import Compiler.Lexical.Tag;
+import Compiler.Lexical.TokenSource;
+import Compiler.Lexical.Snapshot.TokenSnapshotReader;
+import Compiler.Lexical.Snapshot.TokenSnapshotWriter;
+import Compiler.Lexical.Tokens.Token;
+import Compiler.Runtime.ProgramInput;
+import Compiler.Runtime.ProgramOutput;
+import Compiler.Semantic.SemanticResult;
+import Compiler.Semantic.SemanticResultType;
+import Compiler.SymbolTable.SymbolTable;
+import Compiler.Syntatic.SyntaticAnalyzer;
+import Compiler.Syntatic.TableSyntaticAnalyzer;
+import Compiler.Tree.*;
+
+/*
+ * Fuzzing diferencial: cada entrada passa por todas as implementações de cada
+ * etapa e os resultados precisam ser iguais aos da implementação de referência
+ * (a primeira de cada lista):
+ *   tokens    Lexer sobre o texto todo, Lexer recebendo poucos bytes por
+ *             leitura (testa o refill do buffer) e reprodução de um snapshot
+ *   análise   SyntaticAnalyzer sobre cada uma dessas fontes de tokens e, sobre
+ *             os tokens do Lexer, o TableSyntaticAnalyzer gerado da gramática
+ *             (mesmo diagnóstico e mesma árvore, campo a campo)
+ *   formato   o Formatter mantém os tokens e é idempotente
+ *   execução  DynamicInterpreter, Interpreter com e sem a expansão de
+ *             chamadas, Vm com e sem superinstructions,
+ *             Vm depois de gravar e carregar o .tbc e, a cada --tier-every
+ *             casos, o Interpreter compilando os laços já na primeira volta
+ * As entradas são programas gerados (sempre terminam) e mutações de programas
+ * do corpus (executadas com StepLimit). Uma divergência é reduzida pelo
+ * Shrinker e gravada no corpus como crash-*.txt, com a entrada e o relatório.
+ *
+ * Uso: java DifferentialFuzzer [--cases=N] [--time=segundos] [--seed=S]
+ *                              [--corpus=dir] [--tier-every=K] [--no-shrink]
+ *      java DifferentialFuzzer [--bounded] programa.txt [entrada]    (reproduz um caso)
+ */
+public class DifferentialFuzzer {
+
+    /* Fonte de tokens alternativa para o mesmo texto */
+    interface TokenMode {
+        String name();
+        TokenSource open(byte[] source, SymbolTable table) throws IOException;
+    }
+
+    /* Analisador sintático (com as ações semânticas) sobre uma fonte de tokens */
+    interface Parser {
+        String name();
+        SemanticResult parse(TokenSource tokens, SymbolTable table);
+    }
+
+    /* Implementação que executa a árvore de um programa sem erros */
+    interface Backend {
+        String name();
+        void run(Program program, ProgramInput input, ProgramOutput output) throws IOException;
+    }
+
+    /* Primeira divergência encontrada num caso: a etapa e o que cada lado produziu */
+    static final class Failure {
+        final String check;
+        final String detail;
+
+        Failure(String check, String detail) {
+            this.check = check;
+            this.detail = detail;
+        }
+    }
+
+    static final int MAX_TOKENS = 200_000;
+    static final long STEPS = 20_000;         // voltas dos programas mutados
+    static final long PROBE_STEPS = 2_000_000; // usado pelo Shrinker em programas gerados
+
+    private final List<TokenMode> tokenModes = new ArrayList<>();
+    private final List<Parser> parsers = new ArrayList<>();
+    private final List<Backend> backends = new ArrayList<>();
+    private final Backend tiered;
+    private final File snapshot;
+    private final File bytecode;
+
+    // Características do último caso verificado, usadas para decidir o que entra no corpus
+    final Set<String> features = new HashSet<>();
+
+    DifferentialFuzzer() throws IOException {
+        snapshot = File.createTempFile("fuzz", ".tks");
+        snapshot.deleteOnExit();
+        bytecode = File.createTempFile("fuzz", ".tbc");
+        bytecode.deleteOnExit();
+
+        tokenModes.add(mode("lexer", (source, table) -> new Lexer(new ByteArrayInputStream(source), table)));
+        tokenModes.add(mode("trickle", (source, table) -> new Lexer(new TrickleInputStream(source), table)));
+        tokenModes.add(mode("snapshot", (source, table) -> {
+            TokenSnapshotWriter.write(new Lexer(new ByteArrayInputStream(source), new SymbolTable()), snapshot.getPath());
+            return new TokenSnapshotReader(snapshot.getPath(), table);
+        }));
+
+        parsers.add(parser("recursive", (tokens, table) -> new SyntaticAnalyzer(tokens, table).start()));
+        parsers.add(parser("table", (tokens, table) -> new TableSyntaticAnalyzer(tokens, table).start()));
+
+        backends.add(backend("dynamic", (program, in, out) -> new DynamicInterpreter(in, out).run(program)));
+        backends.add(backend("interpreter", (program, in, out) -> {
+            Interpreter interpreter = new Interpreter(in, out);
+            interpreter.setTierThreshold(0);
+            interpreter.run(program);
+        }));
+        backends.add(backend("interpreter-noinline", (program, in, out) -> {
+            Interpreter interpreter = new Interpreter(in, out);
+            interpreter.setTierThreshold(0);
+            interpreter.setInlineLimit(0);
+            interpreter.run(program);
+        }));
+        backends.add(backend("vm", (program, in, out) -> new Vm(in, out).run(BytecodeCompiler.compile(program, true))));
+        backends.add(backend("vm-plain", (program, in, out) -> new Vm(in, out).run(BytecodeCompiler.compile(program, false))));
+        backends.add(backend("vm-tbc", (program, in, out) -> {
+            BytecodeWriter.write(BytecodeCompiler.compile(program, true), bytecode.getPath());
+            new Vm(in, out).run(BytecodeLoader.load(bytecode.getPath()));
+        }));
+        tiered = backend("tiered", (program, in, out) -> {
+            Interpreter interpreter = new Interpreter(in, out);
+            interpreter.setTierThreshold(1);
+            interpreter.setBackgroundCompilation(false);
+            interpreter.run(program);
+        });
+    }
+
+    /* Permite registrar outras implementações (um novo parser, um novo back end) */
+    void addTokenMode(TokenMode mode) {
+        tokenModes.add(mode);
+    }
+
+    void addParser(Parser parser) {
+        parsers.add(parser);
+    }
+
+    void addBackend(Backend backend) {
+        backends.add(backend);
+    }
+
+    /*
+     * Verifica um caso em todas as etapas. bounded indica que o programa
+     * sempre termina e pode rodar sem StepLimit; withTiered inclui o modo
+     * que compila os laços (lento: um javac por laço).
+     */
+    Failure check(byte[] source, byte[] input, boolean bounded, boolean withTiered) {
+        features.clear();
+
+        List<String> reference = tokens(tokenModes.get(0), source);
+        for (int i = 0; i < reference.size(); i++) {
+            features.add("tok:" + tag(reference.get(i)));
+            if (i > 0) features.add("pair:" + tag(reference.get(i - 1)) + "," + tag(reference.get(i)));
+        }
+        Set<Integer> unrepresentable = new HashSet<>();
+        for (int m = 1; m < tokenModes.size(); m++) {
+            List<String> other = tokens(tokenModes.get(m), source);
+            if (other.equals(reference)) continue;
+            // O snapshot não tem como gravar um fluxo com exceção (no Lexer ou num literal que não cabe em long)
+            if (other.size() == 1 && isException(other.get(0))
+                    && reference.stream().anyMatch(t -> t.contains(other.get(0)))) {
+                unrepresentable.add(m);
+                continue;
+            }
+            return new Failure("tokens:" + tokenModes.get(m).name(), firstDifference(reference, other));
+        }
+
+        if (reference.stream().noneMatch(DifferentialFuzzer::isException)) {
+            Failure format = checkFormat(source, reference);
+            if (format != null) return format;
+        }
+
+        Object[] parsed = parse(tokenModes.get(0), source);
+        String diagnostic = (String) parsed[0];
+        for (String message : diagnostic.split("\n")) features.add("parse:" + normalize(message));
+        for (int m = 1; m < tokenModes.size(); m++) {
+            if (unrepresentable.contains(m)) continue;
+            String other = (String) parse(tokenModes.get(m), source)[0];
+            // Fontes que só conhecem linhas (o snapshot) não informam a coluna
+            boolean lineOnly = !other.contains("column") && other.equals(diagnostic.replaceAll(",? column:? [0-9]+", ""));
+            if (!other.equals(diagnostic) && !lineOnly) {
+                return new Failure("parse:" + tokenModes.get(m).name(), "expected " + diagnostic + "\n   found " + other);
+            }
+        }
+        String tree = parsed[1] == null ? null : TreeDump.dump((Program) parsed[1]);
+        for (int p = 1; p < parsers.size(); p++) {
+            Object[] other = parse(tokenModes.get(0), parsers.get(p), source);
+            if (!other[0].equals(diagnostic)) {
+                return new Failure("parse:" + parsers.get(p).name(), "expected " + diagnostic + "\n   found " + other[0]);
+            }
+            String otherTree = tree == null ? null : TreeDump.dump((Program) other[1]);
+            if (tree != null && !tree.equals(otherTree)) {
+                return new Failure("parse:" + parsers.get(p).name(),
+                    "tree " + firstDifference(Arrays.asList(tree.split(" ")), Arrays.asList(otherTree.split(" "))));
+            }
+        }
+        if (parsed[1] == null) return null;
+
+        Program program = (Program) parsed[1];
+        if (!bounded) program = StepLimit.instrument(program, STEPS);
+        String expected = execute(backends.get(0), program, input);
+        int error = expected.lastIndexOf("\n!");
+        features.add("run:" + (error < 0 ? "ok" : normalize(expected.substring(error + 1))));
+        for (int b = 1; b <= backends.size(); b++) {
+            Backend backend = b < backends.size() ? backends.get(b) : withTiered ? tiered : null;
+            if (backend == null) break;
+            String found = execute(backend, program, input);
+            if (!found.equals(expected)) {
+                return new Failure("run:" + backend.name(), firstDifference(lines(expected), lines(found)));
+            }
+        }
+        return null;
+    }
+
+    /*
+     * Um programa gerado perde a garantia de terminar quando o Shrinker o
+     * altera; só roda sem StepLimit se a referência, com um limite alto,
+     * terminar antes de gastar o combustível.
+     */
+    boolean terminates(byte[] source, byte[] input) {
+        Object[] parsed = parse(tokenModes.get(0), source);
+        if (parsed[1] == null) return true;
+        Program program = StepLimit.instrument((Program) parsed[1], PROBE_STEPS);
+        Variable fuel = program.variables.get(program.variables.size() - 1);
+        List<Stmt> body = new ArrayList<>(program.body.statements);
+        body.add(new Write(program.line, new VarRef(program.line, fuel), SemanticResultType.TYPE_INT));
+        program = new Program(program.line, program.name, program.variables, program.procedures, new Block(program.body.line, body));
+        String output = execute(backends.get(0), program, input).trim();
+        // Um erro de execução também encerra o programa
+        String last = output.substring(output.lastIndexOf('\n') + 1);
+        return isException(last) || !last.equals("0") && !last.startsWith("-");
+    }
+
+    /* O Formatter mantém os tokens (a menos das linhas) e formatar a própria saída não a altera */
+    private Failure checkFormat(byte[] source, List<String> reference) {
+        String formatted;
+        String again;
+        try {
+            formatted = format(source);
+            again = format(formatted.getBytes(StandardCharsets.UTF_8));
+        } catch (IOException | RuntimeException e) {
+            return new Failure("format", exception(e));
+        }
+        List<String> tokens = tokens(tokenModes.get(0), formatted.getBytes(StandardCharsets.UTF_8));
+        if (!withoutLines(tokens).equals(withoutLines(reference))) {
+            return new Failure("format:tokens", firstDifference(withoutLines(reference), withoutLines(tokens)));
+        }
+        if (!again.equals(formatted)) {
+            return new Failure("format:idempotent", firstDifference(lines(formatted), lines(again)));
+        }
+        return null;
+    }
+
+    private static String format(byte[] source) throws IOException {
+        StringWriter out = new StringWriter();
+        new Formatter(new ByteArrayInputStream(source), new ByteArrayInputStream(source), out).run();
+        return out.toString();
+    }
+
+    private static List<String> withoutLines(List<String> tokens) {
+        List<String> result = new ArrayList<>();
+        for (String token : tokens) result.add(token.substring(0, token.lastIndexOf('@') < 0 ? token.length() : token.lastIndexOf('@')));
+        return result;
+    }
+
+    private List<String> tokens(TokenMode mode, byte[] source) {
+        List<String> tokens = new ArrayList<>();
+        try {
+            TokenSource lexer = mode.open(source, new SymbolTable());
+            Token t;
+            do {
+                t = lexer.scan();
+                tokens.add(t.getTag() + ":" + text(t) + "@" + lexer.getLine());
+            } while (t.getTag() != Tag.EOF && tokens.size() < MAX_TOKENS);
+        } catch (IOException | RuntimeException | StackOverflowError e) {
+            tokens.add(exception(e));
+        }
+        return tokens;
+    }
+
+    private static String text(Token t) {
+        try {
+            return t.toString();
+        } catch (RuntimeException e) {
+            return exception(e);
+        }
+    }
+
+    private Object[] parse(TokenMode mode, byte[] source) {
+        return parse(mode, parsers.get(0), source);
+    }
+
+    /* { diagnóstico, árvore (null quando há erro) } */
+    private Object[] parse(TokenMode mode, Parser parser, byte[] source) {
+        try {
+            SymbolTable table = new SymbolTable();
+            SemanticResult result = parser.parse(mode.open(source, table), table);
+            if (result.isError()) return new Object[] { "error " + result.message, null };
+            return new Object[] { "ok", result.node };
+        } catch (IOException | RuntimeException | StackOverflowError e) {
+            return new Object[] { exception(e), null };
+        }
+    }
+
+    /* Saída do programa seguida, se houver, de "!" e do erro de execução */
+    private static String execute(Backend backend, Program program, byte[] input) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        ProgramOutput output = new ProgramOutput(bytes);
+        String error = "";
+        try {
+            backend.run(program, new ProgramInput(new ByteArrayInputStream(input)), output);
+        } catch (IOException | RuntimeException | StackOverflowError e) {
+            error = "\n" + exception(e);
+        } finally {
+            output.flush();
+        }
+        return new String(bytes.toByteArray(), StandardCharsets.UTF_8) + error;
+    }
+
+    private static String exception(Throwable e) {
+        // A JVM omite a mensagem das exceções implícitas que se repetem muito (OmitStackTraceInFastThrow)
+        if (e instanceof NullPointerException || e instanceof ClassCastException
+                || e instanceof IndexOutOfBoundsException || e instanceof ArithmeticException) {
+            return "!" + e.getClass().getSimpleName();
+        }
+        return "!" + e.getClass().getSimpleName() + ": " + e.getMessage();
+    }
+
+    private static boolean isException(String text) {
+        return text.startsWith("!");
+    }
+
+    private static String tag(String token) {
+        return isException(token) ? "!" : token.substring(0, token.indexOf(':'));
+    }
+
+    // Números, nomes e lexemas mudam de caso para caso; o formato da mensagem é o que interessa
+    private static String normalize(String message) {
+        return message.replaceAll("token:? .*? (of type|on line)", "token _ $1")
+            .replaceAll("variable \\S+", "variable _")
+            .replaceAll("procedure \\S+", "procedure _")
+            .replaceAll("[0-9]+", "N")
+            .replaceAll("'[^']*'", "'_'");
+    }
+
+    private static List<String> lines(String text) {
+        return Arrays.asList(text.split("\n", -1));
+    }
+
+    private static String firstDifference(List<String> expected, List<String> found) {
+        int i = 0;
+        while (i < expected.size() && i < found.size() && expected.get(i).equals(found.get(i))) i++;
+        return "at item " + i + ": expected " + (i < expected.size() ? escape(expected.get(i)) : "<end>")
+            + "\n   found " + (i < found.size() ? escape(found.get(i)) : "<end>");
+    }
+
+    private static String escape(String text) {
+        StringBuilder out = new StringBuilder();
+        for (char c : text.toCharArray()) {
+            if (c >= ' ' && c < 0x7f) out.append(c);
+            else out.append(String.format("\\u%04x", (int) c));
+        }
+        return out.toString();
+    }
+
+    private static TokenMode mode(String name, Opener opener) {
+        return new TokenMode() {
+            public String name() {
+                return name;
+            }
+
+            public TokenSource open(byte[] source, SymbolTable table) throws IOException {
+                return opener.open(source, table);
+            }
+        };
+    }
+
+    private static Parser parser(String name, Parse parse) {
+        return new Parser() {
+            public String name() {
+                return name;
+            }
+
+            public SemanticResult parse(TokenSource tokens, SymbolTable table) {
+                return parse.parse(tokens, table);
+            }
+        };
+    }
+
+    private static Backend backend(String name, Runner runner) {
+        return new Backend() {
+            public String name() {
+                return name;
+            }
+
+            public void run(Program program, ProgramInput input, ProgramOutput output) throws IOException {
+                runner.run(program, input, output);
+            }
+        };
+    }
+
+    private interface Opener {
+        TokenSource open(byte[] source, SymbolTable table) throws IOException;
+    }
+
+    private interface Parse {
+        SemanticResult parse(TokenSource tokens, SymbolTable table);
+    }
+
+    private interface Runner {
+        void run(Program program, ProgramInput input, ProgramOutput output) throws IOException;
+    }
+
+    /* Entrega o texto em pedaços de 1 a 7 bytes, sempre os mesmos para o mesmo texto */
+    private static final class TrickleInputStream extends InputStream {
+        private final byte[] data;
+        private final Random random;
+        private int pos = 0;
+
+        TrickleInputStream(byte[] data) {
+            this.data = data;
+            this.random = new Random(Arrays.hashCode(data));
+        }
+
+        public int read() {
+            return pos < data.length ? data[pos++] & 0xff : -1;
+        }
+
+        public int read(byte[] b, int off, int len) {
+            if (len == 0) return 0;
+            if (pos >= data.length) return -1;
+            int n = Math.min(Math.min(len, 1 + random.nextInt(7)), data.length - pos);
+            System.arraycopy(data, pos, b, off, n);
+            pos += n;
+            return n;
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        long cases = Long.MAX_VALUE;
+        long seconds = 60;
+        long seed = System.nanoTime();
+        String corpusDir = null;
+        int tierEvery = 500;
+        boolean shrink = true;
+        boolean bounded = false;
+        List<String> files = new ArrayList<>();
+        for (String arg : args) {
+            if (arg.startsWith("--cases=")) {
+                cases = Long.parseLong(arg.substring(8));
+                seconds = Long.MAX_VALUE / 1000;
+            } else if (arg.startsWith("--time=")) seconds = Long.parseLong(arg.substring(7));
+            else if (arg.startsWith("--seed=")) seed = Long.parseLong(arg.substring(7));
+            else if (arg.startsWith("--corpus=")) corpusDir = arg.substring(9);
+            else if (arg.startsWith("--tier-every=")) tierEvery = Integer.parseInt(arg.substring(13));
+            else if (arg.equals("--no-shrink")) shrink = false;
+            else if (arg.equals("--bounded")) bounded = true;
+            else files.add(arg);
+        }
+
+        DifferentialFuzzer fuzzer = new DifferentialFuzzer();
+        if (!files.isEmpty()) {
+            byte[] source = Files.readAllBytes(new File(files.get(0)).toPath());
+            byte[] input = files.size() > 1 ? Files.readAllBytes(new File(files.get(1)).toPath()) : new byte[0];
+            Failure failure = fuzzer.check(source, input, bounded, true);
+            System.out.println(failure == null ? "No divergence" : failure.check + "\n   " + failure.detail);
+            return;
+        }
+
+        Corpus corpus = new Corpus(corpusDir);
+        corpus.seed(new File("."));
+        corpus.seed(new File("Compiler/Test/testcases"));
+        CaseGenerator generator = new CaseGenerator(seed);
+        Random random = generator.random();
+        Shrinker shrinker = new Shrinker(fuzzer, 4000);
+        Set<String> seen = new HashSet<>();
+        Set<String> reported = new HashSet<>();
+        System.out.println("seed " + seed + ", " + corpus.size() + " corpus entries");
+
+        long start = System.nanoTime();
+        long deadline = start + seconds * 1_000_000_000L;
+        long nextReport = start + 10_000_000_000L;
+        long done = 0;
+        long divergences = 0;
+        while (done < cases && System.nanoTime() < deadline) {
+            boolean generated = corpus.size() == 0 || random.nextInt(3) == 0;
+            byte[] source = generated ? generator.program() : generator.mutate(corpus.pick(random), corpus.pick(random));
+            byte[] input = generator.input();
+            Failure failure = fuzzer.check(source, input, generated, tierEvery > 0 && done % tierEvery == 0);
+            done++;
+
+            boolean added = false;
+            for (String feature : fuzzer.features) added |= seen.add(feature);
+            if (added) corpus.add(source);
+
+            if (failure != null) {
+                divergences++;
+                if (reported.add(failure.check)) {
+                    System.out.println("DIVERGENCE " + failure.check + "\n   " + failure.detail);
+                    byte[][] reduced = shrink ? shrinker.shrink(source, input, generated, failure.check) : new byte[][] { source, input };
+                    String name = corpus.saveCrash(source, reduced[0], reduced[1], failure.check + "\n   " + failure.detail
+                        + (generated ? "\n(bounded program: replay with --bounded)" : ""));
+                    System.out.println("   saved as " + name + " (" + source.length + " -> " + reduced[0].length + " bytes)");
+                }
+            }
+
+            long now = System.nanoTime();
+            if (now >= nextReport) {
+                report(done, divergences, corpus.size(), seen.size(), now - start);
+                nextReport = now + 10_000_000_000L;
+            }
+        }
+        report(done, divergences, corpus.size(), seen.size(), System.nanoTime() - start);
+    }
+
+    private static void report(long cases, long divergences, int corpus, int features, long nanos) {
+        double perSecond = cases / (nanos / 1e9);
+        System.out.printf("%d cases, %.0f/s (%.2fM/h), %d divergences, %d corpus entries, %d features%n",
+            cases, perSecond, perSecond * 3600 / 1e6, divergences, corpus, features);
+    }
+}
@@ -0,0 +1,98 @@
+package Compiler.Test.Fuzz;
+
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+/*
+ * Reduz um caso divergente mantendo a mesma divergência (a mesma etapa e o
+ * mesmo modo). Remove pedaços cada vez menores (delta debugging) em três
+ * granularidades: linhas, tokens e, para textos curtos, bytes; no fim
+ * reduz também a entrada do programa, por linhas.
+ * Cada tentativa é uma verificação completa, então o total é limitado.
+ */
+public class Shrinker {
+
+    private static final int MAX_BYTES_PASS = 512;
+
+    private final DifferentialFuzzer fuzzer;
+    private final int maxAttempts;
+    private int attempts;
+
+    Shrinker(DifferentialFuzzer fuzzer, int maxAttempts) {
+        this.fuzzer = fuzzer;
+        this.maxAttempts = maxAttempts;
+    }
+
+    /* { programa reduzido, entrada reduzida } */
+    byte[][] shrink(byte[] source, byte[] input, boolean bounded, String check) {
+        attempts = 0;
+        byte[][] current = { source, input };
+        int before;
+        do {
+            before = current[0].length + current[1].length;
+            current[0] = reduce(current[0], Shrinker::lines, candidate -> fails(candidate, current[1], bounded, check));
+            current[0] = reduce(current[0], CaseGenerator::tokens, candidate -> fails(candidate, current[1], bounded, check));
+            if (current[0].length <= MAX_BYTES_PASS) {
+                current[0] = reduce(current[0], Shrinker::bytes, candidate -> fails(candidate, current[1], bounded, check));
+            }
+            current[1] = reduce(current[1], Shrinker::lines, candidate -> fails(current[0], candidate, bounded, check));
+        } while (current[0].length + current[1].length < before && attempts < maxAttempts);
+        return current;
+    }
+
+    private boolean fails(byte[] source, byte[] input, boolean bounded, String check) {
+        if (attempts >= maxAttempts) return false;
+        attempts++;
+        if (bounded && !fuzzer.terminates(source, input)) return false;
+        DifferentialFuzzer.Failure failure = fuzzer.check(source, input, bounded, check.equals("run:tiered"));
+        return failure != null && failure.check.equals(check);
+    }
+
+    /* Tenta remover blocos de unidades consecutivas, de metade do total até uma unidade */
+    private static byte[] reduce(byte[] data, Function<byte[], List<int[]>> split, Function<byte[], Boolean> fails) {
+        List<int[]> units = split.apply(data);
+        for (int chunk = Math.max(1, units.size() / 2); chunk >= 1; chunk /= 2) {
+            int i = 0;
+            while (i < units.size()) {
+                int last = Math.min(units.size(), i + chunk) - 1;
+                byte[] candidate = remove(data, units.get(i)[0], units.get(last)[1]);
+                if (candidate.length < data.length && fails.apply(candidate)) {
+                    data = candidate;
+                    units = split.apply(data);
+                } else {
+                    i += chunk;
+                }
+            }
+            if (chunk == 1) break;
+        }
+        return data;
+    }
+
+    private static byte[] remove(byte[] data, int from, int to) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(data.length);
+        out.write(data, 0, from);
+        out.write(data, to, data.length - to);
+        return out.toByteArray();
+    }
+
+    private static List<int[]> lines(byte[] data) {
+        List<int[]> lines = new ArrayList<>();
+        int start = 0;
+        for (int i = 0; i < data.length; i++) {
+            if (data[i] == '\n') {
+                lines.add(new int[] { start, i + 1 });
+                start = i + 1;
+            }
+        }
+        if (start < data.length) lines.add(new int[] { start, data.length });
+        return lines;
+    }
+
+    private static List<int[]> bytes(byte[] data) {
+        List<int[]> bytes = new ArrayList<>(data.length);
+        for (int i = 0; i < data.length; i++) bytes.add(new int[] { i, i + 1 });
+        return bytes;
+    }
+}
@@ -0,0 +1,111 @@
+package Compiler.Test.Fuzz;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import Compiler.Lexical.Tag;
+import Compiler.Lexical.Tokens.Word;
+import Compiler.Semantic.SemanticResultType;
+import Compiler.Tree.*;
+
+/*
+ * Limita a quantidade de voltas de um programa mutado, que pode não terminar.
+ * A árvore ganha uma variável escondida de combustível:
+ *   $fuel = steps                        no início do programa
+ *   $fuel = $fuel - 1                    no início do corpo de cada laço
+ *   while ($fuel > 0) && (cond)          em cada while
+ *   until ($fuel <= 0) || (cond)         em cada repeat
+ *   $fuel = $fuel - 1; if $fuel > 0 then corpo end     em cada procedimento
+ * Acabado o combustível, todo laço sai no próximo teste, toda chamada volta
+ * sem executar o corpo e o programa segue até o fim, do mesmo jeito em todos
+ * os back ends. Como as condições deixam
+ * de ser uma comparação simples, as superinstructions de desvio da Vm não
+ * aparecem nos programas instrumentados; por isso os programas gerados (que
+ * sempre terminam) rodam sem instrumentação.
+ */
+public class StepLimit {
+
+    private final Variable fuel;
+
+    private StepLimit(Variable fuel) {
+        this.fuel = fuel;
+    }
+
+    public static Program instrument(Program program, long steps) {
+        Word word = new Word("$fuel", Tag.ID);
+        Variable fuel = new Variable(word, program.variables.size(), program.line);
+        fuel.setType(SemanticResultType.TYPE_INT);
+        List<Variable> variables = new ArrayList<>(program.variables);
+        variables.add(fuel);
+
+        StepLimit limit = new StepLimit(fuel);
+        List<Stmt> body = new ArrayList<>();
+        body.add(new Assign(program.line, fuel, new IntLiteral(program.line, steps)));
+        body.addAll(limit.block(program.body).statements);
+        List<Procedure> procedures = new ArrayList<>();
+        for (Procedure procedure : program.procedures) {
+            procedures.add(new Procedure(procedure.line, procedure.name, procedure.index, procedure.parameters,
+                    procedure.locals, limit.procedure(procedure.body)));
+        }
+        return new Program(program.line, program.name, variables, procedures, new Block(program.body.line, body));
+    }
+
+    private Block procedure(Block body) {
+        int line = body.line;
+        List<Stmt> statements = new ArrayList<>();
+        statements.add(decrement(line));
+        statements.add(new If(line, fuelTest('>', new IntLiteral(line, 0)), block(body), null));
+        return new Block(line, statements);
+    }
+
+    private Block block(Block block) {
+        List<Stmt> statements = new ArrayList<>(block.statements.size());
+        for (Stmt s : block.statements) statements.add(statement(s));
+        return new Block(block.line, statements);
+    }
+
+    private Stmt statement(Stmt stmt) {
+        if (stmt instanceof Block) return block((Block) stmt);
+        if (stmt instanceof If) {
+            If ifStmt = (If) stmt;
+            return new If(stmt.line, ifStmt.condition, block(ifStmt.then), ifStmt.otherwise == null ? null : block(ifStmt.otherwise));
+        }
+        if (stmt instanceof While) {
+            While whileStmt = (While) stmt;
+            Expr test = fuelTest('>', whileStmt.condition);
+            return new While(stmt.line, join(Tag.AND, test, whileStmt.condition), body(whileStmt.body));
+        }
+        if (stmt instanceof Repeat) {
+            Repeat repeat = (Repeat) stmt;
+            Expr test = fuelTest(Tag.LE, repeat.condition);
+            return new Repeat(stmt.line, body(repeat.body), join(Tag.OR, test, repeat.condition));
+        }
+        return stmt;
+    }
+
+    private Block body(Block body) {
+        int line = body.line;
+        List<Stmt> statements = new ArrayList<>();
+        statements.add(decrement(line));
+        statements.addAll(block(body).statements);
+        return new Block(line, statements);
+    }
+
+    private Stmt decrement(int line) {
+        Expr value = new Binary(line, '-', new VarRef(line, fuel), new IntLiteral(line, 1), SemanticResultType.TYPE_INT);
+        return new Assign(line, fuel, value);
+    }
+
+    private Expr fuelTest(int op, Expr condition) {
+        int line = condition.line;
+        return new Binary(line, op, new VarRef(line, fuel), new IntLiteral(line, 0), SemanticResultType.TYPE_INT);
+    }
+
+    // Mesmas conversões que a análise semântica insere: com uma condição float, o teste vira float
+    private static Expr join(int op, Expr test, Expr condition) {
+        if (condition.isFloat()) {
+            return new Binary(condition.line, op, Conversion.toFloat(test), condition, SemanticResultType.TYPE_FLOAT);
+        }
+        return new Binary(condition.line, op, test, condition, SemanticResultType.TYPE_INT);
+    }
+}
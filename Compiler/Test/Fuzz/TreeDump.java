@@ -0,0 +1,82 @@
+package Compiler.Test.Fuzz;
+
+import java.lang.reflect.Array;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.List;
+
+import Compiler.Tree.Node;
+import Compiler.Tree.Variable;
+
+/*
+ * Texto de uma árvore com todos os campos públicos de cada nó (linhas, tipos,
+ * conversões), para comparar as árvores de dois analisadores sintáticos.
+ * Variáveis aparecem como nome:slot:linha:tipo.
+ */
+public final class TreeDump {
+
+    private TreeDump() {
+    }
+
+    public static String dump(Node node) {
+        StringBuilder out = new StringBuilder();
+        value(node, out);
+        return out.toString();
+    }
+
+    private static void value(Object value, StringBuilder out) {
+        if (value instanceof Node) {
+            node((Node) value, out);
+        } else if (value instanceof Variable) {
+            Variable variable = (Variable) value;
+            out.append(variable.getName()).append(':').append(variable.slot).append(':').append(variable.line)
+                .append(':').append(variable.getType());
+            if (variable.isArray()) out.append('[').append(variable.getLength()).append(']');
+        } else if (value instanceof List) {
+            out.append('[');
+            String separator = "";
+            for (Object item : (List<?>) value) {
+                out.append(separator);
+                value(item, out);
+                separator = ", ";
+            }
+            out.append(']');
+        } else if (value != null && value.getClass().isArray()) {
+            out.append('{');
+            for (int i = 0; i < Array.getLength(value); i++) {
+                if (i > 0) out.append(',');
+                value(Array.get(value, i), out);
+            }
+            out.append('}');
+        } else {
+            out.append(value);
+        }
+    }
+
+    private static void node(Node node, StringBuilder out) {
+        out.append(node.getClass().getSimpleName()).append('(');
+        String separator = "";
+        for (Field field : fields(node.getClass())) {
+            out.append(separator).append(field.getName()).append('=');
+            try {
+                value(field.get(node), out);
+            } catch (IllegalAccessException e) {
+                throw new IllegalStateException(e);
+            }
+            separator = " ";
+        }
+        out.append(')');
+    }
+
+    // Campos públicos de instância, da superclasse para a subclasse, na ordem de declaração
+    private static List<Field> fields(Class<?> type) {
+        List<Field> fields = new ArrayList<>();
+        if (type.getSuperclass() != null) fields.addAll(fields(type.getSuperclass()));
+        for (Field field : type.getDeclaredFields()) {
+            int modifiers = field.getModifiers();
+            if (Modifier.isPublic(modifiers) && !Modifier.isStatic(modifiers)) fields.add(field);
+        }
+        return fields;
+    }
+}
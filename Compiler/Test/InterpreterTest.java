@@ -0,0 +1,67 @@
+package Compiler.Test;
+
+import Compiler.Interpreter.DynamicInterpreter;
+import Compiler.Interpreter.Interpreter;
+import Compiler.Interpreter.Profile;
+import Compiler.Lexical.Lexer;
+import Compiler.Metrics.Metrics;
+import Compiler.Runtime.ProgramInput;
+import Compiler.Runtime.ProgramOutput;
+import Compiler.Semantic.SemanticResult;
+import Compiler.SymbolTable.SymbolTable;
+import Compiler.Syntatic.SyntaticAnalyzer;
+import Compiler.Tree.Program;
+
+public class InterpreterTest {
+    public static void main(String[] args) {
+        args = Metrics.configure(args);
+        boolean profiling = false;
+        boolean dynamic = false;
+        int threshold = -1;
+        int inline = -1;
+        int first = 0;
+        while(first < args.length && args[first].startsWith("--")){
+            if(args[first].equals("--profile")) profiling = true;
+            else if(args[first].equals("--dynamic")) dynamic = true;
+            else if(args[first].startsWith("--tier-threshold=")) threshold = Integer.parseInt(args[first].substring(17));
+            else if(args[first].startsWith("--inline-size=")) inline = Integer.parseInt(args[first].substring(14));
+            first++;
+        }
+        if(args.length <= first){
+            System.out.println("Usage: java InterpreterTest [--stats] [--stats-file=metrics.prom] [--profile] [--tier-threshold=N] [--inline-size=N] [--dynamic] filename < input");
+            return;
+        }
+
+        try{
+            SymbolTable symbolTable = new SymbolTable();
+            Lexer lexer = new Lexer(args[first], symbolTable);
+            SyntaticAnalyzer syntaticAnalyzer = new SyntaticAnalyzer(lexer, symbolTable);
+            SemanticResult result = syntaticAnalyzer.start();
+            if(result.isError()) {
+                //Programas com erros semânticos não são executados
+                System.out.println(result.message);
+            } else {
+                Program program = (Program) result.node;
+                if(dynamic) {
+                    //Interpretador de referência, sem especialização por tipo nem compilação de laços
+                    new DynamicInterpreter(new ProgramInput(System.in), new ProgramOutput(System.out)).run(program);
+                } else {
+                    Interpreter interpreter = new Interpreter(new ProgramInput(System.in), new ProgramOutput(System.out));
+                    //O relatório vai para stderr para não se misturar com a saída do programa
+                    Profile profile = profiling ? new Profile(program) : null;
+                    interpreter.setProfile(profile);
+                    if(threshold >= 0) interpreter.setTierThreshold(threshold);
+                    if(inline >= 0) interpreter.setInlineLimit(inline);
+                    try {
+                        interpreter.run(program);
+                    } finally {
+                        if(profile != null) profile.report(System.err, 20);
+                    }
+                }
+            }
+        } catch(Exception e) {
+            System.out.println(e.getMessage());
+        }
+        Metrics.finish();
+    }
+}
@@ -5,12 +5,14 @@ import java.io.IOException;
 
 import Compiler.Lexical.*;
 import Compiler.Lexical.Tokens.Token;
+import Compiler.Metrics.Metrics;
 import Compiler.SymbolTable.SymbolTable;
 
 public class LexicalTest {
     public static void main(String[] args) {
+        args = Metrics.configure(args);
         if(args.length < 1){
-            System.out.println("Usage: java LexicalTest {testcases filenames}");
+            System.out.println("Usage: java LexicalTest [--stats] [--stats-file=metrics.prom] {testcases filenames}");
             return;
         }
         Lexer lexer;
@@ -31,5 +33,6 @@ public class LexicalTest {
             }
         }
 
+        Metrics.finish();
     }
 }
@@ -0,0 +1,69 @@
+package Compiler.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+
+import Compiler.Budget.Budget;
+import Compiler.Metrics.Metrics;
+import Compiler.Project.FileResult;
+import Compiler.Project.ProjectCompiler;
+import Compiler.Test.Stress.ProgramGenerator;
+
+public class ProjectTest {
+    public static void main(String[] args) throws IOException, InterruptedException {
+        args = Metrics.configure(args);
+        args = Budget.configure(args);
+        if(args.length < 1){
+            System.out.println("Usage: java ProjectTest [--threads=N] [--generate=N] [--budget] [--budget-report] [--max-...=N] {directories or filenames}");
+            return;
+        }
+
+        int threads = Runtime.getRuntime().availableProcessors();
+        int generate = 0;
+        int first = 0;
+        while(first < args.length && args[first].startsWith("--")){
+            if(args[first].startsWith("--threads=")) threads = Integer.parseInt(args[first].substring(10));
+            else if(args[first].startsWith("--generate=")) generate = Integer.parseInt(args[first].substring(11));
+            first++;
+        }
+        String[] paths = java.util.Arrays.copyOfRange(args, first, args.length);
+
+        //Gera um projeto sintético no primeiro diretório dado
+        if(generate > 0){
+            File dir = new File(paths[0]);
+            dir.mkdirs();
+            for(int i = 0; i < generate; i++){
+                ProgramGenerator.Options options = new ProgramGenerator.Options();
+                options.seed = i;
+                options.targetSize = 2048;
+                options.declarations = 20;
+                new ProgramGenerator(options).generate(new File(dir, "unit" + i + ".txt").getPath());
+            }
+            System.out.println("Generated " + generate + " files in " + dir);
+        }
+
+        List<String> files = ProjectCompiler.collect(paths);
+        long start = System.nanoTime();
+        FileResult[] results = new ProjectCompiler(threads).compile(files);
+        long wall = System.nanoTime() - start;
+
+        int ok = 0;
+        long cpu = 0;
+        for(FileResult r : results){
+            cpu += r.nanos;
+            if(r.isOk()){
+                ok++;
+            } else {
+                System.out.println(r.fileName + ": " + r.message());
+            }
+            if(Budget.reportRequested()){
+                System.out.println(r.fileName + ": " + r.budget.summary());
+            }
+        }
+        System.out.println();
+        System.out.println("Files: " + results.length + "\tOk: " + ok + "\tWith errors: " + (results.length - ok));
+        System.out.printf("Cold compile: %.1f ms wall, %.1f ms summed over %d threads%n", wall / 1e6, cpu / 1e6, threads);
+        Metrics.finish();
+    }
+}
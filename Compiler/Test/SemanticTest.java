@@ -1,21 +1,29 @@
 package Compiler.Test;
 
+import Compiler.Budget.Budget;
 import Compiler.Lexical.Lexer;
 import Compiler.Semantic.SemanticResult;
+import Compiler.Metrics.Metrics;
 import Compiler.SymbolTable.SymbolTable;
 import Compiler.Syntatic.SyntaticAnalyzer;
 
 public class SemanticTest {
     public static void main(String[] args) {
+        args = Metrics.configure(args);
+        args = Budget.configure(args);
         if(args.length < 1){
-            System.out.println("Usage: java SyntaticTest filename");
+            System.out.println("Usage: java SemanticTest [--stats] [--stats-file=metrics.prom] [--budget] [--budget-report]");
+            System.out.println("       [--max-token-length=N] [--max-depth=N] [--max-identifiers=N] [--max-tokens=N] [--time-limit=ms] filename");
             return;
         }
         
+        Budget budget = Budget.create();
         try{
             SymbolTable symbolTable = new SymbolTable();
             Lexer lexer = new Lexer(args[0], symbolTable);
+            lexer.setBudget(budget);
             SyntaticAnalyzer syntaticAnalyzer = new SyntaticAnalyzer(lexer, symbolTable);
+            syntaticAnalyzer.setBudget(budget);
             SemanticResult result = syntaticAnalyzer.start();
             System.out.println("Resultado: " + result.type);
             if(!result.isError())
@@ -26,5 +34,7 @@ public class SemanticTest {
         } catch(Exception e) {
             System.out.println(e.getMessage());
         }
+        if(Budget.reportRequested()) budget.report(System.out);
+        Metrics.finish();
     }
 }
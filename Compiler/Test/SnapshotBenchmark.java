@@ -0,0 +1,73 @@
+package Compiler.Test;
+
+import java.io.IOException;
+
+import Compiler.Lexical.*;
+import Compiler.Lexical.Snapshot.TokenSnapshotReader;
+import Compiler.Lexical.Snapshot.TokenSnapshotWriter;
+import Compiler.SymbolTable.SymbolTable;
+import Compiler.Syntatic.SyntaticAnalyzer;
+
+/* Compara o tempo de recarregar um snapshot de tokens com o de analisar o texto de novo */
+public class SnapshotBenchmark {
+    public static void main(String[] args) {
+        if(args.length < 1){
+            System.out.println("Usage: java SnapshotBenchmark filename [iterations]");
+            return;
+        }
+        String source = args[0];
+        String snapshot = source + ".tks";
+        int iterations = args.length > 1 ? Integer.parseInt(args[1]) : 200;
+
+        try{
+            int tokens = TokenSnapshotWriter.write(new Lexer(source, new SymbolTable()), snapshot);
+            System.out.println("Snapshot: " + snapshot + " (" + tokens + " tokens)");
+
+            // aquecimento, para que as duas medições peguem código já compilado pelo JIT
+            for(int i = 0; i < iterations; i++){
+                drain(new Lexer(source, new SymbolTable()));
+                drain(new TokenSnapshotReader(snapshot, new SymbolTable()));
+            }
+
+            long lex = 0, replay = 0, parseText = 0, parseReplay = 0;
+            for(int i = 0; i < iterations; i++){
+                long t0 = System.nanoTime();
+                drain(new Lexer(source, new SymbolTable()));
+                long t1 = System.nanoTime();
+                drain(new TokenSnapshotReader(snapshot, new SymbolTable()));
+                long t2 = System.nanoTime();
+                parse(new Lexer(source, new SymbolTable()));
+                long t3 = System.nanoTime();
+                parse(new TokenSnapshotReader(snapshot, new SymbolTable()));
+                long t4 = System.nanoTime();
+                lex += t1 - t0;
+                replay += t2 - t1;
+                parseText += t3 - t2;
+                parseReplay += t4 - t3;
+            }
+            report("re-lex", lex, iterations);
+            report("replay", replay, iterations);
+            report("parse from text", parseText, iterations);
+            report("parse from replay", parseReplay, iterations);
+            System.out.printf("Reload speedup: %.2fx%n", (double) lex / replay);
+        } catch(IOException e) {
+            System.out.println("Something went wrong while reading the file: " + e.getMessage());
+        }
+    }
+
+    private static void drain(TokenSource source) throws IOException {
+        while(source.scan().getTag() != Tag.EOF);
+    }
+
+    private static void parse(TokenSource source) {
+        try{
+            new SyntaticAnalyzer(source, null).start();
+        } catch(RuntimeException e) {
+            // erros sintáticos não interessam aqui, apenas o tempo até eles
+        }
+    }
+
+    private static void report(String name, long nanos, int iterations) {
+        System.out.printf("%-20s %10.3f us/iteration%n", name, nanos / 1000.0 / iterations);
+    }
+}
@@ -0,0 +1,163 @@
+package Compiler.Test.Stress;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import Compiler.Bytecode.BytecodeCompiler;
+import Compiler.Bytecode.Vm;
+import Compiler.Interpreter.Interpreter;
+import Compiler.Lexical.Lexer;
+import Compiler.Runtime.ProgramInput;
+import Compiler.Runtime.ProgramOutput;
+import Compiler.Semantic.SemanticResult;
+import Compiler.SymbolTable.SymbolTable;
+import Compiler.Syntatic.SyntaticAnalyzer;
+import Compiler.Tree.Program;
+
+/*
+ * Laços apertados sobre arranjos (preenchimento, soma de prefixos e produto
+ * escalar) no Interpreter com a compilação de laços, com e sem a eliminação
+ * da conferência de índices, sem compilação e na Vm, comparados com o mesmo
+ * cálculo escrito à mão em Java sobre long[] e double[]. Antes de medir,
+ * confere que todas as configurações produzem a mesma saída.
+ */
+public class ArrayBenchmark {
+
+    private interface Runner {
+        void run(Program program, ProgramInput input, ProgramOutput output);
+    }
+
+    public static void main(String[] args) throws IOException {
+        int n = args.length > 0 ? Integer.parseInt(args[0]) : 100_000;
+        int rounds = args.length > 1 ? Integer.parseInt(args[1]) : 200;
+        int iterations = args.length > 2 ? Integer.parseInt(args[2]) : 5;
+
+        File file = File.createTempFile("arrays", ".txt");
+        file.deleteOnExit();
+        try (FileWriter writer = new FileWriter(file, StandardCharsets.UTF_8)) {
+            writer.write(PROGRAM.replace("SIZE", Integer.toString(n)));
+        }
+        SemanticResult result = new SyntaticAnalyzer(new Lexer(file.getPath(), new SymbolTable()), null).start();
+        if (result.isError()) throw new IllegalStateException(result.message);
+        Program program = (Program) result.node;
+
+        String[] names = { "tiered", "tiered, checked", "interpreter", "vm", "java" };
+        Runner[] runners = {
+            (p, in, out) -> interpreter(in, out, 1000, 200).run(p),
+            (p, in, out) -> interpreter(in, out, 1000, 0).run(p),
+            (p, in, out) -> interpreter(in, out, 0, 0).run(p),
+            (p, in, out) -> new Vm(in, out).run(BytecodeCompiler.compile(p, true)),
+            (p, in, out) -> java(in, out),
+        };
+        String expected = null;
+        for (int r = 0; r < runners.length; r++) {
+            String output = run(runners[r], program, n, Math.max(1, rounds / 20));
+            if (expected == null) expected = output;
+            else if (!output.equals(expected)) {
+                System.err.println(names[r] + " produces a different output");
+                System.exit(1);
+            }
+        }
+
+        long[] best = new long[runners.length];
+        Arrays.fill(best, Long.MAX_VALUE);
+        for (int i = 0; i < iterations; i++) {
+            for (int r = 0; r < runners.length; r++) {
+                long start = System.nanoTime();
+                run(runners[r], program, n, rounds);
+                best[r] = Math.min(best[r], System.nanoTime() - start);
+            }
+        }
+        long elements = (long) n * rounds;
+        System.out.println(n + " elements, " + rounds + " rounds");
+        for (int r = 0; r < runners.length; r++) {
+            System.out.printf("%-16s %9.2f ms %8.2f ns/element %6.2fx java%n", names[r], best[r] / 1e6,
+                    (double) best[r] / elements, (double) best[r] / best[runners.length - 1]);
+        }
+    }
+
+    private static Interpreter interpreter(ProgramInput input, ProgramOutput output, int threshold, int versionSize) {
+        Interpreter interpreter = new Interpreter(input, output);
+        interpreter.setTierThreshold(threshold);
+        interpreter.setVersionSizeLimit(versionSize);
+        interpreter.setBackgroundCompilation(false);
+        return interpreter;
+    }
+
+    private static String run(Runner runner, Program program, int n, int rounds) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        ProgramInput input = new ProgramInput(new ByteArrayInputStream((n + "\n" + rounds + "\n").getBytes(StandardCharsets.US_ASCII)));
+        runner.run(program, input, new ProgramOutput(bytes));
+        return bytes.toString(StandardCharsets.UTF_8);
+    }
+
+    /* O programa abaixo escrito à mão */
+    private static void java(ProgramInput input, ProgramOutput output) {
+        int n = (int) input.readInt();
+        long rounds = input.readInt();
+        long[] a = new long[n], b = new long[n];
+        double[] x = new double[n], y = new double[n];
+        long s = 0;
+        double d = 0.0;
+        for (long r = 0; r < rounds; r++) {
+            for (int i = 0; i < n; i++) {
+                b[i] = i * 3L + r;
+                x[i] = i * 0.5;
+                y[i] = r + 0.25;
+            }
+            a[0] = b[0];
+            for (int i = 1; i < n; i++) a[i] = a[i - 1] + b[i];
+            for (int i = 0; i < n; i++) {
+                d = d + x[i] * y[i];
+                s = s + a[i];
+            }
+        }
+        output.writeInt(s);
+        output.writeFloat(d);
+        output.flush();
+    }
+
+    private static final String PROGRAM = String.join("\n",
+        "program arrays",
+        "    a, b is int[SIZE];",
+        "    x, y is float[SIZE];",
+        "    i, n, r, rounds, s is int;",
+        "    d is float;",
+        "begin",
+        "    read(n);",
+        "    read(rounds);",
+        "    r = 0;",
+        "    s = 0;",
+        "    d = 0.0;",
+        "    while (r < rounds) do",
+        "        i = 0;",
+        "        while (i < n) do",
+        "            b[i] = i * 3 + r;",
+        "            x[i] = i * 0.5;",
+        "            y[i] = r + 0.25;",
+        "            i = i + 1",
+        "        end;",
+        "        a[0] = b[0];",
+        "        i = 1;",
+        "        while (i < n) do",
+        "            a[i] = a[i - 1] + b[i];",
+        "            i = i + 1",
+        "        end;",
+        "        i = 0;",
+        "        repeat",
+        "            d = d + x[i] * y[i];",
+        "            s = s + a[i];",
+        "            i = i + 1",
+        "        until i >= n;",
+        "        r = r + 1",
+        "    end;",
+        "    write(s);",
+        "    write(d)",
+        "end.",
+        "");
+}
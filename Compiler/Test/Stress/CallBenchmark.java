@@ -0,0 +1,146 @@
+package Compiler.Test.Stress;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import Compiler.Bytecode.BytecodeCompiler;
+import Compiler.Bytecode.Vm;
+import Compiler.Interpreter.Interpreter;
+import Compiler.Lexical.Lexer;
+import Compiler.Runtime.ProgramInput;
+import Compiler.Runtime.ProgramOutput;
+import Compiler.Semantic.SemanticResult;
+import Compiler.SymbolTable.SymbolTable;
+import Compiler.Syntatic.SyntaticAnalyzer;
+import Compiler.Tree.Program;
+
+/*
+ * Laço quente que chama procedimentos pequenos (expandidos pelo Inliner) e
+ * um recursivo (sempre chamado). Compara o Interpreter com e sem a expansão
+ * de chamadas, com e sem a compilação de laços: sem a expansão, o laço que
+ * chama não pode ser compilado. A Vm entra como referência. Antes de medir,
+ * confere que todas as configurações produzem a mesma saída.
+ */
+public class CallBenchmark {
+
+    private interface Runner {
+        void run(Program program, ProgramInput input, ProgramOutput output);
+    }
+
+    public static void main(String[] args) throws IOException {
+        int n = args.length > 0 ? Integer.parseInt(args[0]) : 2_000_000;
+        int iterations = args.length > 1 ? Integer.parseInt(args[1]) : 5;
+
+        File file = File.createTempFile("calls", ".txt");
+        file.deleteOnExit();
+        try (FileWriter writer = new FileWriter(file, StandardCharsets.UTF_8)) {
+            writer.write(PROGRAM);
+        }
+        SemanticResult result = new SyntaticAnalyzer(new Lexer(file.getPath(), new SymbolTable()), null).start();
+        if (result.isError()) throw new IllegalStateException(result.message);
+        Program program = (Program) result.node;
+
+        String[] names = { "inline + tiered", "inline", "calls + tiered", "calls", "vm" };
+        Runner[] runners = {
+            (p, in, out) -> interpreter(in, out, 40, 1000).run(p),
+            (p, in, out) -> interpreter(in, out, 40, 0).run(p),
+            (p, in, out) -> interpreter(in, out, 0, 1000).run(p),
+            (p, in, out) -> interpreter(in, out, 0, 0).run(p),
+            (p, in, out) -> new Vm(in, out).run(BytecodeCompiler.compile(p, true)),
+        };
+        String expected = null;
+        for (int r = 0; r < runners.length; r++) {
+            String output = run(runners[r], program, n / 100);
+            if (expected == null) expected = output;
+            else if (!output.equals(expected)) {
+                System.err.println(names[r] + " produces a different output");
+                System.exit(1);
+            }
+        }
+
+        long[] best = new long[runners.length];
+        Arrays.fill(best, Long.MAX_VALUE);
+        for (int i = 0; i < iterations; i++) {
+            for (int r = 0; r < runners.length; r++) {
+                long start = System.nanoTime();
+                run(runners[r], program, n);
+                best[r] = Math.min(best[r], System.nanoTime() - start);
+            }
+        }
+        System.out.println(n + " iterations, " + program.procedures.size() + " procedures");
+        for (int r = 0; r < runners.length; r++) {
+            System.out.printf("%-16s %9.2f ms %8.1f ns/iteration%n", names[r], best[r] / 1e6, (double) best[r] / n);
+        }
+    }
+
+    private static Interpreter interpreter(ProgramInput input, ProgramOutput output, int inline, int threshold) {
+        Interpreter interpreter = new Interpreter(input, output);
+        interpreter.setInlineLimit(inline);
+        interpreter.setTierThreshold(threshold);
+        interpreter.setBackgroundCompilation(false);
+        return interpreter;
+    }
+
+    private static String run(Runner runner, Program program, int n) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        ProgramInput input = new ProgramInput(new ByteArrayInputStream((n + "\n").getBytes(StandardCharsets.US_ASCII)));
+        runner.run(program, input, new ProgramOutput(bytes));
+        return bytes.toString(StandardCharsets.UTF_8);
+    }
+
+    private static final String PROGRAM = String.join("\n",
+        "program calls",
+        "    i, n, s, r is int;",
+        "    x is float;",
+        "",
+        "procedure accumulate(v is int)",
+        "begin",
+        "    s = s + v * 3 - (v - 1)",
+        "end;",
+        "",
+        "procedure mix(v is int; w is float)",
+        "    t is int;",
+        "begin",
+        "    t = v * v;",
+        "    if (t > 100) then",
+        "        t = t - 100",
+        "    end;",
+        "    accumulate(t);",
+        "    x = x * 0.5 + w",
+        "end;",
+        "",
+        "procedure fib(k is int)",
+        "    a is int;",
+        "begin",
+        "    if (k < 2) then",
+        "        r = k",
+        "    else",
+        "        fib(k - 1);",
+        "        a = r;",
+        "        fib(k - 2);",
+        "        r = a + r",
+        "    end",
+        "end;",
+        "",
+        "begin",
+        "    read(n);",
+        "    i = 0;",
+        "    s = 0;",
+        "    x = 0;",
+        "    while (i < n) do",
+        "        mix(i, i);",
+        "        accumulate(i - 7);",
+        "        i = i + 1",
+        "    end;",
+        "    fib(20);",
+        "    write(s);",
+        "    write(x);",
+        "    write(r)",
+        "end.",
+        "");
+}
@@ -0,0 +1,101 @@
+package Compiler.Test.Stress;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+import Compiler.Format.Formatter;
+
+/*
+ * Vazão do Formatter sobre um programa gerado, escrevendo num arquivo, e o
+ * pico de heap usado. Rodar com um -Xmx pequeno (por exemplo -Xmx32m) mostra
+ * que a memória não cresce com o tamanho do arquivo. O ProgramGenerator já
+ * escreve no formato do Formatter; a versão "collapsed" é o mesmo programa
+ * numa linha só, com cada sequência de espaços trocada por um espaço.
+ * Depois confere com Formatter.check() que a saída já está formatada.
+ */
+public class FormatterBenchmark {
+
+    public static void main(String[] args) throws IOException {
+        long size = args.length > 0 ? Long.parseLong(args[0]) : 64 * 1024 * 1024;
+        int iterations = args.length > 1 ? Integer.parseInt(args[1]) : 3;
+
+        ProgramGenerator.Options options = new ProgramGenerator.Options();
+        options.targetSize = size;
+        options.commentDensity = 0.3;
+        options.stringDensity = 0.3;
+        options.maxCommentWords = 40;
+        options.maxStringWords = 20;
+        File source = File.createTempFile("format", ".txt");
+        source.deleteOnExit();
+        new ProgramGenerator(options).generate(source.getPath());
+        File collapsed = File.createTempFile("format", ".txt");
+        collapsed.deleteOnExit();
+        collapse(source, collapsed);
+
+        run("formatted", source, iterations);
+        run("collapsed", collapsed, iterations);
+    }
+
+    private static void run(String name, File source, int iterations) throws IOException {
+        File target = File.createTempFile("format", ".out");
+        target.deleteOnExit();
+        long best = Long.MAX_VALUE;
+        long peak = 0;
+        for (int i = 0; i < iterations; i++) {
+            resetPeaks();
+            long start = System.nanoTime();
+            try (Writer out = Files.newBufferedWriter(target.toPath(), StandardCharsets.UTF_8)) {
+                Formatter.format(source.getPath(), out);
+            }
+            best = Math.min(best, System.nanoTime() - start);
+            peak = Math.max(peak, peakHeap());
+        }
+        long start = System.nanoTime();
+        int line = Formatter.check(target.getPath());
+        long check = System.nanoTime() - start;
+        System.out.printf("%-10s %10d -> %10d bytes %9.2f ms %6.1f MB/s  check %9.2f ms  peak heap %5.1f MB of %d MB  %s%n",
+                name, source.length(), target.length(), best / 1e6, source.length() / (best / 1e9) / (1 << 20),
+                check / 1e6, peak / (double) (1 << 20), Runtime.getRuntime().maxMemory() >> 20,
+                line == 0 ? "idempotent" : "NOT idempotent at line " + line);
+        if (line != 0) System.exit(1);
+    }
+
+    /* Cópia do programa com cada sequência de espaços e quebras de linha trocada por um espaço */
+    private static void collapse(File source, File target) throws IOException {
+        try (Reader in = Files.newBufferedReader(source.toPath(), StandardCharsets.UTF_8);
+             Writer out = Files.newBufferedWriter(target.toPath(), StandardCharsets.UTF_8)) {
+            boolean blank = false;
+            for (int c; (c = in.read()) >= 0;) {
+                if (c == ' ' || c == '\n') {
+                    blank = true;
+                    continue;
+                }
+                if (blank) out.write(' ');
+                blank = false;
+                out.write(c);
+            }
+        }
+    }
+
+    private static void resetPeaks() {
+        System.gc();
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP) pool.resetPeakUsage();
+        }
+    }
+
+    private static long peakHeap() {
+        long peak = 0;
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP) peak += pool.getPeakUsage().getUsed();
+        }
+        return peak;
+    }
+}
@@ -0,0 +1,87 @@
+package Compiler.Test.Stress;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+
+import Compiler.Interpreter.Interpreter;
+import Compiler.Lexical.Lexer;
+import Compiler.Runtime.ProgramInput;
+import Compiler.Runtime.ProgramOutput;
+import Compiler.Semantic.SemanticResult;
+import Compiler.SymbolTable.SymbolTable;
+import Compiler.Syntatic.SyntaticAnalyzer;
+import Compiler.Tree.Program;
+
+/*
+ * Laço quente com um corpo enorme e milhares de variáveis, a maioria
+ * temporárias. Compara o LoopCompiler com uma local por variável e um único
+ * método contra a divisão em métodos com reuso de locais. Rodar com
+ * -XX:+PrintCompilation mostra se os métodos gerados chegam ao C2 (nível 4);
+ * o método único passa de 8000 bytes e fica só interpretado pela JVM.
+ * O tempo inclui o javac do laço, feito na primeira volta.
+ */
+public class LargeLoopBenchmark {
+
+    public static void main(String[] args) throws IOException {
+        int variables = args.length > 0 ? Integer.parseInt(args[0]) : 3000;
+        int n = args.length > 1 ? Integer.parseInt(args[1]) : 20_000;
+        int iterations = args.length > 2 ? Integer.parseInt(args[2]) : 2;
+
+        File file = File.createTempFile("largeloop", ".txt");
+        file.deleteOnExit();
+        try (FileWriter writer = new FileWriter(file, StandardCharsets.UTF_8)) {
+            writer.write(program(variables));
+        }
+        SemanticResult result = new SyntaticAnalyzer(new Lexer(file.getPath(), new SymbolTable()), null).start();
+        Program program = (Program) result.node;
+        System.out.println(variables + " variables, " + n + " iterations of the loop");
+
+        for (int i = 0; i < iterations; i++) {
+            boolean last = i == iterations - 1;
+            run(program, n, 65535, 0, last, "one local per variable");
+            run(program, n, 256, 1500, last, "split + shared locals");
+        }
+    }
+
+    /* Cada temporária é escrita e lida só uma vez por volta; s acumula tudo */
+    private static String program(int variables) {
+        Random random = new Random(7);
+        StringBuilder out = new StringBuilder("program large\n    i, n, s is int;\n");
+        for (int v = 0; v < variables; v += 10) {
+            out.append("    ");
+            for (int j = v; j < Math.min(v + 10, variables); j++) out.append(j > v ? ", " : "").append("t").append(j);
+            out.append(" is int;\n");
+        }
+        out.append("begin\n    read(n);\n    i = 0; s = 0;\n    while (i < n) do\n");
+        for (int v = 0; v < variables; v++) {
+            out.append("        t").append(v).append(" = ");
+            if (v == 0) out.append("i + 1");
+            else out.append("t").append(v - 1).append(" * ").append(random.nextInt(5) + 1).append(" - i");
+            out.append(";\n");
+            if (v % 50 == 49) out.append("        s = s + t").append(v).append(" - t").append(v - 7).append(";\n");
+        }
+        out.append("        i = i + 1\n    end;\n    write(s)\nend.\n");
+        return out.toString();
+    }
+
+    private static void run(Program program, int n, int registers, int methodSize, boolean print, String name) {
+        Interpreter interpreter = new Interpreter(
+            new ProgramInput(new ByteArrayInputStream((n + "\n").getBytes(StandardCharsets.US_ASCII))),
+            new ProgramOutput(OutputStream.nullOutputStream()));
+        interpreter.setTierThreshold(1);
+        interpreter.setBackgroundCompilation(false);
+        interpreter.setRegisterLimit(registers);
+        interpreter.setMethodSizeLimit(methodSize);
+        long start = System.nanoTime();
+        interpreter.run(program);
+        long elapsed = System.nanoTime() - start;
+        if (print) {
+            System.out.printf("%-24s %9.2f ms%n", name, elapsed / 1e6);
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package Compiler.Test.Stress;
+
+import java.io.File;
+import java.io.IOException;
+
+import Compiler.Lexical.Lexer;
+import Compiler.Lexical.Tag;
+import Compiler.SymbolTable.SymbolTable;
+
+/* Mede a vazão do Lexer sobre programas gerados com muitos comentários e literais */
+public class LexerBenchmark {
+
+    public static void main(String[] args) throws IOException {
+        long size = args.length > 0 ? Long.parseLong(args[0]) : 16 * 1024 * 1024;
+        int iterations = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+
+        run("plain", size, 0.0, 0.0, iterations);
+        run("comment-heavy", size, 0.9, 0.1, iterations);
+        run("string-heavy", size, 0.1, 0.9, iterations);
+    }
+
+    private static void run(String name, long size, double comments, double strings, int iterations) throws IOException {
+        ProgramGenerator.Options options = new ProgramGenerator.Options();
+        options.targetSize = size;
+        options.commentDensity = comments;
+        options.stringDensity = strings;
+        options.maxCommentWords = 120;
+        options.maxStringWords = 40;
+        File file = File.createTempFile("lexer-" + name, ".txt");
+        file.deleteOnExit();
+        new ProgramGenerator(options).generate(file.getPath());
+
+        long best = Long.MAX_VALUE;
+        long tokens = 0;
+        for (int i = 0; i < iterations; i++) {
+            long start = System.nanoTime();
+            Lexer lexer = new Lexer(file.getPath(), new SymbolTable());
+            tokens = 0;
+            while (lexer.scan().getTag() != Tag.EOF) tokens++;
+            best = Math.min(best, System.nanoTime() - start);
+        }
+        System.out.printf("%-14s %10d bytes %9d tokens %9.2f ms %8.1f MB/s%n", name, file.length(), tokens,
+                best / 1e6, file.length() / (best / 1e9) / (1 << 20));
+    }
+}
@@ -0,0 +1,87 @@
+package Compiler.Test.Stress;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+
+import Compiler.Interpreter.DynamicInterpreter;
+import Compiler.Interpreter.Interpreter;
+import Compiler.Lexical.Lexer;
+import Compiler.Runtime.ProgramInput;
+import Compiler.Runtime.ProgramOutput;
+import Compiler.SymbolTable.SymbolTable;
+import Compiler.Syntatic.SyntaticAnalyzer;
+import Compiler.Tree.Program;
+
+/*
+ * Aritmética mista int/float: o interpretador dinâmico (Number e instanceof a cada
+ * operação) contra o especializado pelos tipos resolvidos na análise semântica,
+ * com e sem compilação dos laços quentes
+ */
+public class MixedArithmeticBenchmark {
+
+    private static final String PROGRAM =
+        "program mixed\n" +
+        "    i, n, k is int;\n" +
+        "    x, y, z is float;\n" +
+        "begin\n" +
+        "    read(n);\n" +
+        "    i = 0; k = 0; x = 1.5; y = 0; z = 0;\n" +
+        "    while (i < n) do\n" +
+        "        y = y + x * i - i / 3;\n" +
+        "        z = z * 0.5 + y / (i + 1);\n" +
+        "        k = k + i * 3 - (i > 10) * 2;\n" +
+        "        if (z > 1000.0) then z = z - 1000 end;\n" +
+        "        i = i + 1\n" +
+        "    end;\n" +
+        "    write(k); write(y); write(z)\n" +
+        "end.\n";
+
+    public static void main(String[] args) throws IOException {
+        int n = args.length > 0 ? Integer.parseInt(args[0]) : 2_000_000;
+        int iterations = args.length > 1 ? Integer.parseInt(args[1]) : 5;
+
+        File file = File.createTempFile("mixed", ".txt");
+        file.deleteOnExit();
+        try (FileWriter writer = new FileWriter(file, StandardCharsets.UTF_8)) {
+            writer.write(PROGRAM);
+        }
+        Program program = (Program) new SyntaticAnalyzer(new Lexer(file.getPath(), new SymbolTable()), null).start().node;
+
+        for (int i = 0; i < iterations; i++) {
+            boolean last = i == iterations - 1;
+
+            long start = System.nanoTime();
+            new DynamicInterpreter(input(n), output()).run(program);
+            report(last, "dynamic", n, start);
+
+            start = System.nanoTime();
+            Interpreter interpreter = new Interpreter(input(n), output());
+            interpreter.setTierThreshold(0);
+            interpreter.run(program);
+            report(last, "specialized", n, start);
+
+            start = System.nanoTime();
+            interpreter = new Interpreter(input(n), output());
+            interpreter.setBackgroundCompilation(false);
+            interpreter.run(program);
+            report(last, "specialized + compiled", n, start);
+        }
+    }
+
+    private static ProgramInput input(int n) {
+        return new ProgramInput(new ByteArrayInputStream((n + "\n").getBytes(StandardCharsets.US_ASCII)));
+    }
+
+    private static ProgramOutput output() {
+        return new ProgramOutput(OutputStream.nullOutputStream());
+    }
+
+    private static void report(boolean last, String name, int n, long start) {
+        long elapsed = System.nanoTime() - start;
+        if (last) System.out.printf("%-24s %9.2f ms %8.1f M iterations/s%n", name, elapsed / 1e6, n / (elapsed / 1e9) / 1e6);
+    }
+}
@@ -0,0 +1,113 @@
+package Compiler.Test.Stress;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import Compiler.Lexical.Lexer;
+import Compiler.Lexical.Tag;
+import Compiler.Lexical.TokenSource;
+import Compiler.Lexical.Tokens.Token;
+import Compiler.Semantic.SemanticResult;
+import Compiler.SymbolTable.SymbolTable;
+import Compiler.Syntatic.SyntaticAnalyzer;
+import Compiler.Syntatic.TableSyntaticAnalyzer;
+import Compiler.Test.Fuzz.TreeDump;
+
+/*
+ * Compara o analisador sintático escrito à mão com o gerado a partir de
+ * Language.grammar. Os tokens são lidos antes (fora do tempo medido) e
+ * reproduzidos da memória, para que a medida seja só da análise sintática.
+ * Antes de medir, confere que as duas árvores são iguais.
+ */
+public class ParserBenchmark {
+
+    private interface Parse {
+        SemanticResult parse(TokenSource tokens, SymbolTable table);
+    }
+
+    /* Tokens de um arquivo, já lidos, com a linha de cada um */
+    private static final class Tokens {
+        final SymbolTable table = new SymbolTable();
+        final List<Token> tokens = new ArrayList<>();
+        final List<Integer> lines = new ArrayList<>();
+
+        Tokens(String file) throws IOException {
+            Lexer lexer = new Lexer(file, table);
+            Token t;
+            do {
+                t = lexer.scan();
+                tokens.add(t);
+                lines.add(lexer.getLine());
+            } while (t.getTag() != Tag.EOF);
+        }
+
+        TokenSource replay() {
+            return new TokenSource() {
+                private int next = 0;
+
+                public Token scan() {
+                    return tokens.get(next < tokens.size() ? next++ : tokens.size() - 1);
+                }
+
+                public int getLine() {
+                    return lines.get(Math.max(next - 1, 0));
+                }
+            };
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        long size = args.length > 0 ? Long.parseLong(args[0]) : 8 * 1024 * 1024;
+        int iterations = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+
+        ProgramGenerator.Options options = new ProgramGenerator.Options();
+        options.targetSize = size;
+        options.commentDensity = 0.0;
+        File file = File.createTempFile("parser", ".txt");
+        file.deleteOnExit();
+        new ProgramGenerator(options).generate(file.getPath());
+
+        Parse recursive = (tokens, table) -> new SyntaticAnalyzer(tokens, table).start();
+        Parse generated = (tokens, table) -> new TableSyntaticAnalyzer(tokens, table).start();
+
+        String expected = dump(recursive, file);
+        if (!expected.equals(dump(generated, file))) {
+            System.err.println("the generated parser builds a different tree");
+            System.exit(1);
+        }
+
+        // Alterna os dois a cada rodada para que o aquecimento do JIT valha para ambos
+        long[] best = { Long.MAX_VALUE, Long.MAX_VALUE };
+        for (int i = 0; i < iterations; i++) {
+            best[0] = Math.min(best[0], time(recursive, file));
+            best[1] = Math.min(best[1], time(generated, file));
+        }
+        int count = new Tokens(file.getPath()).tokens.size();
+        report("recursive", file, count, best[0]);
+        report("table", file, count, best[1]);
+    }
+
+    private static String dump(Parse parse, File file) throws IOException {
+        Tokens tokens = new Tokens(file.getPath());
+        SemanticResult result = parse.parse(tokens.replay(), tokens.table);
+        if (result.isError()) throw new IllegalStateException(result.message);
+        return TreeDump.dump(result.node);
+    }
+
+    private static long time(Parse parse, File file) throws IOException {
+        Tokens tokens = new Tokens(file.getPath());
+        TokenSource source = tokens.replay();
+        long start = System.nanoTime();
+        SemanticResult result = parse.parse(source, tokens.table);
+        long elapsed = System.nanoTime() - start;
+        if (result.isError()) throw new IllegalStateException(result.message);
+        return elapsed;
+    }
+
+    private static void report(String name, File file, int tokens, long best) {
+        System.out.printf("%-10s %10d bytes %9d tokens %9.2f ms %8.1f Mtokens/s%n", name, file.length(), tokens,
+                best / 1e6, tokens / (best / 1e9) / 1e6);
+    }
+}
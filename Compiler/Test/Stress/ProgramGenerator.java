@@ -0,0 +1,222 @@
+package Compiler.Test.Stress;
+
+import java.io.*;
+import java.util.Random;
+
+/*
+ * Gera programas aleatórios válidos segundo a gramática da linguagem, para
+ * testes de escala do Lexer, da SymbolTable e do SyntaticAnalyzer.
+ * Todas as variáveis são declaradas int e as expressões não usam "/", de modo
+ * que os programas gerados também passam pela análise semântica.
+ */
+public class ProgramGenerator {
+
+    /* Parâmetros da geração */
+    public static class Options {
+        public int declarations = 100;      // quantidade de variáveis declaradas
+        public int maxDepth = 4;            // aninhamento máximo de if/while/repeat
+        public int maxExpressionLength = 6; // operandos por expressão
+        public double commentDensity = 0.1; // probabilidade de um comentário antes de cada comando
+        public double stringDensity = 0.1;  // probabilidade de um comando write com literal
+        public int maxCommentWords = 8;     // tamanho máximo de um comentário, em palavras
+        public int maxStringWords = 6;      // tamanho máximo de um literal, em palavras
+        public long targetSize = 64 * 1024; // tamanho aproximado do arquivo em caracteres
+        public long seed = 42;
+    }
+
+    private static final String[] WORDS = {
+        "lorem", "ipsum", "dolor", "sit", "amet", "valor", "soma", "total", "laco", "fim"
+    };
+
+    private final Options options;
+    private final Random random;
+    private final StringBuilder out = new StringBuilder(1 << 14);
+    private Writer writer;
+    private long written;
+
+    public ProgramGenerator(Options options) {
+        this.options = options;
+        this.random = new Random(options.seed);
+    }
+
+    public void generate(String fileName) throws IOException {
+        try (Writer w = new BufferedWriter(new FileWriter(fileName), 1 << 16)) {
+            generate(w);
+        }
+    }
+
+    public String generate() {
+        StringWriter w = new StringWriter();
+        try {
+            generate(w);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return w.toString();
+    }
+
+    /* Escreve um programa completo em w; retorna a quantidade de caracteres escrita */
+    public long generate(Writer w) throws IOException {
+        writer = w;
+        written = 0;
+        out.append("program stress").append(options.seed).append('\n');
+        for (int i = 0; i < options.declarations; i += 8) {
+            out.append("    ");
+            for (int j = i; j < Math.min(i + 8, options.declarations); j++) {
+                if (j > i) out.append(", ");
+                out.append(variable(j));
+            }
+            out.append(" is int;\n");
+        }
+        out.append("begin\n");
+        stmt(1);
+        while (written + out.length() < options.targetSize) {
+            out.append(";\n");
+            stmt(1);
+            flush(false);
+        }
+        out.append("\nend.\n");
+        flush(true);
+        return written;
+    }
+
+    private void flush(boolean force) throws IOException {
+        if (force || out.length() >= 8192) {
+            writer.append(out);
+            written += out.length();
+            out.setLength(0);
+        }
+    }
+
+    // stmt ::= assign-stmt | if-stmt | while-stmt | repeat-stmt | read-stmt | write-stmt
+    private void stmt(int depth) {
+        indent(depth);
+        if (random.nextDouble() < options.commentDensity) {
+            out.append("/* ").append(words(1 + random.nextInt(options.maxCommentWords))).append(" */\n");
+            indent(depth);
+        }
+        int kind = random.nextInt(depth < options.maxDepth ? 9 : 6);
+        switch (kind) {
+            case 0: case 1: case 2:
+                out.append(randomVariable()).append(" = ");
+                expression();
+                break;
+            case 3:
+                out.append("read(").append(randomVariable()).append(')');
+                break;
+            case 4: case 5:
+                out.append("write(");
+                if (random.nextDouble() < options.stringDensity) {
+                    out.append('{').append(words(1 + random.nextInt(options.maxStringWords))).append('}');
+                } else {
+                    expression();
+                }
+                out.append(')');
+                break;
+            case 6:
+                out.append("if ");
+                condition();
+                out.append(" then\n");
+                stmtList(depth + 1);
+                indent(depth);
+                if (random.nextBoolean()) {
+                    out.append("else\n");
+                    stmtList(depth + 1);
+                    indent(depth);
+                }
+                out.append("end");
+                break;
+            case 7:
+                out.append("while ");
+                condition();
+                out.append(" do\n");
+                stmtList(depth + 1);
+                indent(depth);
+                out.append("end");
+                break;
+            default:
+                out.append("repeat\n");
+                stmtList(depth + 1);
+                indent(depth);
+                out.append("until ");
+                condition();
+        }
+    }
+
+    private void stmtList(int depth) {
+        int n = 1 + random.nextInt(3);
+        for (int i = 0; i < n; i++) {
+            if (i > 0) out.append(";\n");
+            stmt(depth);
+        }
+        out.append('\n');
+    }
+
+    private void condition() {
+        simpleExpr(options.maxExpressionLength);
+        out.append(' ').append(RELOPS[random.nextInt(RELOPS.length)]).append(' ');
+        simpleExpr(options.maxExpressionLength);
+    }
+
+    private static final String[] RELOPS = { "==", ">", ">=", "<", "<=", "!=" };
+    private static final String[] OPS = { "+", "-", "*", "+", "-", "*", "||", "&&" };
+
+    private void expression() {
+        simpleExpr(options.maxExpressionLength);
+    }
+
+    // Sequência de operandos separados por addop/mulop, com subexpressões entre parênteses
+    private void simpleExpr(int budget) {
+        int operands = 1 + random.nextInt(Math.max(1, budget));
+        for (int i = 0; i < operands; i++) {
+            if (i > 0) out.append(' ').append(OPS[random.nextInt(OPS.length)]).append(' ');
+            int r = random.nextInt(10);
+            if (r < 5) {
+                out.append(randomVariable());
+            } else if (r < 8) {
+                out.append(random.nextInt(1000));
+            } else if (r < 9 && budget > 2) {
+                out.append('(');
+                simpleExpr(budget / 2);
+                out.append(')');
+            } else {
+                out.append('-').append(randomVariable());
+            }
+        }
+    }
+
+    private String randomVariable() {
+        return variable(random.nextInt(options.declarations));
+    }
+
+    private static String variable(int i) {
+        return "v" + i;
+    }
+
+    private String words(int n) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < n; i++) {
+            if (i > 0) sb.append(' ');
+            sb.append(WORDS[random.nextInt(WORDS.length)]);
+        }
+        return sb.toString();
+    }
+
+    private void indent(int depth) {
+        for (int i = 0; i < depth; i++) out.append("    ");
+    }
+
+    /* Uso: java ProgramGenerator arquivo [tamanho] [declarações] [profundidade] [seed] */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1) {
+            System.out.println("Usage: java ProgramGenerator filename [size] [declarations] [depth] [seed]");
+            return;
+        }
+        Options options = new Options();
+        if (args.length > 1) options.targetSize = Long.parseLong(args[1]);
+        if (args.length > 2) options.declarations = Integer.parseInt(args[2]);
+        if (args.length > 3) options.maxDepth = Integer.parseInt(args[3]);
+        if (args.length > 4) options.seed = Long.parseLong(args[4]);
+        new ProgramGenerator(options).generate(args[0]);
+    }
+}
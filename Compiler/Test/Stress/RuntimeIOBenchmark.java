@@ -0,0 +1,110 @@
+package Compiler.Test.Stress;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+import java.util.Scanner;
+
+import Compiler.Runtime.ProgramInput;
+import Compiler.Runtime.ProgramOutput;
+
+/* Compara ProgramInput/ProgramOutput com Scanner, BufferedReader e PrintStream lendo e escrevendo milhões de valores */
+public class RuntimeIOBenchmark {
+
+    private static final OutputStream NULL = OutputStream.nullOutputStream();
+
+    public static void main(String[] args) throws IOException {
+        int count = args.length > 0 ? Integer.parseInt(args[0]) : 2_000_000;
+        int iterations = args.length > 1 ? Integer.parseInt(args[1]) : 5;
+
+        Random random = new Random(42);
+        long[] ints = new long[count];
+        double[] floats = new double[count];
+        for (int i = 0; i < count; i++) {
+            ints[i] = random.nextInt() - random.nextInt(1000);
+            // Valores com poucas casas decimais, como os digitados na entrada de um programa
+            floats[i] = (random.nextInt(200_000_000) - 100_000_000) / 1000.0;
+        }
+        byte[] intInput = text(ints, null);
+        byte[] floatInput = text(null, floats);
+        long sink = 0;
+
+        for (int it = 0; it < iterations; it++) {
+            boolean last = it == iterations - 1;
+
+            long start = System.nanoTime();
+            ProgramInput input = new ProgramInput(new ByteArrayInputStream(intInput));
+            for (int i = 0; i < count; i++) sink += input.readInt();
+            report(last, "read int   ProgramInput", count, start);
+
+            start = System.nanoTime();
+            BufferedReader reader = new BufferedReader(new InputStreamReader(new ByteArrayInputStream(intInput), StandardCharsets.UTF_8));
+            for (int i = 0; i < count; i++) sink += Long.parseLong(reader.readLine());
+            report(last, "read int   BufferedReader", count, start);
+
+            if (count <= 2_000_000) {
+                start = System.nanoTime();
+                Scanner scanner = new Scanner(new ByteArrayInputStream(intInput), "UTF-8");
+                for (int i = 0; i < count; i++) sink += scanner.nextLong();
+                report(last, "read int   Scanner", count, start);
+            }
+
+            start = System.nanoTime();
+            input = new ProgramInput(new ByteArrayInputStream(floatInput));
+            for (int i = 0; i < count; i++) sink += (long) input.readFloat();
+            report(last, "read float ProgramInput", count, start);
+
+            start = System.nanoTime();
+            reader = new BufferedReader(new InputStreamReader(new ByteArrayInputStream(floatInput), StandardCharsets.UTF_8));
+            for (int i = 0; i < count; i++) sink += (long) Double.parseDouble(reader.readLine());
+            report(last, "read float BufferedReader", count, start);
+
+            start = System.nanoTime();
+            ProgramOutput output = new ProgramOutput(NULL);
+            for (int i = 0; i < count; i++) output.writeInt(ints[i]);
+            output.flush();
+            report(last, "write int   ProgramOutput", count, start);
+
+            start = System.nanoTime();
+            PrintStream print = new PrintStream(new java.io.BufferedOutputStream(NULL, 1 << 16), false);
+            for (int i = 0; i < count; i++) print.println(ints[i]);
+            print.flush();
+            report(last, "write int   PrintStream", count, start);
+
+            start = System.nanoTime();
+            output = new ProgramOutput(NULL);
+            for (int i = 0; i < count; i++) output.writeFloat(floats[i]);
+            output.flush();
+            report(last, "write float ProgramOutput", count, start);
+
+            start = System.nanoTime();
+            print = new PrintStream(new java.io.BufferedOutputStream(NULL, 1 << 16), false);
+            for (int i = 0; i < count; i++) print.println(floats[i]);
+            print.flush();
+            report(last, "write float PrintStream", count, start);
+        }
+        System.out.println("checksum " + sink);
+    }
+
+    // Um valor por linha, no formato que o programa leria
+    private static byte[] text(long[] ints, double[] floats) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        PrintStream print = new PrintStream(bytes, false, StandardCharsets.UTF_8);
+        if (ints != null) for (long value : ints) print.println(value);
+        if (floats != null) for (double value : floats) print.println(value);
+        print.flush();
+        return bytes.toByteArray();
+    }
+
+    // Só a última iteração é impressa; as anteriores servem de aquecimento
+    private static void report(boolean last, String name, int count, long start) {
+        long elapsed = System.nanoTime() - start;
+        if (last) System.out.printf("%-26s %9.2f ms %8.1f M values/s%n", name, elapsed / 1e6, count / (elapsed / 1e9) / 1e6);
+    }
+}
@@ -0,0 +1,133 @@
+package Compiler.Test.Stress;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+
+import Compiler.Lexical.Lexer;
+import Compiler.Lexical.Tag;
+import Compiler.Lexical.Tokens.Token;
+import Compiler.Lexical.Tokens.Word;
+import Compiler.SymbolTable.SymbolTable;
+import Compiler.Syntatic.SyntaticAnalyzer;
+
+/*
+ * Mede tempo e memória de cada fase contra o tamanho da entrada, dobrando o
+ * tamanho do programa gerado a cada passo, e aponta crescimento não linear.
+ */
+public class ScalingTest {
+
+    private static final String[] PHASES = { "lex", "symtab", "parse" };
+
+    // Expoente acima do qual o crescimento é considerado não linear
+    private static final double NON_LINEAR_EXPONENT = 1.3;
+    // Medições abaixo disso são ruído demais para comparar
+    private static final long MIN_NANOS = 5_000_000;
+
+    private static final com.sun.management.ThreadMXBean threads =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    public static void main(String[] args) throws IOException {
+        long minSize = args.length > 0 ? Long.parseLong(args[0]) : 64 * 1024;
+        long maxSize = args.length > 1 ? Long.parseLong(args[1]) : 8 * 1024 * 1024;
+        int repetitions = args.length > 2 ? Integer.parseInt(args[2]) : 3;
+
+        ArrayList<long[]> rows = new ArrayList<>();
+        System.out.printf("%12s %8s %10s | %12s %12s %12s | %12s %12s %12s | %12s%n",
+                "size", "tokens", "idents", "lex ms", "symtab ms", "parse ms",
+                "lex alloc", "symtab alloc", "parse alloc", "retained");
+
+        for (long size = minSize; size <= maxSize; size *= 2) {
+            ProgramGenerator.Options options = new ProgramGenerator.Options();
+            options.targetSize = size;
+            options.declarations = (int) Math.max(100, size / 512);
+            File file = File.createTempFile("scaling", ".txt");
+            file.deleteOnExit();
+            new ProgramGenerator(options).generate(file.getPath());
+
+            long[] row = new long[10];
+            row[0] = file.length();
+            for (int p = 0; p < 3; p++) {
+                row[3 + p] = Long.MAX_VALUE;
+                row[6 + p] = Long.MAX_VALUE;
+            }
+            for (int r = 0; r < repetitions; r++) {
+                measure(file.getPath(), row);
+            }
+            rows.add(row);
+            System.out.printf("%12d %8d %10d | %12.2f %12.2f %12.2f | %12d %12d %12d | %12d%n",
+                    row[0], row[1], row[2], row[3] / 1e6, row[4] / 1e6, row[5] / 1e6,
+                    row[6], row[7], row[8], row[9]);
+        }
+
+        boolean linear = true;
+        for (int i = 1; i < rows.size(); i++) {
+            long[] a = rows.get(i - 1), b = rows.get(i);
+            for (int p = 0; p < 3; p++) {
+                linear &= check(PHASES[p] + " time", a[0], b[0], a[3 + p], b[3 + p], MIN_NANOS);
+                linear &= check(PHASES[p] + " allocation", a[0], b[0], a[6 + p], b[6 + p], 1 << 20);
+            }
+            linear &= check("retained heap", a[0], b[0], a[9], b[9], 1 << 20);
+        }
+        System.out.println(linear ? "All phases scale linearly." : "Non-linear behavior detected.");
+    }
+
+    /* Executa as três fases uma vez sobre o arquivo, guardando o melhor resultado em row */
+    private static void measure(String fileName, long[] row) throws IOException {
+        long thread = Thread.currentThread().getId();
+
+        SymbolTable table = new SymbolTable();
+        ArrayList<String> identifiers = new ArrayList<>();
+        long a0 = threads.getThreadAllocatedBytes(thread);
+        long t0 = System.nanoTime();
+        Lexer lexer = new Lexer(fileName, table);
+        long tokens = 0;
+        Token t;
+        do {
+            t = lexer.scan();
+            tokens++;
+            if (t.getTag() == Tag.ID) identifiers.add(((Word) t).getLexeme());
+        } while (t.getTag() != Tag.EOF);
+        long t1 = System.nanoTime();
+        long a1 = threads.getThreadAllocatedBytes(thread);
+
+        int found = 0;
+        for (String s : identifiers) {
+            if (table.get(s) != null) found++;
+        }
+        long t2 = System.nanoTime();
+        long a2 = threads.getThreadAllocatedBytes(thread);
+
+        SymbolTable parseTable = new SymbolTable();
+        new SyntaticAnalyzer(new Lexer(fileName, parseTable), parseTable).start();
+        long t3 = System.nanoTime();
+        long a3 = threads.getThreadAllocatedBytes(thread);
+
+        System.gc();
+        Runtime runtime = Runtime.getRuntime();
+        long retained = runtime.totalMemory() - runtime.freeMemory();
+        if (parseTable.get("v0") == null) retained = 0; // mantém a tabela viva até aqui
+
+        row[1] = tokens;
+        row[2] = found;
+        row[3] = Math.min(row[3], t1 - t0);
+        row[4] = Math.min(row[4], t2 - t1);
+        row[5] = Math.min(row[5], t3 - t2);
+        row[6] = Math.min(row[6], a1 - a0);
+        row[7] = Math.min(row[7], a2 - a1);
+        row[8] = Math.min(row[8], a3 - a2);
+        row[9] = retained;
+    }
+
+    /* Compara o crescimento de uma métrica com o crescimento da entrada */
+    private static boolean check(String what, long size1, long size2, long v1, long v2, long floor) {
+        if (v1 < floor || v2 < floor) return true;
+        double exponent = Math.log((double) v2 / v1) / Math.log((double) size2 / size1);
+        if (exponent > NON_LINEAR_EXPONENT) {
+            System.out.printf("WARNING: %s grows as n^%.2f between %d and %d bytes%n", what, exponent, size1, size2);
+            return false;
+        }
+        return true;
+    }
+}
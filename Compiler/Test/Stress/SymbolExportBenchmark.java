@@ -0,0 +1,76 @@
+package Compiler.Test.Stress;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+
+import Compiler.Lexical.Lexer;
+import Compiler.SymbolTable.SymbolTable;
+import Compiler.SymbolTable.Export.SymbolExportReader;
+import Compiler.SymbolTable.Export.SymbolExportWriter;
+import Compiler.SymbolTable.Export.SymbolTextDump;
+import Compiler.Syntatic.SyntaticAnalyzer;
+import Compiler.Tree.Variable;
+
+/* Export de uma tabela com muitas declarações: gravação, abertura, busca de todos os nomes e listagem */
+public class SymbolExportBenchmark {
+
+    public static void main(String[] args) throws IOException {
+        int declarations = args.length > 0 ? Integer.parseInt(args[0]) : 200_000;
+        int iterations = args.length > 1 ? Integer.parseInt(args[1]) : 5;
+
+        ProgramGenerator.Options options = new ProgramGenerator.Options();
+        options.declarations = declarations;
+        options.targetSize = 1024;
+        File source = File.createTempFile("symbols", ".txt");
+        File export = File.createTempFile("symbols", ".sym");
+        source.deleteOnExit();
+        export.deleteOnExit();
+        new ProgramGenerator(options).generate(source.getPath());
+
+        long start = System.nanoTime();
+        SymbolTable table = new SymbolTable();
+        SyntaticAnalyzer analyzer = new SyntaticAnalyzer(new Lexer(source.getPath(), table), table);
+        analyzer.start();
+        java.util.List<Variable> variables = analyzer.getVariables();
+        System.out.printf("front end                %9.2f ms (%d symbols)%n", (System.nanoTime() - start) / 1e6, variables.size());
+
+        OutputStream none = OutputStream.nullOutputStream();
+        for (int it = 0; it < iterations; it++) {
+            boolean last = it == iterations - 1;
+
+            start = System.nanoTime();
+            SymbolExportWriter.write(table, variables, analyzer.getProcedures(), export.getPath());
+            report(last, "write export", start);
+
+            start = System.nanoTime();
+            SymbolExportReader reader = new SymbolExportReader(export.getPath());
+            report(last, "open export", start);
+
+            start = System.nanoTime();
+            long found = 0;
+            for (Variable variable : variables) {
+                if (reader.find(variable.getName()) == variable.slot) found++;
+            }
+            report(last, "find every name", start);
+            if (found != variables.size()) throw new IllegalStateException("Lookup mismatch: " + found);
+
+            start = System.nanoTime();
+            SymbolTextDump.write(reader, none);
+            report(last, "sorted text dump", start);
+
+            PrintStream out = System.out;
+            System.setOut(new PrintStream(none));
+            start = System.nanoTime();
+            table.printSymbolTable();
+            System.setOut(out);
+            report(last, "printSymbolTable", start);
+        }
+        System.out.println("export size " + export.length() + " bytes");
+    }
+
+    private static void report(boolean last, String name, long start) {
+        if (last) System.out.printf("%-24s %9.2f ms%n", name, (System.nanoTime() - start) / 1e6);
+    }
+}
@@ -0,0 +1,74 @@
+package Compiler.Test.Stress;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+
+import Compiler.Interpreter.Interpreter;
+import Compiler.Lexical.Lexer;
+import Compiler.Runtime.ProgramInput;
+import Compiler.Runtime.ProgramOutput;
+import Compiler.Semantic.SemanticResult;
+import Compiler.SymbolTable.SymbolTable;
+import Compiler.Syntatic.SyntaticAnalyzer;
+import Compiler.Tree.Program;
+
+/* Tempo de um programa dominado por laços aninhados: só interpretado e com os laços quentes compilados */
+public class TieringBenchmark {
+
+    private static final String PROGRAM =
+        "program hot\n" +
+        "    i, j, n, s is int;\n" +
+        "    f is float;\n" +
+        "begin\n" +
+        "    read(n);\n" +
+        "    i = 0; s = 0; f = 0;\n" +
+        "    while (i < n) do\n" +
+        "        j = 0;\n" +
+        "        repeat\n" +
+        "            s = s + i * j - (s / 7 > 100000) * 3;\n" +
+        "            f = f + j / 3;\n" +
+        "            j = j + 1\n" +
+        "        until j >= 100;\n" +
+        "        i = i + 1\n" +
+        "    end;\n" +
+        "    write(s);\n" +
+        "    write(f)\n" +
+        "end.\n";
+
+    public static void main(String[] args) throws IOException {
+        int n = args.length > 0 ? Integer.parseInt(args[0]) : 100_000;
+        int iterations = args.length > 1 ? Integer.parseInt(args[1]) : 5;
+
+        File file = File.createTempFile("tiering", ".txt");
+        file.deleteOnExit();
+        try (FileWriter writer = new FileWriter(file, StandardCharsets.UTF_8)) {
+            writer.write(PROGRAM);
+        }
+
+        for (int i = 0; i < iterations; i++) {
+            boolean last = i == iterations - 1;
+            run(file, n, 0, true, last, "interpreted");
+            run(file, n, 1000, false, last, "compiled (sync)");
+            run(file, n, 1000, true, last, "compiled (background)");
+        }
+    }
+
+    private static void run(File file, int n, int threshold, boolean background, boolean print, String name) throws IOException {
+        long start = System.nanoTime();
+        SemanticResult result = new SyntaticAnalyzer(new Lexer(file.getPath(), new SymbolTable()), null).start();
+        Interpreter interpreter = new Interpreter(
+            new ProgramInput(new ByteArrayInputStream((n + "\n").getBytes(StandardCharsets.US_ASCII))),
+            new ProgramOutput(OutputStream.nullOutputStream()));
+        interpreter.setTierThreshold(threshold);
+        interpreter.setBackgroundCompilation(background);
+        interpreter.run((Program) result.node);
+        long elapsed = System.nanoTime() - start;
+        if (print) {
+            System.out.printf("%-22s %9.2f ms %8.1f M iterations/s%n", name, elapsed / 1e6, n * 100.0 / (elapsed / 1e9) / 1e6);
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package Compiler.Test.Stress;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+
+import Compiler.Bytecode.BytecodeCompiler;
+import Compiler.Bytecode.BytecodeProgram;
+import Compiler.Bytecode.Vm;
+import Compiler.Lexical.Lexer;
+import Compiler.Runtime.ProgramInput;
+import Compiler.Runtime.ProgramOutput;
+import Compiler.Semantic.SemanticResult;
+import Compiler.SymbolTable.SymbolTable;
+import Compiler.Syntatic.SyntaticAnalyzer;
+import Compiler.Tree.Program;
+
+/* Instruções despachadas e tempo da Vm com e sem superinstruções no mesmo programa */
+public class VmDispatchBenchmark {
+
+    private static final String PROGRAM =
+        "program dispatch\n" +
+        "    i, j, n, s, t is int;\n" +
+        "    f, g is float;\n" +
+        "begin\n" +
+        "    read(n);\n" +
+        "    i = 0; s = 0; f = 0; g = 1.5;\n" +
+        "    while (i < n) do\n" +
+        "        j = 0;\n" +
+        "        repeat\n" +
+        "            t = i * j;\n" +
+        "            s = s + t;\n" +
+        "            s = s - j;\n" +
+        "            f = f + g;\n" +
+        "            j = j + 1\n" +
+        "        until j >= 100;\n" +
+        "        i = i + 1\n" +
+        "    end;\n" +
+        "    write(s);\n" +
+        "    write(f)\n" +
+        "end.\n";
+
+    public static void main(String[] args) throws IOException {
+        int n = args.length > 0 ? Integer.parseInt(args[0]) : 20_000;
+        int iterations = args.length > 1 ? Integer.parseInt(args[1]) : 5;
+
+        File file = File.createTempFile("dispatch", ".txt");
+        file.deleteOnExit();
+        try (FileWriter writer = new FileWriter(file, StandardCharsets.UTF_8)) {
+            writer.write(PROGRAM);
+        }
+        SemanticResult result = new SyntaticAnalyzer(new Lexer(file.getPath(), new SymbolTable()), null).start();
+        Program program = (Program) result.node;
+        BytecodeProgram plain = BytecodeCompiler.compile(program, false);
+        BytecodeProgram fused = BytecodeCompiler.compile(program, true);
+
+        System.out.printf("code size: %d words plain, %d words with superinstructions%n", plain.code.length, fused.code.length);
+        System.out.printf("dispatched: %d plain, %d with superinstructions%n", count(plain, n), count(fused, n));
+        for (int i = 0; i < iterations; i++) {
+            boolean last = i == iterations - 1;
+            run(plain, n, last, "plain");
+            run(fused, n, last, "superinstructions");
+        }
+    }
+
+    private static long count(BytecodeProgram program, int n) {
+        Vm vm = vm(n);
+        vm.setCounting(true);
+        vm.run(program);
+        return vm.getDispatched();
+    }
+
+    private static void run(BytecodeProgram program, int n, boolean print, String name) {
+        long start = System.nanoTime();
+        vm(n).run(program);
+        long elapsed = System.nanoTime() - start;
+        if (print) {
+            System.out.printf("%-18s %9.2f ms %8.1f M iterations/s%n", name, elapsed / 1e6, n * 100.0 / (elapsed / 1e9) / 1e6);
+        }
+    }
+
+    private static Vm vm(int n) {
+        return new Vm(new ProgramInput(new ByteArrayInputStream((n + "\n").getBytes(StandardCharsets.US_ASCII))),
+            new ProgramOutput(OutputStream.nullOutputStream()));
+    }
+}
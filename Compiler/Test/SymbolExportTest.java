@@ -0,0 +1,43 @@
+package Compiler.Test;
+
+import Compiler.Lexical.Lexer;
+import Compiler.SymbolTable.SymbolTable;
+import Compiler.SymbolTable.Export.SymbolExportReader;
+import Compiler.SymbolTable.Export.SymbolExportWriter;
+import Compiler.SymbolTable.Export.SymbolTextDump;
+import Compiler.Syntatic.SyntaticAnalyzer;
+
+public class SymbolExportTest {
+    public static void main(String[] args) {
+        if(args.length < 2){
+            System.out.println("Usage: java SymbolExportTest filename export.sym");
+            System.out.println("       java SymbolExportTest --dump export.sym");
+            System.out.println("       java SymbolExportTest --lookup export.sym name...");
+            return;
+        }
+
+        try{
+            if(args[0].equals("--dump")){
+                SymbolTextDump.write(new SymbolExportReader(args[1]), System.out);
+            } else if(args[0].equals("--lookup")){
+                //Consulta o export sem passar pelo Lexer nem pelo SyntaticAnalyzer
+                SymbolExportReader export = new SymbolExportReader(args[1]);
+                for(int i = 2; i < args.length; i++){
+                    int id = export.find(args[i]);
+                    if(id < 0) System.out.println(args[i] + "\tnot found");
+                    else System.out.println(args[i] + "\tid " + id + "\t" + export.type(id) + "\tline " + export.declarationLine(id));
+                }
+            } else {
+                SymbolTable symbolTable = new SymbolTable();
+                SyntaticAnalyzer syntaticAnalyzer = new SyntaticAnalyzer(new Lexer(args[0], symbolTable), symbolTable);
+                //Erros semânticos não impedem o export: identificadores sem declaração saem sem tipo.
+                //Só o escopo global é exportado; os nomes dos procedimentos ficam de fora
+                syntaticAnalyzer.start();
+                int count = SymbolExportWriter.write(symbolTable, syntaticAnalyzer.getVariables(), syntaticAnalyzer.getProcedures(), args[1]);
+                System.out.println("Exported " + count + " symbols to " + args[1]);
+            }
+        } catch(Exception e) {
+            System.out.println(e.getMessage());
+        }
+    }
+}
@@ -1,24 +1,32 @@
 package Compiler.Test;
 
 import Compiler.Lexical.Lexer;
+import Compiler.Lexical.TokenSource;
+import Compiler.Lexical.Snapshot.TokenSnapshotReader;
+import Compiler.Metrics.Metrics;
 import Compiler.SymbolTable.SymbolTable;
 import Compiler.Syntatic.SyntaticAnalyzer;
 
 public class SyntaticTest {
     public static void main(String[] args) {
+        args = Metrics.configure(args);
         if(args.length < 1){
-            System.out.println("Usage: java SyntaticTest filename");
+            System.out.println("Usage: java SyntaticTest [--stats] [--stats-file=metrics.prom] filename");
             return;
         }
         
         try{
             SymbolTable symbolTable = new SymbolTable();
-            Lexer lexer = new Lexer(args[0], symbolTable);
+            //Arquivos .tks são snapshots de tokens gravados pelo TokenSnapshotWriter
+            TokenSource lexer = args[0].endsWith(".tks")
+                                ? new TokenSnapshotReader(args[0], symbolTable)
+                                : new Lexer(args[0], symbolTable);
             SyntaticAnalyzer syntaticAnalyzer = new SyntaticAnalyzer(lexer, symbolTable);
             syntaticAnalyzer.start();
             System.out.println("Syntatic Analysis completed successfully!");
         } catch(Exception e) {
             System.out.println(e.getMessage());
         }
+        Metrics.finish();
     }
 }
@@ -0,0 +1,66 @@
+package Compiler.Test;
+
+import Compiler.Bytecode.BytecodeCompiler;
+import Compiler.Bytecode.BytecodeLoader;
+import Compiler.Bytecode.BytecodeProgram;
+import Compiler.Bytecode.BytecodeWriter;
+import Compiler.Bytecode.Vm;
+import Compiler.Lexical.Lexer;
+import Compiler.Runtime.ProgramInput;
+import Compiler.Runtime.ProgramOutput;
+import Compiler.Semantic.SemanticResult;
+import Compiler.SymbolTable.SymbolTable;
+import Compiler.Syntatic.SyntaticAnalyzer;
+import Compiler.Tree.Program;
+
+public class VmTest {
+    public static void main(String[] args) {
+        boolean superinstructions = true;
+        boolean dump = false;
+        boolean counting = false;
+        String emit = null;
+        int first = 0;
+        while(first < args.length && args[first].startsWith("--")){
+            if(args[first].equals("--no-super")) superinstructions = false;
+            else if(args[first].equals("--dump")) dump = true;
+            else if(args[first].equals("--count")) counting = true;
+            else if(args[first].startsWith("--emit=")) emit = args[first].substring(7);
+            first++;
+        }
+        if(args.length <= first){
+            System.out.println("Usage: java VmTest [--no-super] [--dump] [--count] [--emit=file.tbc] filename < input");
+            System.out.println("       java VmTest [--dump] [--count] file.tbc < input");
+            return;
+        }
+
+        try{
+            BytecodeProgram program;
+            if(args[first].endsWith(".tbc")){
+                program = BytecodeLoader.load(args[first]);
+            } else {
+                SymbolTable symbolTable = new SymbolTable();
+                SemanticResult result = new SyntaticAnalyzer(new Lexer(args[first], symbolTable), symbolTable).start();
+                if(result.isError()) {
+                    System.out.println(result.message);
+                    return;
+                }
+                program = BytecodeCompiler.compile((Program) result.node, superinstructions);
+            }
+            if(dump) {
+                //A listagem vai para stderr para não se misturar com a saída do programa
+                program.disassemble(System.err);
+            }
+            if(emit != null) {
+                BytecodeWriter.write(program, emit);
+                System.err.println("Wrote " + program.code.length + " words to " + emit);
+                return;
+            }
+            Vm vm = new Vm(new ProgramInput(System.in), new ProgramOutput(System.out));
+            vm.setCounting(counting);
+            vm.run(program);
+            if(counting) System.err.println(vm.getDispatched() + " instructions dispatched");
+        } catch(Exception e) {
+            System.out.println(e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package Compiler.Tree;
+
+// assign-stmt ::= identifier ["[" simple-expr "]"] "=" simple_expr
+public class Assign extends Stmt {
+    public final Variable target;
+    public final Expr index;    // null numa variável simples
+    public final Expr value;
+
+    public Assign(int line, Variable target, Expr value) {
+        this(line, target, null, value);
+    }
+
+    public Assign(int line, Variable target, Expr index, Expr value) {
+        super(line);
+        this.target = target;
+        this.index = index;
+        this.value = value;
+    }
+}
@@ -0,0 +1,18 @@
+package Compiler.Tree;
+
+import Compiler.Semantic.SemanticResultType;
+
+/* Operação binária; op é a tag do operador (relop, addop ou mulop).
+   Os operandos já chegam convertidos para o mesmo tipo quando um deles é float */
+public class Binary extends Expr {
+    public final int op;
+    public final Expr left;
+    public final Expr right;
+
+    public Binary(int line, int op, Expr left, Expr right, SemanticResultType type) {
+        super(line, type);
+        this.op = op;
+        this.left = left;
+        this.right = right;
+    }
+}
@@ -0,0 +1,13 @@
+package Compiler.Tree;
+
+import java.util.List;
+
+// stmt-list ::= stmt {";" stmt}
+public class Block extends Stmt {
+    public final List<Stmt> statements;
+
+    public Block(int line, List<Stmt> statements) {
+        super(line);
+        this.statements = statements;
+    }
+}
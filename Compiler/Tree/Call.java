@@ -0,0 +1,17 @@
+package Compiler.Tree;
+
+import java.util.List;
+
+// call-stmt ::= identifier "(" [simple-expr {"," simple-expr}] ")"
+public class Call extends Stmt {
+    public final String name;
+    public final int procedure;         // índice em Program.procedures
+    public final List<Expr> arguments;  // já convertidos para o tipo de cada parâmetro
+
+    public Call(int line, String name, int procedure, List<Expr> arguments) {
+        super(line);
+        this.name = name;
+        this.procedure = procedure;
+        this.arguments = arguments;
+    }
+}
@@ -0,0 +1,12 @@
+package Compiler.Tree;
+
+import Compiler.Semantic.SemanticResultType;
+
+public class CharLiteral extends Expr {
+    public final char value;
+
+    public CharLiteral(int line, char value) {
+        super(line, SemanticResultType.TYPE_CHAR);
+        this.value = value;
+    }
+}
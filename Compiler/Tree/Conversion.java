@@ -0,0 +1,18 @@
+package Compiler.Tree;
+
+import Compiler.Semantic.SemanticResultType;
+
+/* Conversão implícita de int/char para float, inserida pela análise semântica */
+public class Conversion extends Expr {
+    public final Expr operand;
+
+    public Conversion(Expr operand) {
+        super(operand.line, SemanticResultType.TYPE_FLOAT);
+        this.operand = operand;
+    }
+
+    /* Converte para float quando preciso; expressões já float voltam inalteradas */
+    public static Expr toFloat(Expr expr) {
+        return expr == null || expr.isFloat() ? expr : new Conversion(expr);
+    }
+}
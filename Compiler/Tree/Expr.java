@@ -0,0 +1,17 @@
+package Compiler.Tree;
+
+import Compiler.Semantic.SemanticResultType;
+
+/* Expressão com o tipo resolvido pela análise semântica (int, float ou char) */
+public abstract class Expr extends Node {
+    public final SemanticResultType type;
+
+    protected Expr(int line, SemanticResultType type) {
+        super(line);
+        this.type = type;
+    }
+
+    public boolean isFloat() {
+        return type == SemanticResultType.TYPE_FLOAT;
+    }
+}
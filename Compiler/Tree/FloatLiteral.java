@@ -0,0 +1,12 @@
+package Compiler.Tree;
+
+import Compiler.Semantic.SemanticResultType;
+
+public class FloatLiteral extends Expr {
+    public final double value;
+
+    public FloatLiteral(int line, double value) {
+        super(line, SemanticResultType.TYPE_FLOAT);
+        this.value = value;
+    }
+}
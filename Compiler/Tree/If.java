@@ -0,0 +1,15 @@
+package Compiler.Tree;
+
+// if-stmt ::= if condition then stmt-list end-else
+public class If extends Stmt {
+    public final Expr condition;
+    public final Block then;
+    public final Block otherwise; // null sem else
+
+    public If(int line, Expr condition, Block then, Block otherwise) {
+        super(line);
+        this.condition = condition;
+        this.then = then;
+        this.otherwise = otherwise;
+    }
+}
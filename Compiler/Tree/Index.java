@@ -0,0 +1,13 @@
+package Compiler.Tree;
+
+// factor ::= identifier "[" simple-expr "]"       (elemento de um arranjo; o índice é int)
+public class Index extends Expr {
+    public final Variable array;
+    public final Expr index;
+
+    public Index(int line, Variable array, Expr index) {
+        super(line, array.getType());
+        this.array = array;
+        this.index = index;
+    }
+}
@@ -0,0 +1,12 @@
+package Compiler.Tree;
+
+import Compiler.Semantic.SemanticResultType;
+
+public class IntLiteral extends Expr {
+    public final long value;
+
+    public IntLiteral(int line, long value) {
+        super(line, SemanticResultType.TYPE_INT);
+        this.value = value;
+    }
+}
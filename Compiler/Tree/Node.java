@@ -0,0 +1,10 @@
+package Compiler.Tree;
+
+/* Nó da árvore sintática montada pelo SyntaticAnalyzer */
+public abstract class Node {
+    public final int line;
+
+    protected Node(int line) {
+        this.line = line;
+    }
+}
@@ -0,0 +1,21 @@
+package Compiler.Tree;
+
+import java.util.List;
+
+// proc-decl ::= procedure identifier "(" [param-list] ")" [decl-list] begin stmt-list end ";"
+public class Procedure extends Node {
+    public final String name;
+    public final int index;                 // posição em Program.procedures; as chamadas usam o índice
+    public final List<Variable> parameters; // na ordem dos argumentos
+    public final List<Variable> locals;     // declaradas no decl-list do procedimento
+    public final Block body;
+
+    public Procedure(int line, String name, int index, List<Variable> parameters, List<Variable> locals, Block body) {
+        super(line);
+        this.name = name;
+        this.index = index;
+        this.parameters = parameters;
+        this.locals = locals;
+        this.body = body;
+    }
+}
@@ -0,0 +1,19 @@
+package Compiler.Tree;
+
+import java.util.List;
+
+// program ::= program identifier [decl-list] {proc-decl} begin stmt-list end "."
+public class Program extends Node {
+    public final String name;
+    public final List<Variable> variables;   // todas, na ordem dos slots: globais, depois parâmetros e locais
+    public final List<Procedure> procedures; // na ordem de declaração, Procedure.index é a posição
+    public final Block body;
+
+    public Program(int line, String name, List<Variable> variables, List<Procedure> procedures, Block body) {
+        super(line);
+        this.name = name;
+        this.variables = variables;
+        this.procedures = procedures;
+        this.body = body;
+    }
+}
@@ -0,0 +1,17 @@
+package Compiler.Tree;
+
+// read-stmt ::= read "(" identifier ["[" simple-expr "]"] ")"
+public class Read extends Stmt {
+    public final Variable target;
+    public final Expr index;    // null numa variável simples
+
+    public Read(int line, Variable target) {
+        this(line, target, null);
+    }
+
+    public Read(int line, Variable target, Expr index) {
+        super(line);
+        this.target = target;
+        this.index = index;
+    }
+}
@@ -0,0 +1,13 @@
+package Compiler.Tree;
+
+// repeat-stmt ::= repeat stmt-list stmt-suffix
+public class Repeat extends Stmt {
+    public final Block body;
+    public final Expr condition;
+
+    public Repeat(int line, Block body, Expr condition) {
+        super(line);
+        this.body = body;
+        this.condition = condition;
+    }
+}
@@ -0,0 +1,7 @@
+package Compiler.Tree;
+
+public abstract class Stmt extends Node {
+    protected Stmt(int line) {
+        super(line);
+    }
+}
@@ -0,0 +1,13 @@
+package Compiler.Tree;
+
+// factor-a ::= "!" factor | "-" factor
+public class Unary extends Expr {
+    public final int op;
+    public final Expr operand;
+
+    public Unary(int line, int op, Expr operand) {
+        super(line, operand.type);
+        this.op = op;
+        this.operand = operand;
+    }
+}
@@ -0,0 +1,10 @@
+package Compiler.Tree;
+
+public class VarRef extends Expr {
+    public final Variable variable;
+
+    public VarRef(int line, Variable variable) {
+        super(line, variable == null ? null : variable.getType());
+        this.variable = variable;
+    }
+}
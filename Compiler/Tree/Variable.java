@@ -0,0 +1,51 @@
+package Compiler.Tree;
+
+import Compiler.Lexical.Tokens.Word;
+import Compiler.Semantic.SemanticResultType;
+
+/* Variável declarada num decl-list (do programa ou de um procedimento) ou
+   parâmetro de um procedimento; slot é sua posição na memória do programa e
+   line a linha da primeira declaração. Cada procedimento tem seus próprios
+   slots, então o mesmo nome pode ser duas variáveis em escopos diferentes.
+   Um arranjo (x is int[10]) ocupa um slot só; type é o tipo dos elementos */
+public class Variable {
+    // Maior tamanho aceito numa declaração de arranjo
+    public static final int MAX_LENGTH = 1 << 24;
+
+    public final Word word;
+    public final int slot;
+    public final int line;
+    private SemanticResultType type;
+    private int length; // 0 numa variável simples
+
+    public Variable(Word word, int slot, int line) {
+        this.word = word;
+        this.slot = slot;
+        this.line = line;
+    }
+
+    public String getName() {
+        return word.getLexeme();
+    }
+
+    public void setType(SemanticResultType type) {
+        this.type = type;
+    }
+
+    /* Tipo final da declaração (uma variável pode ser redeclarada) */
+    public SemanticResultType getType() {
+        return type;
+    }
+
+    public void setLength(int length) {
+        this.length = length;
+    }
+
+    public int getLength() {
+        return length;
+    }
+
+    public boolean isArray() {
+        return length > 0;
+    }
+}
@@ -0,0 +1,13 @@
+package Compiler.Tree;
+
+// while-stmt ::= stmt-prefix stmt-list end
+public class While extends Stmt {
+    public final Expr condition;
+    public final Block body;
+
+    public While(int line, Expr condition, Block body) {
+        super(line);
+        this.condition = condition;
+        this.body = body;
+    }
+}
@@ -0,0 +1,15 @@
+package Compiler.Tree;
+
+import Compiler.Semantic.SemanticResultType;
+
+// write-stmt ::= write "(" simple-expr ")"
+public class Write extends Stmt {
+    public final Expr value;
+    public final SemanticResultType type; // tipo da expressão, decide a formatação
+
+    public Write(int line, Expr value, SemanticResultType type) {
+        super(line);
+        this.value = value;
+        this.type = type;
+    }
+}
@@ -0,0 +1,15 @@
+package Compiler.Tree;
+
+import Compiler.Runtime.ProgramOutput;
+
+// write-stmt ::= write "(" literal ")"
+public class WriteString extends Stmt {
+    public final String text;
+    public final byte[] bytes; // codificado uma única vez, na construção da árvore
+
+    public WriteString(int line, String text) {
+        super(line);
+        this.text = text;
+        this.bytes = ProgramOutput.encode(text);
+    }
+}
@@ -0,0 +1,28 @@
+#!/bin/sh
+# Arquivo de class data sharing para a JVM comum: as classes do compilador
+# já chegam carregadas e verificadas na partida. Usa o AOT cache quando o JDK
+# tem (JDK 24+, que guarda também as classes ligadas), senão um arquivo CDS
+# estático com as classes do JDK e do compilador usadas no treino, que é a
+# verificação de um arquivo de teste.
+set -e
+cd "$(dirname "$0")/.."
+[ -f build/compiler.jar ] || scripts/build-jar.sh
+rm -f build/compiler.aot build/compiler.aotconf build/compiler.jsa
+training=test1.txt
+
+flags=$(java -XX:+PrintFlagsFinal -version 2>/dev/null)
+if echo "$flags" | grep -q " AOTCacheOutput "; then
+    java -XX:AOTCacheOutput=build/compiler.aot -jar build/compiler.jar $training > /dev/null
+    echo "build/compiler.aot"
+elif echo "$flags" | grep -q " AOTMode "; then
+    java -XX:AOTMode=record -XX:AOTConfiguration=build/compiler.aotconf -jar build/compiler.jar $training > /dev/null
+    java -XX:AOTMode=create -XX:AOTConfiguration=build/compiler.aotconf -XX:AOTCache=build/compiler.aot -jar build/compiler.jar
+    rm -f build/compiler.aotconf
+    echo "build/compiler.aot"
+else
+    java -XX:DumpLoadedClassList=build/compiler.classlist -jar build/compiler.jar $training > /dev/null
+    java -Xshare:dump -XX:SharedClassListFile=build/compiler.classlist -XX:SharedArchiveFile=build/compiler.jsa \
+        -cp build/compiler.jar > /dev/null
+    rm -f build/compiler.classlist
+    echo "build/compiler.jsa"
+fi
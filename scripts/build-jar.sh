@@ -0,0 +1,13 @@
+#!/bin/sh
+# Compila as fontes e monta build/compiler.jar com o verificador
+# (Compiler.Test.SemanticTest) como Main-Class. Base para build-cds.sh e
+# build-native.sh. Antes, confere se o analisador gerado está de acordo com a
+# gramática.
+set -e
+cd "$(dirname "$0")/.."
+scripts/generate-parser.sh --check
+rm -rf build/classes
+mkdir -p build/classes
+javac -encoding UTF-8 -Xlint:none -d build/classes $(find Compiler -name '*.java')
+jar cfe build/compiler.jar Compiler.Test.SemanticTest -C build/classes .
+echo "build/compiler.jar"
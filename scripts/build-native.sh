@@ -0,0 +1,15 @@
+#!/bin/sh
+# Executável nativo do verificador com o native-image do GraalVM (precisa
+# estar no PATH). Tag não tem inicialização (os nomes estão num switch) e a
+# KeywordTable só depende de Word e Token, então as palavras reservadas entram
+# prontas na imagem, montadas durante o build. O compilador de laços
+# (LoopCompiler) usa o javac em tempo de execução e não faz parte do
+# verificador.
+set -e
+cd "$(dirname "$0")/.."
+command -v native-image > /dev/null || { echo "native-image not found in PATH (install GraalVM)"; exit 1; }
+[ -f build/compiler.jar ] || scripts/build-jar.sh
+native-image --no-fallback \
+    --initialize-at-build-time=Compiler.Lexical.Tag,Compiler.Lexical.Tokens.Token,Compiler.Lexical.Tokens.Word,Compiler.SymbolTable.KeywordTable \
+    -jar build/compiler.jar -o build/compiler-check
+echo "build/compiler-check"
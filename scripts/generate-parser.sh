@@ -0,0 +1,13 @@
+#!/bin/sh
+# Regera Compiler/Syntatic/TableSyntaticAnalyzer.java a partir de
+# Compiler/Syntatic/Generator/Language.grammar. Argumentos extras vão para o
+# gerador (--check só confere se o arquivo está atualizado, --report lista
+# FIRST, FOLLOW e a previsão de cada alternativa).
+set -e
+cd "$(dirname "$0")/.."
+classes=build/generator
+rm -rf "$classes"
+mkdir -p "$classes"
+javac -encoding UTF-8 -d "$classes" Compiler/Lexical/Tag.java Compiler/Syntatic/Generator/*.java
+java -cp "$classes" Compiler.Syntatic.Generator.ParserGenerator "$@" \
+    Compiler/Syntatic/Generator/Language.grammar Compiler/Syntatic/TableSyntaticAnalyzer.java
@@ -0,0 +1,29 @@
+#!/bin/bash
+# Tempo da partida até o primeiro diagnóstico (o processo termina logo depois
+# de imprimi-lo) em cada modo disponível: JVM sem nada, JVM com CDS/AOT e
+# executável nativo. Uso: scripts/startup-benchmark.sh [arquivo] [execuções]
+cd "$(dirname "$0")/.."
+file=${1:-test1.txt}
+runs=${2:-20}
+[ -f build/compiler.jar ] || scripts/build-jar.sh > /dev/null
+
+measure() {
+    local name=$1; shift
+    "$@" "$file" > /dev/null || return   # aquecimento do cache de arquivos
+    local total=0 min=0
+    for ((i = 0; i < runs; i++)); do
+        local start=$(date +%s%N)
+        "$@" "$file" > /dev/null
+        local elapsed=$(( ($(date +%s%N) - start) / 1000 ))
+        total=$((total + elapsed))
+        if ((min == 0 || elapsed < min)); then min=$elapsed; fi
+    done
+    awk -v n="$name" -v t=$total -v r=$runs -v m=$min 'BEGIN { printf "%-8s mean %7.1f ms   min %7.1f ms\n", n, t / r / 1000, m / 1000 }'
+}
+
+measure jvm java -jar build/compiler.jar
+[ -f build/compiler.jsa ] && measure cds java -XX:SharedArchiveFile=build/compiler.jsa -jar build/compiler.jar
+[ -f build/compiler.aot ] && measure aot java -XX:AOTCache=build/compiler.aot -jar build/compiler.jar
+[ -x build/compiler-check ] && measure native build/compiler-check
+measure check scripts/check
+exit 0